@@ -0,0 +1,132 @@
+// BusquedaAlumnosBenchmark.java
+package com.controlescolar.benchmark;
+
+import com.controlescolar.utils.IndiceBusqueda;
+import com.controlescolar.utils.IndicePrefijos;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Mide la búsqueda de alumnos de IndiceBusqueda con 40,000 alumnos generados en
+ * memoria, contra un recorrido de todos los alumnos con la expresión regular sin
+ * anclar e insensible a mayúsculas que usaba buscarAlumnos (el trabajo que hacía el
+ * servidor en cada búsqueda, sin contar la red ni la lectura de documentos).
+ *
+ * No usa la base de datos. Las consultas son las que se escriben en el filtro de
+ * AlumnosView: prefijos cortos, apellido completo, nombre y apellido, matrícula.
+ *
+ * Uso: mvn -Pbenchmark compile exec:java@benchmark -Dbenchmark.clase=BusquedaAlumnosBenchmark
+ *          -Dexec.args="[repeticiones]"
+ */
+public class BusquedaAlumnosBenchmark {
+
+    private static final int ALUMNOS = 40_000;
+    private static final int LIMITE = 500;
+
+    private static final String[] NOMBRES = {
+            "José", "María", "Juan", "Ana", "Luis", "Guadalupe", "Carlos", "Fernanda", "Jorge", "Sofía",
+            "Miguel", "Valeria", "Ángel", "Daniela", "Ricardo", "Ximena", "Diego", "Renata", "Andrés", "Camila"
+    };
+    private static final String[] APELLIDOS = {
+            "García", "Hernández", "Martínez", "López", "González", "Pérez", "Rodríguez", "Sánchez", "Ramírez",
+            "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Reyes", "Jiménez", "Torres", "Díaz", "Gutiérrez",
+            "Ruiz", "Mendoza", "Aguilar", "Ortiz", "Castillo", "Núñez", "de la Cruz", "Ibáñez", "Zúñiga"
+    };
+    private static final String[] CONSULTAS = {
+            "g", "ma", "hern", "Martínez", "jose gar", "maria de la", "A2024-01", "a2024013", "zun ren", "xyz"
+    };
+
+    private static volatile long sumidero;
+
+    private static class AlumnoPrueba {
+        private final ObjectId id = new ObjectId();
+        private String matricula;
+        private String nombre;
+        private String apellidos;
+        private String email;
+    }
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Random random = new Random(42);
+
+        List<AlumnoPrueba> alumnos = new ArrayList<>();
+        for (int i = 0; i < ALUMNOS; i++) {
+            AlumnoPrueba alumno = new AlumnoPrueba();
+            alumno.nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+            alumno.apellidos = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+            alumno.matricula = String.format("A%d-%04d", 2020 + i % 5, i);
+            alumno.email = "alumno" + i + "@escuela.mx";
+            alumnos.add(alumno);
+        }
+
+        long inicio = System.nanoTime();
+        IndiceBusqueda indice = new IndiceBusqueda("alumnos", Long.MAX_VALUE, () -> {
+            List<IndiceBusqueda.Elemento> elementos = new ArrayList<>();
+            for (AlumnoPrueba a : alumnos) {
+                elementos.add(new IndiceBusqueda.Elemento(a.id, a.apellidos + " " + a.nombre, true, Arrays.asList(
+                        a.nombre, a.apellidos, a.matricula, String.join("", IndicePrefijos.separar(a.matricula)),
+                        a.email.substring(0, a.email.indexOf('@')))));
+            }
+            return elementos;
+        });
+        indice.recargar();
+        System.out.printf("Índice de %d alumnos cargado en %.1f ms %s%n",
+                ALUMNOS, (System.nanoTime() - inicio) / 1_000_000.0, indice.getEstadisticas());
+        // La recarga por vigencia ya corre con el código compilado por el JIT
+        inicio = System.nanoTime();
+        indice.recargar();
+        System.out.printf("Recarga en %.1f ms%n", (System.nanoTime() - inicio) / 1_000_000.0);
+
+        System.out.printf("%-14s %14s %10s %14s %10s%n", "Consulta", "Índice µs", "Filas", "Regex µs", "Filas");
+        for (String consulta : CONSULTAS) {
+            Resultado conIndice = medir(repeticiones, consulta, c -> indice.buscar(c, LIMITE, true).size());
+            Resultado conRegex = medir(Math.max(1, repeticiones / 50), consulta, c -> recorrerConRegex(alumnos, c));
+            System.out.printf("%-14s %14.1f %10d %14.1f %10d%n",
+                    consulta, conIndice.microsegundos, conIndice.filas, conRegex.microsegundos, conRegex.filas);
+        }
+    }
+
+    private static class Resultado {
+        private final double microsegundos;
+        private final int filas;
+
+        private Resultado(double microsegundos, int filas) {
+            this.microsegundos = microsegundos;
+            this.filas = filas;
+        }
+    }
+
+    private static Resultado medir(int repeticiones, String consulta, Function<String, Integer> busqueda) {
+        // Calentamiento
+        for (int i = 0; i < Math.min(repeticiones, 200); i++) {
+            sumidero += busqueda.apply(consulta);
+        }
+        int filas = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            filas = busqueda.apply(consulta);
+            sumidero += filas;
+        }
+        return new Resultado((System.nanoTime() - inicio) / 1_000.0 / repeticiones, filas);
+    }
+
+    // Lo que evaluaba el servidor por documento con $or de cuatro $regex con opción i
+    private static int recorrerConRegex(List<AlumnoPrueba> alumnos, String consulta) {
+        Pattern patron = Pattern.compile(consulta, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        int filas = 0;
+        for (AlumnoPrueba a : alumnos) {
+            if (patron.matcher(a.nombre).find() || patron.matcher(a.apellidos).find()
+                    || patron.matcher(a.matricula).find() || patron.matcher(a.email).find()) {
+                filas++;
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,153 @@
+// DecodificacionBenchmark.java
+package com.controlescolar.benchmark;
+
+import com.controlescolar.codecs.CodecsControlEscolar;
+import com.controlescolar.enums.EstadoPago;
+import com.controlescolar.enums.TipoCalificacion;
+import com.controlescolar.enums.TipoPago;
+import com.controlescolar.models.Calificacion;
+import com.controlescolar.models.Pago;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compara la decodificación de 10,000 documentos de pagos y de calificaciones:
+ * BSON → Document → Modelo.fromDocument (lo que hacen las colecciones de Document)
+ * contra BSON → modelo con PagoCodec / CalificacionCodec (colecciones tipadas).
+ *
+ * No usa la base de datos: los documentos se generan en memoria y se decodifican
+ * desde sus bytes, así que se mide solo la decodificación. Una quinta parte de los
+ * documentos guarda estado y tipo con el nombre ("Pagado") en lugar de la constante,
+ * como los datos viejos. Reporta tiempo y bytes asignados por cada 10,000 documentos.
+ *
+ * Uso: mvn -Pbenchmark compile exec:java@benchmark -Dbenchmark.clase=DecodificacionBenchmark
+ *          -Dexec.args="[repeticiones]"
+ */
+public class DecodificacionBenchmark {
+
+    private static final int DOCUMENTOS = 10_000;
+    private static final int CALENTAMIENTO = 20;
+
+    private static final CodecRegistry REGISTRO = CodecsControlEscolar.registro();
+    private static final DecoderContext CONTEXTO = DecoderContext.builder().build();
+
+    // Evita que el JIT descarte las decodificaciones cuyo resultado no se usa
+    private static volatile long sumidero;
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        Random random = new Random(42);
+
+        List<byte[]> pagos = new ArrayList<>();
+        List<byte[]> calificaciones = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTOS; i++) {
+            pagos.add(aBytes(pagoDePrueba(random, i % 5 == 0)));
+            calificaciones.add(aBytes(calificacionDePrueba(random, i % 5 == 0)));
+        }
+
+        Codec<Document> documentCodec = REGISTRO.get(Document.class);
+        Codec<Pago> pagoCodec = REGISTRO.get(Pago.class);
+        Codec<Calificacion> calificacionCodec = REGISTRO.get(Calificacion.class);
+
+        System.out.println("-- Pagos (" + DOCUMENTOS + " documentos)");
+        medir("Document + Pago.fromDocument", repeticiones, pagos,
+                bytes -> Pago.fromDocument(decodificar(documentCodec, bytes)));
+        medir("PagoCodec", repeticiones, pagos, bytes -> decodificar(pagoCodec, bytes));
+
+        System.out.println("-- Calificaciones (" + DOCUMENTOS + " documentos)");
+        medir("Document + Calificacion.fromDocument", repeticiones, calificaciones,
+                bytes -> Calificacion.fromDocument(decodificar(documentCodec, bytes)));
+        medir("CalificacionCodec", repeticiones, calificaciones, bytes -> decodificar(calificacionCodec, bytes));
+    }
+
+    private static void medir(String nombre, int repeticiones, List<byte[]> documentos, Function<byte[], Object> decodificador) {
+        long control = 0;
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            control += recorrer(documentos, decodificador);
+        }
+
+        long bytesInicio = bytesAsignados();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            control += recorrer(documentos, decodificador);
+        }
+        double ms = (System.nanoTime() - inicio) / 1_000_000.0 / repeticiones;
+        double mb = (bytesAsignados() - bytesInicio) / 1024.0 / 1024.0 / repeticiones;
+        sumidero = control;
+        System.out.printf("%-40s %8.2f ms/10k %8.2f MB/10k%n", nombre, ms, mb);
+    }
+
+    private static int recorrer(List<byte[]> documentos, Function<byte[], Object> decodificador) {
+        int decodificados = 0;
+        for (byte[] bytes : documentos) {
+            if (decodificador.apply(bytes) != null) decodificados++;
+        }
+        return decodificados;
+    }
+
+    private static <T> T decodificar(Codec<T> codec, byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return codec.decode(reader, CONTEXTO);
+        }
+    }
+
+    private static byte[] aBytes(Document documento) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            REGISTRO.get(Document.class).encode(writer, documento, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    // Bytes asignados por el hilo actual (extensión de HotSpot)
+    private static long bytesAsignados() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static Document pagoDePrueba(Random random, boolean valoresPorNombre) {
+        Pago pago = new Pago(new ObjectId(), 1000 + random.nextInt(4000), "2024-" + (1 + random.nextInt(2)),
+                LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        EstadoPago estado = EstadoPago.values()[random.nextInt(EstadoPago.values().length)];
+        pago.setEstado(estado);
+        pago.setMontoPagado(estado.isCompletado() ? pago.getMontoOriginal() : 0);
+        pago.setFechaPago(estado.isCompletado() ? pago.getFechaVencimiento().minusDays(3) : null);
+        pago.setConcepto("Colegiatura " + pago.getFechaVencimiento().getMonth());
+        pago.setMetodoPago("Transferencia");
+        Document documento = pago.toDocument();
+        if (valoresPorNombre) {
+            documento.put("estado", estado.getNombre());
+            documento.put("tipo", TipoPago.COLEGIATURA.getNombre());
+        }
+        return documento;
+    }
+
+    private static Document calificacionDePrueba(Random random, boolean valoresPorNombre) {
+        TipoCalificacion tipo = TipoCalificacion.values()[random.nextInt(TipoCalificacion.values().length)];
+        Calificacion calificacion = new Calificacion(new ObjectId(), new ObjectId(), new ObjectId(),
+                tipo, 5 + random.nextInt(50) / 10.0, "2024-1");
+        calificacion.setPonderacion(tipo.getPesoDefault());
+        calificacion.setFechaModificacion(LocalDateTime.now());
+        Document documento = calificacion.toDocument();
+        if (valoresPorNombre) {
+            documento.put("tipo", tipo.getNombre());
+        }
+        return documento;
+    }
+}
@@ -0,0 +1,154 @@
+// ReporteGrupoBenchmark.java
+package com.controlescolar.benchmark;
+
+import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.config.QueryCounter;
+import com.controlescolar.controllers.CalificacionController;
+import com.controlescolar.controllers.ReportsController;
+import com.controlescolar.models.Calificacion;
+import com.controlescolar.models.Grupo;
+import com.controlescolar.utils.DatabaseUtil;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compara el reporte de desempeño por grupo anterior (un promedio por alumno y
+ * por materia, cada uno con sus propias consultas) contra el cálculo en una sola
+ * pasada de ReportsController.obtenerReporteDesempenoPorGrupo.
+ *
+ * Uso: mvn -Pbenchmark compile exec:java@benchmark -Dbenchmark.clase=ReporteGrupoBenchmark
+ *          -Dexec.args="[grupoId] [repeticiones]"
+ */
+public class ReporteGrupoBenchmark {
+
+    private static final MongoCollection<Document> grupos = DatabaseUtil.getCollection("grupos");
+    private static final MongoCollection<Document> alumnos = DatabaseUtil.getCollection("alumnos");
+    private static final MongoCollection<Document> materias = DatabaseUtil.getCollection("materias");
+    private static final MongoCollection<Document> calificaciones = DatabaseUtil.getCollection("calificaciones");
+
+    public static void main(String[] args) {
+        ObjectId grupoId = args.length > 0 ? new ObjectId(args[0]) : buscarGrupoMasGrande();
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        if (grupoId == null) {
+            System.err.println("No hay grupos en la base de datos");
+            return;
+        }
+
+        Grupo grupo = Grupo.fromDocument(grupos.find(Filters.eq("_id", grupoId)).first());
+        System.out.println("Grupo " + grupo.getCodigo() + ": "
+                + tamano(grupo.getAlumnosIds()) + " alumnos, " + tamano(grupo.getMateriasIds()) + " materias");
+
+        // Calentamiento
+        reporteAnterior(grupoId);
+        ReportsController.obtenerReporteDesempenoPorGrupo(grupoId);
+
+        medir("Anterior (por alumno y por materia)", repeticiones, () -> reporteAnterior(grupoId));
+        medir("Una sola pasada", repeticiones, () -> ReportsController.obtenerReporteDesempenoPorGrupo(grupoId));
+
+        DatabaseConfig.getInstance().close();
+    }
+
+    private static void medir(String nombre, int repeticiones, Runnable operacion) {
+        QueryCounter contador = QueryCounter.getInstance();
+        contador.reset();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            operacion.run();
+        }
+        double msPorReporte = (System.nanoTime() - inicio) / 1_000_000.0 / repeticiones;
+        System.out.printf("%-40s %8.1f ms/reporte %8d consultas/reporte %s%n",
+                nombre, msPorReporte, contador.getTotal() / repeticiones, contador.getConteoPorComando());
+    }
+
+    /**
+     * Reproduce el algoritmo anterior: find(_id) por alumno y por materia,
+     * calcularPromedioGeneralAlumno (que consultaba de nuevo por cada materia)
+     * y el promedio de cada materia con las calificaciones de toda la escuela.
+     */
+    private static Map<String, Object> reporteAnterior(ObjectId grupoId) {
+        Grupo grupo = Grupo.fromDocument(grupos.find(Filters.eq("_id", grupoId)).first());
+        List<ObjectId> alumnosIds = new ArrayList<>();
+        for (ObjectId alumnoId : listaSegura(grupo.getAlumnosIds())) {
+            if (alumnos.find(Filters.eq("_id", alumnoId)).first() != null) {
+                alumnosIds.add(alumnoId);
+            }
+        }
+
+        Grupo grupoMaterias = Grupo.fromDocument(grupos.find(Filters.eq("_id", grupoId)).first());
+        List<ObjectId> materiasIds = new ArrayList<>();
+        for (ObjectId materiaId : listaSegura(grupoMaterias.getMateriasIds())) {
+            if (materias.find(Filters.eq("_id", materiaId)).first() != null) {
+                materiasIds.add(materiaId);
+            }
+        }
+
+        Map<ObjectId, Double> promediosPorAlumno = new HashMap<>();
+        for (ObjectId alumnoId : alumnosIds) {
+            List<Calificacion> todas = new ArrayList<>();
+            calificaciones.find(Filters.eq("alumnoId", alumnoId)).sort(Sorts.descending("fechaRegistro"))
+                    .forEach(doc -> todas.add(Calificacion.fromDocument(doc)));
+
+            Set<ObjectId> materiasAlumno = new HashSet<>();
+            todas.forEach(c -> materiasAlumno.add(c.getMateriaId()));
+
+            double suma = 0.0;
+            int contador = 0;
+            for (ObjectId materiaId : materiasAlumno) {
+                List<Calificacion> delaMateria = new ArrayList<>();
+                calificaciones.find(new Document("alumnoId", alumnoId).append("materiaId", materiaId))
+                        .sort(Sorts.ascending("tipo"))
+                        .forEach(doc -> delaMateria.add(Calificacion.fromDocument(doc)));
+                double promedio = CalificacionController.calcularPromedioPonderado(delaMateria);
+                if (promedio > 0) {
+                    suma += promedio;
+                    contador++;
+                }
+            }
+            promediosPorAlumno.put(alumnoId, contador > 0 ? suma / contador : 0.0);
+        }
+
+        Map<ObjectId, Double> promediosPorMateria = new HashMap<>();
+        for (ObjectId materiaId : materiasIds) {
+            List<Calificacion> delaMateria = new ArrayList<>();
+            calificaciones.find(Filters.eq("materiaId", materiaId)).sort(Sorts.descending("fechaRegistro"))
+                    .forEach(doc -> delaMateria.add(Calificacion.fromDocument(doc)));
+            promediosPorMateria.put(materiaId,
+                    delaMateria.stream().mapToDouble(Calificacion::getCalificacion).average().orElse(0.0));
+        }
+
+        Map<String, Object> reporte = new HashMap<>();
+        reporte.put("promediosPorAlumno", promediosPorAlumno);
+        reporte.put("promediosPorMateria", promediosPorMateria);
+        return reporte;
+    }
+
+    private static ObjectId buscarGrupoMasGrande() {
+        Document grupo = grupos.aggregate(List.of(
+                new Document("$match", new Document("activo", true)),
+                new Document("$project", new Document("n",
+                        new Document("$size", new Document("$ifNull", List.of("$alumnosIds", List.of()))))),
+                new Document("$sort", new Document("n", -1)),
+                new Document("$limit", 1)
+        )).first();
+        return grupo != null ? grupo.getObjectId("_id") : null;
+    }
+
+    private static List<ObjectId> listaSegura(List<ObjectId> ids) {
+        return ids != null ? ids : new ArrayList<>();
+    }
+
+    private static int tamano(List<ObjectId> ids) {
+        return ids != null ? ids.size() : 0;
+    }
+}
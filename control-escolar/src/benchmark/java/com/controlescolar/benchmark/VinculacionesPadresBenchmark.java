@@ -0,0 +1,104 @@
+// VinculacionesPadresBenchmark.java
+package com.controlescolar.benchmark;
+
+import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.config.QueryCounter;
+import com.controlescolar.controllers.PadreAlumnoController;
+import com.controlescolar.enums.Rol;
+import com.controlescolar.models.Alumno;
+import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.Paginador;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compara el listado de vinculaciones de GestionPadresView anterior (padres,
+ * luego las vinculaciones de cada padre y luego un find por cada alumno) contra
+ * la página de PadreAlumnoController.obtenerVinculacionesPagina con $lookup.
+ *
+ * Se mide con distintos números de padres: las consultas del método anterior
+ * crecen con los padres y los alumnos, las de la agregación se mantienen en
+ * una agregación más el conteo de la primera página.
+ *
+ * Uso: mvn -Pbenchmark compile exec:java@benchmark -Dbenchmark.clase=VinculacionesPadresBenchmark
+ *          -Dexec.args="[repeticiones]"
+ */
+public class VinculacionesPadresBenchmark {
+
+    private static final int[] PADRES = {10, 50, 100, 200};
+
+    private static final MongoCollection<Document> usuarios = DatabaseUtil.getCollection("usuarios");
+    private static final MongoCollection<Document> vinculaciones = DatabaseUtil.getCollection("padres_alumnos");
+    private static final MongoCollection<Document> alumnos = DatabaseUtil.getCollection("alumnos");
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        long totalPadres = usuarios.countDocuments(Filters.eq("rol", Rol.PADRE_FAMILIA.name()));
+        System.out.println("Padres de familia en la base de datos: " + totalPadres);
+
+        // Calentamiento
+        listadoAnterior(10);
+        PadreAlumnoController.obtenerVinculacionesPagina(Paginador.Solicitud.primera(10, "apellidos", false));
+
+        for (int padres : PADRES) {
+            if (padres > totalPadres) break;
+            System.out.println("-- " + padres + " padres");
+            medir("Anterior (por padre y por alumno)", repeticiones, () -> listadoAnterior(padres));
+            medir("Agregación con $lookup", repeticiones, () -> PadreAlumnoController
+                    .obtenerVinculacionesPagina(Paginador.Solicitud.primera(padres, "apellidos", false))
+                    .getElementos().stream().mapToInt(p -> Math.max(1, p.getHijos().size())).sum());
+        }
+
+        DatabaseConfig.getInstance().close();
+    }
+
+    private static void medir(String nombre, int repeticiones, Supplier<Integer> operacion) {
+        QueryCounter contador = QueryCounter.getInstance();
+        contador.reset();
+        int filas = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            filas = operacion.get();
+        }
+        double msPorListado = (System.nanoTime() - inicio) / 1_000_000.0 / repeticiones;
+        System.out.printf("%-40s %8.1f ms/listado %6d filas %8d consultas/listado %s%n",
+                nombre, msPorListado, filas, contador.getTotal() / repeticiones, contador.getConteoPorComando());
+    }
+
+    /**
+     * Reproduce el algoritmo anterior: los padres por rol y, por cada uno, sus
+     * vinculaciones autorizadas y un find(_id) por cada alumno vinculado
+     * @return Filas que mostraría la tabla
+     */
+    private static int listadoAnterior(int padres) {
+        List<Usuario> listaPadres = new ArrayList<>();
+        usuarios.find(Filters.eq("rol", Rol.PADRE_FAMILIA.name()))
+                .sort(Sorts.ascending("apellidos", "_id"))
+                .limit(padres)
+                .forEach(doc -> listaPadres.add(Usuario.fromDocument(doc)));
+
+        int filas = 0;
+        for (Usuario padre : listaPadres) {
+            List<Alumno> hijos = new ArrayList<>();
+            for (Document vinculacion : vinculaciones.find(Filters.and(
+                    Filters.eq("padreId", padre.getId()),
+                    Filters.eq("activo", true),
+                    Filters.eq("autorizado", true)))) {
+                Document alumno = alumnos.find(Filters.eq("_id", vinculacion.getObjectId("alumnoId"))).first();
+                if (alumno != null && alumno.getBoolean("activo", true)) {
+                    hijos.add(Alumno.fromDocument(alumno));
+                }
+            }
+            filas += Math.max(1, hijos.size());
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,37 @@
+// AplicarIndices.java
+package com.controlescolar;
+
+import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.config.IndexConfig;
+
+/**
+ * Aplica el registro de índices completo: crea los que faltan y reconstruye los
+ * que existen con otras opciones (unique, partialFilterExpression). Al iniciar la
+ * aplicación esos últimos solo se reportan, porque la colección queda sin el índice
+ * mientras se reconstruye.
+ *
+ * Uso: mvn compile exec:java@aplicar-indices
+ */
+public class AplicarIndices {
+
+    public static void main(String[] args) {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        if (!dbConfig.isConnected()) {
+            System.err.println("❌ No se pudo conectar a la base de datos");
+            System.exit(1);
+        }
+
+        boolean completo;
+        try {
+            completo = IndexConfig.reconstruirIndices(dbConfig.getDatabase()).getFallidos().isEmpty();
+        } catch (Exception e) {
+            System.err.println("Error al aplicar índices: " + e.getMessage());
+            completo = false;
+        } finally {
+            dbConfig.close();
+        }
+        if (!completo) {
+            System.exit(1);
+        }
+    }
+}
@@ -2,6 +2,9 @@
 package com.controlescolar;
 
 import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.config.SnapshotReferencia;
+import com.controlescolar.controllers.UltimosAccesos;
+import com.controlescolar.views.ConsultaSinConexionView;
 import com.controlescolar.views.LoginView;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -13,15 +16,19 @@ public class Main extends Application {
         try {
             // Verificar conexión a la base de datos al iniciar
             DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+            SnapshotReferencia.abrir(dbConfig.getSettings());
             if (dbConfig.isConnected()) {
                 System.out.println("🎉 Sistema iniciado correctamente");
+                iniciarConConexion(primaryStage);
 
-                // Crear datos iniciales si es necesario
-                createInitialData();
-
-                // Iniciar la aplicación JavaFX
-                LoginView loginView = new LoginView();
-                loginView.start(primaryStage);
+            } else if (SnapshotReferencia.disponible()) {
+                // Sin servidor: consulta de solo lectura del snapshot hasta que vuelva la conexión
+                System.err.println("⚠️ No se pudo conectar a la base de datos; modo consulta sin conexión");
+                new ConsultaSinConexionView(() -> {
+                    iniciarConConexion(primaryStage);
+                    primaryStage.sizeToScene();
+                    primaryStage.centerOnScreen();
+                }).start(primaryStage);
 
             } else {
                 System.err.println("❌ No se pudo conectar a la base de datos");
@@ -34,9 +41,25 @@ public class Main extends Application {
         }
     }
 
+    private void iniciarConConexion(Stage primaryStage) {
+        // Índices y migración de fechas sin detener el arranque
+        DatabaseConfig.getInstance().inicializarEnSegundoPlano();
+
+        // Crear datos iniciales si es necesario
+        createInitialData();
+
+        // Datos de referencia para el modo sin conexión y los índices de búsqueda
+        SnapshotReferencia.iniciarSincronizacion(DatabaseConfig.getInstance().getDatabase());
+
+        // Iniciar la aplicación JavaFX
+        LoginView loginView = new LoginView();
+        loginView.start(primaryStage);
+    }
+
     @Override
     public void stop() {
-        // Cerrar conexión al salir
+        // Escribir los últimos accesos pendientes y cerrar conexión al salir
+        UltimosAccesos.vaciar();
         DatabaseConfig.getInstance().close();
         System.out.println("👋 Aplicación cerrada correctamente");
     }
@@ -0,0 +1,37 @@
+// ReconstruirSaldos.java
+package com.controlescolar;
+
+import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.controllers.SaldoAlumnoController;
+
+/**
+ * Recalcula saldos_alumnos desde la colección de pagos y corrige las diferencias.
+ * Sirve para crear los saldos la primera vez y para reconciliarlos si alguna
+ * escritura quedó fuera de transacción.
+ *
+ * Uso: mvn compile exec:java@reconstruir-saldos
+ */
+public class ReconstruirSaldos {
+
+    public static void main(String[] args) {
+        DatabaseConfig dbConfig = DatabaseConfig.getInstance();
+        if (!dbConfig.isConnected()) {
+            System.err.println("❌ No se pudo conectar a la base de datos");
+            System.exit(1);
+        }
+
+        try {
+            long inicio = System.currentTimeMillis();
+            SaldoAlumnoController.Reconciliacion resultado = SaldoAlumnoController.reconstruirSaldos();
+            System.out.println("Alumnos con pagos: " + resultado.getAlumnos());
+            System.out.println("Saldos corregidos: " + resultado.getCorregidos());
+            System.out.println("Saldos eliminados: " + resultado.getEliminados());
+            System.out.println("Tiempo: " + (System.currentTimeMillis() - inicio) + " ms");
+        } catch (Exception e) {
+            System.err.println("Error al reconstruir saldos: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            dbConfig.close();
+        }
+    }
+}
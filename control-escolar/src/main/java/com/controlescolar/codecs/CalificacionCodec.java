@@ -0,0 +1,79 @@
+// CalificacionCodec.java
+package com.controlescolar.codecs;
+
+import com.controlescolar.enums.TipoCalificacion;
+import com.controlescolar.models.Calificacion;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static com.controlescolar.codecs.LecturaBson.escribir;
+import static com.controlescolar.codecs.LecturaBson.leerDouble;
+import static com.controlescolar.codecs.LecturaBson.leerFechaHora;
+import static com.controlescolar.codecs.LecturaBson.leerObjectId;
+import static com.controlescolar.codecs.LecturaBson.leerString;
+
+/**
+ * Lee y escribe Calificacion directamente desde BSON, sin pasar por Document.
+ * Produce el mismo documento que Calificacion.toDocument; el tipo se acepta
+ * por constante, nombre o abreviación.
+ */
+public class CalificacionCodec implements Codec<Calificacion> {
+
+    @Override
+    public Calificacion decode(BsonReader reader, DecoderContext decoderContext) {
+        Calificacion calificacion = new Calificacion();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String campo = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (campo) {
+                case "_id": calificacion.setId(leerObjectId(reader)); break;
+                case "alumnoId": calificacion.setAlumnoId(leerObjectId(reader)); break;
+                case "materiaId": calificacion.setMateriaId(leerObjectId(reader)); break;
+                case "profesorId": calificacion.setProfesorId(leerObjectId(reader)); break;
+                case "tipo": calificacion.setTipo(TipoCalificacion.fromValor(leerString(reader))); break;
+                case "calificacion": calificacion.setCalificacion(leerDouble(reader)); break;
+                case "ponderacion": calificacion.setPonderacion(leerDouble(reader)); break;
+                case "descripcion": calificacion.setDescripcion(leerString(reader)); break;
+                case "periodo": calificacion.setPeriodo(leerString(reader)); break;
+                case "observaciones": calificacion.setObservaciones(leerString(reader)); break;
+                case "fechaRegistro": calificacion.setFechaRegistro(leerFechaHora(reader)); break;
+                case "fechaModificacion": calificacion.setFechaModificacion(leerFechaHora(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return calificacion;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Calificacion calificacion, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        escribir(writer, "_id", calificacion.getId());
+        escribir(writer, "alumnoId", calificacion.getAlumnoId());
+        escribir(writer, "materiaId", calificacion.getMateriaId());
+        escribir(writer, "profesorId", calificacion.getProfesorId());
+        escribir(writer, "tipo", calificacion.getTipo() != null ? calificacion.getTipo().name() : null);
+        writer.writeDouble("calificacion", calificacion.getCalificacion());
+        writer.writeDouble("ponderacion", calificacion.getPonderacion());
+        escribir(writer, "descripcion", calificacion.getDescripcion());
+        escribir(writer, "periodo", calificacion.getPeriodo());
+        escribir(writer, "observaciones", calificacion.getObservaciones());
+        escribir(writer, "fechaRegistro", calificacion.getFechaRegistro());
+        escribir(writer, "fechaModificacion", calificacion.getFechaModificacion());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Calificacion> getEncoderClass() {
+        return Calificacion.class;
+    }
+}
@@ -0,0 +1,42 @@
+// CodecsControlEscolar.java
+package com.controlescolar.codecs;
+
+import com.controlescolar.models.Calificacion;
+import com.controlescolar.models.Pago;
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Codecs de los modelos con más volumen de lectura (pagos y calificaciones).
+ * Con este registro en el cliente, DatabaseUtil.getCollection("pagos", Pago.class)
+ * devuelve una colección tipada que decodifica el BSON directo al modelo.
+ */
+public class CodecsControlEscolar implements CodecProvider {
+
+    private static final PagoCodec PAGO = new PagoCodec();
+    private static final CalificacionCodec CALIFICACION = new CalificacionCodec();
+
+    /**
+     * Registro del cliente: los codecs por defecto del driver más los de los modelos
+     */
+    public static CodecRegistry registro() {
+        return CodecRegistries.fromRegistries(
+                MongoClientSettings.getDefaultCodecRegistry(),
+                CodecRegistries.fromProviders(new CodecsControlEscolar()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == Pago.class) {
+            return (Codec<T>) PAGO;
+        }
+        if (clazz == Calificacion.class) {
+            return (Codec<T>) CALIFICACION;
+        }
+        return null;
+    }
+}
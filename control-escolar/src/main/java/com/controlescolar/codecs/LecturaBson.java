@@ -0,0 +1,108 @@
+// LecturaBson.java
+package com.controlescolar.codecs;
+
+import com.controlescolar.utils.FechaUtil;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Lectura y escritura de campos para los codecs de modelos. Todos aceptan null y
+ * los números en cualquier tipo numérico BSON, porque los documentos viejos o
+ * editados a mano no siempre guardan double. Las fechas con hora se guardan en la
+ * zona del sistema y las fechas sin hora con FechaUtil, igual que los toDocument
+ * de los modelos.
+ */
+final class LecturaBson {
+
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+
+    private LecturaBson() {
+    }
+
+    static ObjectId leerObjectId(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static String leerString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static double leerDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE:
+                return reader.readDouble();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DECIMAL128:
+                return reader.readDecimal128().doubleValue();
+            default:
+                reader.skipValue();
+                return 0.0;
+        }
+    }
+
+    static LocalDate leerFecha(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return FechaUtil.deMilis(reader.readDateTime());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static LocalDateTime leerFechaHora(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZONA);
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static void escribir(BsonWriter writer, String campo, ObjectId valor) {
+        if (valor != null) {
+            writer.writeObjectId(campo, valor);
+        } else {
+            writer.writeNull(campo);
+        }
+    }
+
+    static void escribir(BsonWriter writer, String campo, String valor) {
+        if (valor != null) {
+            writer.writeString(campo, valor);
+        } else {
+            writer.writeNull(campo);
+        }
+    }
+
+    static void escribir(BsonWriter writer, String campo, LocalDate valor) {
+        if (valor != null) {
+            writer.writeDateTime(campo, FechaUtil.aMilis(valor));
+        } else {
+            writer.writeNull(campo);
+        }
+    }
+
+    static void escribir(BsonWriter writer, String campo, LocalDateTime valor) {
+        if (valor != null) {
+            writer.writeDateTime(campo, valor.atZone(ZONA).toInstant().toEpochMilli());
+        } else {
+            writer.writeNull(campo);
+        }
+    }
+}
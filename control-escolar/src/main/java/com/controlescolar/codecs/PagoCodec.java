@@ -0,0 +1,98 @@
+// PagoCodec.java
+package com.controlescolar.codecs;
+
+import com.controlescolar.enums.EstadoPago;
+import com.controlescolar.enums.TipoPago;
+import com.controlescolar.models.Pago;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static com.controlescolar.codecs.LecturaBson.escribir;
+import static com.controlescolar.codecs.LecturaBson.leerDouble;
+import static com.controlescolar.codecs.LecturaBson.leerFecha;
+import static com.controlescolar.codecs.LecturaBson.leerFechaHora;
+import static com.controlescolar.codecs.LecturaBson.leerObjectId;
+import static com.controlescolar.codecs.LecturaBson.leerString;
+
+/**
+ * Lee y escribe Pago directamente desde BSON, sin pasar por Document.
+ * Produce el mismo documento que Pago.toDocument y acepta lo mismo que
+ * Pago.fromDocument (estado y tipo por constante o por nombre).
+ */
+public class PagoCodec implements Codec<Pago> {
+
+    @Override
+    public Pago decode(BsonReader reader, DecoderContext decoderContext) {
+        Pago pago = new Pago();
+        EstadoPago estado = null;
+        TipoPago tipo = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String campo = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (campo) {
+                case "_id": pago.setId(leerObjectId(reader)); break;
+                case "alumnoId": pago.setAlumnoId(leerObjectId(reader)); break;
+                case "folio": pago.setFolio(leerString(reader)); break;
+                case "montoPagado": pago.setMontoPagado(leerDouble(reader)); break;
+                case "montoOriginal": pago.setMontoOriginal(leerDouble(reader)); break;
+                case "montoRecargo": pago.setMontoRecargo(leerDouble(reader)); break;
+                case "montoBeca": pago.setMontoBeca(leerDouble(reader)); break;
+                case "periodo": pago.setPeriodo(leerString(reader)); break;
+                case "metodoPago": pago.setMetodoPago(leerString(reader)); break;
+                case "fechaPago": pago.setFechaPago(leerFecha(reader)); break;
+                case "fechaVencimiento": pago.setFechaVencimiento(leerFecha(reader)); break;
+                case "estado": estado = EstadoPago.fromValor(leerString(reader)); break;
+                case "tipo": tipo = TipoPago.fromValor(leerString(reader)); break;
+                case "concepto": pago.setConcepto(leerString(reader)); break;
+                case "numeroReferencia": pago.setNumeroReferencia(leerString(reader)); break;
+                case "observaciones": pago.setObservaciones(leerString(reader)); break;
+                case "fechaRegistro": pago.setFechaRegistro(leerFechaHora(reader)); break;
+                case "responsableRegistro": pago.setResponsableRegistro(leerString(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        pago.setEstado(estado != null ? estado : EstadoPago.PENDIENTE);
+        pago.setTipo(tipo != null ? tipo : TipoPago.COLEGIATURA);
+        return pago;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Pago pago, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        escribir(writer, "_id", pago.getId());
+        escribir(writer, "alumnoId", pago.getAlumnoId());
+        escribir(writer, "folio", pago.getFolio());
+        writer.writeDouble("montoPagado", pago.getMontoPagado());
+        writer.writeDouble("montoOriginal", pago.getMontoOriginal());
+        writer.writeDouble("montoRecargo", pago.getMontoRecargo());
+        writer.writeDouble("montoBeca", pago.getMontoBeca());
+        escribir(writer, "periodo", pago.getPeriodo());
+        escribir(writer, "metodoPago", pago.getMetodoPago());
+        escribir(writer, "fechaPago", pago.getFechaPago());
+        escribir(writer, "fechaVencimiento", pago.getFechaVencimiento());
+        escribir(writer, "estado", pago.getEstado() != null ? pago.getEstado().name() : null);
+        escribir(writer, "tipo", pago.getTipo() != null ? pago.getTipo().name() : null);
+        escribir(writer, "concepto", pago.getConcepto());
+        escribir(writer, "numeroReferencia", pago.getNumeroReferencia());
+        escribir(writer, "observaciones", pago.getObservaciones());
+        escribir(writer, "fechaRegistro", pago.getFechaRegistro());
+        escribir(writer, "responsableRegistro", pago.getResponsableRegistro());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Pago> getEncoderClass() {
+        return Pago.class;
+    }
+}
@@ -0,0 +1,110 @@
+// ConnectionPoolStats.java
+package com.controlescolar.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estadísticas del pool de conexiones de MongoDB, obtenidas de los eventos
+ * del driver. Sirven para dimensionar minSize/maxSize del pool.
+ */
+public class ConnectionPoolStats implements ConnectionPoolListener {
+
+    private final AtomicInteger conexionesAbiertas = new AtomicInteger();
+    private final AtomicInteger conexionesEnUso = new AtomicInteger();
+    private final AtomicInteger maximoEnUso = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+    private final AtomicInteger maximoEsperando = new AtomicInteger();
+    private final AtomicLong totalCreadas = new AtomicLong();
+    private final AtomicLong totalCerradas = new AtomicLong();
+    private final AtomicLong totalPrestamos = new AtomicLong();
+    private final AtomicLong prestamosFallidos = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+
+    // El préstamo de una conexión ocurre en el hilo que hace la operación
+    private final ThreadLocal<Long> inicioEspera = new ThreadLocal<>();
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        conexionesAbiertas.incrementAndGet();
+        totalCreadas.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        conexionesAbiertas.decrementAndGet();
+        totalCerradas.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        inicioEspera.set(System.nanoTime());
+        actualizarMaximo(maximoEsperando, esperando.incrementAndGet());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        terminarEspera();
+        totalPrestamos.incrementAndGet();
+        actualizarMaximo(maximoEnUso, conexionesEnUso.incrementAndGet());
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        terminarEspera();
+        prestamosFallidos.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        conexionesEnUso.decrementAndGet();
+    }
+
+    private void terminarEspera() {
+        esperando.decrementAndGet();
+        Long inicio = inicioEspera.get();
+        if (inicio != null) {
+            esperaTotalNanos.addAndGet(System.nanoTime() - inicio);
+            inicioEspera.remove();
+        }
+    }
+
+    private static void actualizarMaximo(AtomicInteger maximo, int valor) {
+        maximo.accumulateAndGet(valor, Math::max);
+    }
+
+    /**
+     * Obtiene una instantánea de las estadísticas del pool
+     * @return Mapa ordenado nombre -> valor
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long prestamos = totalPrestamos.get();
+        stats.put("conexionesAbiertas", conexionesAbiertas.get());
+        stats.put("conexionesEnUso", conexionesEnUso.get());
+        stats.put("maximoEnUso", maximoEnUso.get());
+        stats.put("esperandoConexion", esperando.get());
+        stats.put("maximoEsperando", maximoEsperando.get());
+        stats.put("totalCreadas", totalCreadas.get());
+        stats.put("totalCerradas", totalCerradas.get());
+        stats.put("totalPrestamos", prestamos);
+        stats.put("prestamosFallidos", prestamosFallidos.get());
+        stats.put("esperaPromedioMs", prestamos > 0 ? esperaTotalNanos.get() / 1_000_000.0 / prestamos : 0.0);
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats" + getEstadisticas();
+    }
+}
@@ -0,0 +1,173 @@
+// DatabaseSettings.java
+package com.controlescolar.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuración de la conexión a MongoDB leída de database.properties.
+ * El orden de prioridad es: variable de entorno, archivo externo
+ * (-Dcontrolescolar.database.config) y por último el archivo del classpath.
+ */
+public class DatabaseSettings {
+
+    private static final String ARCHIVO_CLASSPATH = "/database.properties";
+    private static final String PROPIEDAD_ARCHIVO_EXTERNO = "controlescolar.database.config";
+
+    private final Properties properties = new Properties();
+
+    private DatabaseSettings() {
+    }
+
+    /**
+     * Carga la configuración desde el classpath y el archivo externo, si existe
+     * @return Configuración cargada
+     */
+    public static DatabaseSettings cargar() {
+        DatabaseSettings settings = new DatabaseSettings();
+
+        try (InputStream in = DatabaseSettings.class.getResourceAsStream(ARCHIVO_CLASSPATH)) {
+            if (in != null) {
+                settings.properties.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo leer " + ARCHIVO_CLASSPATH + ": " + e.getMessage());
+        }
+
+        String archivoExterno = System.getProperty(PROPIEDAD_ARCHIVO_EXTERNO);
+        if (archivoExterno != null) {
+            try (InputStream in = new FileInputStream(archivoExterno)) {
+                settings.properties.load(in);
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo leer " + archivoExterno + ": " + e.getMessage());
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Obtiene un valor de configuración; la variable de entorno tiene prioridad
+     * (mongodb.pool.max.size -> MONGODB_POOL_MAX_SIZE)
+     * @param clave Clave de la propiedad
+     * @param porDefecto Valor si no está definida
+     * @return Valor configurado
+     */
+    public String get(String clave, String porDefecto) {
+        String variable = System.getenv(clave.toUpperCase(Locale.ROOT).replace('.', '_'));
+        if (variable != null && !variable.trim().isEmpty()) {
+            return variable.trim();
+        }
+        String valor = properties.getProperty(clave);
+        return valor != null && !valor.trim().isEmpty() ? valor.trim() : porDefecto;
+    }
+
+    public int getInt(String clave, int porDefecto) {
+        try {
+            return Integer.parseInt(get(clave, String.valueOf(porDefecto)));
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Valor inválido para " + clave + ", se usa " + porDefecto);
+            return porDefecto;
+        }
+    }
+
+    public String getUri() {
+        return get("mongodb.uri", "mongodb://localhost:27017");
+    }
+
+    public String getDatabaseName() {
+        return get("mongodb.database", "control_escolar");
+    }
+
+    /**
+     * Construye los settings del cliente a partir de la configuración
+     * @return Builder listo para agregar listeners y construir
+     */
+    public MongoClientSettings.Builder toClientSettings() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(getUri()))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(getInt("mongodb.pool.min.size", 2))
+                        .maxSize(getInt("mongodb.pool.max.size", 20))
+                        .maxConnectionIdleTime(getInt("mongodb.pool.max.idle.time.ms", 300000), TimeUnit.MILLISECONDS)
+                        .maxWaitTime(getInt("mongodb.pool.max.wait.time.ms", 10000), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(getInt("mongodb.connect.timeout.ms", 5000), TimeUnit.MILLISECONDS)
+                        .readTimeout(getInt("mongodb.socket.timeout.ms", 30000), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(getInt("mongodb.server.selection.timeout.ms", 5000), TimeUnit.MILLISECONDS));
+
+        String readPreference = get("mongodb.read.preference", null);
+        if (readPreference != null) {
+            try {
+                builder.readPreference(ReadPreference.valueOf(readPreference));
+            } catch (IllegalArgumentException e) {
+                // Se queda la del URI o la del driver (primary)
+                System.err.println("⚠️ Read preference desconocida: " + readPreference);
+            }
+        }
+
+        String writeConcern = get("mongodb.write.concern", null);
+        if (writeConcern != null) {
+            WriteConcern concern = WriteConcern.valueOf(writeConcern);
+            if (concern == null) {
+                System.err.println("⚠️ Write concern desconocido: " + writeConcern);
+            } else {
+                builder.writeConcern(concern);
+            }
+        }
+
+        List<MongoCompressor> compresores = getCompresores();
+        if (!compresores.isEmpty()) {
+            builder.compressorList(compresores);
+        }
+        return builder;
+    }
+
+    // Solo se usan los compresores cuya librería nativa está en el classpath
+    private List<MongoCompressor> getCompresores() {
+        List<MongoCompressor> compresores = new ArrayList<>();
+        for (String nombre : get("mongodb.compressors", "").split(",")) {
+            switch (nombre.trim().toLowerCase(Locale.ROOT)) {
+                case "zstd":
+                    if (claseDisponible("com.github.luben.zstd.Zstd")) {
+                        compresores.add(MongoCompressor.createZstdCompressor());
+                    }
+                    break;
+                case "snappy":
+                    if (claseDisponible("org.xerial.snappy.Snappy")) {
+                        compresores.add(MongoCompressor.createSnappyCompressor());
+                    }
+                    break;
+                case "zlib":
+                    compresores.add(MongoCompressor.createZlibCompressor());
+                    break;
+                case "":
+                    break;
+                default:
+                    System.err.println("⚠️ Compresor desconocido: " + nombre);
+            }
+        }
+        return compresores;
+    }
+
+    private static boolean claseDisponible(String nombreClase) {
+        try {
+            Class.forName(nombreClase, false, DatabaseSettings.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// DepuracionAsistencias.java
+package com.controlescolar.config;
+
+import com.controlescolar.utils.FechaUtil;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Depuración única de asistencias duplicadas por (alumnoId, materiaId, día).
+ *
+ * Antes de guardarAsistencias con upsert la búsqueda del registro existente nunca
+ * coincidía y cada guardado insertaba otra fila, así que hay bases con varias filas
+ * para el mismo alumno, materia y día. Con ellas no se puede crear el índice único
+ * ux_asistencias_alumno_materia_fecha, el upsert actualiza solo una y MigracionFechas
+ * no puede convertir las demás. Se conserva la fila más reciente (fechaRegistro y
+ * luego _id) y se eliminan las otras.
+ *
+ * El día se calcula igual que en MigracionFechas: las fechas a medianoche UTC ya están
+ * convertidas y las demás se leen en la zona de los equipos que las guardaron, así
+ * que una fila vieja y una nueva del mismo día cuentan como duplicadas.
+ *
+ * Se ejecuta antes de los índices y de la migración de fechas. La marca en la colección
+ * migraciones se inserta al empezar, así que si varias terminales inician a la vez solo
+ * una la aplica; si esa terminal se cierra a medias, otra la retoma pasado MARCA_VENCIDA_MS.
+ */
+public class DepuracionAsistencias {
+
+    private static final String COLECCION_MARCAS = "migraciones";
+    private static final String ID_MARCA = "asistencias_duplicadas";
+    private static final String EN_CURSO = "en curso";
+    private static final long MARCA_VENCIDA_MS = 60 * 60 * 1000L;
+    private static final int TAMANO_LOTE = 1000;
+
+    private DepuracionAsistencias() {
+    }
+
+    /**
+     * Elimina los duplicados si la depuración no se ha aplicado ni está en curso en otra terminal
+     */
+    public static void aplicarSiFalta(MongoDatabase database) {
+        MongoCollection<Document> marcas = database.getCollection(COLECCION_MARCAS);
+        try {
+            if (!tomarMarca(marcas)) {
+                return;
+            }
+        } catch (Exception e) {
+            System.err.println("Error al revisar asistencias duplicadas: " + e.getMessage());
+            return;
+        }
+
+        try {
+            long inicio = System.currentTimeMillis();
+            int eliminadas = eliminarDuplicadas(database.getCollection("asistencias"),
+                    MigracionFechas.zonaAnterior(database));
+            if (eliminadas > 0) {
+                System.out.println("🧹 " + eliminadas + " asistencias duplicadas eliminadas en "
+                        + (System.currentTimeMillis() - inicio) + " ms");
+            }
+            marcas.updateOne(Filters.eq("_id", ID_MARCA), Updates.combine(
+                    Updates.set("estado", "aplicada"),
+                    Updates.set("eliminadas", eliminadas),
+                    Updates.set("fechaAplicacion", new Date())));
+        } catch (Exception e) {
+            // Sin marca se reintenta en el siguiente inicio; lo ya eliminado no se repite
+            System.err.println("Error al eliminar asistencias duplicadas: " + e.getMessage());
+            marcas.deleteOne(Filters.and(Filters.eq("_id", ID_MARCA), Filters.eq("estado", EN_CURSO)));
+        }
+    }
+
+    // Inserta la marca en curso; si ya existe solo se toma cuando quedó en curso y venció
+    private static boolean tomarMarca(MongoCollection<Document> marcas) {
+        Date ahora = new Date();
+        try {
+            marcas.insertOne(new Document("_id", ID_MARCA).append("estado", EN_CURSO).append("inicio", ahora));
+            return true;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+        }
+        return marcas.updateOne(
+                Filters.and(Filters.eq("_id", ID_MARCA), Filters.eq("estado", EN_CURSO),
+                        Filters.lt("inicio", new Date(ahora.getTime() - MARCA_VENCIDA_MS))),
+                Updates.set("inicio", ahora)).getModifiedCount() == 1;
+    }
+
+    private static int eliminarDuplicadas(MongoCollection<Document> collection, ZoneId zonaAnterior) {
+        Document milis = new Document("$toLong", "$fecha");
+        Document enUtc = new Document("$eq", List.of(new Document("$mod", List.of(milis, FechaUtil.MILIS_POR_DIA)), 0));
+        Document dia = new Document("$cond", List.of(enUtc,
+                diaEn(FechaUtil.ZONA_ALMACENAMIENTO), diaEn(zonaAnterior.getId())));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", Filters.type("fecha", BsonType.DATE_TIME)),
+                // La primera de cada grupo es la que se conserva
+                new Document("$sort", new Document("fechaRegistro", -1).append("_id", -1)),
+                new Document("$group", new Document("_id", new Document("alumnoId", "$alumnoId")
+                        .append("materiaId", "$materiaId")
+                        .append("dia", dia))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("total", new Document("$sum", 1))),
+                new Document("$match", new Document("total", new Document("$gt", 1))),
+                new Document("$project", new Document("ids", 1)));
+
+        int eliminadas = 0;
+        List<ObjectId> lote = new ArrayList<>();
+        for (Document grupo : collection.aggregate(pipeline).allowDiskUse(true)) {
+            List<ObjectId> ids = grupo.getList("ids", ObjectId.class);
+            lote.addAll(ids.subList(1, ids.size()));
+            if (lote.size() >= TAMANO_LOTE) {
+                eliminadas += collection.deleteMany(Filters.in("_id", lote)).getDeletedCount();
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            eliminadas += collection.deleteMany(Filters.in("_id", lote)).getDeletedCount();
+        }
+        return eliminadas;
+    }
+
+    private static Document diaEn(String zona) {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", "$fecha")
+                .append("timezone", zona));
+    }
+}
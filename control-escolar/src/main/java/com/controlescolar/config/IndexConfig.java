@@ -0,0 +1,423 @@
+// IndexConfig.java
+package com.controlescolar.config;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro declarativo de los índices de MongoDB del sistema de control escolar.
+ * Los índices se aplican de forma idempotente al iniciar la aplicación y se
+ * reportan los que faltan o los que sobran en cada colección. Un índice con las
+ * llaves declaradas pero otras opciones (unique, partialFilterExpression) solo se
+ * reporta al iniciar; se vuelve a crear con las del registro desde el comando
+ * AplicarIndices.
+ */
+public class IndexConfig {
+
+    private static final Map<String, List<IndexDefinition>> REGISTRO = new LinkedHashMap<>();
+
+    static {
+        // Usuarios: login por email + activo; (rol, apellidos, _id) para listar y paginar por rol
+        registrar("usuarios",
+                unico("ux_usuarios_email", Indexes.ascending("email")),
+                indice("ix_usuarios_rol_apellidos_id", Indexes.ascending("rol", "apellidos", "_id")));
+
+        // Alumnos: matrícula única, búsqueda por email y grupos asignados; (activo, _id) para paginar;
+        // el índice de texto responde las búsquedas mientras se carga IndiceBusqueda.
+        // En alumnos, profesores, materias y grupos fechaModificacion sirve a la sincronización de SnapshotReferencia
+        registrar("alumnos",
+                unico("ux_alumnos_matricula", Indexes.ascending("matricula")),
+                indice("ix_alumnos_email", Indexes.ascending("email")),
+                indice("ix_alumnos_gruposIds", Indexes.ascending("gruposIds")),
+                indice("ix_alumnos_activo_apellidos", Indexes.ascending("activo", "apellidos", "nombre")),
+                indice("ix_alumnos_activo_id", Indexes.ascending("activo", "_id")),
+                texto("ix_alumnos_texto", "nombre", "apellidos", "matricula", "email"),
+                indice("ix_alumnos_fechaModificacion", Indexes.ascending(SnapshotReferencia.CAMPO_MODIFICACION)));
+
+        // Profesores: el número de empleado es opcional, por eso el índice es parcial
+        registrar("profesores",
+                unicoParcial("ux_profesores_numeroEmpleado", Indexes.ascending("numeroEmpleado"),
+                        Filters.type("numeroEmpleado", "string")),
+                indice("ix_profesores_email", Indexes.ascending("email")),
+                indice("ix_profesores_activo", Indexes.ascending("activo")),
+                indice("ix_profesores_fechaModificacion", Indexes.ascending(SnapshotReferencia.CAMPO_MODIFICACION)));
+
+        // Materias
+        registrar("materias",
+                unico("ux_materias_codigo", Indexes.ascending("codigo")),
+                indice("ix_materias_activa", Indexes.ascending("activa")),
+                indice("ix_materias_fechaModificacion", Indexes.ascending(SnapshotReferencia.CAMPO_MODIFICACION)));
+
+        // Grupos
+        registrar("grupos",
+                unico("ux_grupos_codigo", Indexes.ascending("codigo")),
+                indice("ix_grupos_profesorTitular_activo", Indexes.ascending("profesorTitularId", "activo")),
+                indice("ix_grupos_grado_activo", Indexes.ascending("grado", "activo")),
+                texto("ix_grupos_texto", "codigo", "nombre", "grado", "seccion"),
+                indice("ix_grupos_fechaModificacion", Indexes.ascending(SnapshotReferencia.CAMPO_MODIFICACION)));
+
+        // Calificaciones: por alumno+materia (promedios), por materia y por período
+        registrar("calificaciones",
+                indice("ix_calificaciones_alumno_materia_tipo", Indexes.ascending("alumnoId", "materiaId", "tipo")),
+                indice("ix_calificaciones_alumno_fechaRegistro",
+                        Indexes.compoundIndex(Indexes.ascending("alumnoId"), Indexes.descending("fechaRegistro"))),
+                indice("ix_calificaciones_materia_fechaRegistro",
+                        Indexes.compoundIndex(Indexes.ascending("materiaId"), Indexes.descending("fechaRegistro"))),
+                indice("ix_calificaciones_periodo_fechaRegistro",
+                        Indexes.compoundIndex(Indexes.ascending("periodo"), Indexes.descending("fechaRegistro"))),
+                indice("ix_calificaciones_fechaRegistro_id", Indexes.descending("fechaRegistro", "_id")));
+
+        // Asistencias: un registro por alumno, materia y fecha; (fecha, _id) para paginar el historial
+        registrar("asistencias",
+                unico("ux_asistencias_alumno_materia_fecha", Indexes.ascending("alumnoId", "materiaId", "fecha")),
+                indice("ix_asistencias_alumno_fecha",
+                        Indexes.compoundIndex(Indexes.ascending("alumnoId"), Indexes.descending("fecha"))),
+                indice("ix_asistencias_materia_grupo_fecha", Indexes.ascending("materiaId", "grupoId", "fecha")),
+                indice("ix_asistencias_fecha_id", Indexes.descending("fecha", "_id")));
+
+        // Pagos: el folio es opcional (pagos generados sin folio), por eso el índice es parcial;
+        // (fechaVencimiento, _id) para paginar la lista de pagos
+        registrar("pagos",
+                unicoParcial("ux_pagos_folio", Indexes.ascending("folio"), Filters.type("folio", "string")),
+                indice("ix_pagos_alumno_fechaVencimiento",
+                        Indexes.compoundIndex(Indexes.ascending("alumnoId"), Indexes.descending("fechaVencimiento"))),
+                indice("ix_pagos_estado_fechaVencimiento", Indexes.ascending("estado", "fechaVencimiento")),
+                indice("ix_pagos_estado_fechaPago", Indexes.ascending("estado", "fechaPago")),
+                indice("ix_pagos_fechaPago", Indexes.descending("fechaPago")),
+                indice("ix_pagos_fechaVencimiento_id", Indexes.descending("fechaVencimiento", "_id")));
+
+        // Saldos por alumno (_id = alumnoId): ranking de deudores por saldo pendiente
+        registrar("saldos_alumnos",
+                indice("ix_saldos_alumnos_saldoPendiente", Indexes.descending("saldoPendiente")));
+
+        // Vinculaciones padre-alumno
+        registrar("padres_alumnos",
+                indice("ix_padres_alumnos_padre_alumno_activo", Indexes.ascending("padreId", "alumnoId", "activo")),
+                indice("ix_padres_alumnos_alumno_activo", Indexes.ascending("alumnoId", "activo")));
+    }
+
+    private IndexConfig() {
+    }
+
+    /**
+     * Crea los índices declarados que no existan en la base de datos. Es seguro
+     * llamarlo en cada arranque: los índices existentes no se tocan, y los que tienen
+     * otras opciones solo se reportan (se reconstruyen con reconstruirIndices).
+     * @param database Base de datos sobre la que se aplican los índices
+     * @return Reporte con los índices creados, fallidos, distintos y redundantes
+     */
+    public static ReporteIndices aplicarIndices(MongoDatabase database) {
+        ReporteIndices reporte = verificarIndices(database);
+        crearFaltantes(database, reporte);
+        reporte.imprimir();
+        return reporte;
+    }
+
+    /**
+     * Además de crear los faltantes, elimina y vuelve a crear los índices con otras
+     * opciones que las del registro. Mientras se reconstruye un índice la colección
+     * queda sin él, así que no se ejecuta al iniciar la aplicación sino como comando
+     * de administración: mvn compile exec:java@aplicar-indices
+     * @param database Base de datos sobre la que se aplican los índices
+     * @return Reporte con los índices creados y fallidos
+     */
+    public static ReporteIndices reconstruirIndices(MongoDatabase database) {
+        ReporteIndices reporte = verificarIndices(database);
+
+        // Mismas llaves con otras opciones: el servidor no deja crear el nuevo junto al existente
+        for (Map.Entry<String, List<Document>> entry : reporte.distintos.entrySet()) {
+            MongoCollection<Document> collection = database.getCollection(entry.getKey());
+            for (Document existente : entry.getValue()) {
+                IndexDefinition definicion = declaracionDe(entry.getKey(), llavesDe(existente));
+                String nombre = entry.getKey() + "." + definicion.getNombre();
+                try {
+                    collection.dropIndex(existente.getString("name"));
+                    collection.createIndex(definicion.getKeys(), definicion.getOptions());
+                    reporte.creados.add(nombre + " (opciones cambiadas)");
+                } catch (MongoException e) {
+                    // Por ejemplo un índice que pasa a único con datos duplicados: se restaura el anterior
+                    reporte.fallidos.put(nombre, e.getMessage());
+                    restaurar(collection, existente);
+                }
+            }
+        }
+        reporte.distintos.clear();
+
+        crearFaltantes(database, reporte);
+        reporte.imprimir();
+        return reporte;
+    }
+
+    private static void crearFaltantes(MongoDatabase database, ReporteIndices reporte) {
+        for (Map.Entry<String, List<IndexDefinition>> entry : reporte.faltantes.entrySet()) {
+            MongoCollection<Document> collection = database.getCollection(entry.getKey());
+            for (IndexDefinition definicion : entry.getValue()) {
+                try {
+                    collection.createIndex(definicion.getKeys(), definicion.getOptions());
+                    reporte.creados.add(entry.getKey() + "." + definicion.getNombre());
+                } catch (MongoException e) {
+                    // Normalmente por datos duplicados que impiden un índice único
+                    reporte.fallidos.put(entry.getKey() + "." + definicion.getNombre(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compara los índices existentes contra el registro sin modificar nada
+     * @param database Base de datos a revisar
+     * @return Reporte con los índices faltantes y redundantes
+     */
+    public static ReporteIndices verificarIndices(MongoDatabase database) {
+        ReporteIndices reporte = new ReporteIndices();
+
+        for (Map.Entry<String, List<IndexDefinition>> entry : REGISTRO.entrySet()) {
+            String nombreColeccion = entry.getKey();
+            List<Document> existentes = database.getCollection(nombreColeccion)
+                    .listIndexes().into(new ArrayList<>());
+
+            // Índices declarados que no existen o que tienen otras opciones (se comparan por llaves, no por nombre)
+            for (IndexDefinition definicion : entry.getValue()) {
+                Document existente = existentes.stream()
+                        .filter(idx -> mismasLlaves(llavesDe(idx), definicion.getKeysDocument()))
+                        .findFirst().orElse(null);
+                if (existente == null) {
+                    reporte.faltantes.computeIfAbsent(nombreColeccion, k -> new ArrayList<>()).add(definicion);
+                } else if (!mismasOpciones(existente, definicion)) {
+                    reporte.distintos.computeIfAbsent(nombreColeccion, k -> new ArrayList<>()).add(existente);
+                }
+            }
+
+            // Índices existentes no declarados o cubiertos por el prefijo de otro índice
+            for (Document idx : existentes) {
+                String nombre = idx.getString("name");
+                if ("_id_".equals(nombre)) continue;
+
+                Document llaves = llavesDe(idx);
+                boolean declarado = entry.getValue().stream()
+                        .anyMatch(def -> mismasLlaves(llaves, def.getKeysDocument()));
+                boolean unico = idx.getBoolean("unique", false);
+
+                boolean cubierto = !unico && existentes.stream()
+                        .filter(otro -> otro != idx)
+                        .anyMatch(otro -> esPrefijoEstricto(llaves, otro.get("key", Document.class)));
+
+                if (cubierto) {
+                    reporte.redundantes.add(nombreColeccion + "." + nombre + " (cubierto por otro índice)");
+                } else if (!declarado) {
+                    reporte.redundantes.add(nombreColeccion + "." + nombre + " (no declarado)");
+                }
+            }
+        }
+        return reporte;
+    }
+
+    /**
+     * Obtiene las definiciones registradas para una colección
+     * @param nombreColeccion Nombre de la colección
+     * @return Lista inmutable de definiciones
+     */
+    public static List<IndexDefinition> getDefiniciones(String nombreColeccion) {
+        return Collections.unmodifiableList(REGISTRO.getOrDefault(nombreColeccion, Collections.emptyList()));
+    }
+
+    private static IndexDefinition declaracionDe(String coleccion, Document llaves) {
+        return REGISTRO.get(coleccion).stream()
+                .filter(def -> mismasLlaves(llaves, def.getKeysDocument()))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    // Solo las opciones que cambian qué documentos entran o se aceptan en el índice
+    private static boolean mismasOpciones(Document indice, IndexDefinition definicion) {
+        if (indice.getBoolean("unique", false) != definicion.getOptions().isUnique()) return false;
+        Document parcial = indice.get("partialFilterExpression", Document.class);
+        Document declarado = definicion.getPartialFilterDocument();
+        return parcial == null ? declarado == null : parcial.equals(declarado);
+    }
+
+    // Vuelve a crear un índice eliminado con las llaves y opciones que listaba el servidor
+    private static void restaurar(MongoCollection<Document> collection, Document indice) {
+        IndexOptions opciones = new IndexOptions().name(indice.getString("name"))
+                .unique(indice.getBoolean("unique", false));
+        Document parcial = indice.get("partialFilterExpression", Document.class);
+        if (parcial != null) {
+            opciones.partialFilterExpression(parcial);
+        }
+        if (indice.containsKey("weights")) {
+            opciones.weights(indice.get("weights", Document.class))
+                    .defaultLanguage(indice.getString("default_language"));
+        }
+        try {
+            collection.createIndex(llavesDe(indice), opciones);
+        } catch (MongoException e) {
+            System.err.println("⚠️ No se pudo restaurar el índice " + indice.getString("name") + ": " + e.getMessage());
+        }
+    }
+
+    // Un índice de texto se lista como {_fts: "text", _ftsx: 1}; los campos están en weights
+    private static Document llavesDe(Document indice) {
+        Document llaves = indice.get("key", Document.class);
+        Document pesos = indice.get("weights", Document.class);
+        if (llaves == null || pesos == null || !llaves.containsKey("_fts")) return llaves;
+        Document texto = new Document();
+        for (String campo : pesos.keySet()) {
+            texto.append(campo, "text");
+        }
+        return texto;
+    }
+
+    private static boolean mismasLlaves(Document a, Document b) {
+        if (a == null || b == null || a.size() != b.size()) return false;
+        if (a.containsValue("text") || b.containsValue("text")) {
+            // weights no conserva el orden de declaración
+            return a.keySet().equals(b.keySet()) && a.values().stream().allMatch("text"::equals)
+                    && b.values().stream().allMatch("text"::equals);
+        }
+        List<String> camposA = new ArrayList<>(a.keySet());
+        List<String> camposB = new ArrayList<>(b.keySet());
+        for (int i = 0; i < camposA.size(); i++) {
+            if (!camposA.get(i).equals(camposB.get(i))) return false;
+            if (!mismaDireccion(a.get(camposA.get(i)), b.get(camposB.get(i)))) return false;
+        }
+        return true;
+    }
+
+    private static boolean esPrefijoEstricto(Document prefijo, Document llaves) {
+        if (prefijo == null || llaves == null || prefijo.size() >= llaves.size()) return false;
+        List<String> camposPrefijo = new ArrayList<>(prefijo.keySet());
+        List<String> campos = new ArrayList<>(llaves.keySet());
+        for (int i = 0; i < camposPrefijo.size(); i++) {
+            if (!camposPrefijo.get(i).equals(campos.get(i))) return false;
+            if (!mismaDireccion(prefijo.get(camposPrefijo.get(i)), llaves.get(campos.get(i)))) return false;
+        }
+        return true;
+    }
+
+    // El servidor puede devolver 1, 1L o 1.0 según la versión con que se creó el índice
+    private static boolean mismaDireccion(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).intValue() == ((Number) b).intValue();
+        }
+        return String.valueOf(a).equals(String.valueOf(b));
+    }
+
+    private static void registrar(String coleccion, IndexDefinition... definiciones) {
+        List<IndexDefinition> lista = new ArrayList<>();
+        Collections.addAll(lista, definiciones);
+        REGISTRO.put(coleccion, lista);
+    }
+
+    private static IndexDefinition indice(String nombre, Bson keys) {
+        return new IndexDefinition(nombre, keys, new IndexOptions().name(nombre));
+    }
+
+    // Sin idioma: los nombres no se reducen a raíces ni se descartan "de", "la", "del"
+    private static IndexDefinition texto(String nombre, String... campos) {
+        List<Bson> keys = new ArrayList<>();
+        for (String campo : campos) {
+            keys.add(Indexes.text(campo));
+        }
+        return new IndexDefinition(nombre, Indexes.compoundIndex(keys),
+                new IndexOptions().name(nombre).defaultLanguage("none"));
+    }
+
+    private static IndexDefinition unico(String nombre, Bson keys) {
+        return new IndexDefinition(nombre, keys, new IndexOptions().name(nombre).unique(true));
+    }
+
+    private static IndexDefinition unicoParcial(String nombre, Bson keys, Bson filtroParcial) {
+        return new IndexDefinition(nombre, keys,
+                new IndexOptions().name(nombre).unique(true).partialFilterExpression(filtroParcial));
+    }
+
+    /**
+     * Definición de un índice dentro del registro
+     */
+    public static class IndexDefinition {
+        private final String nombre;
+        private final Bson keys;
+        private final IndexOptions options;
+
+        public IndexDefinition(String nombre, Bson keys, IndexOptions options) {
+            this.nombre = nombre;
+            this.keys = keys;
+            this.options = options;
+        }
+
+        public Document getKeysDocument() {
+            return aDocument(keys);
+        }
+
+        /**
+         * @return Filtro del índice parcial como Document, o null si no es parcial
+         */
+        public Document getPartialFilterDocument() {
+            Bson filtro = options.getPartialFilterExpression();
+            return filtro != null ? aDocument(filtro) : null;
+        }
+
+        private static Document aDocument(Bson bson) {
+            BsonDocument documento = bson.toBsonDocument(BsonDocument.class,
+                    com.mongodb.MongoClientSettings.getDefaultCodecRegistry());
+            return Document.parse(documento.toJson());
+        }
+
+        // Getters
+        public String getNombre() { return nombre; }
+        public Bson getKeys() { return keys; }
+        public IndexOptions getOptions() { return options; }
+    }
+
+    /**
+     * Resultado de comparar el registro contra los índices de la base de datos
+     */
+    public static class ReporteIndices {
+        private final Map<String, List<IndexDefinition>> faltantes = new LinkedHashMap<>();
+        private final Map<String, List<Document>> distintos = new LinkedHashMap<>();
+        private final List<String> redundantes = new ArrayList<>();
+        private final List<String> creados = new ArrayList<>();
+        private final Map<String, String> fallidos = new LinkedHashMap<>();
+
+        public void imprimir() {
+            if (!creados.isEmpty()) {
+                System.out.println("🗂️ Índices creados: " + String.join(", ", creados));
+            }
+            for (Map.Entry<String, String> fallo : fallidos.entrySet()) {
+                System.err.println("⚠️ No se pudo crear el índice " + fallo.getKey() + ": " + fallo.getValue());
+            }
+            for (Map.Entry<String, List<Document>> entry : distintos.entrySet()) {
+                for (Document indice : entry.getValue()) {
+                    System.out.println("⚠️ Índice con otras opciones que el registro: " + entry.getKey() + "."
+                            + indice.getString("name") + " (mvn compile exec:java@aplicar-indices)");
+                }
+            }
+            for (String redundante : redundantes) {
+                System.out.println("⚠️ Índice redundante: " + redundante);
+            }
+            if (creados.isEmpty() && fallidos.isEmpty() && faltantes.isEmpty() && distintos.isEmpty()) {
+                System.out.println("✅ Índices de MongoDB al día");
+            }
+        }
+
+        // Getters
+        public Map<String, List<IndexDefinition>> getFaltantes() { return faltantes; }
+        /** Índices existentes (como los lista el servidor) con las llaves de una definición pero otras opciones */
+        public Map<String, List<Document>> getDistintos() { return distintos; }
+        public List<String> getRedundantes() { return redundantes; }
+        public List<String> getCreados() { return creados; }
+        public Map<String, String> getFallidos() { return fallidos; }
+    }
+}
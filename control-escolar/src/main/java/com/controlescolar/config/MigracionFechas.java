@@ -0,0 +1,197 @@
+// MigracionFechas.java
+package com.controlescolar.config;
+
+import com.controlescolar.utils.FechaUtil;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Migración de las fechas sin hora al formato de FechaUtil (medianoche UTC).
+ *
+ * Los toDocument de los modelos guardaban la medianoche de la zona del sistema y
+ * los filtros y $set con LocalDate directo usaban la medianoche UTC del driver, así
+ * que un mismo día quedaba con dos valores distintos. Se convierte cada fecha que no
+ * cae en medianoche UTC al mismo día local, suponiendo que se ejecuta en la zona de
+ * los equipos que guardaron los datos. Al terminar deja una marca en la colección
+ * migraciones con la zona usada y los _id que no se pudieron convertir.
+ *
+ * Mientras queden terminales con la versión anterior siguen guardando medianoche
+ * local, así que con la marca puesta cada inicio revisa los documentos creados desde
+ * la revisión anterior y reintenta los pendientes. Las fechas cambiadas en documentos
+ * viejos por esas terminales se corrigen con una revisión completa
+ * (migracion.fechas.revision.completa=true) cuando ya no quede ninguna.
+ */
+public class MigracionFechas {
+
+    private static final String COLECCION_MARCAS = "migraciones";
+    private static final String ID_MARCA = "fechas_utc";
+    private static final int TAMANO_LOTE = 1000;
+    private static final int CLAVE_DUPLICADA = 11000;
+    // Inserciones con _id generado poco antes de la revisión anterior, o relojes desfasados
+    private static final long MARGEN_MS = 10 * 60 * 1000L;
+
+    // Colección y campos LocalDate de los modelos
+    private static final String[][] CAMPOS = {
+            {"pagos", "fechaVencimiento"},
+            {"pagos", "fechaPago"},
+            {"asistencias", "fecha"},
+            {"alumnos", "fechaNacimiento"}
+    };
+
+    private MigracionFechas() {
+    }
+
+    /**
+     * Convierte las fechas si la migración no se ha aplicado en esta base de datos; si ya
+     * se aplicó, revisa solo lo creado desde la última revisión y los pendientes
+     * @param revisionCompleta true para volver a revisar todos los documentos
+     */
+    public static void aplicarSiFalta(MongoDatabase database, boolean revisionCompleta) {
+        MongoCollection<Document> marcas = database.getCollection(COLECCION_MARCAS);
+        try {
+            Document marca = marcas.find(Filters.eq("_id", ID_MARCA)).first();
+            Date inicio = new Date();
+
+            ZoneId zonaAnterior = marca != null ? ZoneId.of(marca.getString("zonaAnterior")) : ZoneId.systemDefault();
+            Document pendientesAnteriores = marca != null ? marca.get("pendientes", new Document()) : new Document();
+            Date revisadoHasta = marca != null ? marca.getDate(marca.containsKey("revisadoHasta")
+                    ? "revisadoHasta" : "fechaAplicacion") : null;
+
+            Document resumen = new Document();
+            Document pendientes = new Document();
+            int convertidas = 0;
+            int conflictos = 0;
+            for (String[] campo : CAMPOS) {
+                String clave = campo[0] + "." + campo[1];
+                Bson alcance = marca == null || revisionCompleta ? null
+                        : alcanceRevision(revisadoHasta, pendientesAnteriores.getList(clave, Object.class));
+                List<Object> conflictoIds = new ArrayList<>();
+                int resultado = migrarCampo(database.getCollection(campo[0]), campo[1], zonaAnterior, alcance, conflictoIds);
+                resumen.append(clave, resultado);
+                convertidas += resultado;
+                conflictos += conflictoIds.size();
+                if (!conflictoIds.isEmpty()) {
+                    pendientes.append(clave, conflictoIds);
+                }
+                if (resultado > 0) {
+                    System.out.println("🗓️ " + clave + ": " + resultado + " fechas convertidas a UTC");
+                }
+            }
+            if (conflictos > 0) {
+                System.err.println("⚠️ " + conflictos + " asistencias ya existían con la fecha en UTC y se dejaron sin convertir"
+                        + " (_id en " + COLECCION_MARCAS + "." + ID_MARCA + ".pendientes)");
+            }
+
+            if (marca == null) {
+                marcas.insertOne(new Document("_id", ID_MARCA)
+                        .append("zonaAnterior", zonaAnterior.getId())
+                        .append("convertidas", resumen)
+                        .append("conflictos", conflictos)
+                        .append("pendientes", pendientes)
+                        .append("fechaAplicacion", inicio)
+                        .append("revisadoHasta", inicio));
+            } else {
+                marcas.updateOne(Filters.eq("_id", ID_MARCA), Updates.combine(
+                        Updates.set("conflictos", conflictos),
+                        Updates.set("pendientes", pendientes),
+                        Updates.set("revisadoHasta", inicio),
+                        Updates.inc("convertidasEnRevisiones", convertidas)));
+            }
+        } catch (Exception e) {
+            // Sin la marca (o sin actualizarla) se vuelve a intentar en el siguiente inicio; los lotes ya escritos no se repiten
+            System.err.println("Error al migrar fechas a UTC: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Zona en la que se guardaron las fechas anteriores: la registrada en la marca o,
+     * si la migración no se ha aplicado, la del sistema
+     */
+    static ZoneId zonaAnterior(MongoDatabase database) {
+        Document marca = database.getCollection(COLECCION_MARCAS).find(Filters.eq("_id", ID_MARCA)).first();
+        return marca != null ? ZoneId.of(marca.getString("zonaAnterior")) : ZoneId.systemDefault();
+    }
+
+    // Creados desde la revisión anterior (el _id lleva la fecha de creación) más los que chocaron antes
+    private static Bson alcanceRevision(Date revisadoHasta, List<Object> pendientes) {
+        Bson nuevos = Filters.gte("_id", new ObjectId(new Date(revisadoHasta.getTime() - MARGEN_MS)));
+        if (pendientes == null || pendientes.isEmpty()) {
+            return nuevos;
+        }
+        return Filters.or(nuevos, Filters.in("_id", pendientes));
+    }
+
+    /**
+     * @param alcance Filtro de los documentos a revisar (null para todos)
+     * @param conflictoIds Recibe los _id de las fechas que chocaron con un índice único
+     * @return Fechas convertidas
+     */
+    private static int migrarCampo(MongoCollection<Document> collection, String campo, ZoneId zonaAnterior,
+                                   Bson alcance, List<Object> conflictoIds) {
+        int convertidas = 0;
+        List<WriteModel<Document>> lote = new ArrayList<>();
+        List<Object> ids = new ArrayList<>();
+
+        Bson filtro = Filters.type(campo, BsonType.DATE_TIME);
+        for (Document doc : collection.find(alcance != null ? Filters.and(alcance, filtro) : filtro)
+                .projection(Projections.include(campo))
+                .batchSize(TAMANO_LOTE)) {
+            long milis = doc.getDate(campo).getTime();
+            if (Math.floorMod(milis, FechaUtil.MILIS_POR_DIA) == 0) {
+                continue;
+            }
+            LocalDate dia = Instant.ofEpochMilli(milis).atZone(zonaAnterior).toLocalDate();
+            lote.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", doc.get("_id")), Filters.eq(campo, doc.getDate(campo))),
+                    Updates.set(campo, FechaUtil.aDate(dia))));
+            ids.add(doc.get("_id"));
+
+            if (lote.size() >= TAMANO_LOTE) {
+                convertidas += escribir(collection, lote, ids, conflictoIds);
+                lote.clear();
+                ids.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            convertidas += escribir(collection, lote, ids, conflictoIds);
+        }
+        return convertidas;
+    }
+
+    // Sin orden para que un duplicado en el índice único de asistencias no detenga el resto del lote
+    private static int escribir(MongoCollection<Document> collection, List<WriteModel<Document>> lote,
+                                List<Object> ids, List<Object> conflictoIds) {
+        try {
+            return collection.bulkWrite(lote, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != CLAVE_DUPLICADA) {
+                    throw e;
+                }
+            }
+            for (BulkWriteError error : e.getWriteErrors()) {
+                conflictoIds.add(ids.get(error.getIndex()));
+            }
+            return e.getWriteResult().getModifiedCount();
+        }
+    }
+}
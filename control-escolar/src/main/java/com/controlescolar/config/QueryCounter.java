@@ -0,0 +1,81 @@
+// QueryCounter.java
+package com.controlescolar.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta los comandos enviados a MongoDB (find, aggregate, update, ...).
+ * Se registra en el MongoClient y sirve para medir cuántas consultas
+ * hace una operación, por ejemplo en los benchmarks de reportes.
+ */
+public class QueryCounter implements CommandListener {
+
+    private static final QueryCounter INSTANCE = new QueryCounter();
+
+    // Comandos internos del driver que no corresponden a consultas de la aplicación
+    private static final Set<String> COMANDOS_IGNORADOS = new HashSet<>(Arrays.asList(
+            "ping", "hello", "ismaster", "isMaster", "buildInfo", "endSessions", "saslStart", "saslContinue"
+    ));
+
+    private final Map<String, AtomicLong> conteoPorComando = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    private QueryCounter() {
+    }
+
+    public static QueryCounter getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (COMANDOS_IGNORADOS.contains(event.getCommandName())) return;
+        total.incrementAndGet();
+        conteoPorComando.computeIfAbsent(event.getCommandName(), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+    }
+
+    /**
+     * Obtiene el total de comandos contados desde el último reinicio
+     * @return Número de comandos
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Obtiene el conteo agrupado por nombre de comando
+     * @return Mapa ordenado comando -> cantidad
+     */
+    public Map<String, Long> getConteoPorComando() {
+        Map<String, Long> copia = new TreeMap<>();
+        conteoPorComando.forEach((comando, conteo) -> copia.put(comando, conteo.get()));
+        return copia;
+    }
+
+    /**
+     * Reinicia los contadores
+     */
+    public void reset() {
+        total.set(0);
+        conteoPorComando.clear();
+    }
+}
@@ -4,9 +4,18 @@ import org.mindrot.jbcrypt.BCrypt;
 import java.util.regex.Pattern;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Configuración de seguridad para el sistema de control escolar
@@ -30,12 +39,50 @@ public class SecurityConfig {
 
     // Configuración de sesiones
     private static final int SESSION_TIMEOUT_MINUTES = 30;
-    private static final Map<String, SessionInfo> activeSessions = new HashMap<>();
+    private static final Map<String, SessionInfo> activeSessions = new ConcurrentHashMap<>();
 
     // Configuración de intentos de login
     private static final int MAX_LOGIN_ATTEMPTS = 5;
     private static final int LOCKOUT_DURATION_MINUTES = 15;
-    private static final Map<String, LoginAttempt> loginAttempts = new HashMap<>();
+    private static final Map<String, LoginAttempt> loginAttempts = new ConcurrentHashMap<>();
+
+    // Verificaciones BCrypt simultáneas y en espera; si la cola se llena el intento se rechaza
+    private static final int VERIFICADORES = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int VERIFICACIONES_EN_COLA = 8;
+    private static final ThreadPoolExecutor verificadores = crearVerificadores();
+
+    // Limpieza periódica de sesiones e intentos vencidos
+    private static final int LIMPIEZA_MINUTOS = 1;
+    private static final ScheduledExecutorService limpieza = crearLimpieza();
+
+    private static ThreadPoolExecutor crearVerificadores() {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(VERIFICADORES, VERIFICADORES, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(VERIFICACIONES_EN_COLA),
+                r -> {
+                    Thread hilo = new Thread(r, "verificador-login-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ScheduledExecutorService crearLimpieza() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "limpieza-sesiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                cleanExpiredSessions();
+                cleanExpiredLockouts();
+            } catch (Exception e) {
+                System.err.println("Error al limpiar sesiones: " + e.getMessage());
+            }
+        }, LIMPIEZA_MINUTOS, LIMPIEZA_MINUTOS, TimeUnit.MINUTES);
+        return executor;
+    }
 
     /**
      * Encripta una contraseña usando BCrypt
@@ -66,6 +113,48 @@ public class SecurityConfig {
         }
     }
 
+    /**
+     * Ejecuta un trabajo de autenticación (consulta + BCrypt) en el pool de
+     * verificadores, fuera del hilo de JavaFX. El pool tiene hilos y cola
+     * acotados: si hay demasiados intentos en curso el futuro falla con
+     * RejectedExecutionException en lugar de acumular trabajo.
+     * @param trabajo Autenticación a ejecutar
+     * @return Futuro con el resultado
+     */
+    public static <T> CompletableFuture<T> ejecutarVerificacion(Callable<T> trabajo) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        try {
+            verificadores.execute(() -> {
+                try {
+                    futuro.complete(trabajo.call());
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+
+    /**
+     * Indica si un hash se generó con un costo distinto al configurado y
+     * conviene volver a generarlo después de un login exitoso
+     * @param hashedPassword Hash BCrypt almacenado ($2a$NN$...)
+     * @return true si el costo no es BCRYPT_ROUNDS
+     */
+    public static boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            int costo = Integer.parseInt(hashedPassword.substring(4, 6));
+            return costo != BCRYPT_ROUNDS;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Valida que una contraseña cumpla con los requisitos de seguridad
      * @param password Contraseña a validar
@@ -107,10 +196,7 @@ public class SecurityConfig {
         String sessionToken = UUID.randomUUID().toString();
         SessionInfo sessionInfo = new SessionInfo(userId, username, role, LocalDateTime.now());
         activeSessions.put(sessionToken, sessionInfo);
-
-        // Limpiar sesiones expiradas
-        cleanExpiredSessions();
-
+        // Las sesiones expiradas se eliminan en la limpieza periódica
         return sessionToken;
     }
 
@@ -130,7 +216,7 @@ public class SecurityConfig {
         long minutesElapsed = ChronoUnit.MINUTES.between(sessionInfo.getLastActivity(), now);
 
         if (minutesElapsed > SESSION_TIMEOUT_MINUTES) {
-            activeSessions.remove(sessionToken);
+            activeSessions.remove(sessionToken, sessionInfo);
             return null;
         }
 
@@ -157,21 +243,18 @@ public class SecurityConfig {
     public static boolean recordFailedLogin(String identifier) {
         if (identifier == null) return false;
 
-        LoginAttempt attempt = loginAttempts.get(identifier);
-        if (attempt == null) {
-            attempt = new LoginAttempt();
-            loginAttempts.put(identifier, attempt);
-        }
-
-        attempt.incrementAttempts();
-
-        // Si excede el máximo de intentos, bloquear
-        if (attempt.getAttempts() >= MAX_LOGIN_ATTEMPTS) {
-            attempt.setLockoutTime(LocalDateTime.now());
-            return true;
-        }
+        // compute es atómico por llave: dos intentos simultáneos no pierden el conteo
+        LoginAttempt attempt = loginAttempts.compute(identifier, (clave, actual) -> {
+            LoginAttempt nuevo = actual != null ? actual : new LoginAttempt();
+            nuevo.incrementAttempts();
+            // Si excede el máximo de intentos, bloquear
+            if (nuevo.getAttempts() >= MAX_LOGIN_ATTEMPTS && nuevo.getLockoutTime() == null) {
+                nuevo.setLockoutTime(LocalDateTime.now());
+            }
+            return nuevo;
+        });
 
-        return false;
+        return attempt.getLockoutTime() != null;
     }
 
     /**
@@ -192,7 +275,7 @@ public class SecurityConfig {
 
         if (minutesElapsed >= LOCKOUT_DURATION_MINUTES) {
             // El bloqueo ha expirado
-            loginAttempts.remove(identifier);
+            loginAttempts.remove(identifier, attempt);
             return false;
         }
 
@@ -222,6 +305,20 @@ public class SecurityConfig {
         });
     }
 
+    /**
+     * Limpia los bloqueos vencidos y los intentos fallidos que no llegaron a
+     * bloquear, pasado el mismo tiempo desde el último intento
+     */
+    private static void cleanExpiredLockouts() {
+        LocalDateTime now = LocalDateTime.now();
+        loginAttempts.entrySet().removeIf(entry -> {
+            LoginAttempt attempt = entry.getValue();
+            LocalDateTime referencia = attempt.getLockoutTime() != null
+                    ? attempt.getLockoutTime() : attempt.getLastAttempt();
+            return ChronoUnit.MINUTES.between(referencia, now) >= LOCKOUT_DURATION_MINUTES;
+        });
+    }
+
     /**
      * Obtiene el número de minutos restantes hasta que expire el bloqueo
      * @param identifier Identificador del usuario
@@ -259,7 +356,7 @@ public class SecurityConfig {
         private final String username;
         private final String role;
         private final LocalDateTime createdAt;
-        private LocalDateTime lastActivity;
+        private volatile LocalDateTime lastActivity;
 
         public SessionInfo(String userId, String username, String role, LocalDateTime createdAt) {
             this.userId = userId;
@@ -285,14 +382,18 @@ public class SecurityConfig {
      * Clase interna para manejar intentos de login
      */
     private static class LoginAttempt {
-        private int attempts = 0;
-        private LocalDateTime lockoutTime;
+        // Se modifica dentro de loginAttempts.compute; volatile para las lecturas fuera de él
+        private volatile int attempts = 0;
+        private volatile LocalDateTime lastAttempt = LocalDateTime.now();
+        private volatile LocalDateTime lockoutTime;
 
         public void incrementAttempts() {
             this.attempts++;
+            this.lastAttempt = LocalDateTime.now();
         }
 
         public int getAttempts() { return attempts; }
+        public LocalDateTime getLastAttempt() { return lastAttempt; }
         public LocalDateTime getLockoutTime() { return lockoutTime; }
         public void setLockoutTime(LocalDateTime lockoutTime) { this.lockoutTime = lockoutTime; }
     }
@@ -0,0 +1,285 @@
+// SnapshotReferencia.java
+package com.controlescolar.config;
+
+import com.controlescolar.utils.ArchivoSnapshot;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copia local de los datos de referencia (materias, grupos, profesores y el resumen
+ * de alumnos) en un ArchivoSnapshot.
+ *
+ * Sirve para dos cosas: consultar en modo de solo lectura cuando el servidor no
+ * responde al iniciar, y no volver a descargar las colecciones completas en cada
+ * arranque (los índices de búsqueda se cargan del snapshot si está al día).
+ *
+ * Con conexión se sincroniza en segundo plano al iniciar y luego cada 15 minutos.
+ * La sincronización es incremental: los controladores marcan cada escritura con
+ * fechaModificacion y solo se leen los documentos modificados desde la última
+ * marca; si el conteo del servidor no coincide con el local (borrados o altas sin
+ * marca) se comparan los _id. Una vez al día se vuelve a leer todo, por si hubo
+ * cambios hechos fuera de la aplicación.
+ *
+ * El archivo contiene datos personales de alumnos y profesores; vive en la carpeta
+ * del usuario del sistema operativo (snapshot.ruta en database.properties).
+ */
+public class SnapshotReferencia {
+
+    /** Campo con la fecha de la última escritura hecha desde la aplicación */
+    public static final String CAMPO_MODIFICACION = "fechaModificacion";
+
+    private static final long INTERVALO_MINUTOS = 15;
+    private static final long RECARGA_COMPLETA_MS = 24 * 60 * 60 * 1000L;
+    // Escrituras con la misma fecha que terminan después de leer la marca, o relojes desfasados
+    private static final long MARGEN_MS = 60 * 1000L;
+    private static final int TAMANO_LOTE = 1000;
+
+    private static final Map<String, Bson> FUENTES = new LinkedHashMap<>();
+
+    static {
+        FUENTES.put("materias", null);
+        FUENTES.put("profesores", null);
+        FUENTES.put("grupos", null);
+        // Lo que usan los selectores y el índice de búsqueda de alumnos, incluidos los inactivos
+        FUENTES.put("alumnos", Projections.include("matricula", "nombre", "apellidos", "email", "activo",
+                "gruposIds", CAMPO_MODIFICACION));
+    }
+
+    private static volatile ArchivoSnapshot archivo;
+    private static volatile Path ruta;
+    private static volatile CompletableFuture<Void> sincronizacion = CompletableFuture.completedFuture(null);
+    private static ScheduledExecutorService programador;
+
+    private SnapshotReferencia() {
+    }
+
+    /**
+     * Agrega la fecha de modificación a un documento nuevo antes de insertarlo
+     */
+    public static Document marcarInsercion(Document doc) {
+        return doc.append(CAMPO_MODIFICACION, new Date());
+    }
+
+    /**
+     * Actualización que pone la fecha de modificación con la hora del servidor;
+     * se combina con los $set/$addToSet/$pull de cada escritura
+     */
+    public static Bson marcaModificacion() {
+        return Updates.currentDate(CAMPO_MODIFICACION);
+    }
+
+    /**
+     * Abre el snapshot local si existe (solo lee el encabezado)
+     * @param settings Configuración con la ruta del archivo
+     */
+    public static void abrir(DatabaseSettings settings) {
+        ruta = Paths.get(settings.get("snapshot.ruta", Paths.get(System.getProperty("user.home"), ".controlescolar",
+                "snapshot-" + settings.getDatabaseName() + ".bin").toString()));
+        try {
+            long inicio = System.nanoTime();
+            archivo = ArchivoSnapshot.abrir(ruta);
+            if (archivo != null) {
+                System.out.printf("💾 Snapshot local abierto en %.1f ms: %s%n",
+                        (System.nanoTime() - inicio) / 1_000_000.0, getResumen());
+            }
+        } catch (Exception e) {
+            // Un archivo dañado se reemplaza en la siguiente sincronización
+            System.err.println("⚠️ No se pudo abrir el snapshot local: " + e.getMessage());
+            archivo = null;
+        }
+    }
+
+    public static boolean disponible() {
+        return archivo != null;
+    }
+
+    /**
+     * Documentos guardados de una colección
+     * @param coleccion materias, profesores, grupos o alumnos
+     * @return Documentos (vacío si no hay snapshot)
+     */
+    public static List<Document> documentos(String coleccion) {
+        ArchivoSnapshot actual = archivo;
+        ArchivoSnapshot.Seccion seccion = actual != null ? actual.getSeccion(coleccion) : null;
+        return seccion != null ? seccion.getDocumentos() : new ArrayList<>();
+    }
+
+    /**
+     * Documentos de una colección si se sincronizaron hace menos de la vigencia dada.
+     * Si hay una sincronización en curso se espera a que termine.
+     * @param coleccion materias, profesores, grupos o alumnos
+     * @param vigenciaMs Antigüedad máxima aceptada
+     * @return Documentos, o null si el snapshot no está al día (hay que consultar la base de datos)
+     */
+    public static List<Document> documentosVigentes(String coleccion, long vigenciaMs) {
+        try {
+            sincronizacion.get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return null;
+        }
+        ArchivoSnapshot actual = archivo;
+        ArchivoSnapshot.Seccion seccion = actual != null ? actual.getSeccion(coleccion) : null;
+        if (seccion == null || System.currentTimeMillis() - seccion.getSincronizado() > vigenciaMs) {
+            return null;
+        }
+        return seccion.getDocumentos();
+    }
+
+    /**
+     * Fecha de la sincronización más antigua entre las colecciones (0 si no hay snapshot)
+     */
+    public static long getFechaSincronizacion() {
+        ArchivoSnapshot actual = archivo;
+        if (actual == null) return 0;
+        long fecha = Long.MAX_VALUE;
+        for (ArchivoSnapshot.Seccion seccion : actual.getSecciones()) {
+            fecha = Math.min(fecha, seccion.getSincronizado());
+        }
+        return fecha == Long.MAX_VALUE ? 0 : fecha;
+    }
+
+    /**
+     * Documentos por colección, para mostrar en logs y en la vista sin conexión
+     */
+    public static Map<String, Integer> getResumen() {
+        Map<String, Integer> resumen = new LinkedHashMap<>();
+        ArchivoSnapshot actual = archivo;
+        if (actual != null) {
+            for (ArchivoSnapshot.Seccion seccion : actual.getSecciones()) {
+                resumen.put(seccion.getNombre(), seccion.getTotalDocumentos());
+            }
+        }
+        return resumen;
+    }
+
+    /**
+     * Sincroniza ahora en segundo plano y programa la sincronización periódica
+     * @param database Base de datos conectada
+     */
+    public static synchronized void iniciarSincronizacion(MongoDatabase database) {
+        if (programador == null) {
+            programador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "snapshot-referencia");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            programador.scheduleWithFixedDelay(() -> sincronizar(database),
+                    INTERVALO_MINUTOS, INTERVALO_MINUTOS, TimeUnit.MINUTES);
+        }
+        sincronizacion = CompletableFuture.runAsync(() -> sincronizar(database), programador);
+    }
+
+    // Una colección que falla conserva su sección anterior y se reintenta en la siguiente pasada
+    private static void sincronizar(MongoDatabase database) {
+        if (ruta == null) return;
+        long inicio = System.nanoTime();
+        ArchivoSnapshot actual = archivo;
+        List<ArchivoSnapshot.Seccion> secciones = new ArrayList<>();
+        int cambios = 0;
+        for (Map.Entry<String, Bson> fuente : FUENTES.entrySet()) {
+            ArchivoSnapshot.Seccion anterior = actual != null ? actual.getSeccion(fuente.getKey()) : null;
+            try {
+                int[] cambiosSeccion = new int[1];
+                secciones.add(sincronizarSeccion(database.getCollection(fuente.getKey()), fuente.getKey(),
+                        fuente.getValue(), anterior, cambiosSeccion));
+                cambios += cambiosSeccion[0];
+            } catch (Exception e) {
+                System.err.println("Error al sincronizar snapshot de " + fuente.getKey() + ": " + e.getMessage());
+                if (anterior != null) {
+                    secciones.add(anterior);
+                }
+            }
+        }
+
+        try {
+            archivo = ArchivoSnapshot.escribir(ruta, secciones);
+            System.out.printf("💾 Snapshot local sincronizado en %.0f ms (%d cambios): %s%n",
+                    (System.nanoTime() - inicio) / 1_000_000.0, cambios, getResumen());
+        } catch (Exception e) {
+            System.err.println("⚠️ No se pudo guardar el snapshot local: " + e.getMessage());
+        }
+    }
+
+    private static ArchivoSnapshot.Seccion sincronizarSeccion(MongoCollection<Document> collection, String nombre,
+                                                              Bson proyeccion, ArchivoSnapshot.Seccion anterior,
+                                                              int[] cambios) {
+        long ahora = System.currentTimeMillis();
+
+        if (anterior == null || ahora - anterior.getCargaCompleta() > RECARGA_COMPLETA_MS) {
+            List<Document> documentos = new ArrayList<>();
+            collection.find().projection(proyeccion).batchSize(5000).forEach(documentos::add);
+            cambios[0] = documentos.size();
+            return new ArchivoSnapshot.Seccion(nombre, marcaDe(documentos, 0), ahora, ahora, documentos);
+        }
+
+        Map<Object, Document> porId = new LinkedHashMap<>();
+        for (Document doc : anterior.getDocumentos()) {
+            porId.put(doc.get("_id"), doc);
+        }
+
+        // Modificados desde la última marca
+        List<Document> modificados = new ArrayList<>();
+        collection.find(Filters.gte(CAMPO_MODIFICACION, new Date(anterior.getMarca() - MARGEN_MS)))
+                .projection(proyeccion)
+                .forEach(modificados::add);
+        for (Document doc : modificados) {
+            if (!doc.equals(porId.put(doc.get("_id"), doc))) {
+                cambios[0]++;
+            }
+        }
+
+        // Con todas las altas marcadas, el conteo local solo difiere del servidor si hubo borrados o altas sin marca
+        if (collection.countDocuments() != porId.size()) {
+            Set<Object> ids = new HashSet<>();
+            collection.find().projection(Projections.include("_id")).batchSize(5000)
+                    .forEach(doc -> ids.add(doc.get("_id")));
+            int antes = porId.size();
+            porId.keySet().retainAll(ids);
+            cambios[0] += antes - porId.size();
+
+            List<Object> faltantes = new ArrayList<>(ids);
+            faltantes.removeAll(porId.keySet());
+            for (int i = 0; i < faltantes.size(); i += TAMANO_LOTE) {
+                List<Object> lote = faltantes.subList(i, Math.min(i + TAMANO_LOTE, faltantes.size()));
+                collection.find(Filters.in("_id", lote)).projection(proyeccion).forEach(doc -> {
+                    porId.put(doc.get("_id"), doc);
+                    modificados.add(doc);
+                    cambios[0]++;
+                });
+            }
+        }
+
+        return new ArchivoSnapshot.Seccion(nombre, marcaDe(modificados, anterior.getMarca()), ahora,
+                anterior.getCargaCompleta(), new ArrayList<>(porId.values()));
+    }
+
+    private static long marcaDe(List<Document> documentos, long marcaAnterior) {
+        long marca = marcaAnterior;
+        for (Document doc : documentos) {
+            Date fecha = doc.getDate(CAMPO_MODIFICACION);
+            if (fecha != null && fecha.getTime() > marca) {
+                marca = fecha.getTime();
+            }
+        }
+        return marca;
+    }
+}
@@ -1,19 +1,49 @@
 // AlumnoController.java (Continuación y completo)
 package com.controlescolar.controllers;
 
+import com.controlescolar.config.SnapshotReferencia;
 import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
+import com.controlescolar.utils.BatchLoader;
+import com.controlescolar.utils.CacheEntidades;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.FechaUtil;
+import com.controlescolar.utils.IndiceBusqueda;
+import com.controlescolar.utils.IndicePrefijos;
+import com.controlescolar.utils.Paginador;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AlumnoController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("alumnos");
-    
+
+    // Campos de AlumnoResumen; el índice (activo, apellidos, nombre) resuelve el filtro y el orden
+    private static final Bson PROYECCION_RESUMEN = Projections.include("matricula", "nombre", "apellidos");
+
+    // Campos de PDFGenerator.addStudentInfo y del nombre de archivo en GeneradorLotesPDF
+    private static final Bson PROYECCION_DOCUMENTOS = Projections.include("matricula", "nombre", "apellidos", "email");
+
+    // Nombres de alumnos en tablas de calificaciones, asistencias y pagos; vigencia corta porque cambian más
+    private static final CacheEntidades<Alumno> cache = new CacheEntidades<>("alumnos", 5000, 2 * 60 * 1000);
+
+    // Búsqueda por nombre, apellidos, matrícula o email; incluye inactivos para la búsqueda de pagos
+    private static final Bson PROYECCION_BUSQUEDA = Projections.include("matricula", "nombre", "apellidos", "email", "activo");
+    private static final long VIGENCIA_BUSQUEDA_MS = 10 * 60 * 1000;
+    private static final IndiceBusqueda busqueda = new IndiceBusqueda("alumnos", VIGENCIA_BUSQUEDA_MS,
+            AlumnoController::cargarElementosBusqueda);
+    private static final int LIMITE_BUSQUEDA = 500;
 
     public static boolean crearAlumno(Alumno alumno) {
         try {
@@ -22,7 +52,9 @@ public class AlumnoController {
                 return false; // Matrícula ya existe
             }
 
-            collection.insertOne(alumno.toDocument());
+            Document doc = SnapshotReferencia.marcarInsercion(alumno.toDocument());
+            collection.insertOne(doc);
+            busqueda.poner(elementoBusqueda(doc));
             return true;
         } catch (Exception e) {
             System.err.println("Error al crear alumno: " + e.getMessage());
@@ -42,15 +74,17 @@ public class AlumnoController {
                     .append("email", alumno.getEmail())
                     .append("telefono", alumno.getTelefono())
                     .append("direccion", alumno.getDireccion())
-                    .append("fechaNacimiento", alumno.getFechaNacimiento())
+                    .append("fechaNacimiento", FechaUtil.aDate(alumno.getFechaNacimiento()))
                     .append("nombreTutor", alumno.getNombreTutor())
                     .append("telefonoTutor", alumno.getTelefonoTutor())
                     .append("activo", alumno.isActivo());
 
             collection.updateOne(
                     Filters.eq("_id", alumno.getId()),
-                    new Document("$set", updateDoc)
+                    Updates.combine(new Document("$set", updateDoc), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(alumno.getId());
+            busqueda.poner(elementoBusqueda(alumno.toDocument()));
             return true;
         } catch (Exception e) {
             System.err.println("Error al actualizar alumno: " + e.getMessage());
@@ -69,16 +103,122 @@ public class AlumnoController {
         return alumnos;
     }
 
+    /**
+     * Obtiene id, matrícula y nombre de los alumnos activos, ordenados por apellidos,
+     * para llenar combos y selectores sin decodificar el documento completo
+     * @return Resúmenes de alumnos
+     */
+    public static List<AlumnoResumen> obtenerResumenAlumnos() {
+        List<AlumnoResumen> alumnos = new ArrayList<>();
+        try {
+            collection.find(Filters.eq("activo", true))
+                    .projection(PROYECCION_RESUMEN)
+                    .sort(Sorts.ascending("apellidos", "nombre"))
+                    .forEach(doc -> alumnos.add(AlumnoResumen.fromDocument(doc)));
+        } catch (Exception e) {
+            System.err.println("Error al obtener resumen de alumnos: " + e.getMessage());
+        }
+        return alumnos;
+    }
+
+    /**
+     * Obtiene id, matrícula y nombre de los alumnos activos que no están en la lista,
+     * ordenados por apellidos; la exclusión se resuelve en el servidor
+     * @param excluidos Ids que no se incluyen
+     * @param limite Máximo de alumnos a devolver
+     * @return Resúmenes de alumnos
+     */
+    public static List<AlumnoResumen> obtenerResumenAlumnosExcepto(Collection<ObjectId> excluidos, int limite) {
+        List<AlumnoResumen> alumnos = new ArrayList<>();
+        try {
+            collection.find(Filters.and(Filters.eq("activo", true), Filters.nin("_id", excluidos)))
+                    .projection(PROYECCION_RESUMEN)
+                    .sort(Sorts.ascending("apellidos", "nombre"))
+                    .limit(limite)
+                    .forEach(doc -> alumnos.add(AlumnoResumen.fromDocument(doc)));
+        } catch (Exception e) {
+            System.err.println("Error al obtener resumen de alumnos: " + e.getMessage());
+        }
+        return alumnos;
+    }
+
+    /**
+     * Obtiene matrícula y nombre de varios alumnos (activos o no) sin pasar por la caché,
+     * para procesos masivos (exportaciones) y páginas de tablas que no deben desplazar lo que
+     * usan las vistas
+     * @param ids Ids de los alumnos
+     * @return Resúmenes por _id; los que no existen se omiten
+     */
+    public static Map<ObjectId, AlumnoResumen> obtenerResumenPorIds(List<ObjectId> ids) {
+        Map<ObjectId, AlumnoResumen> alumnos = new HashMap<>();
+        try {
+            BatchLoader.cargarMapa(collection, ids, null, PROYECCION_RESUMEN)
+                    .forEach((id, doc) -> alumnos.put(id, AlumnoResumen.fromDocument(doc)));
+        } catch (Exception e) {
+            System.err.println("Error al obtener resumen de alumnos por IDs: " + e.getMessage());
+        }
+        return alumnos;
+    }
+
+    /**
+     * Obtiene los datos que imprimen la boleta y el estado de cuenta (matrícula, nombre y
+     * email) de varios alumnos sin pasar por la caché, para la generación masiva de PDF
+     * @param ids Ids de los alumnos
+     * @return Alumnos con solo esos campos, por _id; los que no existen se omiten
+     */
+    public static Map<ObjectId, Alumno> obtenerAlumnosParaDocumentos(List<ObjectId> ids) {
+        Map<ObjectId, Alumno> alumnos = new HashMap<>();
+        try {
+            BatchLoader.cargarMapa(collection, ids, null, PROYECCION_DOCUMENTOS)
+                    .forEach((id, doc) -> alumnos.put(id, Alumno.fromDocument(doc)));
+        } catch (Exception e) {
+            System.err.println("Error al obtener alumnos para documentos: " + e.getMessage());
+        }
+        return alumnos;
+    }
+
+    /**
+     * Índice de búsqueda por nombre, apellidos o matrícula para filtrar selectores
+     * @param alumnos Resúmenes a indexar
+     * @return Índice de prefijos
+     */
+    public static IndicePrefijos<AlumnoResumen> indexarResumen(List<AlumnoResumen> alumnos) {
+        return new IndicePrefijos<>(alumnos,
+                a -> Arrays.asList(a.getNombre(), a.getApellidos(), a.getMatricula()));
+    }
+
+    /**
+     * Obtiene una página de alumnos activos (paginación por llave)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de alumnos
+     */
+    public static Paginador.Pagina<Alumno> obtenerAlumnosPagina(Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, Filters.eq("activo", true), solicitud, Alumno::fromDocument);
+    }
+
     public static Alumno obtenerAlumnoPorId(ObjectId id) {
         try {
-            Document doc = collection.find(Filters.eq("_id", id)).first();
-            return doc != null ? Alumno.fromDocument(doc) : null;
+            return cache.obtener(id, clave -> {
+                Document doc = collection.find(Filters.eq("_id", clave)).first();
+                return doc != null ? Alumno.fromDocument(doc) : null;
+            });
         } catch (Exception e) {
             System.err.println("Error al obtener alumno por ID: " + e.getMessage());
             return null;
         }
     }
 
+    public static List<Alumno> obtenerAlumnosPorIds(List<ObjectId> ids) {
+        try {
+            return cache.obtenerVarios(ids,
+                    faltantes -> BatchLoader.cargarPorIds(collection, faltantes, Alumno::fromDocument),
+                    Alumno::getId);
+        } catch (Exception e) {
+            System.err.println("Error al obtener alumnos por IDs: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     public static Alumno obtenerAlumnoPorMatricula(String matricula) {
         try {
             Document doc = collection.find(Filters.eq("matricula", matricula)).first();
@@ -89,30 +229,115 @@ public class AlumnoController {
         }
     }
 
+    /**
+     * Busca el alumno activo con el email dado (usa el índice ix_alumnos_email)
+     * @param email Email del alumno, normalmente el del usuario con sesión
+     * @return Alumno, o null si no hay uno activo con ese email
+     */
+    public static Alumno obtenerAlumnoPorEmail(String email) {
+        if (email == null || email.isEmpty()) return null;
+        try {
+            Document doc = collection.find(Filters.and(
+                    Filters.eq("email", email),
+                    Filters.eq("activo", true))).first();
+            if (doc == null) return null;
+            Alumno alumno = Alumno.fromDocument(doc);
+            cache.poner(alumno.getId(), alumno);
+            return alumno;
+        } catch (Exception e) {
+            System.err.println("Error al obtener alumno por email: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Busca alumnos activos por nombre, apellidos, matrícula o email (prefijo de cada palabra)
+     * @param termino Texto a buscar
+     * @return Hasta LIMITE_BUSQUEDA alumnos, los más relevantes primero
+     */
     public static List<Alumno> buscarAlumnos(String termino) {
-        List<Alumno> alumnos = new ArrayList<>();
         try {
-            Document regex = new Document("$regex", termino).append("$options", "i");
-            Document filter = new Document("$or", List.of(
-                    new Document("nombre", regex),
-                    new Document("apellidos", regex),
-                    new Document("matricula", regex),
-                    new Document("email", regex)
-            )).append("activo", true);
-
-            collection.find(filter).forEach(doc -> alumnos.add(Alumno.fromDocument(doc)));
+            return obtenerAlumnosPorIds(buscarIds(termino, LIMITE_BUSQUEDA, true));
         } catch (Exception e) {
             System.err.println("Error al buscar alumnos: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return alumnos;
+    }
+
+    /**
+     * Busca los ids de los alumnos (activos o no) por nombre, apellidos, matrícula o email
+     * @param termino Texto a buscar (se toma literal, no como expresión regular)
+     * @param limite Máximo de ids a devolver
+     * @return Ids de los alumnos encontrados, los más relevantes primero
+     */
+    public static List<ObjectId> buscarIdsAlumnos(String termino, int limite) {
+        try {
+            return buscarIds(termino, limite, false);
+        } catch (Exception e) {
+            System.err.println("Error al buscar alumnos: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Inicia en segundo plano la carga del índice de búsqueda (por ejemplo al abrir una vista con buscador)
+     */
+    public static void precargarBusqueda() {
+        busqueda.precargar();
+    }
+
+    // Mientras el índice en memoria se carga por primera vez se usa el índice de texto ix_alumnos_texto
+    private static List<ObjectId> buscarIds(String termino, int limite, boolean soloActivos) {
+        List<ObjectId> ids = busqueda.buscar(termino, limite, soloActivos);
+        return ids != null ? ids : IndiceBusqueda.buscarPorTexto(collection, termino, limite, soloActivos);
+    }
+
+    // El snapshot local tiene los mismos campos; se usa si se sincronizó dentro de la vigencia del índice
+    private static List<IndiceBusqueda.Elemento> cargarElementosBusqueda() {
+        List<IndiceBusqueda.Elemento> elementos = new ArrayList<>();
+        List<Document> snapshot = SnapshotReferencia.documentosVigentes("alumnos", VIGENCIA_BUSQUEDA_MS);
+        if (snapshot != null) {
+            snapshot.forEach(doc -> elementos.add(elementoBusqueda(doc)));
+            return elementos;
+        }
+        collection.find()
+                .projection(PROYECCION_BUSQUEDA)
+                .batchSize(5000)
+                .forEach(doc -> elementos.add(elementoBusqueda(doc)));
+        return elementos;
+    }
+
+    // La matrícula también se indexa sin separadores para que "a20240012" encuentre "A2024-0012"
+    private static IndiceBusqueda.Elemento elementoBusqueda(Document doc) {
+        String matricula = doc.getString("matricula");
+        String email = doc.getString("email");
+        return new IndiceBusqueda.Elemento(
+                doc.getObjectId("_id"),
+                doc.getString("apellidos") + " " + doc.getString("nombre"),
+                doc.getBoolean("activo", true),
+                Arrays.asList(
+                        doc.getString("nombre"),
+                        doc.getString("apellidos"),
+                        matricula,
+                        String.join("", IndicePrefijos.separar(matricula)),
+                        email != null && email.contains("@") ? email.substring(0, email.indexOf('@')) : email));
+    }
+
+    /**
+     * Descarta de la caché alumnos modificados desde otro controlador (por ejemplo, sus gruposIds)
+     */
+    static void invalidarCache(Collection<ObjectId> ids) {
+        cache.invalidar(ids);
     }
 
     public static boolean eliminarAlumno(ObjectId id) {
         try {
             collection.updateOne(
                     Filters.eq("_id", id),
-                    Updates.set("activo", false)
+                    Updates.combine(Updates.set("activo", false), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(id);
+            busqueda.marcarActivo(id, false);
             return true;
         } catch (Exception e) {
             System.err.println("Error al eliminar alumno: " + e.getMessage());
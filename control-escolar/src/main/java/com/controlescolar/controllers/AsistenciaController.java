@@ -2,47 +2,183 @@
 package com.controlescolar.controllers;
 
 import com.controlescolar.models.Asistencia;
+import com.controlescolar.enums.EstadoAsistencia;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Grupo;
 import com.controlescolar.models.Alumno;
+import com.controlescolar.utils.BatchLoader;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.FechaUtil;
+import com.controlescolar.utils.Paginador;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import javafx.collections.ObservableList;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class AsistenciaController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("asistencias");
 
+    // Código de error de MongoDB para llave duplicada
+    private static final int CODIGO_LLAVE_DUPLICADA = 11000;
+
+    /**
+     * Resultado de guardar una fila de asistencia
+     */
+    public static class ResultadoAsistencia {
+        public enum Estado { INSERTADA, ACTUALIZADA, ERROR }
+
+        private final Asistencia asistencia;
+        private final Estado estado;
+        private final String mensaje;
+
+        private ResultadoAsistencia(Asistencia asistencia, Estado estado, String mensaje) {
+            this.asistencia = asistencia;
+            this.estado = estado;
+            this.mensaje = mensaje;
+        }
+
+        public Asistencia getAsistencia() { return asistencia; }
+        public Estado getEstado() { return estado; }
+        public String getMensaje() { return mensaje; }
+        public boolean isExitoso() { return estado != Estado.ERROR; }
+    }
+
     public static boolean registrarAsistencia(Asistencia asistencia) {
-        try {
-            // Verificar si ya existe asistencia para esa fecha, alumno y materia
-            Document filter = new Document("alumnoId", asistencia.getAlumnoId())
-                    .append("materiaId", asistencia.getMateriaId())
-                    .append("fecha", asistencia.getFecha());
+        return guardarAsistencias(List.of(asistencia)).get(0).isExitoso();
+    }
 
-            if (collection.find(filter).first() != null) {
-                return actualizarAsistencia(asistencia);
+    /**
+     * Guarda la asistencia de varios alumnos con un solo bulkWrite sin orden: cada fila
+     * es un upsert por (alumnoId, materiaId, fecha), respaldado por el índice único
+     * ux_asistencias_alumno_materia_fecha. Una fila con error no detiene a las demás.
+     * @param asistencias Filas a guardar
+     * @return Un resultado por fila, en el mismo orden
+     */
+    public static List<ResultadoAsistencia> guardarAsistencias(List<Asistencia> asistencias) {
+        ResultadoAsistencia[] resultados = new ResultadoAsistencia[asistencias.size()];
+        List<Integer> pendientes = new ArrayList<>();
+        for (int i = 0; i < asistencias.size(); i++) {
+            Asistencia asistencia = asistencias.get(i);
+            if (asistencia.getAlumnoId() == null || asistencia.getMateriaId() == null
+                    || asistencia.getFecha() == null || asistencia.getEstado() == null) {
+                resultados[i] = new ResultadoAsistencia(asistencia, ResultadoAsistencia.Estado.ERROR,
+                        "Faltan alumno, materia, fecha o estado");
+            } else {
+                pendientes.add(i);
             }
+        }
 
-            collection.insertOne(asistencia.toDocument());
-            return true;
+        List<Integer> duplicadas = escribirLote(asistencias, pendientes, resultados);
+        // Dos upserts simultáneos de la misma llave: uno gana y el otro falla con llave
+        // duplicada; al reintentarlo ya encuentra el documento y lo actualiza
+        if (!duplicadas.isEmpty()) {
+            escribirLote(asistencias, duplicadas, resultados);
+        }
+        return Arrays.asList(resultados);
+    }
+
+    // Escribe las filas indicadas y devuelve las que fallaron por llave duplicada
+    private static List<Integer> escribirLote(List<Asistencia> asistencias, List<Integer> indices,
+                                              ResultadoAsistencia[] resultados) {
+        List<Integer> duplicadas = new ArrayList<>();
+        if (indices.isEmpty()) return duplicadas;
+
+        List<WriteModel<Document>> operaciones = new ArrayList<>(indices.size());
+        for (int indice : indices) {
+            operaciones.add(upsert(asistencias.get(indice)));
+        }
+
+        BulkWriteResult resultado;
+        Map<Integer, BulkWriteError> errores = new HashMap<>();
+        try {
+            resultado = collection.bulkWrite(operaciones, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            resultado = e.getWriteResult();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                errores.put(error.getIndex(), error);
+            }
         } catch (Exception e) {
-            System.err.println("Error al registrar asistencia: " + e.getMessage());
-            return false;
+            System.err.println("Error al guardar asistencias: " + e.getMessage());
+            for (int indice : indices) {
+                resultados[indice] = new ResultadoAsistencia(asistencias.get(indice),
+                        ResultadoAsistencia.Estado.ERROR, e.getMessage());
+            }
+            return duplicadas;
+        }
+
+        Set<Integer> insertadas = new HashSet<>();
+        for (BulkWriteUpsert upsert : resultado.getUpserts()) {
+            insertadas.add(upsert.getIndex());
         }
+
+        for (int i = 0; i < indices.size(); i++) {
+            int indice = indices.get(i);
+            Asistencia asistencia = asistencias.get(indice);
+            BulkWriteError error = errores.get(i);
+            if (error != null) {
+                if (error.getCode() == CODIGO_LLAVE_DUPLICADA) {
+                    duplicadas.add(indice);
+                } else {
+                    System.err.println("Error al guardar asistencia del alumno " + asistencia.getAlumnoId() + ": " + error.getMessage());
+                }
+                resultados[indice] = new ResultadoAsistencia(asistencia, ResultadoAsistencia.Estado.ERROR, error.getMessage());
+            } else {
+                resultados[indice] = new ResultadoAsistencia(asistencia, insertadas.contains(i)
+                        ? ResultadoAsistencia.Estado.INSERTADA
+                        : ResultadoAsistencia.Estado.ACTUALIZADA, null);
+            }
+        }
+        return duplicadas;
+    }
+
+    // La fecha se filtra igual que se guarda (FechaUtil.aDate) para que el upsert encuentre la fila
+    private static UpdateOneModel<Document> upsert(Asistencia asistencia) {
+        Document nuevo = asistencia.toDocument();
+        Bson filtro = Filters.and(
+                Filters.eq("alumnoId", nuevo.get("alumnoId")),
+                Filters.eq("materiaId", nuevo.get("materiaId")),
+                Filters.eq("fecha", nuevo.get("fecha")));
+
+        List<Bson> cambios = new ArrayList<>(List.of(
+                Updates.set("estado", nuevo.get("estado")),
+                Updates.set("observaciones", nuevo.get("observaciones")),
+                Updates.set("grupoId", nuevo.get("grupoId")),
+                Updates.setOnInsert("fechaRegistro", nuevo.get("fechaRegistro"))));
+        if (nuevo.get("_id") != null) {
+            cambios.add(Updates.setOnInsert("_id", nuevo.get("_id")));
+        }
+
+        return new UpdateOneModel<>(filtro, Updates.combine(cambios), new UpdateOptions().upsert(true));
     }
 
     public static boolean actualizarAsistencia(Asistencia asistencia) {
         try {
             Document filter = new Document("alumnoId", asistencia.getAlumnoId())
                     .append("materiaId", asistencia.getMateriaId())
-                    .append("fecha", asistencia.getFecha());
+                    .append("fecha", FechaUtil.aDate(asistencia.getFecha()));
 
             Document updateDoc = new Document()
                     .append("estado", asistencia.getEstado().toString())
@@ -71,7 +207,7 @@ public class AsistenciaController {
     public static List<Asistencia> obtenerAsistenciasPorMateria(ObjectId materiaId, LocalDate fecha) {
         List<Asistencia> asistencias = new ArrayList<>();
         try {
-            Document filter = new Document("materiaId", materiaId).append("fecha", fecha);
+            Document filter = new Document("materiaId", materiaId).append("fecha", FechaUtil.aDate(fecha));
             collection.find(filter)
                     .forEach(doc -> asistencias.add(Asistencia.fromDocument(doc)));
         } catch (Exception e) {
@@ -83,8 +219,9 @@ public class AsistenciaController {
     public static List<Asistencia> obtenerAsistenciasPorPeriodo(ObjectId alumnoId, LocalDate fechaInicio, LocalDate fechaFin) {
         List<Asistencia> asistencias = new ArrayList<>();
         try {
-            Document filter = new Document("alumnoId", alumnoId)
-                    .append("fecha", new Document("$gte", fechaInicio).append("$lte", fechaFin));
+            Bson filter = Filters.and(
+                    Filters.eq("alumnoId", alumnoId),
+                    FechaUtil.entre("fecha", fechaInicio, fechaFin));
 
             collection.find(filter)
                     .sort(Sorts.ascending("fecha"))
@@ -97,9 +234,10 @@ public class AsistenciaController {
 
     public static double calcularPorcentajeAsistencia(ObjectId alumnoId, ObjectId materiaId, LocalDate fechaInicio, LocalDate fechaFin) {
         try {
-            Document filter = new Document("alumnoId", alumnoId)
-                    .append("materiaId", materiaId)
-                    .append("fecha", new Document("$gte", fechaInicio).append("$lte", fechaFin));
+            Bson filter = Filters.and(
+                    Filters.eq("alumnoId", alumnoId),
+                    Filters.eq("materiaId", materiaId),
+                    FechaUtil.entre("fecha", fechaInicio, fechaFin));
 
             List<Asistencia> asistencias = new ArrayList<>();
             collection.find(filter).forEach(doc -> asistencias.add(Asistencia.fromDocument(doc)));
@@ -140,7 +278,7 @@ public class AsistenciaController {
         try {
             Document filter = new Document("materiaId", materiaId)
                     .append("grupoId", grupoId)
-                    .append("fecha", fecha);
+                    .append("fecha", FechaUtil.aDate(fecha));
             collection.find(filter)
                     .forEach(doc -> asistencias.add(Asistencia.fromDocument(doc)));
         } catch (Exception e) {
@@ -155,13 +293,9 @@ public class AsistenciaController {
             // First get the group to access its alumnosIds list
             Grupo grupo = GrupoController.obtenerGrupoPorId(grupoId);
             if (grupo != null && grupo.getAlumnosIds() != null) {
-                // Get each student by their ID
-                for (ObjectId alumnoId : grupo.getAlumnosIds()) {
-                    Alumno alumno = AlumnoController.obtenerAlumnoPorId(alumnoId);
-                    if (alumno != null && alumno.isActivo()) {
-                        alumnos.add(alumno);
-                    }
-                }
+                // Resolve all the group's students in one query, keeping the group's order
+                alumnos.addAll(BatchLoader.cargarPorIds(DatabaseUtil.getCollection("alumnos"), grupo.getAlumnosIds(),
+                        Filters.eq("activo", true), Alumno::fromDocument));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener alumnos por grupo: " + e.getMessage());
@@ -171,10 +305,8 @@ public class AsistenciaController {
 
     public boolean guardarAsistencia(ObservableList<Asistencia> listaAsistencia) {
         try {
-            for (Asistencia asistencia : listaAsistencia) {
-                registrarAsistencia(asistencia);
-            }
-            return true;
+            return guardarAsistencias(new ArrayList<>(listaAsistencia)).stream()
+                    .allMatch(ResultadoAsistencia::isExitoso);
         } catch (Exception e) {
             System.err.println("Error al guardar asistencia: " + e.getMessage());
             return false;
@@ -205,4 +337,45 @@ public class AsistenciaController {
         }
         return asistencias;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene una página del historial de asistencias (paginación por llave), por ejemplo
+     * Paginador.Solicitud.primera(200, "fecha", true)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de asistencias
+     */
+    public static Paginador.Pagina<Asistencia> obtenerAsistenciasPagina(Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, null, solicitud, Asistencia::fromDocument);
+    }
+
+    /**
+     * Cuenta las asistencias agrupadas por estado
+     * @return Mapa estado -> cantidad
+     */
+    public static Map<EstadoAsistencia, Long> contarPorEstado() {
+        Map<EstadoAsistencia, Long> conteo = new EnumMap<>(EstadoAsistencia.class);
+        try {
+            collection.aggregate(Arrays.asList(
+                    Aggregates.group("$estado", Accumulators.sum("cantidad", 1))
+            )).forEach(doc -> {
+                EstadoAsistencia estado = estadoAlmacenado(doc.getString("_id"));
+                if (estado != null) {
+                    conteo.merge(estado, ReportsController.numero(doc.get("cantidad")).longValue(), Long::sum);
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error al contar asistencias por estado: " + e.getMessage());
+        }
+        return conteo;
+    }
+
+    // El estado puede estar guardado por nombre o por descripción
+    private static EstadoAsistencia estadoAlmacenado(String valor) {
+        if (valor == null) return null;
+        try {
+            return EstadoAsistencia.valueOf(valor);
+        } catch (IllegalArgumentException e) {
+            return EstadoAsistencia.fromDescripcion(valor);
+        }
+    }
+}
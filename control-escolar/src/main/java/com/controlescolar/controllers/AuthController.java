@@ -1,23 +1,88 @@
 // AuthController.java
 package com.controlescolar.controllers;
 
+import com.controlescolar.config.SecurityConfig;
+import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
 import com.controlescolar.utils.DatabaseUtil;
-import com.controlescolar.utils.SecurityUtil;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class AuthController {
-    private static Usuario usuarioActual;
+    // Se asigna en el hilo del verificador de login y se lee desde JavaFX
+    private static volatile Usuario usuarioActual;
+    // Alumno asociado al usuario con sesión; se resuelve una vez por sesión
+    private static ObjectId alumnoUsuarioId;
+    private static ObjectId alumnoActualId;
+    // Alumnos que el padre con sesión puede consultar; null = hay que cargarlos
+    private static volatile AlumnosPermitidos alumnosPermitidos;
+    // Las vinculaciones se editan desde otra terminal: una revocación se aplica a más tardar en este tiempo
+    private static final long VIGENCIA_PERMITIDOS_MS = 60 * 1000;
+    // Un alumno que no está en el conjunto se vuelve a consultar (por si se acaba de vincular)
+    // si el conjunto tiene más de este tiempo
+    private static final long RECARGA_POR_FALLO_MS = 5 * 1000;
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("usuarios");
 
+    private static final class AlumnosPermitidos {
+        private final Set<ObjectId> ids;
+        private final long cargado = System.currentTimeMillis();
+
+        private AlumnosPermitidos(Set<ObjectId> ids) {
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Resultado de un intento de login
+     */
+    public enum ResultadoLogin {
+        EXITOSO,
+        CREDENCIALES_INVALIDAS,
+        BLOQUEADO,
+        OCUPADO,
+        ERROR
+    }
+
     public static boolean login(String email, String password) {
+        return autenticar(email, password) == ResultadoLogin.EXITOSO;
+    }
+
+    /**
+     * Inicia el login en el pool de verificadores de SecurityConfig para no
+     * bloquear el hilo de JavaFX mientras BCrypt compara la contraseña.
+     * Si el pool está saturado el resultado es OCUPADO.
+     * @param email Email del usuario
+     * @param password Contraseña en texto plano
+     * @return Futuro con el resultado; se completa fuera del hilo de JavaFX
+     */
+    public static CompletableFuture<ResultadoLogin> loginAsync(String email, String password) {
+        return SecurityConfig.ejecutarVerificacion(() -> autenticar(email, password))
+                .exceptionally(e -> {
+                    Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (causa instanceof RejectedExecutionException) {
+                        return ResultadoLogin.OCUPADO;
+                    }
+                    System.err.println("Error en login: " + causa.getMessage());
+                    return ResultadoLogin.ERROR;
+                });
+    }
+
+    private static ResultadoLogin autenticar(String email, String password) {
+        if (SecurityConfig.isUserLocked(email)) {
+            return ResultadoLogin.BLOQUEADO;
+        }
         try {
             Document userDoc = collection.find(
                 Filters.and(
@@ -26,22 +91,37 @@ public class AuthController {
                 )
             ).first();
 
-            if (userDoc != null && SecurityUtil.verifyPassword(password, userDoc.getString("password"))) {
-                usuarioActual = Usuario.fromDocument(userDoc);
-                usuarioActual.setUltimoAcceso(LocalDateTime.now());
+            String hash = userDoc != null ? userDoc.getString("password") : null;
+            if (userDoc == null || !SecurityConfig.verifyPassword(password, hash)) {
+                return SecurityConfig.recordFailedLogin(email)
+                        ? ResultadoLogin.BLOQUEADO : ResultadoLogin.CREDENCIALES_INVALIDAS;
+            }
+            SecurityConfig.clearLoginAttempts(email);
 
-                // Actualizar último acceso
+            Usuario usuario = Usuario.fromDocument(userDoc);
+            usuario.setUltimoAcceso(LocalDateTime.now());
+            // El login no espera la escritura del último acceso
+            UltimosAccesos.registrar(usuario.getId(), usuario.getUltimoAcceso());
+
+            // Hashes generados con otro costo (por ejemplo el admin inicial) se regeneran
+            // ahora que se tiene la contraseña en claro; solo si no cambió mientras tanto
+            if (SecurityConfig.needsRehash(hash)) {
                 collection.updateOne(
-                        Filters.eq("_id", usuarioActual.getId()),
-                        new Document("$set", new Document("ultimoAcceso", LocalDateTime.now()))
-                );
+                        Filters.and(Filters.eq("_id", usuario.getId()), Filters.eq("password", hash)),
+                        Updates.set("password", SecurityConfig.hashPassword(password)));
+            }
 
-                return true;
+            usuarioActual = usuario;
+            limpiarAlumnoActual();
+            alumnosPermitidos = null;
+            if (usuarioActual.getRol() == Rol.PADRE_FAMILIA) {
+                alumnosPermitidos = cargarAlumnosPermitidos(usuarioActual.getId());
             }
+            return ResultadoLogin.EXITOSO;
         } catch (Exception e) {
             System.err.println("Error en login: " + e.getMessage());
+            return ResultadoLogin.ERROR;
         }
-        return false;
     }
 
     public static boolean registrarUsuario(Usuario usuario, boolean esInvitacion) {
@@ -65,6 +145,77 @@ public class AuthController {
 
     public static void logout() {
         usuarioActual = null;
+        limpiarAlumnoActual();
+        alumnosPermitidos = null;
+    }
+
+    /**
+     * Descarta los alumnos permitidos del padre con sesión para que se vuelvan a
+     * leer en la siguiente verificación. PadreAlumnoController la llama al
+     * vincular, desvincular o cambiar la autorización; solo aplica si el cambio se
+     * hace en esta misma terminal, en otra se nota al vencer VIGENCIA_PERMITIDOS_MS.
+     * @param padreId Padre cuya vinculación cambió
+     */
+    public static void invalidarAlumnosPermitidos(ObjectId padreId) {
+        Usuario usuario = usuarioActual;
+        if (usuario != null && usuario.getId().equals(padreId)) {
+            alumnosPermitidos = null;
+        }
+    }
+
+    // Verificación en memoria contra los alumnos permitidos del padre con sesión
+    private static boolean padrePuedeAcceder(ObjectId alumnoId) {
+        AlumnosPermitidos permitidos = alumnosPermitidos;
+        long edad = permitidos != null ? System.currentTimeMillis() - permitidos.cargado : Long.MAX_VALUE;
+        if (edad > VIGENCIA_PERMITIDOS_MS || (edad > RECARGA_POR_FALLO_MS && !permitidos.ids.contains(alumnoId))) {
+            permitidos = cargarAlumnosPermitidos(usuarioActual.getId());
+            if (permitidos == null) {
+                // Sin poder consultar no se da acceso, y no se guarda nada para reintentar en la siguiente
+                return false;
+            }
+            alumnosPermitidos = permitidos;
+        }
+        return permitidos.ids.contains(alumnoId);
+    }
+
+    // null si la consulta falla, para no guardar un conjunto vacío por un error de conexión
+    private static AlumnosPermitidos cargarAlumnosPermitidos(ObjectId padreId) {
+        try {
+            return new AlumnosPermitidos(Collections.unmodifiableSet(
+                    PadreAlumnoController.cargarIdsAlumnosAutorizados(padreId)));
+        } catch (Exception e) {
+            System.err.println("Error al cargar alumnos permitidos del padre: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Obtiene el registro de alumno de un usuario con rol de alumno. La relación
+     * usuario → alumno se busca por email con una consulta indexada la primera vez
+     * y se guarda mientras dure la sesión; el alumno en sí sale de la caché de
+     * AlumnoController, así que refleja las ediciones hechas después.
+     * @param usuario Usuario con sesión
+     * @return Alumno asociado, o null si no existe
+     */
+    public static synchronized Alumno obtenerAlumnoDeUsuario(Usuario usuario) {
+        if (usuario == null || usuario.getId() == null) return null;
+
+        if (usuario.getId().equals(alumnoUsuarioId) && alumnoActualId != null) {
+            Alumno alumno = AlumnoController.obtenerAlumnoPorId(alumnoActualId);
+            if (alumno != null && alumno.isActivo()) {
+                return alumno;
+            }
+        }
+
+        Alumno alumno = AlumnoController.obtenerAlumnoPorEmail(usuario.getEmail());
+        alumnoUsuarioId = usuario.getId();
+        alumnoActualId = alumno != null ? alumno.getId() : null;
+        return alumno;
+    }
+
+    private static synchronized void limpiarAlumnoActual() {
+        alumnoUsuarioId = null;
+        alumnoActualId = null;
     }
 
     public static Usuario getUsuarioActual() {
@@ -189,7 +340,7 @@ public class AuthController {
                 // Verificar si es padre del estudiante
                 try {
                     ObjectId alumnoId = new ObjectId(studentId);
-                    return PadreAlumnoController.puedeAccederAlumno(usuarioActual.getId(), alumnoId);
+                    return padrePuedeAcceder(alumnoId);
                 } catch (Exception e) {
                     return false;
                 }
@@ -214,7 +365,7 @@ public class AuthController {
                 return usuarioActual.getId().equals(studentId);
             case PADRE_FAMILIA:
                 // Verificar si es padre del estudiante
-                return PadreAlumnoController.puedeAccederAlumno(usuarioActual.getId(), studentId);
+                return padrePuedeAcceder(studentId);
             default:
                 return false;
         }
@@ -229,7 +380,7 @@ public class AuthController {
                 return true;
             case PADRE_FAMILIA:
                 // Los padres pueden generar pagos para sus hijos
-                return PadreAlumnoController.puedeAccederAlumno(usuarioActual.getId(), studentId);
+                return padrePuedeAcceder(studentId);
             default:
                 return false;
         }
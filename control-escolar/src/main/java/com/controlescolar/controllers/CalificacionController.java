@@ -4,16 +4,22 @@ package com.controlescolar.controllers;
 import com.controlescolar.models.Calificacion;
 import com.controlescolar.enums.TipoCalificacion;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.Paginador;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Sorts;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CalificacionController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("calificaciones");
+    // Lecturas de listas: el codec decodifica el BSON directo a Calificacion
+    private static MongoCollection<Calificacion> calificacionesTipadas =
+            DatabaseUtil.getCollection("calificaciones", Calificacion.class);
 
     public static boolean registrarCalificacion(Calificacion calificacion) {
         try {
@@ -47,9 +53,9 @@ public class CalificacionController {
     public static List<Calificacion> obtenerCalificacionesPorAlumno(ObjectId alumnoId) {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
-            collection.find(Filters.eq("alumnoId", alumnoId))
+            calificacionesTipadas.find(Filters.eq("alumnoId", alumnoId))
                     .sort(Sorts.descending("fechaRegistro"))
-                    .forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+                    .into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener calificaciones por alumno: " + e.getMessage());
         }
@@ -59,9 +65,9 @@ public class CalificacionController {
     public static List<Calificacion> obtenerCalificacionesPorMateria(ObjectId materiaId) {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
-            collection.find(Filters.eq("materiaId", materiaId))
+            calificacionesTipadas.find(Filters.eq("materiaId", materiaId))
                     .sort(Sorts.descending("fechaRegistro"))
-                    .forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+                    .into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener calificaciones por materia: " + e.getMessage());
         }
@@ -72,33 +78,56 @@ public class CalificacionController {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
             Document filter = new Document("alumnoId", alumnoId).append("materiaId", materiaId);
-            collection.find(filter)
+            calificacionesTipadas.find(filter)
                     .sort(Sorts.ascending("tipo"))
-                    .forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+                    .into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener calificaciones por alumno y materia: " + e.getMessage());
         }
         return calificaciones;
     }
 
-    public static double calcularPromedioAlumno(ObjectId alumnoId, ObjectId materiaId) {
+    public static List<Calificacion> obtenerCalificacionesPorAlumnos(List<ObjectId> alumnosIds) {
+        List<Calificacion> calificaciones = new ArrayList<>();
+        if (alumnosIds == null || alumnosIds.isEmpty()) return calificaciones;
         try {
-            List<Calificacion> calificaciones = obtenerCalificacionesPorAlumnoYMateria(alumnoId, materiaId);
-            if (calificaciones.isEmpty()) return 0.0;
-
-            double sumaCalificacionesPonderadas = 0.0;
-            double sumaPonderaciones = 0.0;
+            // Solo los campos que usan los promedios
+            calificacionesTipadas.find(Filters.in("alumnoId", alumnosIds))
+                    .projection(Projections.include("alumnoId", "materiaId", "tipo", "calificacion", "ponderacion"))
+                    .into(calificaciones);
+        } catch (Exception e) {
+            System.err.println("Error al obtener calificaciones por alumnos: " + e.getMessage());
+        }
+        return calificaciones;
+    }
 
-            for (Calificacion cal : calificaciones) {
-                double ponderacion = cal.getPonderacion() > 0 ? cal.getPonderacion() : cal.getTipo().getPesoDefault();
-                sumaCalificacionesPonderadas += cal.getCalificacion() * (ponderacion / 100.0);
-                sumaPonderaciones += ponderacion / 100.0;
+    /**
+     * Calificaciones de un lote de alumnos en un período, en orden de registro,
+     * para armar boletas sin una consulta por alumno
+     * @param periodo Período a filtrar; null incluye todos
+     */
+    public static List<Calificacion> obtenerCalificacionesPorAlumnos(List<ObjectId> alumnosIds, String periodo) {
+        List<Calificacion> calificaciones = new ArrayList<>();
+        if (alumnosIds == null || alumnosIds.isEmpty()) return calificaciones;
+        try {
+            Bson filtro = Filters.in("alumnoId", alumnosIds);
+            if (periodo != null && !periodo.trim().isEmpty()) {
+                filtro = Filters.and(filtro, Filters.eq("periodo", periodo.trim()));
             }
+            calificacionesTipadas.find(filtro)
+                    .projection(Projections.include("alumnoId", "materiaId", "tipo", "calificacion",
+                            "ponderacion", "periodo", "fechaRegistro"))
+                    .sort(Sorts.ascending("fechaRegistro"))
+                    .into(calificaciones);
+        } catch (Exception e) {
+            System.err.println("Error al obtener calificaciones por alumnos: " + e.getMessage());
+        }
+        return calificaciones;
+    }
 
-            if (sumaPonderaciones == 0) return 0.0;
-            
-            double promedio = sumaCalificacionesPonderadas / sumaPonderaciones;
-            return Math.round(promedio * 100.0) / 100.0;
+    public static double calcularPromedioAlumno(ObjectId alumnoId, ObjectId materiaId) {
+        try {
+            return calcularPromedioPonderado(obtenerCalificacionesPorAlumnoYMateria(alumnoId, materiaId));
         } catch (Exception e) {
             System.err.println("Error al calcular promedio: " + e.getMessage());
             return 0.0;
@@ -107,39 +136,68 @@ public class CalificacionController {
 
     public static double calcularPromedioGeneralAlumno(ObjectId alumnoId) {
         try {
-            List<Calificacion> todasCalificaciones = obtenerCalificacionesPorAlumno(alumnoId);
-            if (todasCalificaciones.isEmpty()) return 0.0;
+            return calcularPromedioGeneral(obtenerCalificacionesPorAlumno(alumnoId));
+        } catch (Exception e) {
+            System.err.println("Error al calcular promedio general: " + e.getMessage());
+            return 0.0;
+        }
+    }
 
-            // Agrupar por materia y calcular promedio por materia
-            java.util.Map<ObjectId, List<Calificacion>> calificacionesPorMateria = new java.util.HashMap<>();
-            for (Calificacion cal : todasCalificaciones) {
-                calificacionesPorMateria.computeIfAbsent(cal.getMateriaId(), k -> new ArrayList<>()).add(cal);
-            }
+    /**
+     * Promedio ponderado de las calificaciones de un alumno en una materia.
+     * Usa la ponderación registrada o, si no hay, el peso por defecto del tipo.
+     */
+    public static double calcularPromedioPonderado(List<Calificacion> calificaciones) {
+        if (calificaciones.isEmpty()) return 0.0;
 
-            double sumaPromedios = 0.0;
-            int contadorMaterias = 0;
+        double sumaCalificacionesPonderadas = 0.0;
+        double sumaPonderaciones = 0.0;
 
-            for (java.util.Map.Entry<ObjectId, List<Calificacion>> entry : calificacionesPorMateria.entrySet()) {
-                double promedioMateria = calcularPromedioAlumno(alumnoId, entry.getKey());
-                if (promedioMateria > 0) {
-                    sumaPromedios += promedioMateria;
-                    contadorMaterias++;
-                }
-            }
+        for (Calificacion cal : calificaciones) {
+            double ponderacion = cal.getPonderacion() > 0 ? cal.getPonderacion() : cal.getTipo().getPesoDefault();
+            sumaCalificacionesPonderadas += cal.getCalificacion() * (ponderacion / 100.0);
+            sumaPonderaciones += ponderacion / 100.0;
+        }
 
-            return contadorMaterias > 0 ? Math.round((sumaPromedios / contadorMaterias) * 100.0) / 100.0 : 0.0;
-        } catch (Exception e) {
-            System.err.println("Error al calcular promedio general: " + e.getMessage());
-            return 0.0;
+        if (sumaPonderaciones == 0) return 0.0;
+
+        double promedio = sumaCalificacionesPonderadas / sumaPonderaciones;
+        return Math.round(promedio * 100.0) / 100.0;
+    }
+
+    /**
+     * Promedio general de un alumno: media de sus promedios ponderados por materia,
+     * ignorando las materias con promedio 0. Recibe todas las calificaciones del alumno.
+     */
+    public static double calcularPromedioGeneral(List<Calificacion> calificacionesAlumno) {
+        if (calificacionesAlumno.isEmpty()) return 0.0;
+
+        // Agrupar por materia y calcular promedio por materia
+        java.util.Map<ObjectId, List<Calificacion>> calificacionesPorMateria = new java.util.HashMap<>();
+        for (Calificacion cal : calificacionesAlumno) {
+            calificacionesPorMateria.computeIfAbsent(cal.getMateriaId(), k -> new ArrayList<>()).add(cal);
+        }
+
+        double sumaPromedios = 0.0;
+        int contadorMaterias = 0;
+
+        for (List<Calificacion> calificacionesMateria : calificacionesPorMateria.values()) {
+            double promedioMateria = calcularPromedioPonderado(calificacionesMateria);
+            if (promedioMateria > 0) {
+                sumaPromedios += promedioMateria;
+                contadorMaterias++;
+            }
         }
+
+        return contadorMaterias > 0 ? Math.round((sumaPromedios / contadorMaterias) * 100.0) / 100.0 : 0.0;
     }
 
     public static List<Calificacion> obtenerCalificacionesPorPeriodo(String periodo) {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
-            collection.find(Filters.eq("periodo", periodo))
+            calificacionesTipadas.find(Filters.eq("periodo", periodo))
                     .sort(Sorts.descending("fechaRegistro"))
-                    .forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+                    .into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener calificaciones por período: " + e.getMessage());
         }
@@ -149,9 +207,9 @@ public class CalificacionController {
     public static List<Calificacion> obtenerCalificacionesPorTipo(TipoCalificacion tipo) {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
-            collection.find(Filters.eq("tipo", tipo.toString()))
+            calificacionesTipadas.find(Filters.eq("tipo", tipo.toString()))
                     .sort(Sorts.descending("fechaRegistro"))
-                    .forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+                    .into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener calificaciones por tipo: " + e.getMessage());
         }
@@ -227,10 +285,20 @@ public class CalificacionController {
     public static List<Calificacion> obtenerTodas() {
         List<Calificacion> calificaciones = new ArrayList<>();
         try {
-            collection.find().sort(Sorts.descending("fechaRegistro")).forEach(doc -> calificaciones.add(Calificacion.fromDocument(doc)));
+            calificacionesTipadas.find().sort(Sorts.descending("fechaRegistro")).into(calificaciones);
         } catch (Exception e) {
             System.err.println("Error al obtener todas las calificaciones: " + e.getMessage());
         }
         return calificaciones;
     }
+
+    /**
+     * Obtiene una página de calificaciones (paginación por llave), por ejemplo
+     * Paginador.Solicitud.primera(200, "fechaRegistro", true)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de calificaciones
+     */
+    public static Paginador.Pagina<Calificacion> obtenerCalificacionesPagina(Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, null, solicitud, Calificacion::fromDocument);
+    }
 }
\ No newline at end of file
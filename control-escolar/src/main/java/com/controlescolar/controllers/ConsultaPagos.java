@@ -0,0 +1,213 @@
+// ConsultaPagos.java
+package com.controlescolar.controllers;
+
+import com.controlescolar.enums.EstadoPago;
+import com.controlescolar.enums.TipoPago;
+import com.controlescolar.utils.FechaUtil;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criterios de búsqueda de pagos que se combinan en un solo filtro de MongoDB.
+ *
+ * Uso:
+ * <pre>
+ * ConsultaPagos consulta = new ConsultaPagos()
+ *         .conEstados(EstadoPago.PENDIENTE, EstadoPago.VENCIDO)
+ *         .vencimientoEntre(inicioMes, finMes)
+ *         .conFolioQueEmpiezaCon("PAG17");
+ * List&lt;Pago&gt; pagos = PagoController.buscarPagos(consulta, 500);
+ * </pre>
+ *
+ * Los criterios vacíos se ignoran, así que una consulta nueva equivale a "todos".
+ * Las fechas son inclusivas en ambos extremos.
+ */
+public class ConsultaPagos {
+
+    // Campos que usan la tabla de pagos; no se traen la referencia ni los datos de auditoría
+    public static final Bson PROYECCION_LISTA = Projections.include(
+            "alumnoId", "folio", "concepto", "periodo", "estado", "tipo", "metodoPago",
+            "montoOriginal", "montoPagado", "montoRecargo", "montoBeca",
+            "fechaVencimiento", "fechaPago", "observaciones");
+
+    private final List<String> estados = new ArrayList<>();
+    private final List<String> tipos = new ArrayList<>();
+    private String periodo;
+    private LocalDate vencimientoDesde;
+    private LocalDate vencimientoHasta;
+    private Integer mesVencimiento;
+    private LocalDate pagoDesde;
+    private LocalDate pagoHasta;
+    private ObjectId alumnoId;
+    private List<ObjectId> alumnosIds;
+    private String prefijoFolio;
+    private boolean busquedaAlumnoOFolio;
+
+    public ConsultaPagos conEstados(EstadoPago... estados) {
+        for (EstadoPago estado : estados) {
+            if (estado != null) {
+                this.estados.addAll(estado.getValoresAlmacenados());
+            }
+        }
+        return this;
+    }
+
+    public ConsultaPagos conTipos(TipoPago... tipos) {
+        for (TipoPago tipo : tipos) {
+            if (tipo != null) {
+                this.tipos.add(tipo.name());
+                this.tipos.add(tipo.getNombre());
+            }
+        }
+        return this;
+    }
+
+    public ConsultaPagos delPeriodo(String periodo) {
+        this.periodo = vacioANulo(periodo);
+        return this;
+    }
+
+    /**
+     * Filtra por fecha de vencimiento; cualquiera de los extremos puede ser null
+     */
+    public ConsultaPagos vencimientoEntre(LocalDate desde, LocalDate hasta) {
+        this.vencimientoDesde = desde;
+        this.vencimientoHasta = hasta;
+        return this;
+    }
+
+    /**
+     * Filtra por el mes de vencimiento sin importar el año (1 = enero). Si se conoce
+     * el año conviene usar vencimientoEntre, que sí aprovecha los índices.
+     */
+    public ConsultaPagos vencimientoEnMes(Integer mes) {
+        this.mesVencimiento = mes;
+        return this;
+    }
+
+    /**
+     * Filtra por fecha de pago; cualquiera de los extremos puede ser null
+     */
+    public ConsultaPagos pagoEntre(LocalDate desde, LocalDate hasta) {
+        this.pagoDesde = desde;
+        this.pagoHasta = hasta;
+        return this;
+    }
+
+    public ConsultaPagos delAlumno(ObjectId alumnoId) {
+        this.alumnoId = alumnoId;
+        return this;
+    }
+
+    /**
+     * Limita a los pagos de un conjunto de alumnos (por ejemplo, el resultado de una búsqueda por nombre)
+     */
+    public ConsultaPagos deAlumnos(Collection<ObjectId> alumnosIds) {
+        this.alumnosIds = alumnosIds != null ? new ArrayList<>(alumnosIds) : null;
+        return this;
+    }
+
+    public ConsultaPagos conFolioQueEmpiezaCon(String prefijo) {
+        this.prefijoFolio = vacioANulo(prefijo);
+        return this;
+    }
+
+    /**
+     * Hace que deAlumnos y conFolioQueEmpiezaCon se cumplan con cualquiera de los dos
+     * (búsqueda libre "nombre, matrícula o folio") en lugar de ambos
+     */
+    public ConsultaPagos comoBusquedaAlumnoOFolio() {
+        this.busquedaAlumnoOFolio = true;
+        return this;
+    }
+
+    /**
+     * Indica si la consulta no tiene ningún criterio
+     */
+    public boolean esVacia() {
+        return toFiltro() == null;
+    }
+
+    /**
+     * Construye el filtro de MongoDB
+     * @return Filtro combinado, o null si no hay criterios
+     */
+    public Bson toFiltro() {
+        List<Bson> condiciones = new ArrayList<>();
+
+        if (!estados.isEmpty()) {
+            condiciones.add(Filters.in("estado", estados));
+        }
+        if (!tipos.isEmpty()) {
+            condiciones.add(Filters.in("tipo", tipos));
+        }
+        if (periodo != null) {
+            condiciones.add(Filters.eq("periodo", periodo));
+        }
+        agregarRango(condiciones, "fechaVencimiento", vencimientoDesde, vencimientoHasta);
+        agregarRango(condiciones, "fechaPago", pagoDesde, pagoHasta);
+        if (mesVencimiento != null) {
+            Document mes = new Document("$month", new Document("date", "$fechaVencimiento")
+                    .append("timezone", FechaUtil.ZONA_ALMACENAMIENTO));
+            condiciones.add(Filters.expr(new Document("$eq", Arrays.asList(mes, mesVencimiento))));
+        }
+        if (alumnoId != null) {
+            condiciones.add(Filters.eq("alumnoId", alumnoId));
+        }
+
+        // El prefijo anclado y sensible a mayúsculas puede usar el índice de folio
+        Bson porAlumnos = alumnosIds != null ? Filters.in("alumnoId", alumnosIds) : null;
+        Bson porFolio = prefijoFolio != null
+                ? Filters.regex("folio", "^" + escaparRegex(prefijoFolio))
+                : null;
+        if (busquedaAlumnoOFolio && porAlumnos != null && porFolio != null) {
+            condiciones.add(Filters.or(porAlumnos, porFolio));
+        } else {
+            if (porAlumnos != null) condiciones.add(porAlumnos);
+            if (porFolio != null) condiciones.add(porFolio);
+        }
+
+        if (condiciones.isEmpty()) return null;
+        return condiciones.size() == 1 ? condiciones.get(0) : Filters.and(condiciones);
+    }
+
+    /**
+     * Filtro para usar en find/aggregate aunque no haya criterios
+     */
+    Bson toFiltroOTodos() {
+        Bson filtro = toFiltro();
+        return filtro != null ? filtro : new Document();
+    }
+
+    private static void agregarRango(List<Bson> condiciones, String campo, LocalDate desde, LocalDate hasta) {
+        Bson rango = FechaUtil.entre(campo, desde, hasta);
+        if (rango != null) {
+            condiciones.add(rango);
+        }
+    }
+
+    // Se escapan los metacaracteres uno por uno (sin \Q...\E) para que el prefijo siga usando el índice
+    private static String escaparRegex(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor == null || valor.trim().isEmpty() ? null : valor.trim();
+    }
+}
@@ -0,0 +1,184 @@
+// EstadisticasController.java
+package com.controlescolar.controllers;
+
+import com.controlescolar.enums.EstadoAsistencia;
+import com.controlescolar.enums.EstadoPago;
+import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.FechaUtil;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Estadísticas del dashboard calculadas en el servidor: conteos con
+ * countDocuments sobre campos indexados y sumas con agregaciones, sin
+ * convertir documentos a modelos. Los resultados se guardan unos segundos
+ * para que abrir y volver al inicio no repita las consultas.
+ */
+public class EstadisticasController {
+    private static MongoCollection<Document> alumnosCollection = DatabaseUtil.getCollection("alumnos");
+    private static MongoCollection<Document> profesoresCollection = DatabaseUtil.getCollection("profesores");
+    private static MongoCollection<Document> materiasCollection = DatabaseUtil.getCollection("materias");
+    private static MongoCollection<Document> gruposCollection = DatabaseUtil.getCollection("grupos");
+    private static MongoCollection<Document> pagosCollection = DatabaseUtil.getCollection("pagos");
+    private static MongoCollection<Document> asistenciasCollection = DatabaseUtil.getCollection("asistencias");
+
+    // Vigencia de los valores en caché
+    private static final long TTL_MS = 30_000;
+
+    private static final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+
+    private static class Entrada {
+        private final Object valor;
+        private final long expira;
+
+        private Entrada(Object valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cacheado(String clave, Supplier<T> calculo) {
+        Entrada entrada = cache.get(clave);
+        long ahora = System.currentTimeMillis();
+        if (entrada != null && entrada.expira > ahora) {
+            return (T) entrada.valor;
+        }
+        T valor = calculo.get();
+        cache.put(clave, new Entrada(valor, ahora + TTL_MS));
+        return valor;
+    }
+
+    /**
+     * Descarta los valores en caché (por ejemplo después de una carga masiva)
+     */
+    public static void invalidarCache() {
+        cache.clear();
+    }
+
+    public static long contarAlumnos() {
+        return cacheado("alumnos", () -> alumnosCollection.countDocuments());
+    }
+
+    public static long contarProfesores() {
+        return cacheado("profesores", () -> profesoresCollection.countDocuments());
+    }
+
+    public static long contarAlumnosActivos() {
+        return cacheado("alumnosActivos", () -> alumnosCollection.countDocuments(Filters.eq("activo", true)));
+    }
+
+    public static long contarProfesoresActivos() {
+        return cacheado("profesoresActivos", () -> profesoresCollection.countDocuments(Filters.eq("activo", true)));
+    }
+
+    public static long contarMateriasActivas() {
+        return cacheado("materiasActivas", () -> materiasCollection.countDocuments(Filters.eq("activa", true)));
+    }
+
+    public static long contarGruposActivos() {
+        return cacheado("gruposActivos", () -> gruposCollection.countDocuments(Filters.eq("activo", true)));
+    }
+
+    /**
+     * Cuenta los pagos que requieren acción (pendientes, parciales o vencidos)
+     * @return Número de pagos
+     */
+    public static long contarPagosPendientes() {
+        return cacheado("pagosPendientes", () -> pagosCollection.countDocuments(
+                Filters.in("estado", valoresEstados(EstadoPago.PENDIENTE, EstadoPago.PARCIAL, EstadoPago.VENCIDO))));
+    }
+
+    /**
+     * Calcula el porcentaje de asistencia del día (presentes y retardos sobre el total registrado)
+     * @return Porcentaje de 0 a 100, o null si hoy no hay asistencias registradas
+     */
+    public static Double calcularAsistenciaHoy() {
+        return cacheado("asistenciaHoy", () -> {
+            LocalDate hoy = LocalDate.now();
+            Bson filtroHoy = FechaUtil.delDia("fecha", hoy);
+
+            Document asistio = new Document("$cond", Arrays.asList(
+                    new Document("$in", Arrays.asList("$estado",
+                            Arrays.asList(EstadoAsistencia.PRESENTE.name(), EstadoAsistencia.TARDANZA.name()))),
+                    1, 0));
+
+            Document resultado = asistenciasCollection.aggregate(Arrays.asList(
+                    Aggregates.match(filtroHoy),
+                    Aggregates.group(null,
+                            Accumulators.sum("total", 1),
+                            Accumulators.sum("asistieron", asistio))
+            )).first();
+
+            if (resultado == null) return null;
+            double total = ReportsController.numero(resultado.get("total")).doubleValue();
+            double asistieron = ReportsController.numero(resultado.get("asistieron")).doubleValue();
+            return total > 0 ? asistieron * 100.0 / total : null;
+        });
+    }
+
+    /**
+     * Suma el saldo de los pagos sin completar cuya fecha de vencimiento ya pasó
+     * @return Total adeudado (monto original + recargos - becas - pagado)
+     */
+    public static double calcularAdeudoVencido() {
+        return cacheado("adeudoVencido", () -> {
+            Bson filtro = Filters.and(
+                    Filters.in("estado", valoresEstados(EstadoPago.PENDIENTE, EstadoPago.PARCIAL, EstadoPago.VENCIDO)),
+                    FechaUtil.antesDe("fechaVencimiento", LocalDate.now()));
+
+            Document saldo = new Document("$subtract", Arrays.asList(
+                    new Document("$add", Arrays.asList(campoNumerico("montoOriginal"), campoNumerico("montoRecargo"))),
+                    new Document("$add", Arrays.asList(campoNumerico("montoBeca"), campoNumerico("montoPagado")))));
+
+            Document resultado = pagosCollection.aggregate(Arrays.asList(
+                    Aggregates.match(filtro),
+                    Aggregates.group(null, Accumulators.sum("total", saldo))
+            )).first();
+
+            return resultado != null ? ReportsController.numero(resultado.get("total")).doubleValue() : 0.0;
+        });
+    }
+
+    /**
+     * Obtiene todas las estadísticas de las tarjetas del dashboard
+     * @return Mapa ordenado con alumnos, profesores, materias, grupos,
+     *         pagosPendientes, asistenciaHoy (puede ser null) y adeudoVencido
+     */
+    public static Map<String, Object> obtenerResumenDashboard() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("alumnos", contarAlumnosActivos());
+        resumen.put("profesores", contarProfesoresActivos());
+        resumen.put("materias", contarMateriasActivas());
+        resumen.put("grupos", contarGruposActivos());
+        resumen.put("pagosPendientes", contarPagosPendientes());
+        resumen.put("asistenciaHoy", calcularAsistenciaHoy());
+        resumen.put("adeudoVencido", calcularAdeudoVencido());
+        return resumen;
+    }
+
+    private static Document campoNumerico(String campo) {
+        return new Document("$ifNull", Arrays.asList("$" + campo, 0));
+    }
+
+    private static List<String> valoresEstados(EstadoPago... estados) {
+        List<String> valores = new ArrayList<>();
+        for (EstadoPago estado : estados) {
+            valores.addAll(estado.getValoresAlmacenados());
+        }
+        return valores;
+    }
+}
@@ -1,24 +1,43 @@
 // GrupoController.java
 package com.controlescolar.controllers;
 
+import com.controlescolar.config.SnapshotReferencia;
 import com.controlescolar.models.Grupo;
 import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Profesor;
+import com.controlescolar.utils.BatchLoader;
+import com.controlescolar.utils.CacheEntidades;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.IndiceBusqueda;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class GrupoController {
     private static MongoCollection<Document> gruposCollection = DatabaseUtil.getCollection("grupos");
     private static MongoCollection<Document> alumnosCollection = DatabaseUtil.getCollection("alumnos");
-    private static MongoCollection<Document> materiasCollection = DatabaseUtil.getCollection("materias");
-    private static MongoCollection<Document> profesoresCollection = DatabaseUtil.getCollection("profesores");
+
+    // Grupos consultados por id desde reportes, asistencias y las vistas de grupos
+    private static final CacheEntidades<Grupo> cache = new CacheEntidades<>("grupos", 1000, 5 * 60 * 1000);
+
+    // Búsqueda por código, nombre, grado o sección desde GruposView
+    private static final long VIGENCIA_BUSQUEDA_MS = 10 * 60 * 1000;
+    private static final IndiceBusqueda busqueda = new IndiceBusqueda("grupos", VIGENCIA_BUSQUEDA_MS,
+            GrupoController::cargarElementosBusqueda);
+    private static final int LIMITE_BUSQUEDA = 500;
 
     public static boolean crearGrupo(Grupo grupo) {
         try {
@@ -27,7 +46,9 @@ public class GrupoController {
                 return false;
             }
 
-            gruposCollection.insertOne(grupo.toDocument());
+            Document doc = SnapshotReferencia.marcarInsercion(grupo.toDocument());
+            gruposCollection.insertOne(doc);
+            busqueda.poner(elementoBusqueda(doc));
             return true;
         } catch (Exception e) {
             System.err.println("Error al crear grupo: " + e.getMessage());
@@ -46,8 +67,10 @@ public class GrupoController {
 
             gruposCollection.updateOne(
                     Filters.eq("_id", grupo.getId()),
-                    new Document("$set", updateDoc)
+                    Updates.combine(new Document("$set", updateDoc), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(grupo.getId());
+            busqueda.poner(elementoBusqueda(grupo.toDocument()));
             return true;
         } catch (Exception e) {
             System.err.println("Error al actualizar grupo: " + e.getMessage());
@@ -60,8 +83,10 @@ public class GrupoController {
             // Marcar como inactivo en lugar de eliminar
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.set("activo", false)
+                    Updates.combine(Updates.set("activo", false), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(grupoId);
+            busqueda.marcarActivo(grupoId, false);
             return true;
         } catch (Exception e) {
             System.err.println("Error al eliminar grupo: " + e.getMessage());
@@ -82,14 +107,27 @@ public class GrupoController {
 
     public static Grupo obtenerGrupoPorId(ObjectId grupoId) {
         try {
-            Document doc = gruposCollection.find(Filters.eq("_id", grupoId)).first();
-            return doc != null ? Grupo.fromDocument(doc) : null;
+            return cache.obtener(grupoId, clave -> {
+                Document doc = gruposCollection.find(Filters.eq("_id", clave)).first();
+                return doc != null ? Grupo.fromDocument(doc) : null;
+            });
         } catch (Exception e) {
             System.err.println("Error al obtener grupo por ID: " + e.getMessage());
             return null;
         }
     }
 
+    public static List<Grupo> obtenerGruposPorIds(List<ObjectId> ids) {
+        try {
+            return cache.obtenerVarios(ids,
+                    faltantes -> BatchLoader.cargarPorIds(gruposCollection, faltantes, Grupo::fromDocument),
+                    Grupo::getId);
+        } catch (Exception e) {
+            System.err.println("Error al obtener grupos por IDs: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     public static List<Grupo> obtenerGruposPorGrado(String grado) {
         List<Grupo> grupos = new ArrayList<>();
         try {
@@ -111,15 +149,17 @@ public class GrupoController {
             // Agregar alumno al grupo
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.addToSet("alumnosIds", alumnoId)
+                    Updates.combine(Updates.addToSet("alumnosIds", alumnoId), SnapshotReferencia.marcaModificacion())
             );
 
             // Agregar grupo al alumno
             alumnosCollection.updateOne(
                     Filters.eq("_id", alumnoId),
-                    Updates.addToSet("gruposIds", grupoId)
+                    Updates.combine(Updates.addToSet("gruposIds", grupoId), SnapshotReferencia.marcaModificacion())
             );
 
+            cache.invalidar(grupoId);
+            AlumnoController.invalidarCache(List.of(alumnoId));
             return true;
         } catch (Exception e) {
             System.err.println("Error al asignar alumno a grupo: " + e.getMessage());
@@ -132,15 +172,17 @@ public class GrupoController {
             // Remover alumno del grupo
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.pull("alumnosIds", alumnoId)
+                    Updates.combine(Updates.pull("alumnosIds", alumnoId), SnapshotReferencia.marcaModificacion())
             );
 
             // Remover grupo del alumno
             alumnosCollection.updateOne(
                     Filters.eq("_id", alumnoId),
-                    Updates.pull("gruposIds", grupoId)
+                    Updates.combine(Updates.pull("gruposIds", grupoId), SnapshotReferencia.marcaModificacion())
             );
 
+            cache.invalidar(grupoId);
+            AlumnoController.invalidarCache(List.of(alumnoId));
             return true;
         } catch (Exception e) {
             System.err.println("Error al remover alumno de grupo: " + e.getMessage());
@@ -153,12 +195,7 @@ public class GrupoController {
         try {
             Grupo grupo = obtenerGrupoPorId(grupoId);
             if (grupo != null && grupo.getAlumnosIds() != null) {
-                for (ObjectId alumnoId : grupo.getAlumnosIds()) {
-                    Document doc = alumnosCollection.find(Filters.eq("_id", alumnoId)).first();
-                    if (doc != null) {
-                        alumnos.add(Alumno.fromDocument(doc));
-                    }
-                }
+                alumnos.addAll(AlumnoController.obtenerAlumnosPorIds(grupo.getAlumnosIds()));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener alumnos del grupo: " + e.getMessage());
@@ -171,12 +208,7 @@ public class GrupoController {
         try {
             Alumno alumno = AlumnoController.obtenerAlumnoPorId(alumnoId);
             if (alumno != null && alumno.getGruposIds() != null) {
-                for (ObjectId grupoId : alumno.getGruposIds()) {
-                    Grupo grupo = obtenerGrupoPorId(grupoId);
-                    if (grupo != null) {
-                        grupos.add(grupo);
-                    }
-                }
+                grupos.addAll(obtenerGruposPorIds(alumno.getGruposIds()));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener grupos del alumno: " + e.getMessage());
@@ -189,8 +221,9 @@ public class GrupoController {
         try {
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.addToSet("materiasIds", materiaId)
+                    Updates.combine(Updates.addToSet("materiasIds", materiaId), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(grupoId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al asignar materia a grupo: " + e.getMessage());
@@ -202,8 +235,9 @@ public class GrupoController {
         try {
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.pull("materiasIds", materiaId)
+                    Updates.combine(Updates.pull("materiasIds", materiaId), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(grupoId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al remover materia de grupo: " + e.getMessage());
@@ -216,12 +250,7 @@ public class GrupoController {
         try {
             Grupo grupo = obtenerGrupoPorId(grupoId);
             if (grupo != null && grupo.getMateriasIds() != null) {
-                for (ObjectId materiaId : grupo.getMateriasIds()) {
-                    Document doc = materiasCollection.find(Filters.eq("_id", materiaId)).first();
-                    if (doc != null) {
-                        materias.add(Materia.fromDocument(doc));
-                    }
-                }
+                materias.addAll(MateriaController.obtenerMateriasPorIds(grupo.getMateriasIds()));
             }
         } catch (Exception e) {
             System.err.println("Error al obtener materias del grupo: " + e.getMessage());
@@ -234,8 +263,9 @@ public class GrupoController {
         try {
             gruposCollection.updateOne(
                     Filters.eq("_id", grupoId),
-                    Updates.set("profesorTitularId", profesorId)
+                    Updates.combine(Updates.set("profesorTitularId", profesorId), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(grupoId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al asignar profesor titular: " + e.getMessage());
@@ -247,8 +277,7 @@ public class GrupoController {
         try {
             Grupo grupo = obtenerGrupoPorId(grupoId);
             if (grupo != null && grupo.getProfesorTitularId() != null) {
-                Document doc = profesoresCollection.find(Filters.eq("_id", grupo.getProfesorTitularId())).first();
-                return doc != null ? Profesor.fromDocument(doc) : null;
+                return ProfesorController.obtenerProfesorPorId(grupo.getProfesorTitularId());
             }
         } catch (Exception e) {
             System.err.println("Error al obtener profesor titular: " + e.getMessage());
@@ -286,88 +315,124 @@ public class GrupoController {
         return contarAlumnosEnGrupo(grupoId) < maxCapacidad;
     }
 
-    public static List<Alumno> obtenerAlumnosDisponiblesParaGrupo(ObjectId grupoId) {
-        List<Alumno> alumnosDisponibles = new ArrayList<>();
-        List<Alumno> todosAlumnos = AlumnoController.obtenerAlumnos();
-        List<Alumno> alumnosDelGrupo = obtenerAlumnosDeGrupo(grupoId);
-
-        for (Alumno alumno : todosAlumnos) {
-            boolean yaEstaEnGrupo = alumnosDelGrupo.stream()
-                    .anyMatch(a -> a.getId().equals(alumno.getId()));
-            if (!yaEstaEnGrupo) {
-                alumnosDisponibles.add(alumno);
-            }
-        }
-
-        return alumnosDisponibles;
+    /**
+     * Alumnos activos que todavía no pertenecen al grupo, sin cargar el resto del catálogo
+     * @param grupoId Id del grupo
+     * @param limite Máximo de alumnos a devolver
+     * @return Resúmenes de alumnos ordenados por apellidos
+     */
+    public static List<AlumnoResumen> obtenerAlumnosDisponiblesParaGrupo(ObjectId grupoId, int limite) {
+        Grupo grupo = obtenerGrupoPorId(grupoId);
+        List<ObjectId> inscritos = grupo != null && grupo.getAlumnosIds() != null
+                ? grupo.getAlumnosIds() : new ArrayList<>();
+        return AlumnoController.obtenerResumenAlumnosExcepto(inscritos, limite);
     }
 
     // Métodos adicionales para la vista de grupos
+    /**
+     * Busca grupos activos por código, nombre, grado o sección (prefijo de cada palabra)
+     * @param termino Texto a buscar
+     * @return Grupos encontrados, los más relevantes primero
+     */
     public static List<Grupo> buscarGrupos(String termino) {
-        List<Grupo> grupos = new ArrayList<>();
         try {
-            Document regex = new Document("$regex", termino).append("$options", "i");
-            Document filter = new Document("$or", List.of(
-                    new Document("codigo", regex),
-                    new Document("nombre", regex),
-                    new Document("grado", regex),
-                    new Document("seccion", regex)
-            )).append("activo", true);
-
-            gruposCollection.find(filter).forEach(doc -> grupos.add(Grupo.fromDocument(doc)));
+            // Mientras el índice en memoria se carga por primera vez se usa el índice de texto ix_grupos_texto
+            List<ObjectId> ids = busqueda.buscar(termino, LIMITE_BUSQUEDA, true);
+            if (ids == null) {
+                ids = IndiceBusqueda.buscarPorTexto(gruposCollection, termino, LIMITE_BUSQUEDA, true);
+            }
+            return cache.obtenerVarios(ids,
+                    faltantes -> BatchLoader.cargarPorIds(gruposCollection, faltantes, Grupo::fromDocument),
+                    Grupo::getId);
         } catch (Exception e) {
             System.err.println("Error al buscar grupos: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return grupos;
     }
 
+    // Del snapshot local si se sincronizó dentro de la vigencia del índice (al iniciar, casi siempre)
+    private static List<IndiceBusqueda.Elemento> cargarElementosBusqueda() {
+        List<IndiceBusqueda.Elemento> elementos = new ArrayList<>();
+        List<Document> snapshot = SnapshotReferencia.documentosVigentes("grupos", VIGENCIA_BUSQUEDA_MS);
+        if (snapshot != null) {
+            snapshot.forEach(doc -> elementos.add(elementoBusqueda(doc)));
+            return elementos;
+        }
+        gruposCollection.find()
+                .projection(Projections.include("codigo", "nombre", "grado", "seccion", "activo"))
+                .forEach(doc -> elementos.add(elementoBusqueda(doc)));
+        return elementos;
+    }
+
+    private static IndiceBusqueda.Elemento elementoBusqueda(Document doc) {
+        return new IndiceBusqueda.Elemento(
+                doc.getObjectId("_id"),
+                doc.getString("codigo"),
+                doc.getBoolean("activo", true),
+                Arrays.asList(doc.getString("codigo"), doc.getString("nombre"),
+                        doc.getString("grado"), doc.getString("seccion")));
+    }
+
+    /**
+     * Deja en el grupo exactamente los alumnos indicados. Solo se escriben las diferencias
+     * (un updateMany para los que salen y otro para los que entran) y ambas colecciones
+     * se actualizan en la misma transacción para que grupos.alumnosIds y alumnos.gruposIds
+     * no queden desalineados.
+     * @param grupoId Grupo a actualizar
+     * @param alumnosIds Alumnos que deben quedar en el grupo
+     * @return true si se guardó (también si no había cambios)
+     */
     public static boolean asignarAlumnosAGrupo(ObjectId grupoId, List<ObjectId> alumnosIds) {
         try {
-            // Actualizar las asignaciones del grupo
-            gruposCollection.updateOne(
-                    Filters.eq("_id", grupoId),
-                    Updates.set("alumnosIds", alumnosIds)
-            );
+            List<ObjectId> nuevos = new ArrayList<>(new LinkedHashSet<>(alumnosIds));
+
+            // Alumnos que cambiaron; la caché se invalida después del commit para que una lectura
+            // concurrente no vuelva a guardar la asignación anterior
+            List<ObjectId> cambiados = DatabaseUtil.ejecutarEnTransaccion(session -> {
+                Document grupoDoc = gruposCollection.find(session, Filters.eq("_id", grupoId))
+                        .projection(Projections.include("alumnosIds"))
+                        .first();
+                if (grupoDoc == null) {
+                    throw new IllegalArgumentException("El grupo no existe: " + grupoId);
+                }
 
-            // Actualizar las referencias en los alumnos
-            // Obtener todos los alumnos que actualmente tienen este grupo
-            List<Document> alumnosConGrupo = new ArrayList<>();
-            alumnosCollection.find(Filters.in("gruposIds", grupoId))
-                    .forEach(alumnosConGrupo::add);
-
-            // Remover este grupo de todos los alumnos que lo tienen
-            for (Document alumnoDoc : alumnosConGrupo) {
-                ObjectId alumnoId = alumnoDoc.getObjectId("_id");
-                try {
-                    alumnosCollection.updateOne(
-                            Filters.eq("_id", alumnoId),
-                            Updates.pull("gruposIds", grupoId)
-                    );
-                } catch (Exception e) {
-                    // Si falla el pull, inicializar el campo como array vacío
-                    alumnosCollection.updateOne(
-                            Filters.eq("_id", alumnoId),
-                            Updates.set("gruposIds", new ArrayList<ObjectId>())
-                    );
+                // Alumnos que hoy tienen el grupo, según su propio documento
+                Set<ObjectId> conGrupo = new HashSet<>();
+                alumnosCollection.find(session, Filters.eq("gruposIds", grupoId))
+                        .projection(Projections.include("_id"))
+                        .forEach(doc -> conGrupo.add(doc.getObjectId("_id")));
+
+                List<ObjectId> quitar = new ArrayList<>(conGrupo);
+                quitar.removeAll(nuevos);
+                List<ObjectId> agregar = new ArrayList<>(nuevos);
+                agregar.removeAll(conGrupo);
+
+                if (!quitar.isEmpty()) {
+                    alumnosCollection.updateMany(session,
+                            Filters.and(Filters.in("_id", quitar), Filters.eq("gruposIds", grupoId)),
+                            Updates.combine(Updates.pull("gruposIds", grupoId), SnapshotReferencia.marcaModificacion()));
+                }
+                if (!agregar.isEmpty()) {
+                    // Con pipeline para que funcione aunque gruposIds sea null o no exista ($$NOW es la hora del servidor)
+                    alumnosCollection.updateMany(session, Filters.in("_id", agregar), List.of(
+                            Aggregates.set(new Field<>("gruposIds", new Document("$setUnion", List.of(
+                                    new Document("$ifNull", List.of("$gruposIds", List.of())),
+                                    List.of(grupoId)))),
+                                    new Field<>(SnapshotReferencia.CAMPO_MODIFICACION, "$$NOW"))));
                 }
-            }
 
-            // Agregar este grupo a los alumnos seleccionados
-            for (ObjectId alumnoId : alumnosIds) {
-                try {
-                    alumnosCollection.updateOne(
-                            Filters.eq("_id", alumnoId),
-                            Updates.addToSet("gruposIds", grupoId)
-                    );
-                } catch (Exception e) {
-                    // Si falla addToSet, inicializar el campo y luego agregar
-                    alumnosCollection.updateOne(
-                            Filters.eq("_id", alumnoId),
-                            Updates.set("gruposIds", List.of(grupoId))
-                    );
+                List<ObjectId> actuales = grupoDoc.getList("alumnosIds", ObjectId.class);
+                if (actuales == null || !actuales.equals(nuevos)) {
+                    gruposCollection.updateOne(session, Filters.eq("_id", grupoId),
+                            Updates.combine(Updates.set("alumnosIds", nuevos), SnapshotReferencia.marcaModificacion()));
                 }
-            }
 
+                List<ObjectId> alumnosCambiados = new ArrayList<>(quitar);
+                alumnosCambiados.addAll(agregar);
+                return alumnosCambiados;
+            });
+            AlumnoController.invalidarCache(cambiados);
+            cache.invalidar(grupoId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al asignar alumnos a grupo: " + e.getMessage());
@@ -375,14 +440,30 @@ public class GrupoController {
         }
     }
 
+    /**
+     * Deja en el grupo exactamente las materias indicadas. Las materias no guardan la
+     * referencia inversa, así que basta un updateOne, y solo si la lista cambió.
+     * @param grupoId Grupo a actualizar
+     * @param materiasIds Materias que deben quedar en el grupo
+     * @return true si se guardó (también si no había cambios)
+     */
     public static boolean asignarMateriasAGrupo(ObjectId grupoId, List<ObjectId> materiasIds) {
         try {
-            // Actualizar las materias asignadas al grupo
-            gruposCollection.updateOne(
-                    Filters.eq("_id", grupoId),
-                    Updates.set("materiasIds", materiasIds)
-            );
+            List<ObjectId> nuevas = new ArrayList<>(new LinkedHashSet<>(materiasIds));
 
+            Document grupoDoc = gruposCollection.find(Filters.eq("_id", grupoId))
+                    .projection(Projections.include("materiasIds"))
+                    .first();
+            if (grupoDoc == null) {
+                return false;
+            }
+
+            List<ObjectId> actuales = grupoDoc.getList("materiasIds", ObjectId.class);
+            if (actuales == null || !actuales.equals(nuevas)) {
+                gruposCollection.updateOne(Filters.eq("_id", grupoId),
+                        Updates.combine(Updates.set("materiasIds", nuevas), SnapshotReferencia.marcaModificacion()));
+                cache.invalidar(grupoId);
+            }
             return true;
         } catch (Exception e) {
             System.err.println("Error al asignar materias a grupo: " + e.getMessage());
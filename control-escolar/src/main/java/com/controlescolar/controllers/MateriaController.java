@@ -1,7 +1,10 @@
 // MateriaController.java
 package com.controlescolar.controllers;
 
+import com.controlescolar.config.SnapshotReferencia;
 import com.controlescolar.models.Materia;
+import com.controlescolar.utils.BatchLoader;
+import com.controlescolar.utils.CacheEntidades;
 import com.controlescolar.utils.DatabaseUtil;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
@@ -14,6 +17,9 @@ import java.util.List;
 public class MateriaController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("materias");
 
+    // Las materias cambian poco y se consultan por id al pintar cada fila de calificaciones y asistencias
+    private static final CacheEntidades<Materia> cache = new CacheEntidades<>("materias", 1000, 10 * 60 * 1000);
+
     public static boolean crearMateria(Materia materia) {
         try {
             // Verificar si el código ya existe
@@ -21,7 +27,7 @@ public class MateriaController {
                 return false; // Código ya existe
             }
 
-            collection.insertOne(materia.toDocument());
+            collection.insertOne(SnapshotReferencia.marcarInsercion(materia.toDocument()));
             return true;
         } catch (Exception e) {
             System.err.println("Error al crear materia: " + e.getMessage());
@@ -39,8 +45,9 @@ public class MateriaController {
 
             collection.updateOne(
                     Filters.eq("_id", materia.getId()),
-                    new Document("$set", updateDoc)
+                    Updates.combine(new Document("$set", updateDoc), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(materia.getId());
             return true;
         } catch (Exception e) {
             System.err.println("Error al actualizar materia: " + e.getMessage());
@@ -61,14 +68,27 @@ public class MateriaController {
 
     public static Materia obtenerMateriaPorId(ObjectId id) {
         try {
-            Document doc = collection.find(Filters.eq("_id", id)).first();
-            return doc != null ? Materia.fromDocument(doc) : null;
+            return cache.obtener(id, clave -> {
+                Document doc = collection.find(Filters.eq("_id", clave)).first();
+                return doc != null ? Materia.fromDocument(doc) : null;
+            });
         } catch (Exception e) {
             System.err.println("Error al obtener materia por ID: " + e.getMessage());
             return null;
         }
     }
 
+    public static List<Materia> obtenerMateriasPorIds(List<ObjectId> ids) {
+        try {
+            return cache.obtenerVarios(ids,
+                    faltantes -> BatchLoader.cargarPorIds(collection, faltantes, Materia::fromDocument),
+                    Materia::getId);
+        } catch (Exception e) {
+            System.err.println("Error al obtener materias por IDs: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     public static Materia obtenerMateriaPorCodigo(String codigo) {
         try {
             Document doc = collection.find(Filters.eq("codigo", codigo)).first();
@@ -100,8 +120,9 @@ public class MateriaController {
         try {
             collection.updateOne(
                     Filters.eq("_id", id),
-                    Updates.set("activa", false)
+                    Updates.combine(Updates.set("activa", false), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(id);
             return true;
         } catch (Exception e) {
             System.err.println("Error al eliminar materia: " + e.getMessage());
@@ -1,16 +1,26 @@
 package com.controlescolar.controllers;
 
 import com.controlescolar.models.PadreAlumno;
+import com.controlescolar.models.PadreVinculaciones;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
+import com.controlescolar.utils.BatchLoader;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.Paginador;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Variable;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class PadreAlumnoController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("padres_alumnos");
@@ -53,6 +63,7 @@ public class PadreAlumnoController {
             PadreAlumno padreAlumno = new PadreAlumno(padreId, alumnoId, parentesco);
             Document doc = padreAlumno.toDocument();
             collection.insertOne(doc);
+            AuthController.invalidarAlumnosPermitidos(padreId);
             return true;
 
         } catch (Exception e) {
@@ -74,6 +85,7 @@ public class PadreAlumnoController {
                 ),
                 new Document("$set", new Document("activo", false))
             );
+            AuthController.invalidarAlumnosPermitidos(padreId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al desvincular padre-alumno: " + e.getMessage());
@@ -93,20 +105,13 @@ public class PadreAlumnoController {
                 )
             ).into(new ArrayList<>());
 
-            // Obtener los alumnos vinculados
+            // Obtener los alumnos vinculados en una sola consulta
+            List<ObjectId> alumnosIds = new ArrayList<>();
             for (Document vinculacion : vinculaciones) {
-                ObjectId alumnoId = vinculacion.getObjectId("alumnoId");
-                Document alumnoDoc = alumnosCollection.find(
-                    Filters.and(
-                        Filters.eq("_id", alumnoId),
-                        Filters.eq("activo", true)
-                    )
-                ).first();
-                
-                if (alumnoDoc != null) {
-                    alumnos.add(Alumno.fromDocument(alumnoDoc));
-                }
+                alumnosIds.add(vinculacion.getObjectId("alumnoId"));
             }
+            alumnos.addAll(BatchLoader.cargarPorIds(alumnosCollection, alumnosIds,
+                    Filters.eq("activo", true), Alumno::fromDocument));
         } catch (Exception e) {
             System.err.println("Error al obtener alumnos por padre: " + e.getMessage());
         }
@@ -125,26 +130,54 @@ public class PadreAlumnoController {
                 )
             ).into(new ArrayList<>());
 
-            // Obtener los padres vinculados
+            // Obtener los padres vinculados en una sola consulta
+            List<ObjectId> padresIds = new ArrayList<>();
             for (Document vinculacion : vinculaciones) {
-                ObjectId padreId = vinculacion.getObjectId("padreId");
-                Document padreDoc = usuariosCollection.find(
-                    Filters.and(
-                        Filters.eq("_id", padreId),
-                        Filters.eq("activo", true)
-                    )
-                ).first();
-                
-                if (padreDoc != null) {
-                    padres.add(Usuario.fromDocument(padreDoc));
-                }
+                padresIds.add(vinculacion.getObjectId("padreId"));
             }
+            padres.addAll(BatchLoader.cargarPorIds(usuariosCollection, padresIds,
+                    Filters.eq("activo", true), Usuario::fromDocument));
         } catch (Exception e) {
             System.err.println("Error al obtener padres por alumno: " + e.getMessage());
         }
         return padres;
     }
 
+    /**
+     * Lista una página de padres de familia con sus vinculaciones activas y los
+     * datos básicos de cada alumno en una sola agregación ($lookup anidado), en
+     * lugar de una consulta de vinculaciones por padre y otra por alumno.
+     * Los padres sin alumnos vinculados aparecen con la lista vacía.
+     * @param solicitud Página de padres (ordenar por "apellidos" usa ix_usuarios_rol_apellidos_id)
+     * @return Página de padres con sus vinculaciones
+     */
+    public static Paginador.Pagina<PadreVinculaciones> obtenerVinculacionesPagina(Paginador.Solicitud solicitud) {
+        List<Bson> etapas = List.of(
+                Aggregates.lookup("padres_alumnos",
+                        List.of(new Variable<>("padreId", "$_id")),
+                        List.of(
+                                Aggregates.match(Filters.and(
+                                        Filters.expr(new Document("$eq", List.of("$padreId", "$$padreId"))),
+                                        Filters.eq("activo", true))),
+                                Aggregates.lookup("alumnos",
+                                        List.of(new Variable<>("alumnoId", "$alumnoId")),
+                                        List.of(
+                                                Aggregates.match(Filters.and(
+                                                        Filters.expr(new Document("$eq", List.of("$_id", "$$alumnoId"))),
+                                                        Filters.eq("activo", true))),
+                                                Aggregates.project(Projections.include("matricula", "nombre", "apellidos"))),
+                                        "alumno"),
+                                Aggregates.unwind("$alumno"),
+                                Aggregates.sort(Sorts.ascending("fechaVinculacion")),
+                                Aggregates.project(Projections.include(
+                                        "alumnoId", "parentesco", "autorizado", "fechaVinculacion", "alumno"))),
+                        "vinculaciones"),
+                Aggregates.project(Projections.include("nombre", "apellidos", "email", "vinculaciones")));
+
+        return Paginador.cargarAgregacion(usuariosCollection, Filters.eq("rol", Rol.PADRE_FAMILIA.name()),
+                solicitud, etapas, PadreVinculaciones::fromDocument);
+    }
+
     public static boolean puedeAccederAlumno(ObjectId padreId, ObjectId alumnoId) {
         try {
             Document vinculacion = collection.find(
@@ -163,6 +196,26 @@ public class PadreAlumnoController {
         }
     }
 
+    /**
+     * Ids de los alumnos a los que un padre tiene acceso (vinculación activa y autorizada).
+     * No atrapa los errores, para que AuthController no confunda una falla de la base
+     * de datos con un padre sin alumnos.
+     * @param padreId Id del padre
+     * @return Ids de alumnos; vacío si no tiene vinculaciones
+     */
+    static Set<ObjectId> cargarIdsAlumnosAutorizados(ObjectId padreId) {
+        Set<ObjectId> ids = new HashSet<>();
+        collection.find(
+            Filters.and(
+                Filters.eq("padreId", padreId),
+                Filters.eq("activo", true),
+                Filters.eq("autorizado", true)
+            )
+        ).projection(Projections.include("alumnoId"))
+         .forEach(doc -> ids.add(doc.getObjectId("alumnoId")));
+        return ids;
+    }
+
     public static List<PadreAlumno> obtenerVinculacionesPorPadre(ObjectId padreId) {
         List<PadreAlumno> vinculaciones = new ArrayList<>();
         try {
@@ -191,6 +244,7 @@ public class PadreAlumnoController {
                 ),
                 new Document("$set", new Document("autorizado", autorizado))
             );
+            AuthController.invalidarAlumnosPermitidos(padreId);
             return true;
         } catch (Exception e) {
             System.err.println("Error al actualizar autorización: " + e.getMessage());
@@ -2,24 +2,44 @@
 package com.controlescolar.controllers;
 
 import com.controlescolar.models.Pago;
+import com.controlescolar.models.SaldoAlumno;
 import com.controlescolar.enums.EstadoPago;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.FechaUtil;
+import com.controlescolar.utils.Paginador;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Facet;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
+import org.bson.BsonType;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 public class PagoController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("pagos");
+    // Lecturas de listas: el codec decodifica el BSON directo a Pago
+    private static MongoCollection<Pago> pagosTipados = DatabaseUtil.getCollection("pagos", Pago.class);
+    // Documentos por lote del cursor en exportaciones
+    private static final int TAMANO_LOTE_CURSOR = 1000;
 
     public static boolean registrarPago(Pago pago) {
         try {
-            collection.insertOne(pago.toDocument());
+            DatabaseUtil.ejecutarEnTransaccion(session -> {
+                collection.insertOne(session, pago.toDocument());
+                SaldoAlumnoController.aplicarCambio(session, null, pago);
+                return null;
+            });
             return true;
         } catch (Exception e) {
             System.err.println("Error al registrar pago: " + e.getMessage());
@@ -34,8 +54,8 @@ public class PagoController {
                     .append("montoOriginal", pago.getMontoOriginal())
                     .append("montoRecargo", pago.getMontoRecargo())
                     .append("montoBeca", pago.getMontoBeca())
-                    .append("fechaPago", pago.getFechaPago())
-                    .append("fechaVencimiento", pago.getFechaVencimiento())
+                    .append("fechaPago", FechaUtil.aDate(pago.getFechaPago()))
+                    .append("fechaVencimiento", FechaUtil.aDate(pago.getFechaVencimiento()))
                     .append("metodoPago", pago.getMetodoPago())
                     .append("estado", pago.getEstado().name())
                     .append("tipo", pago.getTipo() != null ? pago.getTipo().name() : null)
@@ -44,11 +64,7 @@ public class PagoController {
                     .append("periodo", pago.getPeriodo())
                     .append("observaciones", pago.getObservaciones());
 
-            collection.updateOne(
-                    Filters.eq("_id", pago.getId()),
-                    new Document("$set", updateDoc)
-            );
-            return true;
+            return modificarPago(pago.getId(), actual -> new Document("$set", updateDoc));
         } catch (Exception e) {
             System.err.println("Error al actualizar pago: " + e.getMessage());
             return false;
@@ -58,9 +74,9 @@ public class PagoController {
     public static List<Pago> obtenerPagosPorAlumno(ObjectId alumnoId) {
         List<Pago> pagos = new ArrayList<>();
         try {
-            collection.find(Filters.eq("alumnoId", alumnoId))
+            pagosTipados.find(Filters.eq("alumnoId", alumnoId))
                     .sort(Sorts.descending("fechaVencimiento"))
-                    .forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+                    .into(pagos);
         } catch (Exception e) {
             System.err.println("Error al obtener pagos por alumno: " + e.getMessage());
         }
@@ -70,9 +86,9 @@ public class PagoController {
     public static List<Pago> obtenerPagosPendientes() {
         List<Pago> pagos = new ArrayList<>();
         try {
-            collection.find(Filters.eq("estado", EstadoPago.PENDIENTE.toString()))
+            pagosTipados.find(Filters.in("estado", EstadoPago.PENDIENTE.getValoresAlmacenados()))
                     .sort(Sorts.ascending("fechaVencimiento"))
-                    .forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+                    .into(pagos);
         } catch (Exception e) {
             System.err.println("Error al obtener pagos pendientes: " + e.getMessage());
         }
@@ -82,12 +98,13 @@ public class PagoController {
     public static List<Pago> obtenerPagosVencidos() {
         List<Pago> pagos = new ArrayList<>();
         try {
-            Document filter = new Document("estado", EstadoPago.PENDIENTE.toString())
-                    .append("fechaVencimiento", new Document("$lt", LocalDate.now()));
+            Bson filter = Filters.and(
+                    Filters.in("estado", EstadoPago.PENDIENTE.getValoresAlmacenados()),
+                    FechaUtil.antesDe("fechaVencimiento", LocalDate.now()));
 
-            collection.find(filter)
+            pagosTipados.find(filter)
                     .sort(Sorts.ascending("fechaVencimiento"))
-                    .forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+                    .into(pagos);
         } catch (Exception e) {
             System.err.println("Error al obtener pagos vencidos: " + e.getMessage());
         }
@@ -97,12 +114,11 @@ public class PagoController {
     public static List<Pago> obtenerPagosPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin) {
         List<Pago> pagos = new ArrayList<>();
         try {
-            Document filter = new Document("fechaPago",
-                    new Document("$gte", fechaInicio).append("$lte", fechaFin));
+            Bson filter = FechaUtil.entre("fechaPago", fechaInicio, fechaFin);
 
-            collection.find(filter)
+            pagosTipados.find(filter)
                     .sort(Sorts.descending("fechaPago"))
-                    .forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+                    .into(pagos);
         } catch (Exception e) {
             System.err.println("Error al obtener pagos por periodo: " + e.getMessage());
         }
@@ -113,14 +129,10 @@ public class PagoController {
         try {
             Document updateDoc = new Document()
                     .append("estado", EstadoPago.PAGADO.toString())
-                    .append("fechaPago", fechaPago)
+                    .append("fechaPago", FechaUtil.aDate(fechaPago))
                     .append("metodoPago", metodoPago);
 
-            collection.updateOne(
-                    Filters.eq("_id", pagoId),
-                    new Document("$set", updateDoc)
-            );
-            return true;
+            return modificarPago(pagoId, actual -> new Document("$set", updateDoc));
         } catch (Exception e) {
             System.err.println("Error al marcar pago como pagado: " + e.getMessage());
             return false;
@@ -129,49 +141,44 @@ public class PagoController {
 
     public static double calcularTotalIngresosPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin) {
         try {
-            Document filter = new Document("estado", EstadoPago.PAGADO.toString())
-                    .append("fechaPago", new Document("$gte", fechaInicio).append("$lte", fechaFin));
+            Bson filter = Filters.and(
+                    Filters.in("estado", EstadoPago.PAGADO.getValoresAlmacenados()),
+                    FechaUtil.entre("fechaPago", fechaInicio, fechaFin));
 
-            List<Pago> pagos = new ArrayList<>();
-            collection.find(filter).forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+            Document total = collection.aggregate(List.of(
+                    Aggregates.match(filter),
+                    Aggregates.group(null, Accumulators.sum("total", "$montoPagado"))
+            )).first();
 
-            return pagos.stream().mapToDouble(Pago::getMontoPagado).sum();
+            return total != null ? ((Number) total.get("total")).doubleValue() : 0.0;
         } catch (Exception e) {
             System.err.println("Error al calcular total de ingresos: " + e.getMessage());
             return 0.0;
         }
     }
 
+    /**
+     * Totales del alumno leídos de saldos_alumnos. El historial ya no se incluye:
+     * para listarlo usar obtenerPagosPorAlumno.
+     */
     public static java.util.Map<String, Object> obtenerEstadoCuentaAlumno(ObjectId alumnoId) {
         java.util.Map<String, Object> estadoCuenta = new java.util.HashMap<>();
         try {
-            List<Pago> todosPagos = obtenerPagosPorAlumno(alumnoId);
-            
-            double totalOriginal = todosPagos.stream().mapToDouble(Pago::getMontoOriginal).sum();
-            double totalPagado = todosPagos.stream()
-                    .filter(p -> p.getEstado().isCompletado())
-                    .mapToDouble(Pago::getMontoPagado).sum();
-            double totalPendiente = todosPagos.stream()
-                    .filter(p -> !p.getEstado().isCompletado())
-                    .mapToDouble(Pago::getMontoTotal).sum();
-            double totalRecargos = todosPagos.stream().mapToDouble(Pago::getMontoRecargo).sum();
-            double totalBecas = todosPagos.stream().mapToDouble(Pago::getMontoBeca).sum();
-
-            int pagosVencidos = (int) todosPagos.stream()
-                    .filter(p -> p.getEstado() == EstadoPago.VENCIDO || 
-                                (p.getEstado() == EstadoPago.PENDIENTE && 
-                                 p.getFechaVencimiento() != null && 
-                                 p.getFechaVencimiento().isBefore(LocalDate.now())))
-                    .count();
-
-            estadoCuenta.put("totalOriginal", totalOriginal);
-            estadoCuenta.put("totalPagado", totalPagado);
-            estadoCuenta.put("totalPendiente", totalPendiente);
-            estadoCuenta.put("totalRecargos", totalRecargos);
-            estadoCuenta.put("totalBecas", totalBecas);
-            estadoCuenta.put("saldoActual", totalPendiente);
-            estadoCuenta.put("pagosVencidos", pagosVencidos);
-            estadoCuenta.put("historialPagos", todosPagos);
+            SaldoAlumno saldo = SaldoAlumnoController.obtenerSaldo(alumnoId);
+
+            // Los pendientes que ya pasaron su vencimiento dependen de la fecha, no del saldo guardado
+            long pendientesVencidos = collection.countDocuments(Filters.and(
+                    Filters.eq("alumnoId", alumnoId),
+                    Filters.in("estado", EstadoPago.PENDIENTE.getValoresAlmacenados()),
+                    FechaUtil.antesDe("fechaVencimiento", LocalDate.now())));
+
+            estadoCuenta.put("totalOriginal", saldo.getTotalOriginal());
+            estadoCuenta.put("totalPagado", saldo.getTotalPagado());
+            estadoCuenta.put("totalPendiente", saldo.getTotalPendiente());
+            estadoCuenta.put("totalRecargos", saldo.getTotalRecargos());
+            estadoCuenta.put("totalBecas", saldo.getTotalBecas());
+            estadoCuenta.put("saldoActual", saldo.getTotalPendiente());
+            estadoCuenta.put("pagosVencidos", saldo.getPagosVencidos() + (int) pendientesVencidos);
 
         } catch (Exception e) {
             System.err.println("Error al obtener estado de cuenta: " + e.getMessage());
@@ -183,12 +190,13 @@ public class PagoController {
     public static List<Pago> obtenerAlumnosConPagosVencidos() {
         List<Pago> pagosVencidos = new ArrayList<>();
         try {
-            Document filter = new Document("estado", EstadoPago.PENDIENTE.toString())
-                    .append("fechaVencimiento", new Document("$lt", LocalDate.now()));
+            Bson filter = Filters.and(
+                    Filters.in("estado", EstadoPago.PENDIENTE.getValoresAlmacenados()),
+                    FechaUtil.antesDe("fechaVencimiento", LocalDate.now()));
 
-            collection.find(filter)
+            pagosTipados.find(filter)
                     .sort(Sorts.ascending("fechaVencimiento"))
-                    .forEach(doc -> pagosVencidos.add(Pago.fromDocument(doc)));
+                    .into(pagosVencidos);
 
         } catch (Exception e) {
             System.err.println("Error al obtener alumnos con pagos vencidos: " + e.getMessage());
@@ -203,11 +211,7 @@ public class PagoController {
                     .append("estado", EstadoPago.VENCIDO.toString())
                     .append("observaciones", motivo);
 
-            collection.updateOne(
-                    Filters.eq("_id", pagoId),
-                    new Document("$set", updateDoc)
-            );
-            return true;
+            return modificarPago(pagoId, actual -> new Document("$set", updateDoc));
         } catch (Exception e) {
             System.err.println("Error al aplicar recargo: " + e.getMessage());
             return false;
@@ -220,11 +224,7 @@ public class PagoController {
                     .append("montoBeca", montoBeca)
                     .append("observaciones", motivo);
 
-            collection.updateOne(
-                    Filters.eq("_id", pagoId),
-                    new Document("$set", updateDoc)
-            );
-            return true;
+            return modificarPago(pagoId, actual -> new Document("$set", updateDoc));
         } catch (Exception e) {
             System.err.println("Error al aplicar beca: " + e.getMessage());
             return false;
@@ -233,35 +233,50 @@ public class PagoController {
 
     public static boolean procesarPagoParcial(ObjectId pagoId, double montoParcial, String metodoPago, String observaciones) {
         try {
-            Pago pago = obtenerPagoPorId(pagoId);
-            if (pago == null) return false;
-
-            double nuevoMontoPagado = pago.getMontoPagado() + montoParcial;
-            EstadoPago nuevoEstado = (nuevoMontoPagado >= pago.getMontoTotal()) ? 
-                    EstadoPago.PAGADO : EstadoPago.PARCIAL;
-
-            Document updateDoc = new Document()
-                    .append("montoPagado", nuevoMontoPagado)
-                    .append("estado", nuevoEstado.toString())
-                    .append("fechaPago", LocalDate.now())
-                    .append("metodoPago", metodoPago)
-                    .append("observaciones", observaciones);
-
-            collection.updateOne(
-                    Filters.eq("_id", pagoId),
-                    new Document("$set", updateDoc)
-            );
-            return true;
+            // El nuevo monto se calcula con el pago leído en la misma transacción
+            return modificarPago(pagoId, pago -> {
+                double nuevoMontoPagado = pago.getMontoPagado() + montoParcial;
+                EstadoPago nuevoEstado = (nuevoMontoPagado >= pago.getMontoTotal()) ?
+                        EstadoPago.PAGADO : EstadoPago.PARCIAL;
+
+                Document updateDoc = new Document()
+                        .append("montoPagado", nuevoMontoPagado)
+                        .append("estado", nuevoEstado.toString())
+                        .append("fechaPago", FechaUtil.aDate(LocalDate.now()))
+                        .append("metodoPago", metodoPago)
+                        .append("observaciones", observaciones);
+                return new Document("$set", updateDoc);
+            });
         } catch (Exception e) {
             System.err.println("Error al procesar pago parcial: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Actualiza un pago y su saldo en saldos_alumnos en la misma transacción
+     * @param pagoId Pago a modificar
+     * @param cambios Construye la actualización a partir del pago actual
+     * @return false si el pago no existe
+     */
+    private static boolean modificarPago(ObjectId pagoId, Function<Pago, Bson> cambios) {
+        return DatabaseUtil.ejecutarEnTransaccion(session -> {
+            Document actual = collection.find(session, Filters.eq("_id", pagoId)).first();
+            if (actual == null) return false;
+
+            Pago anterior = Pago.fromDocument(actual);
+            Document nuevo = collection.findOneAndUpdate(session, Filters.eq("_id", pagoId),
+                    cambios.apply(anterior), new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            if (nuevo == null) return false;
+
+            SaldoAlumnoController.aplicarCambio(session, anterior, Pago.fromDocument(nuevo));
+            return true;
+        });
+    }
+
     public static Pago obtenerPagoPorId(ObjectId pagoId) {
         try {
-            Document doc = collection.find(Filters.eq("_id", pagoId)).first();
-            return doc != null ? Pago.fromDocument(doc) : null;
+            return pagosTipados.find(Filters.eq("_id", pagoId)).first();
         } catch (Exception e) {
             System.err.println("Error al obtener pago por ID: " + e.getMessage());
             return null;
@@ -270,8 +285,7 @@ public class PagoController {
 
     public static Pago obtenerPagoPorFolio(String folio) {
         try {
-            Document doc = collection.find(Filters.eq("folio", folio)).first();
-            return doc != null ? Pago.fromDocument(doc) : null;
+            return pagosTipados.find(Filters.eq("folio", folio)).first();
         } catch (Exception e) {
             System.err.println("Error al obtener pago por folio: " + e.getMessage());
             return null;
@@ -281,30 +295,62 @@ public class PagoController {
     public static java.util.Map<String, Object> generarReporteIngresos(LocalDate fechaInicio, LocalDate fechaFin) {
         java.util.Map<String, Object> reporte = new java.util.HashMap<>();
         try {
-            List<Pago> pagosPeriodo = obtenerPagosPorPeriodo(fechaInicio, fechaFin);
-            
-            double totalIngresos = pagosPeriodo.stream()
-                    .filter(p -> p.getEstado() == EstadoPago.PAGADO)
-                    .mapToDouble(Pago::getMontoPagado).sum();
-            
-            java.util.Map<String, Double> ingresosPorMetodo = pagosPeriodo.stream()
-                    .filter(p -> p.getEstado() == EstadoPago.PAGADO)
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            Pago::getMetodoPago,
-                            java.util.stream.Collectors.summingDouble(Pago::getMontoPagado)
-                    ));
-
-            java.util.Map<String, Long> pagosPorEstado = pagosPeriodo.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            p -> p.getEstado().getNombre(),
-                            java.util.stream.Collectors.counting()
-                    ));
+            // Sin fechas se resumen todos los pagos (también los pendientes, que no tienen fechaPago)
+            Bson filter = FechaUtil.entre("fechaPago", fechaInicio, fechaFin);
+            if (filter == null) {
+                filter = new Document();
+            }
+
+            // El servidor devuelve solo las filas de resumen: una por estado y una por método de pago
+            List<Bson> pipeline = List.of(
+                    Aggregates.match(filter),
+                    Aggregates.facet(
+                            new Facet("porEstado", Aggregates.group("$estado",
+                                    Accumulators.sum("cantidad", 1),
+                                    Accumulators.sum("montoPagado", "$montoPagado"))),
+                            new Facet("porMetodo",
+                                    Aggregates.match(Filters.in("estado", EstadoPago.PAGADO.getValoresAlmacenados())),
+                                    Aggregates.group("$metodoPago",
+                                            Accumulators.sum("montoPagado", "$montoPagado"))))
+            );
+
+            Document resultado = collection.aggregate(pipeline).first();
+
+            double totalIngresos = 0.0;
+            int totalPagos = 0;
+            int pagosCompletados = 0;
+            java.util.Map<String, Long> pagosPorEstado = new java.util.HashMap<>();
+            java.util.Map<String, Double> ingresosPorMetodo = new java.util.HashMap<>();
+
+            if (resultado != null) {
+                for (Document fila : resultado.getList("porEstado", Document.class)) {
+                    EstadoPago estado = EstadoPago.fromValor(fila.getString("_id"));
+                    if (estado == null) {
+                        estado = EstadoPago.PENDIENTE;
+                    }
+                    int cantidad = ((Number) fila.get("cantidad")).intValue();
+
+                    totalPagos += cantidad;
+                    pagosPorEstado.merge(estado.getNombre(), (long) cantidad, Long::sum);
+                    if (estado.isCompletado()) {
+                        pagosCompletados += cantidad;
+                    }
+                    if (estado == EstadoPago.PAGADO) {
+                        totalIngresos += ((Number) fila.get("montoPagado")).doubleValue();
+                    }
+                }
+
+                for (Document fila : resultado.getList("porMetodo", Document.class)) {
+                    String metodo = fila.getString("_id") != null ? fila.getString("_id") : "No especificado";
+                    ingresosPorMetodo.merge(metodo, ((Number) fila.get("montoPagado")).doubleValue(), Double::sum);
+                }
+            }
 
             reporte.put("totalIngresos", totalIngresos);
             reporte.put("ingresosPorMetodo", ingresosPorMetodo);
             reporte.put("pagosPorEstado", pagosPorEstado);
-            reporte.put("totalPagos", pagosPeriodo.size());
-            reporte.put("pagosCompletados", pagosPeriodo.stream().mapToInt(p -> p.getEstado().isCompletado() ? 1 : 0).sum());
+            reporte.put("totalPagos", totalPagos);
+            reporte.put("pagosCompletados", pagosCompletados);
 
         } catch (Exception e) {
             System.err.println("Error al generar reporte de ingresos: " + e.getMessage());
@@ -313,30 +359,42 @@ public class PagoController {
         return reporte;
     }
 
+    /**
+     * Suma en el servidor lo cobrado de los pagos completados, agrupado por mes de pago
+     * @return Mapa de "MM/yyyy" a monto cobrado, del mes más antiguo al más reciente
+     */
+    public static java.util.Map<String, Double> obtenerIngresosPorMes() {
+        java.util.Map<String, Double> ingresos = new java.util.LinkedHashMap<>();
+        try {
+            Document mes = new Document("$dateToString", new Document("format", "%Y-%m")
+                    .append("date", "$fechaPago")
+                    .append("timezone", FechaUtil.ZONA_ALMACENAMIENTO));
+
+            for (Document fila : collection.aggregate(List.of(
+                    Aggregates.match(Filters.and(
+                            Filters.in("estado", EstadoPago.PAGADO.getValoresAlmacenados()),
+                            Filters.type("fechaPago", BsonType.DATE_TIME))),
+                    Aggregates.group(mes, Accumulators.sum("montoPagado", campoNumerico("montoPagado"))),
+                    Aggregates.sort(Sorts.ascending("_id"))))) {
+                String[] anioMes = fila.getString("_id").split("-");
+                ingresos.put(anioMes[1] + "/" + anioMes[0],
+                        ReportsController.numero(fila.get("montoPagado")).doubleValue());
+            }
+        } catch (Exception e) {
+            System.err.println("Error al obtener ingresos por mes: " + e.getMessage());
+        }
+        return ingresos;
+    }
+
     public static List<java.util.Map<String, Object>> obtenerTop5AlumnosConMayorDeuda() {
         List<java.util.Map<String, Object>> ranking = new ArrayList<>();
         try {
-            java.util.Map<ObjectId, Double> deudasPorAlumno = new java.util.HashMap<>();
-            
-            List<Pago> pagosPendientes = collection.find(
-                Filters.in("estado", EstadoPago.PENDIENTE.toString(), EstadoPago.PARCIAL.toString(), EstadoPago.VENCIDO.toString())
-            ).map(Pago::fromDocument).into(new ArrayList<>());
-
-            for (Pago pago : pagosPendientes) {
-                deudasPorAlumno.merge(pago.getAlumnoId(), pago.getSaldoPendiente(), Double::sum);
+            for (SaldoAlumno saldo : SaldoAlumnoController.obtenerMayoresDeudores(5)) {
+                java.util.Map<String, Object> item = new java.util.HashMap<>();
+                item.put("alumnoId", saldo.getAlumnoId());
+                item.put("deuda", saldo.getSaldoPendiente());
+                ranking.add(item);
             }
-
-            ranking = deudasPorAlumno.entrySet().stream()
-                    .sorted(java.util.Map.Entry.<ObjectId, Double>comparingByValue().reversed())
-                    .limit(5)
-                    .map(entry -> {
-                        java.util.Map<String, Object> item = new java.util.HashMap<>();
-                        item.put("alumnoId", entry.getKey());
-                        item.put("deuda", entry.getValue());
-                        return item;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-
         } catch (Exception e) {
             System.err.println("Error al obtener top alumnos con mayor deuda: " + e.getMessage());
         }
@@ -345,8 +403,13 @@ public class PagoController {
 
     public static boolean eliminarPago(ObjectId id) {
         try {
-            collection.deleteOne(Filters.eq("_id", id));
-            return true;
+            return DatabaseUtil.ejecutarEnTransaccion(session -> {
+                Document eliminado = collection.findOneAndDelete(session, Filters.eq("_id", id));
+                if (eliminado != null) {
+                    SaldoAlumnoController.aplicarCambio(session, Pago.fromDocument(eliminado), null);
+                }
+                return true;
+            });
         } catch (Exception e) {
             System.err.println("Error al eliminar pago: " + e.getMessage());
             return false;
@@ -361,13 +424,117 @@ public class PagoController {
     public static List<Pago> obtenerPagos() {
         List<Pago> pagos = new ArrayList<>();
         try {
-            collection.find().forEach(doc -> pagos.add(Pago.fromDocument(doc)));
+            pagosTipados.find().into(pagos);
         } catch (Exception e) {
             System.err.println("Error al obtener pagos: " + e.getMessage());
         }
         return pagos;
     }
 
+    /**
+     * Obtiene una página de pagos (paginación por llave)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de pagos
+     */
+    public static Paginador.Pagina<Pago> obtenerPagosPagina(Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, null, solicitud, Pago::fromDocument);
+    }
+
+    /**
+     * Busca pagos con los criterios de la consulta, ordenados por vencimiento descendente
+     * @param consulta Criterios de búsqueda
+     * @param limite Máximo de pagos a devolver
+     * @return Lista de pagos (solo con los campos de PROYECCION_LISTA)
+     */
+    public static List<Pago> buscarPagos(ConsultaPagos consulta, int limite) {
+        List<Pago> pagos = new ArrayList<>();
+        try {
+            pagosTipados.find(consulta.toFiltroOTodos())
+                    .projection(ConsultaPagos.PROYECCION_LISTA)
+                    .sort(Sorts.descending("fechaVencimiento", "_id"))
+                    .limit(limite)
+                    .into(pagos);
+        } catch (Exception e) {
+            System.err.println("Error al buscar pagos: " + e.getMessage());
+        }
+        return pagos;
+    }
+
+    /**
+     * Recorre los pagos que cumplen la consulta sin cargarlos en una lista, para
+     * exportaciones grandes; el cursor trae los documentos por lotes
+     * @param consulta Criterios de búsqueda
+     * @return Iterable de pagos ordenados por vencimiento descendente (cerrar el cursor al terminar)
+     */
+    public static MongoIterable<Pago> iterarPagos(ConsultaPagos consulta) {
+        return pagosTipados.find(consulta.toFiltroOTodos())
+                .sort(Sorts.descending("fechaVencimiento", "_id"))
+                .batchSize(TAMANO_LOTE_CURSOR);
+    }
+
+    /**
+     * Obtiene una página de los pagos que cumplen la consulta
+     * @param consulta Criterios de búsqueda
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de pagos (solo con los campos de PROYECCION_LISTA)
+     */
+    public static Paginador.Pagina<Pago> obtenerPagosPagina(ConsultaPagos consulta, Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, consulta.toFiltro(), solicitud, ConsultaPagos.PROYECCION_LISTA, Pago::fromDocument);
+    }
+
+    /**
+     * Calcula en el servidor el resumen financiero de los pagos que cumplen la consulta
+     * @param consulta Criterios de búsqueda
+     * @return Mapa con totalRegistros, pagado (monto cobrado), pendiente (saldo de pendientes
+     *         y parciales), vencido (saldo de vencidos) y total (monto original + recargos - becas)
+     */
+    public static java.util.Map<String, Object> obtenerResumenPagos(ConsultaPagos consulta) {
+        java.util.Map<String, Object> resumen = new java.util.LinkedHashMap<>();
+        resumen.put("totalRegistros", 0L);
+        resumen.put("pagado", 0.0);
+        resumen.put("pendiente", 0.0);
+        resumen.put("vencido", 0.0);
+        resumen.put("total", 0.0);
+        try {
+            Document montoTotal = new Document("$subtract", List.of(
+                    new Document("$add", List.of(campoNumerico("montoOriginal"), campoNumerico("montoRecargo"))),
+                    campoNumerico("montoBeca")));
+            Document saldo = new Document("$subtract", List.of(montoTotal, campoNumerico("montoPagado")));
+
+            List<String> pendientes = new ArrayList<>(EstadoPago.PENDIENTE.getValoresAlmacenados());
+            pendientes.addAll(EstadoPago.PARCIAL.getValoresAlmacenados());
+
+            Document resultado = collection.aggregate(List.of(
+                    Aggregates.match(consulta.toFiltroOTodos()),
+                    Aggregates.group(null,
+                            Accumulators.sum("totalRegistros", 1),
+                            Accumulators.sum("pagado", campoNumerico("montoPagado")),
+                            Accumulators.sum("pendiente", sumaSiEstado(pendientes, saldo)),
+                            Accumulators.sum("vencido", sumaSiEstado(EstadoPago.VENCIDO.getValoresAlmacenados(), saldo)),
+                            Accumulators.sum("total", montoTotal))
+            )).first();
+
+            if (resultado != null) {
+                resumen.put("totalRegistros", ReportsController.numero(resultado.get("totalRegistros")).longValue());
+                resumen.put("pagado", ReportsController.numero(resultado.get("pagado")).doubleValue());
+                resumen.put("pendiente", ReportsController.numero(resultado.get("pendiente")).doubleValue());
+                resumen.put("vencido", ReportsController.numero(resultado.get("vencido")).doubleValue());
+                resumen.put("total", ReportsController.numero(resultado.get("total")).doubleValue());
+            }
+        } catch (Exception e) {
+            System.err.println("Error al obtener resumen de pagos: " + e.getMessage());
+        }
+        return resumen;
+    }
+
+    private static Document campoNumerico(String campo) {
+        return new Document("$ifNull", List.of("$" + campo, 0));
+    }
+
+    private static Document sumaSiEstado(List<String> estados, Document valor) {
+        return new Document("$cond", List.of(new Document("$in", List.of("$estado", estados)), valor, 0));
+    }
+
     public static boolean generarPago(ObjectId alumnoId, String concepto, double monto, String observaciones) {
         try {
             Pago pago = new Pago();
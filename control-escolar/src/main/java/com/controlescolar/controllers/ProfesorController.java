@@ -1,7 +1,9 @@
 // ProfesorController.java
 package com.controlescolar.controllers;
 
+import com.controlescolar.config.SnapshotReferencia;
 import com.controlescolar.models.Profesor;
+import com.controlescolar.utils.CacheEntidades;
 import com.controlescolar.utils.DatabaseUtil;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
@@ -14,6 +16,9 @@ import java.util.List;
 public class ProfesorController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("profesores");
 
+    // Se consulta por id al pintar el profesor titular de cada grupo
+    private static final CacheEntidades<Profesor> cache = new CacheEntidades<>("profesores", 1000, 10 * 60 * 1000);
+
     public static boolean crearProfesor(Profesor profesor) {
         try {
             // Verificar si el número de empleado ya existe
@@ -22,7 +27,7 @@ public class ProfesorController {
                 return false; // Número de empleado ya existe
             }
 
-            collection.insertOne(profesor.toDocument());
+            collection.insertOne(SnapshotReferencia.marcarInsercion(profesor.toDocument()));
             return true;
         } catch (Exception e) {
             System.err.println("Error al crear profesor: " + e.getMessage());
@@ -46,8 +51,9 @@ public class ProfesorController {
 
             collection.updateOne(
                     Filters.eq("_id", profesor.getId()),
-                    new Document("$set", updateDoc)
+                    Updates.combine(new Document("$set", updateDoc), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(profesor.getId());
             return true;
         } catch (Exception e) {
             System.err.println("Error al actualizar profesor: " + e.getMessage());
@@ -68,8 +74,10 @@ public class ProfesorController {
 
     public static Profesor obtenerProfesorPorId(ObjectId id) {
         try {
-            Document doc = collection.find(Filters.eq("_id", id)).first();
-            return doc != null ? Profesor.fromDocument(doc) : null;
+            return cache.obtener(id, clave -> {
+                Document doc = collection.find(Filters.eq("_id", clave)).first();
+                return doc != null ? Profesor.fromDocument(doc) : null;
+            });
         } catch (Exception e) {
             System.err.println("Error al obtener profesor por ID: " + e.getMessage());
             return null;
@@ -118,8 +126,9 @@ public class ProfesorController {
         try {
             collection.updateOne(
                     Filters.eq("_id", id),
-                    Updates.set("activo", false)
+                    Updates.combine(Updates.set("activo", false), SnapshotReferencia.marcaModificacion())
             );
+            cache.invalidar(id);
             return true;
         } catch (Exception e) {
             System.err.println("Error al eliminar profesor: " + e.getMessage());
@@ -3,11 +3,20 @@ package com.controlescolar.controllers;
 
 import com.controlescolar.models.*;
 import com.controlescolar.enums.TipoCalificacion;
+import com.controlescolar.utils.DatabaseUtil;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BucketOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Filters;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -15,54 +24,67 @@ import java.util.stream.Collectors;
 
 public class ReportsController {
 
+    private static MongoCollection<Document> calificacionesCollection = DatabaseUtil.getCollection("calificaciones");
+
+    // Límites de los rangos de calificación: [-inf, 6), [6, 7), [7, 8), [8, 9), [9, +inf)
+    private static final List<Double> LIMITES_DISTRIBUCION = Arrays.asList(
+            Double.NEGATIVE_INFINITY, 6.0, 7.0, 8.0, 9.0, Double.POSITIVE_INFINITY);
+    private static final List<String> ETIQUETAS_DISTRIBUCION = Arrays.asList(
+            "Insuficiente (0-5.9)", "Suficiente (6-6.9)", "Regular (7-7.9)", "Bueno (8-8.9)", "Excelente (9-10)");
+
     // Reportes de Calificaciones
     public static Map<String, Object> obtenerReporteCalificacionesPorMateria(ObjectId materiaId) {
         Map<String, Object> reporte = new HashMap<>();
         try {
-            List<Calificacion> calificaciones = CalificacionController.obtenerCalificacionesPorMateria(materiaId);
-            
-            if (calificaciones.isEmpty()) {
+            // Estadísticas y distribución calculadas en el servidor en una sola pasada
+            List<Bson> pipeline = Arrays.asList(
+                    Aggregates.match(Filters.eq("materiaId", materiaId)),
+                    Aggregates.facet(
+                            new Facet("resumen", Aggregates.group(null,
+                                    Accumulators.sum("total", 1),
+                                    Accumulators.avg("promedio", "$calificacion"),
+                                    Accumulators.max("maxima", "$calificacion"),
+                                    Accumulators.min("minima", "$calificacion"),
+                                    Accumulators.sum("aprobados", new Document("$cond", Arrays.asList(
+                                            new Document("$gte", Arrays.asList("$calificacion", 6.0)), 1, 0))))),
+                            new Facet("distribucion", Aggregates.bucket("$calificacion", LIMITES_DISTRIBUCION,
+                                    new BucketOptions().defaultBucket("otros")
+                                            .output(Accumulators.sum("count", 1)))))
+            );
+
+            Document resultado = calificacionesCollection.aggregate(pipeline).first();
+            List<Document> resumenes = resultado != null ? resultado.getList("resumen", Document.class) : null;
+
+            if (resumenes == null || resumenes.isEmpty()) {
                 reporte.put("error", "No hay calificaciones para esta materia");
                 return reporte;
             }
 
-            // Estadísticas generales
-            double promedioGeneral = calificaciones.stream()
-                    .mapToDouble(Calificacion::getCalificacion)
-                    .average().orElse(0.0);
-            
-            double calificacionMaxima = calificaciones.stream()
-                    .mapToDouble(Calificacion::getCalificacion)
-                    .max().orElse(0.0);
-            
-            double calificacionMinima = calificaciones.stream()
-                    .mapToDouble(Calificacion::getCalificacion)
-                    .min().orElse(0.0);
+            Document resumen = resumenes.get(0);
+            int total = numero(resumen.get("total")).intValue();
+            int aprobados = numero(resumen.get("aprobados")).intValue();
+            double promedioGeneral = numero(resumen.get("promedio")).doubleValue();
 
             // Distribución por rangos
             Map<String, Integer> distribucion = new HashMap<>();
-            distribucion.put("Excelente (9-10)", 0);
-            distribucion.put("Bueno (8-8.9)", 0);
-            distribucion.put("Regular (7-7.9)", 0);
-            distribucion.put("Suficiente (6-6.9)", 0);
-            distribucion.put("Insuficiente (0-5.9)", 0);
-
-            for (Calificacion cal : calificaciones) {
-                double calif = cal.getCalificacion();
-                if (calif >= 9.0) distribucion.put("Excelente (9-10)", distribucion.get("Excelente (9-10)") + 1);
-                else if (calif >= 8.0) distribucion.put("Bueno (8-8.9)", distribucion.get("Bueno (8-8.9)") + 1);
-                else if (calif >= 7.0) distribucion.put("Regular (7-7.9)", distribucion.get("Regular (7-7.9)") + 1);
-                else if (calif >= 6.0) distribucion.put("Suficiente (6-6.9)", distribucion.get("Suficiente (6-6.9)") + 1);
-                else distribucion.put("Insuficiente (0-5.9)", distribucion.get("Insuficiente (0-5.9)") + 1);
+            for (String etiqueta : ETIQUETAS_DISTRIBUCION) {
+                distribucion.put(etiqueta, 0);
+            }
+            for (Document bucket : resultado.getList("distribucion", Document.class)) {
+                int indice = LIMITES_DISTRIBUCION.indexOf(bucket.get("_id") instanceof Number
+                        ? ((Number) bucket.get("_id")).doubleValue() : null);
+                if (indice >= 0 && indice < ETIQUETAS_DISTRIBUCION.size()) {
+                    distribucion.put(ETIQUETAS_DISTRIBUCION.get(indice), numero(bucket.get("count")).intValue());
+                }
             }
 
-            reporte.put("totalCalificaciones", calificaciones.size());
+            reporte.put("totalCalificaciones", total);
             reporte.put("promedioGeneral", Math.round(promedioGeneral * 100.0) / 100.0);
-            reporte.put("calificacionMaxima", calificacionMaxima);
-            reporte.put("calificacionMinima", calificacionMinima);
+            reporte.put("calificacionMaxima", numero(resumen.get("maxima")).doubleValue());
+            reporte.put("calificacionMinima", numero(resumen.get("minima")).doubleValue());
             reporte.put("distribucion", distribucion);
-            reporte.put("aprobados", calificaciones.stream().mapToInt(c -> c.getCalificacion() >= 6.0 ? 1 : 0).sum());
-            reporte.put("reprobados", calificaciones.stream().mapToInt(c -> c.getCalificacion() < 6.0 ? 1 : 0).sum());
+            reporte.put("aprobados", aprobados);
+            reporte.put("reprobados", total - aprobados);
 
         } catch (Exception e) {
             System.err.println("Error al generar reporte de calificaciones por materia: " + e.getMessage());
@@ -74,27 +96,41 @@ public class ReportsController {
     public static Map<String, Object> obtenerReporteDesempenoPorGrupo(ObjectId grupoId) {
         Map<String, Object> reporte = new HashMap<>();
         try {
-            List<Alumno> alumnos = GrupoController.obtenerAlumnosDeGrupo(grupoId);
-            List<Materia> materias = GrupoController.obtenerMateriasDeGrupo(grupoId);
+            Grupo grupo = GrupoController.obtenerGrupoPorId(grupoId);
+            List<Alumno> alumnos = grupo != null
+                    ? AlumnoController.obtenerAlumnosPorIds(grupo.getAlumnosIds()) : new ArrayList<>();
+            List<Materia> materias = grupo != null
+                    ? MateriaController.obtenerMateriasPorIds(grupo.getMateriasIds()) : new ArrayList<>();
 
             if (alumnos.isEmpty()) {
                 reporte.put("error", "No hay alumnos en este grupo");
                 return reporte;
             }
 
+            // Una sola consulta con todas las calificaciones de los alumnos del grupo
+            List<ObjectId> alumnosIds = alumnos.stream().map(Alumno::getId).collect(Collectors.toList());
+            List<Calificacion> calificaciones = CalificacionController.obtenerCalificacionesPorAlumnos(alumnosIds);
+
+            Map<ObjectId, List<Calificacion>> calificacionesPorAlumno = new HashMap<>();
+            Map<ObjectId, List<Calificacion>> calificacionesPorMateria = new HashMap<>();
+            for (Calificacion cal : calificaciones) {
+                calificacionesPorAlumno.computeIfAbsent(cal.getAlumnoId(), k -> new ArrayList<>()).add(cal);
+                calificacionesPorMateria.computeIfAbsent(cal.getMateriaId(), k -> new ArrayList<>()).add(cal);
+            }
+
             Map<ObjectId, Double> promediosPorAlumno = new HashMap<>();
             Map<ObjectId, Double> promediosPorMateria = new HashMap<>();
-            
-            // Calcular promedios por alumno
+
+            // Calcular promedios por alumno (ponderados por materia, igual que el promedio general)
             for (Alumno alumno : alumnos) {
-                double promedioGeneral = CalificacionController.calcularPromedioGeneralAlumno(alumno.getId());
-                promediosPorAlumno.put(alumno.getId(), promedioGeneral);
+                List<Calificacion> delAlumno = calificacionesPorAlumno.getOrDefault(alumno.getId(), Collections.emptyList());
+                promediosPorAlumno.put(alumno.getId(), CalificacionController.calcularPromedioGeneral(delAlumno));
             }
 
-            // Calcular promedios por materia
+            // Calcular promedios por materia, solo con las calificaciones de este grupo
             for (Materia materia : materias) {
-                List<Calificacion> calificacionesMateria = CalificacionController.obtenerCalificacionesPorMateria(materia.getId());
-                double promedio = calificacionesMateria.stream()
+                double promedio = calificacionesPorMateria.getOrDefault(materia.getId(), Collections.emptyList())
+                        .stream()
                         .mapToDouble(Calificacion::getCalificacion)
                         .average().orElse(0.0);
                 promediosPorMateria.put(materia.getId(), promedio);
@@ -126,20 +162,26 @@ public class ReportsController {
             Map<String, Double> promediosPorPeriodo = new HashMap<>();
             Map<String, Integer> estudiantesPorPeriodo = new HashMap<>();
 
-            for (String periodo : periodos) {
-                List<Calificacion> calificacionesPeriodo = CalificacionController.obtenerCalificacionesPorPeriodo(periodo);
-                
-                if (!calificacionesPeriodo.isEmpty()) {
-                    double promedio = calificacionesPeriodo.stream()
-                            .mapToDouble(Calificacion::getCalificacion)
-                            .average().orElse(0.0);
-                    
-                    Set<ObjectId> estudiantesUnicos = calificacionesPeriodo.stream()
-                            .map(Calificacion::getAlumnoId)
-                            .collect(Collectors.toSet());
-
+            // Primero se agrupa por (periodo, alumno) para contar estudiantes únicos
+            // sin acumular sus ids; luego por periodo conservando suma y conteo
+            List<Bson> pipeline = Arrays.asList(
+                    Aggregates.match(Filters.in("periodo", periodos)),
+                    Aggregates.group(new Document("periodo", "$periodo").append("alumnoId", "$alumnoId"),
+                            Accumulators.sum("suma", "$calificacion"),
+                            Accumulators.sum("cantidad", 1)),
+                    Aggregates.group("$_id.periodo",
+                            Accumulators.sum("suma", "$suma"),
+                            Accumulators.sum("cantidad", "$cantidad"),
+                            Accumulators.sum("estudiantes", 1))
+            );
+
+            for (Document fila : calificacionesCollection.aggregate(pipeline)) {
+                String periodo = fila.getString("_id");
+                double cantidad = numero(fila.get("cantidad")).doubleValue();
+                if (cantidad > 0) {
+                    double promedio = numero(fila.get("suma")).doubleValue() / cantidad;
                     promediosPorPeriodo.put(periodo, Math.round(promedio * 100.0) / 100.0);
-                    estudiantesPorPeriodo.put(periodo, estudiantesUnicos.size());
+                    estudiantesPorPeriodo.put(periodo, numero(fila.get("estudiantes")).intValue());
                 }
             }
 
@@ -177,14 +219,14 @@ public class ReportsController {
                     .collect(Collectors.groupingBy(Calificacion::getMateriaId));
 
             for (Map.Entry<ObjectId, List<Calificacion>> entry : calificacionesPorMateria.entrySet()) {
-                double promedio = CalificacionController.calcularPromedioAlumno(alumnoId, entry.getKey());
+                double promedio = CalificacionController.calcularPromedioPonderado(entry.getValue());
                 promediosPorMateria.put(entry.getKey(), promedio);
             }
 
             reporte.put("historialAcademico", historialAcademico);
             reporte.put("evolucionTemporal", evolucionTemporal);
             reporte.put("promediosPorMateria", promediosPorMateria);
-            reporte.put("promedioGeneral", CalificacionController.calcularPromedioGeneralAlumno(alumnoId));
+            reporte.put("promedioGeneral", CalificacionController.calcularPromedioGeneral(todasCalificaciones));
             reporte.put("totalCalificaciones", todasCalificaciones.size());
 
         } catch (Exception e) {
@@ -318,4 +360,9 @@ public class ReportsController {
         }
         return reporte;
     }
-}
\ No newline at end of file
+
+    // Los acumuladores pueden devolver Integer, Long o Double según los datos
+    static Number numero(Object valor) {
+        return valor instanceof Number ? (Number) valor : 0;
+    }
+}
@@ -0,0 +1,244 @@
+// SaldoAlumnoController.java
+package com.controlescolar.controllers;
+
+import com.controlescolar.enums.EstadoPago;
+import com.controlescolar.models.Pago;
+import com.controlescolar.models.SaldoAlumno;
+import com.controlescolar.utils.DatabaseUtil;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene saldos_alumnos: un documento por alumno con los totales de sus pagos.
+ *
+ * Cada escritura de PagoController llama a aplicarCambio con el pago antes y
+ * después del cambio, dentro de la misma transacción, y aquí solo se hace $inc con
+ * la diferencia. Sin replica set no hay transacción y dos escrituras simultáneas
+ * del mismo pago pueden desajustar el saldo; reconstruirSaldos lo corrige.
+ */
+public class SaldoAlumnoController {
+    private static MongoCollection<Document> collection = DatabaseUtil.getCollection("saldos_alumnos");
+    private static MongoCollection<Pago> pagosCollection = DatabaseUtil.getCollection("pagos", Pago.class);
+
+    private static final int TAMANO_LOTE_ESCRITURA = 1000;
+
+    // Campos acumulados, en el orden de contribucion(); los dos últimos son conteos
+    private static final String[] CAMPOS = {
+            "totalOriginal", "totalPagado", "totalPendiente", "totalRecargos", "totalBecas",
+            "saldoPendiente", "numeroPagos", "pagosVencidos"
+    };
+    private static final int PRIMER_CONTEO = 6;
+
+    /**
+     * Resultado de reconstruirSaldos
+     */
+    public static class Reconciliacion {
+        private final int alumnos;
+        private final int corregidos;
+        private final int eliminados;
+
+        Reconciliacion(int alumnos, int corregidos, int eliminados) {
+            this.alumnos = alumnos;
+            this.corregidos = corregidos;
+            this.eliminados = eliminados;
+        }
+
+        public int getAlumnos() { return alumnos; }
+        public int getCorregidos() { return corregidos; }
+        public int getEliminados() { return eliminados; }
+    }
+
+    /**
+     * Obtiene el saldo de un alumno; si no tiene pagos devuelve un saldo en ceros
+     */
+    public static SaldoAlumno obtenerSaldo(ObjectId alumnoId) {
+        try {
+            Document doc = collection.find(Filters.eq("_id", alumnoId)).first();
+            if (doc != null) {
+                return SaldoAlumno.fromDocument(doc);
+            }
+        } catch (Exception e) {
+            System.err.println("Error al obtener saldo del alumno: " + e.getMessage());
+        }
+        return SaldoAlumno.vacio(alumnoId);
+    }
+
+    /**
+     * Alumnos con mayor saldo pendiente, con el índice ix_saldos_alumnos_saldoPendiente
+     */
+    public static List<SaldoAlumno> obtenerMayoresDeudores(int limite) {
+        List<SaldoAlumno> saldos = new ArrayList<>();
+        try {
+            collection.find(Filters.gt("saldoPendiente", 0))
+                    .sort(Sorts.descending("saldoPendiente"))
+                    .limit(limite)
+                    .forEach(doc -> saldos.add(SaldoAlumno.fromDocument(doc)));
+        } catch (Exception e) {
+            System.err.println("Error al obtener alumnos con mayor deuda: " + e.getMessage());
+        }
+        return saldos;
+    }
+
+    /**
+     * Aplica al saldo la diferencia entre dos versiones de un pago
+     * @param session Sesión de la transacción de la escritura del pago
+     * @param anterior Pago antes del cambio (null si es nuevo)
+     * @param nuevo Pago después del cambio (null si se eliminó)
+     */
+    static void aplicarCambio(ClientSession session, Pago anterior, Pago nuevo) {
+        ObjectId alumnoAnterior = anterior != null ? anterior.getAlumnoId() : null;
+        ObjectId alumnoNuevo = nuevo != null ? nuevo.getAlumnoId() : null;
+
+        if (alumnoAnterior != null && alumnoAnterior.equals(alumnoNuevo)) {
+            double[] antes = contribucion(anterior);
+            double[] despues = contribucion(nuevo);
+            for (int i = 0; i < despues.length; i++) {
+                despues[i] -= antes[i];
+            }
+            incrementar(session, alumnoNuevo, despues);
+            return;
+        }
+
+        // Alta, baja o cambio de alumno: se resta completo de uno y se suma completo al otro
+        if (alumnoAnterior != null) {
+            double[] antes = contribucion(anterior);
+            for (int i = 0; i < antes.length; i++) {
+                antes[i] = -antes[i];
+            }
+            incrementar(session, alumnoAnterior, antes);
+        }
+        if (alumnoNuevo != null) {
+            incrementar(session, alumnoNuevo, contribucion(nuevo));
+        }
+    }
+
+    private static void incrementar(ClientSession session, ObjectId alumnoId, double[] diferencia) {
+        Document inc = new Document();
+        for (int i = 0; i < CAMPOS.length; i++) {
+            if (i >= PRIMER_CONTEO) {
+                int conteo = (int) diferencia[i];
+                if (conteo != 0) inc.append(CAMPOS[i], conteo);
+            } else {
+                double monto = redondear(diferencia[i]);
+                if (monto != 0) inc.append(CAMPOS[i], monto);
+            }
+        }
+        if (inc.isEmpty()) return;
+
+        collection.updateOne(session, Filters.eq("_id", alumnoId),
+                new Document("$inc", inc).append("$set", new Document("fechaActualizacion", new Date())),
+                new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Lo que aporta un pago a cada campo de CAMPOS; usa las mismas reglas que
+     * el estado de cuenta (totales) y el ranking de deudores (saldoPendiente)
+     */
+    private static double[] contribucion(Pago pago) {
+        EstadoPago estado = pago.getEstado();
+        boolean completado = estado != null && estado.isCompletado();
+        boolean adeudo = estado == EstadoPago.PENDIENTE || estado == EstadoPago.PARCIAL || estado == EstadoPago.VENCIDO;
+        return new double[]{
+                pago.getMontoOriginal(),
+                completado ? pago.getMontoPagado() : 0,
+                !completado ? pago.getMontoTotal() : 0,
+                pago.getMontoRecargo(),
+                pago.getMontoBeca(),
+                adeudo ? pago.getSaldoPendiente() : 0,
+                1,
+                estado == EstadoPago.VENCIDO ? 1 : 0
+        };
+    }
+
+    private static double redondear(double monto) {
+        return Math.round(monto * 100.0) / 100.0;
+    }
+
+    /**
+     * Recalcula todos los saldos desde la colección de pagos y corrige los que no
+     * coinciden: reemplaza los distintos o faltantes y elimina los de alumnos sin pagos.
+     * Conviene ejecutarlo cuando no se están registrando pagos.
+     * @return Alumnos con pagos, saldos corregidos y saldos eliminados
+     */
+    public static Reconciliacion reconstruirSaldos() {
+        Map<ObjectId, double[]> calculados = new HashMap<>();
+        for (Pago pago : pagosCollection.find().batchSize(TAMANO_LOTE_ESCRITURA)) {
+            if (pago.getAlumnoId() == null) continue;
+            double[] acumulado = calculados.computeIfAbsent(pago.getAlumnoId(), k -> new double[CAMPOS.length]);
+            double[] aporte = contribucion(pago);
+            for (int i = 0; i < aporte.length; i++) {
+                acumulado[i] += aporte[i];
+            }
+        }
+
+        List<WriteModel<Document>> escrituras = new ArrayList<>();
+        Map<ObjectId, double[]> pendientes = new HashMap<>(calculados);
+        int corregidos = 0;
+        int eliminados = 0;
+
+        for (Document doc : collection.find()) {
+            ObjectId alumnoId = doc.getObjectId("_id");
+            double[] esperado = pendientes.remove(alumnoId);
+            if (esperado == null) {
+                escrituras.add(new DeleteOneModel<>(Filters.eq("_id", alumnoId)));
+                eliminados++;
+            } else if (!coincide(doc, esperado)) {
+                escrituras.add(reemplazo(alumnoId, esperado));
+                corregidos++;
+            }
+            escribirSiLleno(escrituras);
+        }
+        for (Map.Entry<ObjectId, double[]> faltante : pendientes.entrySet()) {
+            escrituras.add(reemplazo(faltante.getKey(), faltante.getValue()));
+            corregidos++;
+            escribirSiLleno(escrituras);
+        }
+        if (!escrituras.isEmpty()) {
+            collection.bulkWrite(escrituras);
+        }
+
+        return new Reconciliacion(calculados.size(), corregidos, eliminados);
+    }
+
+    private static void escribirSiLleno(List<WriteModel<Document>> escrituras) {
+        if (escrituras.size() >= TAMANO_LOTE_ESCRITURA) {
+            collection.bulkWrite(escrituras);
+            escrituras.clear();
+        }
+    }
+
+    private static boolean coincide(Document doc, double[] esperado) {
+        for (int i = 0; i < CAMPOS.length; i++) {
+            Object valor = doc.get(CAMPOS[i]);
+            double actual = valor instanceof Number ? ((Number) valor).doubleValue() : 0.0;
+            if (Math.abs(actual - redondear(esperado[i])) >= 0.005) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ReplaceOneModel<Document> reemplazo(ObjectId alumnoId, double[] valores) {
+        Document doc = new Document("_id", alumnoId);
+        for (int i = 0; i < CAMPOS.length; i++) {
+            doc.append(CAMPOS[i], i >= PRIMER_CONTEO ? (Object) (int) valores[i] : (Object) redondear(valores[i]));
+        }
+        doc.append("fechaActualizacion", new Date());
+        return new ReplaceOneModel<>(Filters.eq("_id", alumnoId), doc, new ReplaceOptions().upsert(true));
+    }
+}
@@ -0,0 +1,105 @@
+// UltimosAccesos.java
+package com.controlescolar.controllers;
+
+import com.controlescolar.utils.DatabaseUtil;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura diferida de usuarios.ultimoAcceso.
+ *
+ * El login solo anota la fecha en memoria; un hilo en segundo plano escribe las
+ * pendientes cada pocos segundos con un bulkWrite. Varios logins del mismo usuario
+ * antes de la escritura se juntan en uno (se queda la fecha más reciente) y la
+ * actualización usa $max, así que una escritura atrasada de otra instancia no
+ * regresa la fecha. Main.stop llama a vaciar para no perder las últimas.
+ */
+public class UltimosAccesos {
+    private static MongoCollection<Document> collection = DatabaseUtil.getCollection("usuarios");
+
+    private static final int INTERVALO_SEGUNDOS = 5;
+    private static final int TAMANO_LOTE = 500;
+
+    private static final Map<ObjectId, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService escritor = crearEscritor();
+
+    private static ScheduledExecutorService crearEscritor() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "escritura-ultimo-acceso");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(UltimosAccesos::escribirPendientes,
+                INTERVALO_SEGUNDOS, INTERVALO_SEGUNDOS, TimeUnit.SECONDS);
+        return executor;
+    }
+
+    /**
+     * Anota el acceso de un usuario para escribirlo en la siguiente pasada
+     */
+    static void registrar(ObjectId usuarioId, LocalDateTime momento) {
+        if (usuarioId == null || momento == null) return;
+        pendientes.merge(usuarioId, momento, (actual, nuevo) -> nuevo.isAfter(actual) ? nuevo : actual);
+    }
+
+    /**
+     * Detiene el hilo de escritura y escribe lo pendiente (al cerrar la aplicación)
+     */
+    public static void vaciar() {
+        escritor.shutdown();
+        try {
+            // Si una pasada está en curso se espera a que termine antes de escribir el resto
+            escritor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        escribirPendientes();
+    }
+
+    private static void escribirPendientes() {
+        if (pendientes.isEmpty()) return;
+
+        List<WriteModel<Document>> lote = new ArrayList<>();
+        Map<ObjectId, LocalDateTime> enLote = new HashMap<>();
+        for (ObjectId usuarioId : pendientes.keySet()) {
+            LocalDateTime momento = pendientes.remove(usuarioId);
+            if (momento == null) continue;
+            lote.add(new UpdateOneModel<>(Filters.eq("_id", usuarioId), Updates.max("ultimoAcceso", momento)));
+            enLote.put(usuarioId, momento);
+            if (lote.size() >= TAMANO_LOTE) {
+                escribir(lote, enLote);
+                lote = new ArrayList<>();
+                enLote = new HashMap<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            escribir(lote, enLote);
+        }
+    }
+
+    // Si la escritura falla las fechas vuelven a pendientes; con $max repetir las que sí se escribieron no cambia nada
+    private static void escribir(List<WriteModel<Document>> lote, Map<ObjectId, LocalDateTime> enLote) {
+        try {
+            collection.bulkWrite(lote, new BulkWriteOptions().ordered(false));
+        } catch (Exception e) {
+            System.err.println("Error al guardar último acceso: " + e.getMessage());
+            enLote.forEach(UltimosAccesos::registrar);
+        }
+    }
+}
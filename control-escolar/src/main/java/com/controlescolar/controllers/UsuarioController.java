@@ -4,14 +4,19 @@ package com.controlescolar.controllers;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
 import com.controlescolar.utils.DatabaseUtil;
+import com.controlescolar.utils.Paginador;
 import com.controlescolar.utils.SecurityUtil;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 public class UsuarioController {
     private static MongoCollection<Document> collection = DatabaseUtil.getCollection("usuarios");
@@ -98,6 +103,61 @@ public class UsuarioController {
         return usuarios;
     }
 
+    /**
+     * Obtiene una página de usuarios (paginación por llave)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de usuarios
+     */
+    public static Paginador.Pagina<Usuario> obtenerUsuariosPagina(Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, null, solicitud, Usuario::fromDocument);
+    }
+
+    /**
+     * Obtiene una página de usuarios que cumplen los filtros de la gestión de usuarios
+     * @param texto Parte del nombre, apellidos o email (vacío o null para no filtrar)
+     * @param rol Rol (null para todos)
+     * @param activo true/false para activos o inactivos (null para todos)
+     * @param solicitud Tamaño, orden y llave de la página
+     * @return Página de usuarios
+     */
+    public static Paginador.Pagina<Usuario> obtenerUsuariosPagina(String texto, Rol rol, Boolean activo,
+                                                                  Paginador.Solicitud solicitud) {
+        return Paginador.cargar(collection, filtroUsuarios(texto, rol, activo), solicitud, Usuario::fromDocument);
+    }
+
+    /**
+     * Cuenta en el servidor los usuarios que cumplen los filtros
+     * @return total, activos y administradores
+     */
+    public static Map<String, Long> obtenerEstadisticas(String texto, Rol rol, Boolean activo) {
+        Map<String, Long> estadisticas = new LinkedHashMap<>();
+        Bson filtro = filtroUsuarios(texto, rol, activo);
+        Bson base = filtro != null ? filtro : new Document();
+        estadisticas.put("total", collection.countDocuments(base));
+        estadisticas.put("activos", collection.countDocuments(Filters.and(base, Filters.eq("activo", true))));
+        estadisticas.put("administradores", collection.countDocuments(
+                Filters.and(base, Filters.eq("rol", Rol.ADMINISTRADOR.name()))));
+        return estadisticas;
+    }
+
+    private static Bson filtroUsuarios(String texto, Rol rol, Boolean activo) {
+        List<Bson> filtros = new ArrayList<>();
+        if (texto != null && !texto.trim().isEmpty()) {
+            Pattern patron = Pattern.compile(Pattern.quote(texto.trim()), Pattern.CASE_INSENSITIVE);
+            filtros.add(Filters.or(
+                    Filters.regex("nombre", patron),
+                    Filters.regex("apellidos", patron),
+                    Filters.regex("email", patron)));
+        }
+        if (rol != null) {
+            filtros.add(Filters.eq("rol", rol.name()));
+        }
+        if (activo != null) {
+            filtros.add(Filters.eq("activo", activo));
+        }
+        return filtros.isEmpty() ? null : Filters.and(filtros);
+    }
+
     public static List<Usuario> obtenerUsuariosPorRol(Rol rol) {
         List<Usuario> usuarios = new ArrayList<>();
         try {
@@ -1,5 +1,9 @@
 package com.controlescolar.enums;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enum que define los diferentes estados de pago de colegiatura
  */
@@ -18,6 +22,20 @@ public enum EstadoPago {
     private final String colorHex;
     private final boolean completado;
 
+    // Búsquedas precalculadas: valor almacenado exacto y nombre sin distinguir mayúsculas
+    private static final Map<String, EstadoPago> POR_VALOR = new HashMap<>();
+    private static final Map<String, EstadoPago> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (EstadoPago estado : values()) {
+            POR_VALOR.put(estado.name(), estado);
+        }
+        for (EstadoPago estado : values()) {
+            POR_VALOR.putIfAbsent(estado.nombre, estado);
+            POR_NOMBRE.putIfAbsent(estado.nombre.toLowerCase(Locale.ROOT), estado);
+        }
+    }
+
     /**
      * Constructor del enum EstadoPago
      * @param nombre Nombre del estado
@@ -114,11 +132,27 @@ public enum EstadoPago {
      * @return EstadoPago encontrado o null si no existe
      */
     public static EstadoPago fromNombre(String nombre) {
-        for (EstadoPago estado : values()) {
-            if (estado.getNombre().equalsIgnoreCase(nombre)) {
-                return estado;
-            }
-        }
-        return null;
+        return nombre != null ? POR_NOMBRE.get(nombre.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Obtiene un estado a partir del valor almacenado en la base de datos,
+     * que puede ser el nombre de la constante (PAGADO) o su nombre (Pagado)
+     * @param valor Valor almacenado
+     * @return EstadoPago encontrado o null si no existe
+     */
+    public static EstadoPago fromValor(String valor) {
+        if (valor == null) return null;
+        EstadoPago estado = POR_VALOR.get(valor);
+        return estado != null ? estado : fromNombre(valor);
+    }
+
+    /**
+     * Obtiene los valores con los que puede estar almacenado el estado,
+     * útil para filtrar en consultas y agregaciones
+     * @return Lista con el nombre de la constante y el nombre del estado
+     */
+    public java.util.List<String> getValoresAlmacenados() {
+        return java.util.Arrays.asList(name(), nombre);
     }
 }
\ No newline at end of file
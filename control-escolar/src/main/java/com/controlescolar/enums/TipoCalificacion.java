@@ -1,5 +1,9 @@
 package com.controlescolar.enums;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enum que define los diferentes tipos de calificación en el sistema educativo
  */
@@ -23,6 +27,26 @@ public enum TipoCalificacion {
     private final boolean requiereAprobacion;
     private final String descripcion;
 
+    // Búsquedas precalculadas: valor almacenado exacto (constante, nombre o abreviación,
+    // en ese orden de prioridad) y nombre o abreviación sin distinguir mayúsculas
+    private static final Map<String, TipoCalificacion> POR_VALOR = new HashMap<>();
+    private static final Map<String, TipoCalificacion> POR_NOMBRE = new HashMap<>();
+    private static final Map<String, TipoCalificacion> POR_ABREVIACION = new HashMap<>();
+
+    static {
+        for (TipoCalificacion tipo : values()) {
+            POR_VALOR.put(tipo.name(), tipo);
+        }
+        for (TipoCalificacion tipo : values()) {
+            POR_VALOR.putIfAbsent(tipo.nombre, tipo);
+            POR_NOMBRE.putIfAbsent(tipo.nombre.toLowerCase(Locale.ROOT), tipo);
+        }
+        for (TipoCalificacion tipo : values()) {
+            POR_VALOR.putIfAbsent(tipo.abreviacion, tipo);
+            POR_ABREVIACION.putIfAbsent(tipo.abreviacion.toLowerCase(Locale.ROOT), tipo);
+        }
+    }
+
     /**
      * Constructor del enum TipoCalificacion
      * @param nombre Nombre completo del tipo de calificación
@@ -157,12 +181,7 @@ public enum TipoCalificacion {
      * @return TipoCalificacion encontrado o null si no existe
      */
     public static TipoCalificacion fromNombre(String nombre) {
-        for (TipoCalificacion tipo : values()) {
-            if (tipo.getNombre().equalsIgnoreCase(nombre)) {
-                return tipo;
-            }
-        }
-        return null;
+        return nombre != null ? POR_NOMBRE.get(nombre.toLowerCase(Locale.ROOT)) : null;
     }
 
     /**
@@ -171,11 +190,20 @@ public enum TipoCalificacion {
      * @return TipoCalificacion encontrado o null si no existe
      */
     public static TipoCalificacion fromAbreviacion(String abreviacion) {
-        for (TipoCalificacion tipo : values()) {
-            if (tipo.getAbreviacion().equalsIgnoreCase(abreviacion)) {
-                return tipo;
-            }
-        }
-        return null;
+        return abreviacion != null ? POR_ABREVIACION.get(abreviacion.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Obtiene un tipo a partir del valor almacenado en la base de datos: el nombre
+     * de la constante, su nombre o su abreviación
+     * @param valor Valor almacenado
+     * @return TipoCalificacion encontrado o null si no existe
+     */
+    public static TipoCalificacion fromValor(String valor) {
+        if (valor == null) return null;
+        TipoCalificacion tipo = POR_VALOR.get(valor);
+        if (tipo != null) return tipo;
+        tipo = fromNombre(valor);
+        return tipo != null ? tipo : fromAbreviacion(valor);
     }
-}
\ No newline at end of file
+}
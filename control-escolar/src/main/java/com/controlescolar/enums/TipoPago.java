@@ -1,5 +1,9 @@
 package com.controlescolar.enums;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enum que define los diferentes tipos de pago en el sistema escolar
  */
@@ -25,6 +29,20 @@ public enum TipoPago {
     private final String descripcion;
     private final String colorHex;
 
+    // Búsquedas precalculadas: valor almacenado exacto y nombre sin distinguir mayúsculas
+    private static final Map<String, TipoPago> POR_VALOR = new HashMap<>();
+    private static final Map<String, TipoPago> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (TipoPago tipo : values()) {
+            POR_VALOR.put(tipo.name(), tipo);
+        }
+        for (TipoPago tipo : values()) {
+            POR_VALOR.putIfAbsent(tipo.nombre, tipo);
+            POR_NOMBRE.putIfAbsent(tipo.nombre.toLowerCase(Locale.ROOT), tipo);
+        }
+    }
+
     /**
      * Constructor del enum TipoPago
      * @param nombre Nombre del tipo de pago
@@ -93,12 +111,19 @@ public enum TipoPago {
      * @return TipoPago encontrado o null si no existe
      */
     public static TipoPago fromNombre(String nombre) {
-        for (TipoPago tipo : values()) {
-            if (tipo.getNombre().equalsIgnoreCase(nombre)) {
-                return tipo;
-            }
-        }
-        return null;
+        return nombre != null ? POR_NOMBRE.get(nombre.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * Obtiene un tipo a partir del valor almacenado en la base de datos,
+     * que puede ser el nombre de la constante (COLEGIATURA) o su nombre (Colegiatura)
+     * @param valor Valor almacenado
+     * @return TipoPago encontrado o null si no existe
+     */
+    public static TipoPago fromValor(String valor) {
+        if (valor == null) return null;
+        TipoPago tipo = POR_VALOR.get(valor);
+        return tipo != null ? tipo : fromNombre(valor);
     }
 
     /**
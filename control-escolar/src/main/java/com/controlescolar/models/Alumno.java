@@ -1,6 +1,7 @@
 // Alumno.java
 package com.controlescolar.models;
 
+import com.controlescolar.utils.FechaUtil;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.time.LocalDate;
@@ -48,7 +49,7 @@ public class Alumno {
                 .append("email", email)
                 .append("telefono", telefono)
                 .append("fechaNacimiento", fechaNacimiento != null ? 
-                    java.util.Date.from(fechaNacimiento.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant()) : null)
+                    FechaUtil.aDate(fechaNacimiento) : null)
                 .append("direccion", direccion)
                 .append("nombreTutor", nombreTutor)
                 .append("telefonoTutor", telefonoTutor)
@@ -70,12 +71,7 @@ public class Alumno {
         alumno.setTelefono(doc.getString("telefono"));
         
         // Convertir fechaNacimiento de Date a LocalDate
-        java.util.Date fechaNacimientoDate = doc.getDate("fechaNacimiento");
-        if (fechaNacimientoDate != null) {
-            alumno.setFechaNacimiento(fechaNacimientoDate.toInstant()
-                    .atZone(java.time.ZoneId.systemDefault())
-                    .toLocalDate());
-        }
+        alumno.setFechaNacimiento(FechaUtil.aLocalDate(doc.getDate("fechaNacimiento")));
         
         alumno.setDireccion(doc.getString("direccion"));
         alumno.setNombreTutor(doc.getString("nombreTutor"));
@@ -0,0 +1,60 @@
+// AlumnoResumen.java
+package com.controlescolar.models;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.Objects;
+
+/**
+ * Datos mínimos de un alumno para combos y selectores (id, matrícula y nombre).
+ * Se obtiene con una proyección, sin decodificar dirección, tutor ni grupos.
+ */
+public final class AlumnoResumen {
+    private final ObjectId id;
+    private final String matricula;
+    private final String nombre;
+    private final String apellidos;
+
+    public AlumnoResumen(ObjectId id, String matricula, String nombre, String apellidos) {
+        this.id = id;
+        this.matricula = matricula;
+        this.nombre = nombre;
+        this.apellidos = apellidos;
+    }
+
+    public static AlumnoResumen fromDocument(Document doc) {
+        return new AlumnoResumen(
+                doc.getObjectId("_id"),
+                doc.getString("matricula"),
+                doc.getString("nombre"),
+                doc.getString("apellidos"));
+    }
+
+    public static AlumnoResumen fromAlumno(Alumno alumno) {
+        return new AlumnoResumen(alumno.getId(), alumno.getMatricula(), alumno.getNombre(), alumno.getApellidos());
+    }
+
+    public ObjectId getId() { return id; }
+    public String getMatricula() { return matricula; }
+    public String getNombre() { return nombre; }
+    public String getApellidos() { return apellidos; }
+    public String getNombreCompleto() { return nombre + " " + apellidos; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AlumnoResumen)) return false;
+        return Objects.equals(id, ((AlumnoResumen) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return matricula + " - " + getNombreCompleto();
+    }
+}
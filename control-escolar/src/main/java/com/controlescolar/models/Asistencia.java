@@ -2,6 +2,7 @@
 package com.controlescolar.models;
 
 import com.controlescolar.enums.EstadoAsistencia;
+import com.controlescolar.utils.FechaUtil;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.time.LocalDate;
@@ -41,7 +42,7 @@ public class Asistencia {
                 .append("grupoId", grupoId)
                 .append("materiaId", materiaId)
                 .append("fecha", fecha != null ? 
-                    Date.from(fecha.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null)
+                    FechaUtil.aDate(fecha) : null)
                 .append("estado", estado.name())
                 .append("observaciones", observaciones)
                 .append("fechaRegistro", fechaRegistro != null ? 
@@ -55,12 +56,7 @@ public class Asistencia {
         asistencia.setGrupoId(doc.getObjectId("grupoId"));
         asistencia.setMateriaId(doc.getObjectId("materiaId"));
         // Convertir fecha de Date a LocalDate
-        java.util.Date fechaDate = doc.getDate("fecha");
-        if (fechaDate != null) {
-            asistencia.setFecha(fechaDate.toInstant()
-                    .atZone(java.time.ZoneId.systemDefault())
-                    .toLocalDate());
-        }
+        asistencia.setFecha(FechaUtil.aLocalDate(doc.getDate("fecha")));
         
         // Parse estado with fallback for descripcion-based values
         String estadoStr = doc.getString("estado");
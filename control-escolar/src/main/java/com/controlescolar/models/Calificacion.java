@@ -69,20 +69,8 @@ public class Calificacion {
         calificacion.setAlumnoId(doc.getObjectId("alumnoId"));
         calificacion.setMateriaId(doc.getObjectId("materiaId"));
         calificacion.setProfesorId(doc.getObjectId("profesorId"));
-        // Parse tipo with fallback for nombre-based values
-        String tipoStr = doc.getString("tipo");
-        TipoCalificacion tipo = null;
-        try {
-            tipo = TipoCalificacion.valueOf(tipoStr);
-        } catch (IllegalArgumentException e) {
-            // Try by nombre if valueOf fails
-            tipo = TipoCalificacion.fromNombre(tipoStr);
-            if (tipo == null) {
-                // Try by abreviacion as last resort
-                tipo = TipoCalificacion.fromAbreviacion(tipoStr);
-            }
-        }
-        calificacion.setTipo(tipo);
+        // Parse tipo with fallback for nombre- and abreviacion-based values
+        calificacion.setTipo(TipoCalificacion.fromValor(doc.getString("tipo")));
         calificacion.setCalificacion(doc.getDouble("calificacion"));
         calificacion.setPonderacion(doc.getDouble("ponderacion"));
         calificacion.setDescripcion(doc.getString("descripcion"));
@@ -0,0 +1,112 @@
+// PadreVinculaciones.java
+package com.controlescolar.models;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Un padre de familia con sus vinculaciones activas y los datos básicos de cada
+ * alumno, tal como los devuelve la agregación con $lookup de PadreAlumnoController.
+ */
+public final class PadreVinculaciones {
+    private final ObjectId padreId;
+    private final String nombre;
+    private final String apellidos;
+    private final String email;
+    private final List<Hijo> hijos;
+
+    public PadreVinculaciones(ObjectId padreId, String nombre, String apellidos, String email, List<Hijo> hijos) {
+        this.padreId = padreId;
+        this.nombre = nombre;
+        this.apellidos = apellidos;
+        this.email = email;
+        this.hijos = Collections.unmodifiableList(new ArrayList<>(hijos));
+    }
+
+    /**
+     * Alumno vinculado con los datos de la vinculación
+     */
+    public static final class Hijo {
+        private final ObjectId vinculacionId;
+        private final ObjectId alumnoId;
+        private final String matricula;
+        private final String nombre;
+        private final String apellidos;
+        private final String parentesco;
+        private final boolean autorizado;
+        private final LocalDateTime fechaVinculacion;
+
+        public Hijo(ObjectId vinculacionId, ObjectId alumnoId, String matricula, String nombre, String apellidos,
+                    String parentesco, boolean autorizado, LocalDateTime fechaVinculacion) {
+            this.vinculacionId = vinculacionId;
+            this.alumnoId = alumnoId;
+            this.matricula = matricula;
+            this.nombre = nombre;
+            this.apellidos = apellidos;
+            this.parentesco = parentesco;
+            this.autorizado = autorizado;
+            this.fechaVinculacion = fechaVinculacion;
+        }
+
+        public ObjectId getVinculacionId() { return vinculacionId; }
+        public ObjectId getAlumnoId() { return alumnoId; }
+        public String getMatricula() { return matricula; }
+        public String getNombre() { return nombre; }
+        public String getApellidos() { return apellidos; }
+        public String getNombreCompleto() { return nombre + " " + apellidos; }
+        public String getParentesco() { return parentesco; }
+        public boolean isAutorizado() { return autorizado; }
+        public LocalDateTime getFechaVinculacion() { return fechaVinculacion; }
+    }
+
+    /**
+     * Convierte un documento de la agregación: el usuario con un arreglo
+     * "vinculaciones" donde cada elemento trae su "alumno" embebido
+     */
+    public static PadreVinculaciones fromDocument(Document doc) {
+        List<Hijo> hijos = new ArrayList<>();
+        for (Document vinculacion : doc.getList("vinculaciones", Document.class, new ArrayList<>())) {
+            Document alumno = vinculacion.get("alumno", Document.class);
+            if (alumno == null) continue;
+            hijos.add(new Hijo(
+                    vinculacion.getObjectId("_id"),
+                    vinculacion.getObjectId("alumnoId"),
+                    alumno.getString("matricula"),
+                    alumno.getString("nombre"),
+                    alumno.getString("apellidos"),
+                    vinculacion.getString("parentesco"),
+                    vinculacion.getBoolean("autorizado", true),
+                    aFecha(vinculacion.get("fechaVinculacion"))));
+        }
+        return new PadreVinculaciones(
+                doc.getObjectId("_id"),
+                doc.getString("nombre"),
+                doc.getString("apellidos"),
+                doc.getString("email"),
+                hijos);
+    }
+
+    private static LocalDateTime aFecha(Object valor) {
+        if (valor instanceof Date) {
+            return ((Date) valor).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+        }
+        if (valor instanceof LocalDateTime) {
+            return (LocalDateTime) valor;
+        }
+        return null;
+    }
+
+    public ObjectId getPadreId() { return padreId; }
+    public String getNombre() { return nombre; }
+    public String getApellidos() { return apellidos; }
+    public String getNombreCompleto() { return nombre + " " + apellidos; }
+    public String getEmail() { return email; }
+    public List<Hijo> getHijos() { return hijos; }
+}
@@ -3,6 +3,7 @@ package com.controlescolar.models;
 
 import com.controlescolar.enums.EstadoPago;
 import com.controlescolar.enums.TipoPago;
+import com.controlescolar.utils.FechaUtil;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import java.time.LocalDate;
@@ -69,9 +70,9 @@ public class Pago {
                 .append("periodo", periodo)
                 .append("metodoPago", metodoPago)
                 .append("fechaPago", fechaPago != null ? 
-                    Date.from(fechaPago.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null)
+                    FechaUtil.aDate(fechaPago) : null)
                 .append("fechaVencimiento", fechaVencimiento != null ? 
-                    Date.from(fechaVencimiento.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null)
+                    FechaUtil.aDate(fechaVencimiento) : null)
                 .append("estado", estado.name())
                 .append("tipo", tipo != null ? tipo.name() : null)
                 .append("concepto", concepto)
@@ -94,46 +95,18 @@ public class Pago {
         pago.setPeriodo(doc.getString("periodo"));
         pago.setMetodoPago(doc.getString("metodoPago"));
         // Convertir fechaPago de Date a LocalDate
-        java.util.Date fechaPagoDate = doc.getDate("fechaPago");
-        if (fechaPagoDate != null) {
-            pago.setFechaPago(fechaPagoDate.toInstant()
-                    .atZone(java.time.ZoneId.systemDefault())
-                    .toLocalDate());
-        }
+        pago.setFechaPago(FechaUtil.aLocalDate(doc.getDate("fechaPago")));
         
         // Convertir fechaVencimiento de Date a LocalDate
-        java.util.Date fechaVencimientoDate = doc.getDate("fechaVencimiento");
-        if (fechaVencimientoDate != null) {
-            pago.setFechaVencimiento(fechaVencimientoDate.toInstant()
-                    .atZone(java.time.ZoneId.systemDefault())
-                    .toLocalDate());
-        }
+        pago.setFechaVencimiento(FechaUtil.aLocalDate(doc.getDate("fechaVencimiento")));
         
         // Parse estado with fallback
-        String estadoStr = doc.getString("estado");
-        EstadoPago estado = null;
-        try {
-            estado = EstadoPago.valueOf(estadoStr);
-        } catch (IllegalArgumentException e) {
-            estado = EstadoPago.fromNombre(estadoStr);
-            if (estado == null) {
-                estado = EstadoPago.PENDIENTE;
-            }
-        }
-        pago.setEstado(estado);
-        
+        EstadoPago estado = EstadoPago.fromValor(doc.getString("estado"));
+        pago.setEstado(estado != null ? estado : EstadoPago.PENDIENTE);
+
         // Parse tipo with fallback
-        String tipoStr = doc.getString("tipo");
-        TipoPago tipo = null;
-        try {
-            tipo = TipoPago.valueOf(tipoStr);
-        } catch (IllegalArgumentException e) {
-            tipo = TipoPago.fromNombre(tipoStr);
-            if (tipo == null) {
-                tipo = TipoPago.COLEGIATURA;
-            }
-        }
-        pago.setTipo(tipo);
+        TipoPago tipo = TipoPago.fromValor(doc.getString("tipo"));
+        pago.setTipo(tipo != null ? tipo : TipoPago.COLEGIATURA);
         
         pago.setConcepto(doc.getString("concepto"));
         pago.setNumeroReferencia(doc.getString("numeroReferencia"));
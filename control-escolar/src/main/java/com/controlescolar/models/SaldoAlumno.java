@@ -0,0 +1,78 @@
+// SaldoAlumno.java
+package com.controlescolar.models;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+
+/**
+ * Resumen de pagos de un alumno tal como se guarda en saldos_alumnos (el _id es
+ * el id del alumno). SaldoAlumnoController lo mantiene con $inc en cada escritura
+ * de pagos, así que leerlo no requiere recorrer el historial.
+ */
+public final class SaldoAlumno {
+    private final ObjectId alumnoId;
+    private final double totalOriginal;
+    private final double totalPagado;
+    private final double totalPendiente;
+    private final double totalRecargos;
+    private final double totalBecas;
+    private final double saldoPendiente;
+    private final int numeroPagos;
+    private final int pagosVencidos;
+    private final Date fechaActualizacion;
+
+    public SaldoAlumno(ObjectId alumnoId, double totalOriginal, double totalPagado, double totalPendiente,
+                       double totalRecargos, double totalBecas, double saldoPendiente,
+                       int numeroPagos, int pagosVencidos, Date fechaActualizacion) {
+        this.alumnoId = alumnoId;
+        this.totalOriginal = totalOriginal;
+        this.totalPagado = totalPagado;
+        this.totalPendiente = totalPendiente;
+        this.totalRecargos = totalRecargos;
+        this.totalBecas = totalBecas;
+        this.saldoPendiente = saldoPendiente;
+        this.numeroPagos = numeroPagos;
+        this.pagosVencidos = pagosVencidos;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    /**
+     * Saldo de un alumno sin pagos registrados
+     */
+    public static SaldoAlumno vacio(ObjectId alumnoId) {
+        return new SaldoAlumno(alumnoId, 0, 0, 0, 0, 0, 0, 0, 0, null);
+    }
+
+    public static SaldoAlumno fromDocument(Document doc) {
+        return new SaldoAlumno(
+                doc.getObjectId("_id"),
+                numero(doc, "totalOriginal"),
+                numero(doc, "totalPagado"),
+                numero(doc, "totalPendiente"),
+                numero(doc, "totalRecargos"),
+                numero(doc, "totalBecas"),
+                numero(doc, "saldoPendiente"),
+                (int) numero(doc, "numeroPagos"),
+                (int) numero(doc, "pagosVencidos"),
+                doc.getDate("fechaActualizacion"));
+    }
+
+    // $inc puede dejar enteros o dobles según el primer valor sumado
+    private static double numero(Document doc, String campo) {
+        Object valor = doc.get(campo);
+        return valor instanceof Number ? ((Number) valor).doubleValue() : 0.0;
+    }
+
+    public ObjectId getAlumnoId() { return alumnoId; }
+    public double getTotalOriginal() { return totalOriginal; }
+    public double getTotalPagado() { return totalPagado; }
+    public double getTotalPendiente() { return totalPendiente; }
+    public double getTotalRecargos() { return totalRecargos; }
+    public double getTotalBecas() { return totalBecas; }
+    public double getSaldoPendiente() { return saldoPendiente; }
+    public int getNumeroPagos() { return numeroPagos; }
+    public int getPagosVencidos() { return pagosVencidos; }
+    public Date getFechaActualizacion() { return fechaActualizacion; }
+}
@@ -0,0 +1,277 @@
+// ArchivoSnapshot.java
+package com.controlescolar.utils;
+
+import com.controlescolar.codecs.CodecsControlEscolar;
+import org.bson.BsonBinaryReader;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.Document;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archivo local con documentos de varias colecciones, leído con un mapeo de memoria.
+ *
+ * Formato: encabezado (magia, versión, número de secciones y por cada sección su
+ * nombre, marca de modificación, fechas de sincronización, documentos, inicio y
+ * tamaño) seguido de los documentos de cada sección como BSON tal cual, uno tras
+ * otro. Abrir el archivo solo lee el encabezado; los documentos de una sección se
+ * decodifican cuando se piden, directo del mapeo y sin copiar el archivo al heap.
+ *
+ * El archivo no se modifica en sitio: escribir genera uno nuevo junto al actual y
+ * lo reemplaza al terminar, así que un cierre a medio escribir deja el anterior.
+ */
+public class ArchivoSnapshot {
+
+    private static final int MAGIA = 0x43455331; // "CES1"
+    private static final int VERSION = 1;
+    private static final String SUFIJO_NUEVO = ".nuevo";
+
+    private static final Codec<Document> CODEC = CodecsControlEscolar.registro().get(Document.class);
+
+    private final Path ruta;
+    private final Map<String, Seccion> secciones;
+
+    /**
+     * Documentos de una colección y el estado de su última sincronización
+     */
+    public static class Seccion {
+        private final String nombre;
+        private final long marca;
+        private final long sincronizado;
+        private final long cargaCompleta;
+        private final int documentos;
+        private final ByteBuffer datos;
+        private final List<Document> decodificados;
+
+        private Seccion(String nombre, long marca, long sincronizado, long cargaCompleta,
+                        int documentos, ByteBuffer datos, List<Document> decodificados) {
+            this.nombre = nombre;
+            this.marca = marca;
+            this.sincronizado = sincronizado;
+            this.cargaCompleta = cargaCompleta;
+            this.documentos = documentos;
+            this.datos = datos;
+            this.decodificados = decodificados;
+        }
+
+        /**
+         * Sección nueva para escribir
+         * @param nombre Nombre de la sección (la colección)
+         * @param marca Mayor fecha de modificación vista en milisegundos (0 si ninguna)
+         * @param sincronizado Momento de la última sincronización con el servidor
+         * @param cargaCompleta Momento de la última lectura completa de la colección
+         * @param documentos Documentos de la sección
+         */
+        public Seccion(String nombre, long marca, long sincronizado, long cargaCompleta, List<Document> documentos) {
+            this(nombre, marca, sincronizado, cargaCompleta, documentos.size(), null,
+                    Collections.unmodifiableList(new ArrayList<>(documentos)));
+        }
+
+        public String getNombre() { return nombre; }
+        public long getMarca() { return marca; }
+        public long getSincronizado() { return sincronizado; }
+        public long getCargaCompleta() { return cargaCompleta; }
+        public int getTotalDocumentos() { return documentos; }
+
+        /**
+         * Decodifica los documentos de la sección (en cada llamada; quien los use varias veces los guarda)
+         */
+        public List<Document> getDocumentos() {
+            if (decodificados != null) {
+                return decodificados;
+            }
+            List<Document> resultado = new ArrayList<>(documentos);
+            ByteBuffer buffer = datos.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.remaining() > 0) {
+                // Cada documento BSON empieza con su propio tamaño
+                int tamano = buffer.getInt(buffer.position());
+                ByteBuffer documento = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+                documento.limit(tamano);
+                try (BsonBinaryReader reader = new BsonBinaryReader(documento)) {
+                    resultado.add(CODEC.decode(reader, DecoderContext.builder().build()));
+                }
+                buffer.position(buffer.position() + tamano);
+            }
+            return resultado;
+        }
+    }
+
+    private ArchivoSnapshot(Path ruta, Map<String, Seccion> secciones) {
+        this.ruta = ruta;
+        this.secciones = secciones;
+    }
+
+    /**
+     * Abre el archivo y lee su encabezado
+     * @param ruta Ruta del archivo
+     * @return Archivo abierto, o null si no existe
+     * @throws IOException Si no se puede leer o no tiene el formato esperado
+     */
+    public static ArchivoSnapshot abrir(Path ruta) throws IOException {
+        // Un reemplazo que no se pudo hacer (el archivo estaba mapeado) se completa antes de mapear
+        Path nuevo = rutaNuevo(ruta);
+        if (Files.exists(nuevo)) {
+            Files.move(nuevo, ruta, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+
+        MappedByteBuffer mapeo;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+
+        try {
+            if (mapeo.getInt() != MAGIA || mapeo.getInt() != VERSION) {
+                throw new IOException("Formato de snapshot desconocido: " + ruta);
+            }
+            int total = mapeo.getInt();
+            Map<String, Seccion> secciones = new LinkedHashMap<>();
+            for (int i = 0; i < total; i++) {
+                byte[] nombre = new byte[mapeo.getShort()];
+                mapeo.get(nombre);
+                long marca = mapeo.getLong();
+                long sincronizado = mapeo.getLong();
+                long cargaCompleta = mapeo.getLong();
+                int documentos = mapeo.getInt();
+                int inicio = mapeo.getInt();
+                int tamano = mapeo.getInt();
+
+                ByteBuffer datos = mapeo.duplicate();
+                datos.position(inicio).limit(inicio + tamano);
+                String nombreSeccion = new String(nombre, StandardCharsets.UTF_8);
+                secciones.put(nombreSeccion, new Seccion(nombreSeccion, marca, sincronizado, cargaCompleta,
+                        documentos, datos.slice(), null));
+            }
+            return new ArchivoSnapshot(ruta, secciones);
+        } catch (RuntimeException e) {
+            // Archivo truncado o dañado: posiciones fuera del mapeo
+            throw new IOException("Snapshot dañado: " + ruta, e);
+        }
+    }
+
+    /**
+     * Escribe un archivo nuevo con las secciones y reemplaza el anterior
+     * @param ruta Ruta del archivo
+     * @param secciones Secciones a guardar
+     * @return Archivo recién escrito, abierto para lectura (o las secciones en memoria si
+     *         el anterior no se pudo reemplazar)
+     * @throws IOException Si no se puede escribir
+     */
+    public static ArchivoSnapshot escribir(Path ruta, List<Seccion> secciones) throws IOException {
+        List<byte[]> nombres = new ArrayList<>();
+        List<List<byte[]>> cuerpos = new ArrayList<>();
+        int encabezado = 12;
+        for (Seccion seccion : secciones) {
+            byte[] nombre = seccion.getNombre().getBytes(StandardCharsets.UTF_8);
+            nombres.add(nombre);
+            encabezado += 2 + nombre.length + 8 * 3 + 4 * 3;
+
+            List<byte[]> cuerpo = new ArrayList<>();
+            for (Document doc : seccion.getDocumentos()) {
+                ByteBuffer bson = new RawBsonDocument(doc, CODEC).getByteBuffer().asNIO();
+                byte[] bytes = new byte[bson.remaining()];
+                bson.get(bytes);
+                cuerpo.add(bytes);
+            }
+            cuerpos.add(cuerpo);
+        }
+
+        Path directorio = ruta.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = Files.createTempFile(directorio, "snapshot", ".tmp");
+        try {
+            try (OutputStream archivo = Files.newOutputStream(temporal);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(archivo, 64 * 1024))) {
+                out.writeInt(MAGIA);
+                out.writeInt(VERSION);
+                out.writeInt(secciones.size());
+                int inicio = encabezado;
+                for (int i = 0; i < secciones.size(); i++) {
+                    Seccion seccion = secciones.get(i);
+                    int tamano = 0;
+                    for (byte[] bytes : cuerpos.get(i)) {
+                        tamano += bytes.length;
+                    }
+                    out.writeShort(nombres.get(i).length);
+                    out.write(nombres.get(i));
+                    out.writeLong(seccion.getMarca());
+                    out.writeLong(seccion.getSincronizado());
+                    out.writeLong(seccion.getCargaCompleta());
+                    out.writeInt(cuerpos.get(i).size());
+                    out.writeInt(inicio);
+                    out.writeInt(tamano);
+                    inicio += tamano;
+                }
+                for (List<byte[]> cuerpo : cuerpos) {
+                    for (byte[] bytes : cuerpo) {
+                        out.write(bytes);
+                    }
+                }
+            }
+            if (!reemplazar(temporal, ruta)) {
+                // Las secciones quedan en memoria hasta el siguiente inicio
+                Map<String, Seccion> enMemoria = new LinkedHashMap<>();
+                for (Seccion seccion : secciones) {
+                    enMemoria.put(seccion.getNombre(), seccion);
+                }
+                return new ArchivoSnapshot(ruta, enMemoria);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        return abrir(ruta);
+    }
+
+    // En Windows no se puede reemplazar un archivo mapeado; se deja como .nuevo y abrir lo aplica en el siguiente inicio
+    private static boolean reemplazar(Path temporal, Path ruta) throws IOException {
+        try {
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            Files.move(temporal, rutaNuevo(ruta), StandardCopyOption.REPLACE_EXISTING);
+            return false;
+        }
+    }
+
+    private static Path rutaNuevo(Path ruta) {
+        return ruta.resolveSibling(ruta.getFileName() + SUFIJO_NUEVO);
+    }
+
+    public Path getRuta() {
+        return ruta;
+    }
+
+    /**
+     * @return Sección con el nombre dado, o null si el archivo no la tiene
+     */
+    public Seccion getSeccion(String nombre) {
+        return secciones.get(nombre);
+    }
+
+    public List<Seccion> getSecciones() {
+        return new ArrayList<>(secciones.values());
+    }
+}
@@ -0,0 +1,372 @@
+// AsyncLoader.java
+package com.controlescolar.utils;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta las consultas de las vistas fuera del hilo de JavaFX y publica el
+ * resultado con Platform.runLater.
+ *
+ * Cada carga pertenece a un propietario (normalmente la ventana de la vista) y
+ * tiene una clave: iniciar otra carga con la misma clave cancela la anterior, y
+ * al cerrar la ventana se cancelan todas las suyas. Una carga cancelada nunca
+ * publica su resultado.
+ *
+ * Uso:
+ * <pre>
+ * AsyncLoader.cargar(stage, "alumnos", AlumnoController::obtenerAlumnos)
+ *         .conIndicador(tablaAlumnos)
+ *         .alCompletar(listaAlumnos::setAll)
+ *         .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()))
+ *         .iniciar();
+ * </pre>
+ */
+public class AsyncLoader {
+
+    // Consultas simultáneas máximas; el resto espera en cola sin ocupar conexiones del pool
+    private static final int MAX_CARGAS_SIMULTANEAS = 8;
+
+    private static final Semaphore PERMISOS = new Semaphore(MAX_CARGAS_SIMULTANEAS);
+    private static final ExecutorService EXECUTOR = crearExecutor();
+    // Escrituras: no esperan permisos de las consultas y nunca se cancelan
+    private static final ExecutorService ESCRITURAS = crearExecutor();
+    private static final Map<Object, Map<String, Carga<?>>> EN_CURSO = new ConcurrentHashMap<>();
+    private static final String PROPIEDAD_VENTANA = AsyncLoader.class.getName();
+    private static final String PROPIEDAD_CARGAS = AsyncLoader.class.getName() + ".cargas";
+
+    private AsyncLoader() {
+    }
+
+    /**
+     * Usa hilos virtuales si la JVM los tiene (Java 21+); si no, un pool fijo de hilos daemon
+     */
+    private static ExecutorService crearExecutor() {
+        try {
+            Object executor = java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return (ExecutorService) executor;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread hilo = new Thread(r, "carga-datos-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            };
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_CARGAS_SIMULTANEAS, MAX_CARGAS_SIMULTANEAS,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Prepara una carga en segundo plano
+     * @param propietario Dueño de la carga (la ventana de la vista, para cancelar al cerrarla)
+     * @param clave Identifica la carga dentro del propietario; una nueva con la misma clave cancela la anterior
+     * @param consulta Operación que se ejecuta fuera del hilo de JavaFX
+     * @return Carga para configurar y luego iniciar()
+     */
+    public static <T> Carga<T> cargar(Object propietario, String clave, Callable<T> consulta) {
+        return new Carga<>(propietario, clave, consulta);
+    }
+
+    /**
+     * Prepara una escritura en segundo plano. A diferencia de cargar, no tiene clave y
+     * no se cancela al cerrar la ventana ni al iniciar otra: una vez iniciada siempre
+     * se ejecuta y sus callbacks siempre se publican.
+     * @param propietario Ventana de la vista; cerrarla no cancela la escritura
+     * @param escritura Operación que se ejecuta fuera del hilo de JavaFX
+     * @return Carga para configurar y luego iniciar()
+     */
+    public static <T> Carga<T> escribir(Object propietario, Callable<T> escritura) {
+        Carga<T> carga = new Carga<>(propietario, "escritura", escritura);
+        carga.escritura = true;
+        return carga;
+    }
+
+    /**
+     * Ejecuta una tarea sin resultado en segundo plano (abrir archivos, escribir a disco, ...)
+     * @param tarea Tarea a ejecutar
+     */
+    public static void ejecutar(Runnable tarea) {
+        EXECUTOR.execute(() -> {
+            try {
+                tarea.run();
+            } catch (Exception e) {
+                System.err.println("Error en tarea en segundo plano: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cancela todas las cargas de un propietario
+     * @param propietario Dueño de las cargas
+     */
+    public static void cancelar(Object propietario) {
+        Map<String, Carga<?>> cargas = EN_CURSO.remove(propietario);
+        if (cargas != null) {
+            new ArrayList<>(cargas.values()).forEach(Carga::cancelar);
+        }
+    }
+
+    /**
+     * Cancela una carga concreta de un propietario
+     * @param propietario Dueño de la carga
+     * @param clave Clave de la carga
+     */
+    public static void cancelar(Object propietario, String clave) {
+        Map<String, Carga<?>> cargas = EN_CURSO.get(propietario);
+        if (cargas != null) {
+            Carga<?> carga = cargas.remove(clave);
+            if (carga != null) {
+                carga.cancelar();
+            }
+        }
+    }
+
+    // Al ocultarse la ventana se cancelan sus cargas (una sola vez por ventana)
+    private static void registrarVentana(Window ventana) {
+        if (ventana.getProperties().putIfAbsent(PROPIEDAD_VENTANA, Boolean.TRUE) == null) {
+            ventana.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> cancelar(ventana));
+        }
+    }
+
+    // Cargas pendientes por nodo; solo se usa desde el hilo de JavaFX
+    private static EstadoNodo estadoDe(Node nodo) {
+        return (EstadoNodo) nodo.getProperties().computeIfAbsent(PROPIEDAD_CARGAS, k -> new EstadoNodo());
+    }
+
+    private static void liberar(Node nodo, EstadoNodo estado) {
+        if (estado.indicadores == 0 && estado.deshabilitaciones == 0) {
+            nodo.getProperties().remove(PROPIEDAD_CARGAS);
+        }
+    }
+
+    /**
+     * Varias cargas pueden compartir tabla o botones: el indicador se pone con la
+     * primera y el placeholder original se restaura con la última
+     */
+    private static class EstadoNodo {
+        private int indicadores;
+        private int deshabilitaciones;
+        private Node placeholderOriginal;
+    }
+
+    private static void enHiloFx(Runnable accion) {
+        if (Platform.isFxApplicationThread()) {
+            accion.run();
+        } else {
+            Platform.runLater(accion);
+        }
+    }
+
+    /**
+     * Una carga configurable; los callbacks siempre corren en el hilo de JavaFX
+     */
+    public static class Carga<T> {
+        private final Object propietario;
+        private final String clave;
+        private final Callable<T> consulta;
+        private final List<Node> deshabilitados = new ArrayList<>();
+        private Consumer<T> alCompletar = resultado -> { };
+        private Consumer<Throwable> alFallar;
+        private TableView<?> tabla;
+        private boolean mostrando;
+        private Future<?> future;
+        private volatile boolean cancelada;
+        private boolean escritura;
+
+        private Carga(Object propietario, String clave, Callable<T> consulta) {
+            this.propietario = propietario;
+            this.clave = clave;
+            this.consulta = consulta;
+        }
+
+        /**
+         * Muestra un indicador de progreso como placeholder de la tabla mientras carga
+         */
+        public Carga<T> conIndicador(TableView<?> tabla) {
+            this.tabla = tabla;
+            return this;
+        }
+
+        /**
+         * Deshabilita los nodos (botones de refrescar, filtros, ...) mientras carga
+         */
+        public Carga<T> deshabilitando(Node... nodos) {
+            for (Node nodo : nodos) {
+                deshabilitados.add(nodo);
+            }
+            return this;
+        }
+
+        public Carga<T> alCompletar(Consumer<T> alCompletar) {
+            this.alCompletar = alCompletar;
+            return this;
+        }
+
+        public Carga<T> alFallar(Consumer<Throwable> alFallar) {
+            this.alFallar = alFallar;
+            return this;
+        }
+
+        /**
+         * Inicia la carga; debe llamarse desde el hilo de JavaFX
+         * @return Future de la tarea en segundo plano
+         */
+        public Future<?> iniciar() {
+            if (escritura) {
+                mostrarCargando();
+                try {
+                    future = ESCRITURAS.submit(this::ejecutarConsulta);
+                } catch (RejectedExecutionException e) {
+                    terminar(null, e);
+                }
+                return future;
+            }
+
+            Carga<?> anterior = EN_CURSO.computeIfAbsent(propietario, k -> new ConcurrentHashMap<>()).put(clave, this);
+            if (anterior != null) {
+                anterior.cancelar();
+            }
+            if (propietario instanceof Window) {
+                registrarVentana((Window) propietario);
+            }
+
+            mostrarCargando();
+            try {
+                future = EXECUTOR.submit(this::ejecutarConsulta);
+            } catch (RejectedExecutionException e) {
+                terminar(null, e);
+            }
+            return future;
+        }
+
+        private void ejecutarConsulta() {
+            if (cancelada) return;
+            T resultado = null;
+            Throwable error = null;
+            try {
+                if (escritura) {
+                    resultado = consulta.call();
+                } else {
+                    PERMISOS.acquire();
+                    try {
+                        if (!cancelada) {
+                            resultado = consulta.call();
+                        }
+                    } finally {
+                        PERMISOS.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                error = e;
+            }
+
+            T valor = resultado;
+            Throwable falla = error;
+            Platform.runLater(() -> terminar(valor, falla));
+        }
+
+        private void terminar(T resultado, Throwable error) {
+            if (cancelada) return;
+            Map<String, Carga<?>> cargas = escritura ? null : EN_CURSO.get(propietario);
+            if (cargas != null) {
+                cargas.remove(clave, this);
+            }
+            ocultarCargando();
+
+            if (error != null) {
+                if (alFallar != null) {
+                    alFallar.accept(error);
+                } else {
+                    System.err.println("Error al cargar " + clave + ": " + error.getMessage());
+                }
+            } else {
+                alCompletar.accept(resultado);
+            }
+        }
+
+        /**
+         * Cancela la carga. La consulta que ya está en curso no se interrumpe (interrumpir
+         * al driver cierra la conexión), solo se descarta su resultado.
+         */
+        void cancelar() {
+            if (cancelada) return;
+            cancelada = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            enHiloFx(this::ocultarCargando);
+        }
+
+        private void mostrarCargando() {
+            if (mostrando) return;
+            mostrando = true;
+            if (tabla != null) {
+                EstadoNodo estado = estadoDe(tabla);
+                if (estado.indicadores++ == 0) {
+                    estado.placeholderOriginal = tabla.getPlaceholder();
+                    ProgressIndicator indicador = new ProgressIndicator();
+                    indicador.setMaxSize(40, 40);
+                    VBox cargando = new VBox(10, indicador, new Label("Cargando..."));
+                    cargando.setAlignment(Pos.CENTER);
+                    tabla.setPlaceholder(cargando);
+                }
+            }
+            for (Node nodo : deshabilitados) {
+                if (estadoDe(nodo).deshabilitaciones++ == 0) {
+                    nodo.setDisable(true);
+                }
+            }
+        }
+
+        // Solo una vez por carga: terminar y cancelar pueden llegar los dos
+        private void ocultarCargando() {
+            if (!mostrando) return;
+            mostrando = false;
+            if (tabla != null) {
+                EstadoNodo estado = estadoDe(tabla);
+                if (--estado.indicadores == 0) {
+                    tabla.setPlaceholder(estado.placeholderOriginal);
+                    estado.placeholderOriginal = null;
+                }
+                liberar(tabla, estado);
+            }
+            for (Node nodo : deshabilitados) {
+                EstadoNodo estado = estadoDe(nodo);
+                if (--estado.deshabilitaciones == 0) {
+                    nodo.setDisable(false);
+                }
+                liberar(nodo, estado);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// BatchLoader.java
+package com.controlescolar.utils;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resuelve listas de referencias (alumnosIds, materiasIds, gruposIds, ...)
+ * con una sola consulta $in en lugar de un find(_id) por elemento.
+ */
+public class BatchLoader {
+
+    // Límite de ids por consulta para no generar filtros enormes
+    private static final int TAMANO_LOTE = 1000;
+
+    private BatchLoader() {
+    }
+
+    /**
+     * Carga los documentos cuyos _id están en la lista, respetando el orden de la lista
+     * @param collection Colección a consultar
+     * @param ids Lista de ids (puede tener nulos o repetidos)
+     * @param mapper Conversión de Document al modelo
+     * @return Modelos en el mismo orden que los ids; los que no existen se omiten
+     */
+    public static <T> List<T> cargarPorIds(MongoCollection<Document> collection, List<ObjectId> ids,
+                                           Function<Document, T> mapper) {
+        return cargarPorIds(collection, ids, null, mapper);
+    }
+
+    /**
+     * Carga los documentos cuyos _id están en la lista y que cumplen un filtro adicional
+     * @param collection Colección a consultar
+     * @param ids Lista de ids (puede tener nulos o repetidos)
+     * @param filtroAdicional Filtro extra, por ejemplo activo = true (puede ser null)
+     * @param mapper Conversión de Document al modelo
+     * @return Modelos en el mismo orden que los ids; los que no existen o no cumplen el filtro se omiten
+     */
+    public static <T> List<T> cargarPorIds(MongoCollection<Document> collection, List<ObjectId> ids,
+                                           Bson filtroAdicional, Function<Document, T> mapper) {
+        List<T> resultado = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return resultado;
+        }
+
+        Map<ObjectId, Document> documentos = cargarMapa(collection, ids, filtroAdicional);
+        for (ObjectId id : new LinkedHashSet<>(ids)) {
+            Document doc = id != null ? documentos.get(id) : null;
+            if (doc != null) {
+                resultado.add(mapper.apply(doc));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga los documentos cuyos _id están en la lista y los indexa por _id
+     * @param collection Colección a consultar
+     * @param ids Lista de ids
+     * @param filtroAdicional Filtro extra (puede ser null)
+     * @return Mapa _id -> Document con los documentos encontrados
+     */
+    public static Map<ObjectId, Document> cargarMapa(MongoCollection<Document> collection, List<ObjectId> ids,
+                                                     Bson filtroAdicional) {
+        return cargarMapa(collection, ids, filtroAdicional, null);
+    }
+
+    /**
+     * Carga solo los campos de la proyección de los documentos cuyos _id están en la lista
+     * @param collection Colección a consultar
+     * @param ids Lista de ids
+     * @param filtroAdicional Filtro extra (puede ser null)
+     * @param proyeccion Campos a leer (null = documento completo)
+     * @return Mapa _id -> Document con los documentos encontrados
+     */
+    public static Map<ObjectId, Document> cargarMapa(MongoCollection<Document> collection, List<ObjectId> ids,
+                                                     Bson filtroAdicional, Bson proyeccion) {
+        Map<ObjectId, Document> documentos = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return documentos;
+        }
+
+        List<ObjectId> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.remove(null);
+
+        for (int inicio = 0; inicio < unicos.size(); inicio += TAMANO_LOTE) {
+            List<ObjectId> lote = unicos.subList(inicio, Math.min(inicio + TAMANO_LOTE, unicos.size()));
+            Bson filtro = filtroAdicional != null
+                    ? Filters.and(Filters.in("_id", lote), filtroAdicional)
+                    : Filters.in("_id", lote);
+            collection.find(filtro).projection(proyeccion).forEach(doc -> documentos.put(doc.getObjectId("_id"), doc));
+        }
+        return documentos;
+    }
+}
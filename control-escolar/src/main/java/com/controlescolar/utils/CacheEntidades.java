@@ -0,0 +1,219 @@
+// CacheEntidades.java
+package com.controlescolar.utils;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché de lectura por _id para entidades de referencia (materias, profesores,
+ * grupos, alumnos) compartida por todo el proceso.
+ *
+ * Tiene un máximo de entradas con desalojo LRU y una vigencia (TTL) por entrada,
+ * de modo que los cambios hechos desde otra instancia de la aplicación se ven
+ * a más tardar al vencer la entrada. Los controladores invalidan la entrada en
+ * sus propios métodos de crear/actualizar/eliminar.
+ *
+ * Los objetos se comparten entre vistas: quien necesite modificarlos debe
+ * guardar el cambio con el controlador (que invalida la entrada).
+ */
+public class CacheEntidades<T> {
+
+    private static final Map<String, CacheEntidades<?>> REGISTRO = new ConcurrentHashMap<>();
+
+    private final String nombre;
+    private final long ttlMs;
+    private final LinkedHashMap<ObjectId, Entrada<T>> entradas;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong desalojos = new AtomicLong();
+    private final AtomicLong expiraciones = new AtomicLong();
+
+    private static class Entrada<T> {
+        private final T valor;
+        private final long expira;
+
+        private Entrada(T valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+
+    /**
+     * @param nombre Nombre para las estadísticas (normalmente la colección)
+     * @param maxEntradas Entradas máximas antes de desalojar la menos usada
+     * @param ttlMs Vigencia de cada entrada en milisegundos
+     */
+    public CacheEntidades(String nombre, int maxEntradas, long ttlMs) {
+        this.nombre = nombre;
+        this.ttlMs = ttlMs;
+        // accessOrder = true: cada get mueve la entrada al final, así la primera es la menos usada
+        this.entradas = new LinkedHashMap<ObjectId, Entrada<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, Entrada<T>> eldest) {
+                if (size() > maxEntradas) {
+                    desalojos.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        REGISTRO.put(nombre, this);
+    }
+
+    /**
+     * Obtiene una entidad de la caché o la carga con el cargador
+     * @param id Id de la entidad
+     * @param cargador Consulta a la base de datos si no está en caché
+     * @return Entidad, o null si no existe (los null no se guardan)
+     */
+    public T obtener(ObjectId id, Function<ObjectId, T> cargador) {
+        if (id == null) return null;
+        T valor = buscar(id);
+        if (valor != null) {
+            return valor;
+        }
+        valor = cargador.apply(id);
+        if (valor != null) {
+            poner(id, valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Obtiene varias entidades; las que faltan se cargan con una sola consulta
+     * @param ids Ids a obtener (puede tener nulos o repetidos)
+     * @param cargadorLote Consulta de los ids que no están en caché
+     * @param idDe Id de una entidad cargada
+     * @return Entidades en el orden de los ids; las que no existen se omiten
+     */
+    public List<T> obtenerVarios(List<ObjectId> ids, Function<List<ObjectId>, List<T>> cargadorLote,
+                                 Function<T, ObjectId> idDe) {
+        List<T> resultado = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) return resultado;
+
+        Map<ObjectId, T> encontrados = new HashMap<>();
+        Set<ObjectId> faltantes = new LinkedHashSet<>();
+        for (ObjectId id : ids) {
+            if (id == null || encontrados.containsKey(id) || faltantes.contains(id)) continue;
+            T valor = buscar(id);
+            if (valor != null) {
+                encontrados.put(id, valor);
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            for (T valor : cargadorLote.apply(new ArrayList<>(faltantes))) {
+                ObjectId id = idDe.apply(valor);
+                encontrados.put(id, valor);
+                poner(id, valor);
+            }
+        }
+
+        for (ObjectId id : new LinkedHashSet<>(ids)) {
+            T valor = id != null ? encontrados.get(id) : null;
+            if (valor != null) {
+                resultado.add(valor);
+            }
+        }
+        return resultado;
+    }
+
+    public void poner(ObjectId id, T valor) {
+        if (id == null || valor == null) return;
+        synchronized (entradas) {
+            entradas.put(id, new Entrada<>(valor, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    public void invalidar(ObjectId id) {
+        if (id == null) return;
+        synchronized (entradas) {
+            entradas.remove(id);
+        }
+    }
+
+    public void invalidar(Collection<ObjectId> ids) {
+        if (ids == null) return;
+        synchronized (entradas) {
+            for (ObjectId id : ids) {
+                entradas.remove(id);
+            }
+        }
+    }
+
+    public void invalidarTodo() {
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    /**
+     * Aciertos, fallos, desalojos, expiraciones, tamaño y tasa de aciertos
+     */
+    public Map<String, Object> getEstadisticas() {
+        long a = aciertos.get();
+        long f = fallos.get();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("aciertos", a);
+        estadisticas.put("fallos", f);
+        estadisticas.put("desalojos", desalojos.get());
+        estadisticas.put("expiraciones", expiraciones.get());
+        synchronized (entradas) {
+            estadisticas.put("tamano", entradas.size());
+        }
+        estadisticas.put("tasaAciertos", a + f > 0 ? (double) a / (a + f) : 0.0);
+        return estadisticas;
+    }
+
+    /**
+     * Estadísticas de todas las cachés creadas, por nombre
+     */
+    public static Map<String, Map<String, Object>> getEstadisticasGlobales() {
+        Map<String, Map<String, Object>> todas = new LinkedHashMap<>();
+        REGISTRO.forEach((nombre, cache) -> todas.put(nombre, cache.getEstadisticas()));
+        return todas;
+    }
+
+    /**
+     * Vacía todas las cachés (por ejemplo después de una importación masiva)
+     */
+    public static void invalidarTodas() {
+        REGISTRO.values().forEach(CacheEntidades::invalidarTodo);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    private T buscar(ObjectId id) {
+        synchronized (entradas) {
+            Entrada<T> entrada = entradas.get(id);
+            if (entrada == null) {
+                fallos.incrementAndGet();
+                return null;
+            }
+            if (entrada.expira <= System.currentTimeMillis()) {
+                entradas.remove(id);
+                expiraciones.incrementAndGet();
+                fallos.incrementAndGet();
+                return null;
+            }
+            aciertos.incrementAndGet();
+            return entrada.valor;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// ComboFiltrable.java
+package com.controlescolar.utils;
+
+import javafx.application.Platform;
+import javafx.scene.control.ComboBox;
+import javafx.util.StringConverter;
+
+/**
+ * Convierte un ComboBox en un selector con búsqueda: el usuario escribe y la
+ * lista se filtra con un IndicePrefijos en memoria, mostrando como máximo
+ * LIMITE_RESULTADOS opciones para no llenar el popup con miles de filas.
+ */
+public class ComboFiltrable {
+
+    private static final int LIMITE_RESULTADOS = 100;
+
+    private ComboFiltrable() {
+    }
+
+    /**
+     * Configura el combo; puede llamarse de nuevo cuando cambia el índice
+     * @param combo Combo a configurar (se vuelve editable)
+     * @param indice Índice con todas las opciones
+     */
+    public static <T> void configurar(ComboBox<T> combo, IndicePrefijos<T> indice) {
+        StringConverter<T> textoDe = combo.getConverter();
+        combo.setEditable(true);
+        combo.setConverter(new StringConverter<T>() {
+            @Override
+            public String toString(T elemento) {
+                return elemento == null ? "" : textoDe.toString(elemento);
+            }
+
+            @Override
+            public T fromString(String texto) {
+                for (T elemento : combo.getItems()) {
+                    if (toString(elemento).equals(texto)) {
+                        return elemento;
+                    }
+                }
+                return null;
+            }
+        });
+        combo.getItems().setAll(indice.buscar("", LIMITE_RESULTADOS));
+
+        // El listener se registra una sola vez; el índice vigente se guarda en las propiedades del combo
+        boolean primeraVez = !combo.getProperties().containsKey(ComboFiltrable.class);
+        combo.getProperties().put(ComboFiltrable.class, indice);
+        if (!primeraVez) return;
+
+        combo.getEditor().textProperty().addListener((obs, anterior, texto) -> {
+            T seleccionado = combo.getValue();
+            if (seleccionado != null && combo.getConverter().toString(seleccionado).equals(texto)) {
+                return;
+            }
+            // Se difiere para no modificar los items mientras el combo procesa la tecla
+            Platform.runLater(() -> {
+                @SuppressWarnings("unchecked")
+                IndicePrefijos<T> vigente = (IndicePrefijos<T>) combo.getProperties().get(ComboFiltrable.class);
+                combo.getItems().setAll(vigente.buscar(texto, LIMITE_RESULTADOS));
+                if (combo.getEditor().isFocused() && !combo.isShowing() && !combo.getItems().isEmpty()) {
+                    combo.show();
+                }
+            });
+        });
+    }
+}
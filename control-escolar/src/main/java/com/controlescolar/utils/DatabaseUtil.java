@@ -2,17 +2,24 @@
 package com.controlescolar.utils;
 
 import com.controlescolar.config.DatabaseConfig;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
+import com.mongodb.connection.ClusterType;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 public class DatabaseUtil {
     private static final DatabaseConfig dbConfig = DatabaseConfig.getInstance();
@@ -110,11 +117,11 @@ public class DatabaseUtil {
         return documents;
     }
 
-    // Contar documentos
+    // Contar documentos (conteo de metadatos, sin recorrer la colección)
     public static long countDocuments(String collectionName) {
         try {
             MongoCollection<Document> collection = dbConfig.getDatabase().getCollection(collectionName);
-            return collection.countDocuments();
+            return collection.estimatedDocumentCount();
         } catch (Exception e) {
             System.err.println("❌ Error al contar documentos: " + e.getMessage());
             return 0;
@@ -136,4 +143,48 @@ public class DatabaseUtil {
     public static MongoCollection<Document> getCollection(String collectionName) {
         return dbConfig.getDatabase().getCollection(collectionName);
     }
-}
\ No newline at end of file
+
+    /**
+     * Colección tipada; el modelo necesita un codec en CodecsControlEscolar
+     */
+    public static <T> MongoCollection<T> getCollection(String collectionName, Class<T> clase) {
+        return dbConfig.getDatabase().getCollection(collectionName, clase);
+    }
+
+    /**
+     * Ejecuta varias escrituras como una transacción multi-documento. El cuerpo recibe la
+     * sesión y debe pasarla a cada operación; si hay un error transitorio se reintenta
+     * completo. En un servidor standalone (sin replica set) no hay transacciones, así que
+     * el cuerpo se ejecuta con una sesión normal.
+     * @param cuerpo Operaciones a ejecutar con la sesión
+     * @return Valor devuelto por el cuerpo
+     */
+    public static <T> T ejecutarEnTransaccion(Function<ClientSession, T> cuerpo) {
+        try (ClientSession session = dbConfig.getClient().startSession()) {
+            if (!soportaTransacciones()) {
+                return cuerpo.apply(session);
+            }
+            // Las lecturas de una transacción solo pueden ir al primario; sin esto se heredaría
+            // mongodb.read.preference (por ejemplo primaryPreferred) y el driver rechazaría cada find
+            TransactionOptions opciones = TransactionOptions.builder()
+                    .readPreference(ReadPreference.primary())
+                    .readConcern(ReadConcern.SNAPSHOT)
+                    .writeConcern(WriteConcern.MAJORITY)
+                    .build();
+            return session.withTransaction(() -> cuerpo.apply(session), opciones);
+        }
+    }
+
+    // Las transacciones solo existen en replica sets y clústeres fragmentados
+    private static boolean soportaTransacciones() {
+        ClusterType tipo = dbConfig.getClient().getClusterDescription().getType();
+        if (tipo == ClusterType.UNKNOWN) {
+            // Mientras el driver no ha descubierto ningún servidor (por ejemplo justo después de
+            // reconectar) el tipo es UNKNOWN y los pagos se escribirían sin transacción; el ping
+            // espera a la selección de servidor y actualiza la descripción
+            dbConfig.isConnected();
+            tipo = dbConfig.getClient().getClusterDescription().getType();
+        }
+        return tipo == ClusterType.REPLICA_SET || tipo == ClusterType.SHARDED || tipo == ClusterType.LOAD_BALANCED;
+    }
+}
@@ -8,15 +8,27 @@ import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.models.*;
 import com.controlescolar.enums.*;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import org.bson.types.ObjectId;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,72 +46,245 @@ public class ExcelExporter {
     private static final String COLOR_TOTAL = "70AD47";
     private static final String COLOR_WARNING = "FF6B6B";
 
+    // Filas que SXSSF mantiene en memoria; las anteriores se escriben a un archivo temporal
+    private static final int VENTANA_FILAS = 200;
+    // Filas que se leen del cursor antes de escribirlas (y de preparar el lote)
+    private static final int TAMANO_LOTE = 1000;
+    // Filas que se miden para estimar el ancho de las columnas (en lugar de autoSizeColumn)
+    private static final int FILAS_MUESTRA = 500;
+    private static final int ANCHO_MAXIMO_CARACTERES = 60;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Columna de una exportación: encabezado y cómo obtener el valor de cada fila
+     */
+    public static class Columna<T> {
+        private final String titulo;
+        private final Function<T, Object> valor;
+
+        public Columna(String titulo, Function<T, Object> valor) {
+            this.titulo = titulo;
+            this.valor = valor;
+        }
+
+        public String getTitulo() { return titulo; }
+    }
+
     /**
-     * Exporta lista de alumnos a Excel
+     * Exporta filas en modo streaming con SXSSFWorkbook: solo VENTANA_FILAS filas
+     * viven en memoria y el resto se escribe a disco, así que la memoria no
+     * depende del total. Si las filas son un MongoIterable (por ejemplo
+     * collection.find(...).map(Pago::fromDocument)) se recorren con un cursor
+     * que se cierra al terminar, sin cargar la lista completa.
+     *
+     * Los anchos de columna se estiman con las primeras FILAS_MUESTRA filas.
+     *
+     * @param nombreHoja Nombre de la hoja
+     * @param columnas Columnas a exportar
+     * @param filas Filas (List, MongoIterable, ...)
+     * @param prepararLote Se llama con cada lote de TAMANO_LOTE filas antes de escribirlo,
+     *                     por ejemplo para resolver nombres en una sola consulta (puede ser null)
+     * @param progreso Recibe el número de filas escritas después de cada lote (puede ser null)
+     * @param outputPath Archivo de salida
+     * @return Filas exportadas
      */
-    public static boolean exportStudents(List<Alumno> alumnos, String outputPath) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Alumnos");
+    public static <T> long exportarStreaming(String nombreHoja, List<Columna<T>> columnas, Iterable<T> filas,
+                                             Consumer<List<T>> prepararLote, LongConsumer progreso,
+                                             String outputPath) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try (Iterador<T> iterador = new Iterador<>(filas)) {
+            SXSSFSheet sheet = workbook.createSheet(nombreHoja);
 
-            // Crear estilos
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle dataStyle = createDataStyle(workbook);
             CellStyle alternateStyle = createAlternateRowStyle(workbook);
 
-            // Configurar columnas
-            String[] headers = {
-                    "Número de Control", "Nombre", "Apellidos", "Email",
-                    "Teléfono", "CURP", "Fecha Nacimiento", "Dirección",
-                    "Fecha Inscripción", "Estado"
-            };
-
-            // Crear encabezado
+            int[] anchos = new int[columnas.size()];
             Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < columnas.size(); i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+                cell.setCellValue(columnas.get(i).getTitulo());
                 cell.setCellStyle(headerStyle);
+                anchos[i] = columnas.get(i).getTitulo().length();
             }
+            sheet.createFreezePane(0, 1);
 
-            // Llenar datos
-            int rowIndex = 1;
-            for (Alumno alumno : alumnos) {
-                Row row = sheet.createRow(rowIndex);
-                CellStyle currentStyle = (rowIndex % 2 == 0) ? alternateStyle : dataStyle;
-
-                createCell(row, 0, alumno.getMatricula(), currentStyle);
-                createCell(row, 1, alumno.getNombre(), currentStyle);
-                createCell(row, 2, alumno.getApellidos(), currentStyle);
-                createCell(row, 3, alumno.getEmail(), currentStyle);
-                createCell(row, 4, alumno.getTelefono(), currentStyle);
-                createCell(row, 5, alumno.getFechaNacimiento().toString(), currentStyle);
-                createCell(row, 6, alumno.getDireccion(), currentStyle);
-                createCell(row, 7, alumno.getNombreTutor(), currentStyle);
-                createCell(row, 8, alumno.getTelefonoTutor(), currentStyle);
-                createCell(row, 9, alumno.isActivo() ? "Activo" : "Inactivo", currentStyle);
-                
-                rowIndex++;
-            }
+            long escritas = 0;
+            boolean anchosAplicados = false;
+            List<T> lote = new ArrayList<>(TAMANO_LOTE);
+            while (iterador.hasNext()) {
+                lote.clear();
+                while (lote.size() < TAMANO_LOTE && iterador.hasNext()) {
+                    lote.add(iterador.next());
+                }
+                if (prepararLote != null) {
+                    prepararLote.accept(lote);
+                }
 
-            // Auto-ajustar columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                for (T fila : lote) {
+                    int rowIndex = (int) escritas + 1;
+                    Row row = sheet.createRow(rowIndex);
+                    CellStyle currentStyle = (rowIndex % 2 == 0) ? alternateStyle : dataStyle;
+                    for (int i = 0; i < columnas.size(); i++) {
+                        String texto = escribirCelda(row, i, columnas.get(i).valor.apply(fila), currentStyle);
+                        if (escritas < FILAS_MUESTRA) {
+                            anchos[i] = Math.max(anchos[i], texto.length());
+                        }
+                    }
+                    escritas++;
+                }
+
+                if (!anchosAplicados && escritas >= FILAS_MUESTRA) {
+                    aplicarAnchos(sheet, anchos);
+                    anchosAplicados = true;
+                }
+                if (progreso != null) {
+                    progreso.accept(escritas);
+                }
+            }
+            if (!anchosAplicados) {
+                aplicarAnchos(sheet, anchos);
             }
 
-            // Guardar archivo
             try (FileOutputStream fileOut = new FileOutputStream(outputPath)) {
                 workbook.write(fileOut);
             }
-
+            return escritas;
+        } finally {
+            // Borra los archivos temporales de SXSSF
+            workbook.dispose();
             workbook.close();
-            return true;
+        }
+    }
 
+    /**
+     * Exporta alumnos a Excel (acepta una lista o un cursor de MongoDB)
+     */
+    public static boolean exportStudents(Iterable<Alumno> alumnos, String outputPath) {
+        List<Columna<Alumno>> columnas = List.of(
+                new Columna<>("Matrícula", Alumno::getMatricula),
+                new Columna<>("Nombre", Alumno::getNombre),
+                new Columna<>("Apellidos", Alumno::getApellidos),
+                new Columna<>("Email", Alumno::getEmail),
+                new Columna<>("Teléfono", Alumno::getTelefono),
+                new Columna<>("Fecha Nacimiento", Alumno::getFechaNacimiento),
+                new Columna<>("Dirección", Alumno::getDireccion),
+                new Columna<>("Tutor", Alumno::getNombreTutor),
+                new Columna<>("Teléfono Tutor", Alumno::getTelefonoTutor),
+                new Columna<>("Estado", alumno -> alumno.isActivo() ? "Activo" : "Inactivo"));
+        try {
+            exportarStreaming("Alumnos", columnas, alumnos, null, null, outputPath);
+            return true;
         } catch (Exception e) {
             System.err.println("Error al exportar alumnos: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Exporta pagos a Excel en modo streaming. El nombre y la matrícula del alumno
+     * se resuelven por lote con una consulta que solo trae esos campos, sin pasar
+     * por la caché de alumnos.
+     * @param pagos Pagos, normalmente PagoController.iterarPagos(consulta)
+     * @param outputPath Archivo de salida
+     * @param progreso Recibe el número de filas escritas (puede ser null)
+     * @return Filas exportadas
+     */
+    public static long exportPayments(Iterable<Pago> pagos, String outputPath, LongConsumer progreso) throws IOException {
+        List<Columna<Pago>> columnas = List.of(
+                new Columna<>("Folio", Pago::getFolio),
+                new Columna<>("Matrícula", Pago::getMatriculaAlumno),
+                new Columna<>("Alumno", Pago::getNombreAlumno),
+                new Columna<>("Concepto", Pago::getConcepto),
+                new Columna<>("Tipo", pago -> pago.getTipo() != null ? pago.getTipo().getDescripcion() : ""),
+                new Columna<>("Período", Pago::getPeriodo),
+                new Columna<>("Monto Original", Pago::getMontoOriginal),
+                new Columna<>("Recargo", Pago::getMontoRecargo),
+                new Columna<>("Beca", Pago::getMontoBeca),
+                new Columna<>("Pagado", Pago::getMontoPagado),
+                new Columna<>("Saldo", Pago::getSaldoPendiente),
+                new Columna<>("Estado", pago -> pago.getEstado() != null ? pago.getEstado().getDescripcion() : ""),
+                new Columna<>("Fecha Vencimiento", Pago::getFechaVencimiento),
+                new Columna<>("Fecha Pago", Pago::getFechaPago),
+                new Columna<>("Método de Pago", Pago::getMetodoPago));
+
+        return exportarStreaming("Pagos", columnas, pagos, ExcelExporter::resolverAlumnos, progreso, outputPath);
+    }
+
+    // Llena nombre y matrícula de los pagos del lote con una consulta proyectada por lote, fuera de la caché
+    private static void resolverAlumnos(List<Pago> lote) {
+        List<ObjectId> ids = new ArrayList<>();
+        for (Pago pago : lote) {
+            ids.add(pago.getAlumnoId());
+        }
+        Map<ObjectId, AlumnoResumen> alumnos = AlumnoController.obtenerResumenPorIds(ids);
+        for (Pago pago : lote) {
+            AlumnoResumen alumno = alumnos.get(pago.getAlumnoId());
+            if (alumno != null) {
+                pago.setNombreAlumno(alumno.getNombreCompleto());
+                pago.setMatriculaAlumno(alumno.getMatricula());
+            }
+        }
+    }
+
+    // Escribe el valor con su tipo (número, fecha como texto, texto) y devuelve el texto mostrado
+    private static String escribirCelda(Row row, int columnIndex, Object valor, CellStyle style) {
+        Cell cell = row.createCell(columnIndex);
+        cell.setCellStyle(style);
+        if (valor instanceof Number) {
+            double numero = ((Number) valor).doubleValue();
+            cell.setCellValue(numero);
+            return String.format("%.2f", numero);
+        }
+        String texto;
+        if (valor == null) {
+            texto = "";
+        } else if (valor instanceof LocalDate) {
+            texto = ((LocalDate) valor).format(FORMATO_FECHA);
+        } else {
+            texto = valor.toString();
+        }
+        cell.setCellValue(texto);
+        return texto;
+    }
+
+    // Ancho en unidades de 1/256 de carácter, con margen y un máximo
+    private static void aplicarAnchos(Sheet sheet, int[] anchos) {
+        for (int i = 0; i < anchos.length; i++) {
+            int caracteres = Math.min(anchos[i] + 2, ANCHO_MAXIMO_CARACTERES);
+            sheet.setColumnWidth(i, caracteres * 256);
+        }
+    }
+
+    /**
+     * Recorre un Iterable cerrando el cursor si viene de MongoDB
+     */
+    private static class Iterador<T> implements Iterator<T>, AutoCloseable {
+        private final Iterator<T> iterator;
+
+        private Iterador(Iterable<T> filas) {
+            this.iterator = filas instanceof MongoIterable ? ((MongoIterable<T>) filas).cursor() : filas.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+            if (iterator instanceof MongoCursor) {
+                ((MongoCursor<T>) iterator).close();
+            }
+        }
+    }
+
     // Método auxiliar para crear celdas
     private static void createCell(Row row, int columnIndex, String value, CellStyle style) {
         Cell cell = row.createCell(columnIndex);
@@ -0,0 +1,80 @@
+// FechaUtil.java
+package com.controlescolar.utils;
+
+import com.mongodb.client.model.Filters;
+import org.bson.conversions.Bson;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Conversión única de fechas sin hora (LocalDate) a BSON. Una fecha se guarda como
+ * Date a la medianoche UTC de ese día, igual que el codec de LocalDate del driver,
+ * así que los filtros armados aquí (o con un LocalDate directo) comparan contra el
+ * mismo valor que está guardado y pueden usar los índices por rango.
+ *
+ * Antes las fechas se guardaban a la medianoche de la zona del sistema;
+ * MigracionFechas convierte esos documentos una sola vez.
+ */
+public final class FechaUtil {
+
+    /** Zona en la que se guardan las fechas; usar también en $month, $dateToString, etc. */
+    public static final String ZONA_ALMACENAMIENTO = "UTC";
+
+    public static final long MILIS_POR_DIA = 24L * 60 * 60 * 1000;
+
+    private FechaUtil() {
+    }
+
+    public static Date aDate(LocalDate fecha) {
+        return fecha != null ? new Date(aMilis(fecha)) : null;
+    }
+
+    public static LocalDate aLocalDate(Date fecha) {
+        return fecha != null ? deMilis(fecha.getTime()) : null;
+    }
+
+    public static long aMilis(LocalDate fecha) {
+        return fecha.toEpochDay() * MILIS_POR_DIA;
+    }
+
+    public static LocalDate deMilis(long milis) {
+        return Instant.ofEpochMilli(milis).atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /**
+     * Días completos entre dos fechas (ambas incluidas): campo >= desde y campo < hasta + 1 día
+     * @param desde Primer día; null para no limitar
+     * @param hasta Último día; null para no limitar
+     * @return Filtro, o null si no hay ningún límite
+     */
+    public static Bson entre(String campo, LocalDate desde, LocalDate hasta) {
+        List<Bson> condiciones = new ArrayList<>();
+        if (desde != null) {
+            condiciones.add(Filters.gte(campo, aDate(desde)));
+        }
+        if (hasta != null) {
+            condiciones.add(Filters.lt(campo, aDate(hasta.plusDays(1))));
+        }
+        if (condiciones.isEmpty()) return null;
+        return condiciones.size() == 1 ? condiciones.get(0) : Filters.and(condiciones);
+    }
+
+    /**
+     * Un día completo
+     */
+    public static Bson delDia(String campo, LocalDate fecha) {
+        return entre(campo, fecha, fecha);
+    }
+
+    /**
+     * Fechas anteriores al día indicado (sin incluirlo)
+     */
+    public static Bson antesDe(String campo, LocalDate fecha) {
+        return Filters.lt(campo, aDate(fecha));
+    }
+}
@@ -0,0 +1,455 @@
+// GeneradorLotesPDF.java
+package com.controlescolar.utils;
+
+import com.controlescolar.controllers.AlumnoController;
+import com.controlescolar.controllers.CalificacionController;
+import com.controlescolar.controllers.ConsultaPagos;
+import com.controlescolar.controllers.GrupoController;
+import com.controlescolar.controllers.MateriaController;
+import com.controlescolar.controllers.PagoController;
+import com.controlescolar.enums.TipoCalificacion;
+import com.controlescolar.models.Alumno;
+import com.controlescolar.models.Calificacion;
+import com.controlescolar.models.Grupo;
+import com.controlescolar.models.Materia;
+import com.controlescolar.models.Pago;
+import org.bson.types.ObjectId;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Genera boletas y estados de cuenta de todos los alumnos de uno o varios grupos.
+ *
+ * Los datos se cargan por lotes de ALUMNOS_POR_LOTE alumnos (alumnos, calificaciones
+ * del período y pagos con una consulta $in cada uno) y los PDF se generan en un
+ * pool acotado de hilos. La cola del pool es corta y, cuando se llena, el hilo que
+ * carga los datos genera documentos él mismo, así no se adelanta a cargar lotes
+ * que todavía no se pueden procesar.
+ *
+ * En un directorio cada documento se escribe a un archivo temporal y se renombra
+ * al terminar; los archivos que ya existen se omiten, por lo que una generación
+ * interrumpida se puede repetir y continúa donde quedó. En un zip no se puede
+ * continuar: siempre se genera completo.
+ *
+ * Uso:
+ * <pre>
+ * GeneradorLotesPDF.para(gruposIds, "2024-1")
+ *         .documentos(TipoDocumento.BOLETA, TipoDocumento.ESTADO_CUENTA)
+ *         .enDirectorio(new File("estados_cuenta"))
+ *         .alAvanzar(progreso -> ...)
+ *         .generar();
+ * </pre>
+ */
+public class GeneradorLotesPDF {
+
+    private static final int ALUMNOS_POR_LOTE = 200;
+
+    // Se notifica el avance cada cierto número de documentos, no en cada uno
+    private static final int AVISO_CADA = 25;
+
+    public enum TipoDocumento {
+        BOLETA("Boleta"),
+        ESTADO_CUENTA("EstadoCuenta");
+
+        private final String prefijoArchivo;
+
+        TipoDocumento(String prefijoArchivo) {
+            this.prefijoArchivo = prefijoArchivo;
+        }
+
+        public String getPrefijoArchivo() {
+            return prefijoArchivo;
+        }
+    }
+
+    /**
+     * Avance de la generación en un momento dado
+     */
+    public static class Progreso {
+        private final int total;
+        private final int generados;
+        private final int omitidos;
+        private final int fallidos;
+        private final long milisegundos;
+
+        Progreso(int total, int generados, int omitidos, int fallidos, long milisegundos) {
+            this.total = total;
+            this.generados = generados;
+            this.omitidos = omitidos;
+            this.fallidos = fallidos;
+            this.milisegundos = milisegundos;
+        }
+
+        public int getTotal() { return total; }
+        public int getGenerados() { return generados; }
+        public int getOmitidos() { return omitidos; }
+        public int getFallidos() { return fallidos; }
+        public int getProcesados() { return generados + omitidos + fallidos; }
+        public long getMilisegundos() { return milisegundos; }
+
+        public double getDocumentosPorSegundo() {
+            return milisegundos > 0 ? generados * 1000.0 / milisegundos : 0.0;
+        }
+    }
+
+    /**
+     * Resultado final: el último avance más el detalle de los documentos que fallaron
+     */
+    public static class Resultado extends Progreso {
+        private final List<String> errores;
+        private final boolean cancelado;
+
+        Resultado(Progreso progreso, List<String> errores, boolean cancelado) {
+            super(progreso.total, progreso.generados, progreso.omitidos, progreso.fallidos, progreso.milisegundos);
+            this.errores = Collections.unmodifiableList(new ArrayList<>(errores));
+            this.cancelado = cancelado;
+        }
+
+        public List<String> getErrores() { return errores; }
+        public boolean isCancelado() { return cancelado; }
+    }
+
+    private final List<ObjectId> gruposIds;
+    private final String periodo;
+    private final Set<TipoDocumento> tipos = EnumSet.allOf(TipoDocumento.class);
+    private File directorio = new File("estados_cuenta");
+    private File archivoZip;
+    private int hilos = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private Consumer<Progreso> alAvanzar = progreso -> { };
+
+    private final AtomicInteger generados = new AtomicInteger();
+    private final AtomicInteger omitidos = new AtomicInteger();
+    private final AtomicInteger fallidos = new AtomicInteger();
+    private final AtomicInteger terminados = new AtomicInteger();
+    private final List<String> errores = Collections.synchronizedList(new ArrayList<>());
+    private final Map<ObjectId, String> nombresMaterias = new ConcurrentHashMap<>();
+    private volatile boolean cancelado;
+    private int total;
+    private long inicio;
+
+    private GeneradorLotesPDF(List<ObjectId> gruposIds, String periodo) {
+        this.gruposIds = new ArrayList<>(gruposIds);
+        this.periodo = periodo != null && !periodo.trim().isEmpty() ? periodo.trim() : null;
+    }
+
+    /**
+     * @param gruposIds Grupos cuyos alumnos se incluyen
+     * @param periodo Período de las calificaciones y pagos; null o vacío incluye todos
+     */
+    public static GeneradorLotesPDF para(List<ObjectId> gruposIds, String periodo) {
+        return new GeneradorLotesPDF(gruposIds, periodo);
+    }
+
+    public GeneradorLotesPDF documentos(TipoDocumento... tipos) {
+        this.tipos.clear();
+        Collections.addAll(this.tipos, tipos);
+        return this;
+    }
+
+    /**
+     * Escribe un PDF por documento en el directorio (por defecto estados_cuenta/)
+     */
+    public GeneradorLotesPDF enDirectorio(File directorio) {
+        this.directorio = directorio;
+        this.archivoZip = null;
+        return this;
+    }
+
+    /**
+     * Escribe todos los documentos en un solo archivo zip
+     */
+    public GeneradorLotesPDF enZip(File archivoZip) {
+        this.archivoZip = archivoZip;
+        return this;
+    }
+
+    public GeneradorLotesPDF conHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+        return this;
+    }
+
+    /**
+     * @param alAvanzar Recibe el avance desde los hilos de generación (usar Platform.runLater para la UI)
+     */
+    public GeneradorLotesPDF alAvanzar(Consumer<Progreso> alAvanzar) {
+        this.alAvanzar = alAvanzar;
+        return this;
+    }
+
+    /**
+     * Detiene la generación: los documentos en curso terminan y no se inician más
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Genera los documentos; bloquea hasta terminar, así que debe llamarse fuera del hilo de JavaFX
+     * @return Conteos finales y errores por documento
+     * @throws IOException Si no se puede crear el directorio o el zip
+     */
+    public Resultado generar() throws IOException {
+        inicio = System.currentTimeMillis();
+        List<ObjectId> alumnosIds = obtenerAlumnosIds();
+        total = alumnosIds.size() * tipos.size();
+        notificar();
+
+        if (archivoZip == null && !directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio " + directorio.getAbsolutePath());
+        }
+
+        ThreadPoolExecutor pool = crearPool();
+        try (ZipOutputStream zip = archivoZip != null
+                ? new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(archivoZip)))
+                : null) {
+            for (int desde = 0; desde < alumnosIds.size() && !cancelado; desde += ALUMNOS_POR_LOTE) {
+                List<ObjectId> lote = alumnosIds.subList(desde, Math.min(desde + ALUMNOS_POR_LOTE, alumnosIds.size()));
+                procesarLote(lote, pool, zip);
+            }
+            pool.shutdown();
+            esperar(pool);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Progreso ultimo = notificar();
+        return new Resultado(ultimo, errores, cancelado);
+    }
+
+    private List<ObjectId> obtenerAlumnosIds() {
+        Set<ObjectId> ids = new LinkedHashSet<>();
+        for (Grupo grupo : GrupoController.obtenerGruposPorIds(gruposIds)) {
+            if (grupo.getAlumnosIds() != null) {
+                ids.addAll(grupo.getAlumnosIds());
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private ThreadPoolExecutor crearPool() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread hilo = new Thread(r, "pdf-lote-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * 2), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private void esperar(ThreadPoolExecutor pool) throws IOException {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Se espera a que terminen los documentos en curso
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelado = true;
+            throw new IOException("Generación interrumpida", e);
+        }
+    }
+
+    /**
+     * Carga de una vez los datos de un lote de alumnos y encola sus documentos
+     */
+    private void procesarLote(List<ObjectId> lote, ThreadPoolExecutor pool, ZipOutputStream zip) {
+        // Proyectado y sin caché: una corrida sobre todos los alumnos no desplaza lo que usan las vistas
+        Map<ObjectId, Alumno> alumnos = AlumnoController.obtenerAlumnosParaDocumentos(lote);
+
+        // En directorio solo se consultan y generan los documentos que todavía no existen
+        Map<Alumno, List<TipoDocumento>> pendientes = new LinkedHashMap<>();
+        for (ObjectId alumnoId : lote) {
+            Alumno alumno = alumnos.get(alumnoId);
+            if (alumno == null) {
+                for (TipoDocumento tipo : tipos) {
+                    registrarFallo(tipo.getPrefijoArchivo() + "_" + alumnoId.toHexString(), "el alumno no existe");
+                }
+                continue;
+            }
+            for (TipoDocumento tipo : tipos) {
+                if (zip == null && new File(directorio, nombreArchivo(tipo, alumno)).exists()) {
+                    omitidos.incrementAndGet();
+                } else {
+                    pendientes.computeIfAbsent(alumno, k -> new ArrayList<>()).add(tipo);
+                }
+            }
+        }
+        if (pendientes.isEmpty()) {
+            notificar();
+            return;
+        }
+
+        List<ObjectId> ids = pendientes.keySet().stream().map(Alumno::getId).collect(Collectors.toList());
+
+        Map<ObjectId, List<Calificacion>> calificaciones = new HashMap<>();
+        if (tipos.contains(TipoDocumento.BOLETA)) {
+            List<Calificacion> lista = CalificacionController.obtenerCalificacionesPorAlumnos(ids, periodo);
+            for (Calificacion calificacion : lista) {
+                calificaciones.computeIfAbsent(calificacion.getAlumnoId(), k -> new ArrayList<>()).add(calificacion);
+            }
+            resolverMaterias(lista);
+        }
+
+        Map<ObjectId, List<Pago>> pagos = new HashMap<>();
+        if (tipos.contains(TipoDocumento.ESTADO_CUENTA)) {
+            for (Pago pago : PagoController.iterarPagos(new ConsultaPagos().deAlumnos(ids).delPeriodo(periodo))) {
+                pagos.computeIfAbsent(pago.getAlumnoId(), k -> new ArrayList<>()).add(pago);
+            }
+        }
+
+        for (Map.Entry<Alumno, List<TipoDocumento>> entrada : pendientes.entrySet()) {
+            Alumno alumno = entrada.getKey();
+            List<Calificacion> deAlumno = calificaciones.getOrDefault(alumno.getId(), Collections.emptyList());
+            List<Pago> pagosAlumno = pagos.getOrDefault(alumno.getId(), Collections.emptyList());
+            for (TipoDocumento tipo : entrada.getValue()) {
+                if (cancelado) return;
+                String nombre = nombreArchivo(tipo, alumno);
+                pool.execute(() -> generarDocumento(tipo, alumno, deAlumno, pagosAlumno, nombre, zip));
+            }
+        }
+    }
+
+    private void resolverMaterias(List<Calificacion> calificaciones) {
+        List<ObjectId> faltantes = calificaciones.stream()
+                .map(Calificacion::getMateriaId)
+                .filter(id -> id != null && !nombresMaterias.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        for (Materia materia : MateriaController.obtenerMateriasPorIds(faltantes)) {
+            nombresMaterias.put(materia.getId(), materia.getNombre());
+        }
+    }
+
+    private void generarDocumento(TipoDocumento tipo, Alumno alumno, List<Calificacion> calificaciones,
+                                  List<Pago> pagos, String nombre, ZipOutputStream zip) {
+        if (cancelado) return;
+        try {
+            if (zip != null) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                escribir(tipo, alumno, calificaciones, pagos, buffer);
+                synchronized (zip) {
+                    zip.putNextEntry(new ZipEntry(nombre));
+                    buffer.writeTo(zip);
+                    zip.closeEntry();
+                }
+            } else {
+                File destino = new File(directorio, nombre);
+                File temporal = new File(directorio, nombre + ".tmp");
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temporal))) {
+                    escribir(tipo, alumno, calificaciones, pagos, out);
+                } catch (IOException | RuntimeException e) {
+                    temporal.delete();
+                    throw e;
+                }
+                Files.move(temporal.toPath(), destino.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            generados.incrementAndGet();
+        } catch (Exception e) {
+            registrarFallo(nombre, e.getMessage());
+        }
+        if (terminados.incrementAndGet() % AVISO_CADA == 0) {
+            notificar();
+        }
+    }
+
+    private void escribir(TipoDocumento tipo, Alumno alumno, List<Calificacion> calificaciones,
+                          List<Pago> pagos, OutputStream out) throws IOException {
+        if (tipo == TipoDocumento.BOLETA) {
+            PDFGenerator.writeGradeReportCard(alumno, armarHistorial(calificaciones), out);
+        } else {
+            PDFGenerator.writePaymentReport(alumno, pagos, out);
+        }
+    }
+
+    /**
+     * Arma el mapa que espera PDFGenerator.writeGradeReportCard: una fila por materia
+     * con los dos primeros parciales, el final, el promedio ponderado y el estado
+     */
+    private Map<String, Object> armarHistorial(List<Calificacion> calificaciones) {
+        Map<ObjectId, List<Calificacion>> porMateria = new LinkedHashMap<>();
+        for (Calificacion calificacion : calificaciones) {
+            porMateria.computeIfAbsent(calificacion.getMateriaId(), k -> new ArrayList<>()).add(calificacion);
+        }
+
+        List<Map<String, Object>> materias = new ArrayList<>();
+        for (Map.Entry<ObjectId, List<Calificacion>> entrada : porMateria.entrySet()) {
+            List<Double> parciales = new ArrayList<>();
+            Double examenFinal = null;
+            for (Calificacion calificacion : entrada.getValue()) {
+                if (calificacion.getTipo() == TipoCalificacion.EXAMEN_PARCIAL) {
+                    parciales.add(calificacion.getCalificacion());
+                } else if (calificacion.getTipo() == TipoCalificacion.EXAMEN_FINAL) {
+                    examenFinal = calificacion.getCalificacion();
+                }
+            }
+            double promedio = CalificacionController.calcularPromedioPonderado(entrada.getValue());
+
+            Map<String, Object> fila = new HashMap<>();
+            fila.put("materia", nombresMaterias.getOrDefault(entrada.getKey(), "Materia no encontrada"));
+            fila.put("parcial1", parciales.size() > 0 ? parciales.get(0) : null);
+            fila.put("parcial2", parciales.size() > 1 ? parciales.get(1) : null);
+            fila.put("final", examenFinal);
+            fila.put("promedio", promedio);
+            fila.put("estado", CalificacionController.determinarEstadoAprobacion(promedio));
+            materias.add(fila);
+        }
+        materias.sort(Comparator.comparing(fila -> (String) fila.get("materia")));
+
+        Map<String, Object> historial = new HashMap<>();
+        historial.put("materias", materias);
+        historial.put("promedioGeneral", CalificacionController.calcularPromedioGeneral(calificaciones));
+        return historial;
+    }
+
+    // El nombre depende solo del alumno y el período para poder reconocer los ya generados
+    private String nombreArchivo(TipoDocumento tipo, Alumno alumno) {
+        String matricula = alumno.getMatricula() != null ? alumno.getMatricula() : alumno.getId().toHexString();
+        String sufijo = periodo != null ? periodo : "todos";
+        return (tipo.getPrefijoArchivo() + "_" + matricula + "_" + sufijo).replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
+    }
+
+    private void registrarFallo(String nombre, String mensaje) {
+        fallidos.incrementAndGet();
+        errores.add(nombre + ": " + mensaje);
+        System.err.println("Error al generar " + nombre + ": " + mensaje);
+    }
+
+    private Progreso notificar() {
+        Progreso progreso = new Progreso(total, generados.get(), omitidos.get(), fallidos.get(),
+                System.currentTimeMillis() - inicio);
+        try {
+            alAvanzar.accept(progreso);
+        } catch (Exception e) {
+            System.err.println("Error al notificar avance: " + e.getMessage());
+        }
+        return progreso;
+    }
+}
@@ -0,0 +1,557 @@
+// IndiceBusqueda.java
+package com.controlescolar.utils;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Índice de búsqueda en memoria por prefijo de palabra para una colección completa
+ * (alumnos, grupos), compartido por todo el proceso.
+ *
+ * A diferencia de IndicePrefijos (una lista fija para un selector), este índice se
+ * carga una vez desde la base de datos y los controladores lo mantienen al día en
+ * sus métodos de crear/actualizar/eliminar.
+ *
+ * Cada registro ocupa una posición; al cargar, las posiciones siguen el texto de
+ * orden (apellidos y nombre), así que recorrerlas en orden ya da los resultados
+ * alfabéticos. Las palabras normalizadas (minúsculas, sin acentos) se guardan en un
+ * mapa ordenado palabra -> posiciones: un prefijo es un rango del mapa y la
+ * relevancia de cada posición se suma en un arreglo, sin recorrer los documentos.
+ * Los registros agregados después de la carga van al final hasta la siguiente recarga.
+ *
+ * Los cambios hechos desde otra instancia de la aplicación se ven al vencer la
+ * vigencia: la siguiente búsqueda recarga el índice en segundo plano y mientras
+ * tanto responde con el anterior.
+ */
+public class IndiceBusqueda {
+
+    private static final byte PUNTOS_PALABRA_COMPLETA = 2;
+    private static final byte PUNTOS_PREFIJO = 1;
+    // Los puntos se suman en un byte por posición
+    private static final int MAX_TERMINOS = 10;
+    // Costo estimado de revisar las palabras de un candidato, comparado contra recorrer posiciones
+    private static final int PALABRAS_POR_REGISTRO = 8;
+
+    private final String nombre;
+    private final long vigenciaMs;
+    private final Supplier<List<Elemento>> cargador;
+
+    // Palabra -> posiciones en orden ascendente
+    private NavigableMap<String, int[]> porPalabra = new TreeMap<>();
+    private Map<ObjectId, Integer> posiciones = new HashMap<>();
+    private ObjectId[] ids = new ObjectId[0];
+    private String[][] palabrasDe = new String[0][];
+    private boolean[] activos = new boolean[0];
+    private int total;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile long cargadoEn;
+    private final AtomicBoolean cargando = new AtomicBoolean();
+    // Cambios hechos mientras una recarga lee la base de datos; se repiten sobre el índice nuevo (bajo el lock)
+    private List<Runnable> cambiosDuranteRecarga;
+
+    /**
+     * @param nombre Nombre para los mensajes de error
+     * @param vigenciaMs Tiempo después del cual se recarga completo
+     * @param cargador Lee todos los elementos de la base de datos (se llama en segundo plano)
+     */
+    public IndiceBusqueda(String nombre, long vigenciaMs, Supplier<List<Elemento>> cargador) {
+        this.nombre = nombre;
+        this.vigenciaMs = vigenciaMs;
+        this.cargador = cargador;
+    }
+
+    /**
+     * Datos de un registro para indexar
+     */
+    public static class Elemento {
+        private final ObjectId id;
+        private final String orden;
+        private final boolean activo;
+        private final Collection<String> textos;
+
+        /**
+         * @param id _id del documento
+         * @param orden Texto por el que se ordenan los resultados con la misma relevancia (por ejemplo apellidos y nombre)
+         * @param activo Si aparece en búsquedas de solo activos
+         * @param textos Campos por los que se puede buscar (pueden ser null)
+         */
+        public Elemento(ObjectId id, String orden, boolean activo, Collection<String> textos) {
+            this.id = id;
+            this.orden = orden;
+            this.activo = activo;
+            this.textos = textos;
+        }
+    }
+
+    /**
+     * Busca los registros que tienen, para cada palabra de la consulta, alguna palabra que empieza con ella.
+     * Una palabra completa vale más que un prefijo; con la misma relevancia se ordenan por su texto de orden.
+     * @param consulta Texto escrito por el usuario
+     * @param limite Máximo de resultados
+     * @param soloActivos Omitir los registros marcados como inactivos
+     * @return Ids ordenados por relevancia (vacío si la consulta no tiene palabras),
+     *         o null si el índice todavía no se ha cargado
+     */
+    public List<ObjectId> buscar(String consulta, int limite, boolean soloActivos) {
+        precargar();
+        if (cargadoEn == 0) {
+            return null;
+        }
+
+        List<String> separados = new ArrayList<>(new LinkedHashSet<>(IndicePrefijos.separar(consulta)));
+        List<String> terminos = separados.size() > MAX_TERMINOS ? separados.subList(0, MAX_TERMINOS) : separados;
+        List<ObjectId> resultado = new ArrayList<>();
+        if (terminos.isEmpty() || limite <= 0) {
+            return resultado;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Si un término no tiene ninguna palabra no hay resultados; el de menos posiciones da los candidatos.
+            // Se cuentan primero los términos cortos y el conteo se corta cuando ya no puede cambiar la decisión.
+            List<NavigableMap<String, int[]>> rangos = new ArrayList<>(Collections.nCopies(terminos.size(), null));
+            long[] tamanos = new long[terminos.size()];
+            List<Integer> porLongitud = new ArrayList<>();
+            for (int t = 0; t < terminos.size(); t++) {
+                porLongitud.add(t);
+            }
+            porLongitud.sort(Comparator.comparingInt(t -> terminos.get(t).length()));
+
+            int base = 0;
+            long menor = Long.MAX_VALUE;
+            for (int t : porLongitud) {
+                NavigableMap<String, int[]> rango = rango(terminos.get(t));
+                if (rango.isEmpty()) {
+                    return resultado;
+                }
+                long tope = menor == Long.MAX_VALUE ? Long.MAX_VALUE : menor * PALABRAS_POR_REGISTRO;
+                long tamano = 0;
+                for (int[] lista : rango.values()) {
+                    tamano += lista.length;
+                    if (tamano > tope) break;
+                }
+                tamanos[t] = tamano;
+                if (tamano < menor) {
+                    menor = tamano;
+                    base = t;
+                }
+                rangos.set(t, rango);
+            }
+
+            byte[] puntos = new byte[total];
+            int[] candidatos = new int[(int) Math.min(menor, total)];
+            int cantidad = 0;
+            String terminoBase = terminos.get(base);
+            for (Map.Entry<String, int[]> entrada : rangos.get(base).entrySet()) {
+                byte valor = entrada.getKey().length() == terminoBase.length() ? PUNTOS_PALABRA_COMPLETA : PUNTOS_PREFIJO;
+                for (int posicion : entrada.getValue()) {
+                    if (puntos[posicion] == 0) candidatos[cantidad++] = posicion;
+                    if (puntos[posicion] < valor) puntos[posicion] = valor;
+                }
+            }
+
+            // Los demás términos se marcan con sus posiciones o, si eso es más caro, se
+            // revisan en las palabras de cada candidato
+            byte[] delTermino = null;
+            for (int t = 0; t < terminos.size(); t++) {
+                if (t == base) continue;
+                String termino = terminos.get(t);
+                if (tamanos[t] < (long) cantidad * PALABRAS_POR_REGISTRO) {
+                    if (delTermino == null) {
+                        delTermino = new byte[total];
+                    } else {
+                        Arrays.fill(delTermino, (byte) 0);
+                    }
+                    for (Map.Entry<String, int[]> entrada : rangos.get(t).entrySet()) {
+                        byte valor = entrada.getKey().length() == termino.length() ? PUNTOS_PALABRA_COMPLETA : PUNTOS_PREFIJO;
+                        for (int posicion : entrada.getValue()) {
+                            if (delTermino[posicion] < valor) delTermino[posicion] = valor;
+                        }
+                    }
+                    for (int c = 0; c < cantidad; c++) {
+                        int posicion = candidatos[c];
+                        puntos[posicion] = delTermino[posicion] == 0 || puntos[posicion] == 0
+                                ? 0 : (byte) (puntos[posicion] + delTermino[posicion]);
+                    }
+                } else {
+                    for (int c = 0; c < cantidad; c++) {
+                        int posicion = candidatos[c];
+                        if (puntos[posicion] == 0) continue;
+                        int valor = puntosDeTermino(palabrasDe[posicion], termino);
+                        puntos[posicion] = valor == 0 ? 0 : (byte) (puntos[posicion] + valor);
+                    }
+                }
+            }
+
+            // Candidatos en orden de posición: se ordenan si son pocos y si no se recorre el arreglo
+            if (cantidad < total / 32) {
+                Arrays.sort(candidatos, 0, cantidad);
+            } else {
+                cantidad = 0;
+                for (int i = 0; i < total; i++) {
+                    if (puntos[i] > 0) candidatos[cantidad++] = i;
+                }
+            }
+
+            // Se agrupan por puntos conservando el orden de posición dentro de cada grupo
+            int maximo = terminos.size() * PUNTOS_PALABRA_COMPLETA;
+            int[] porPuntos = new int[maximo + 1];
+            for (int c = 0; c < cantidad; c++) {
+                int posicion = candidatos[c];
+                if (puntos[posicion] > 0 && (!soloActivos || activos[posicion])) porPuntos[puntos[posicion]]++;
+            }
+            int[][] grupos = new int[maximo + 1][];
+            for (int p = 1; p <= maximo; p++) {
+                grupos[p] = new int[porPuntos[p]];
+                porPuntos[p] = 0;
+            }
+            for (int c = 0; c < cantidad; c++) {
+                int posicion = candidatos[c];
+                if (puntos[posicion] > 0 && (!soloActivos || activos[posicion])) {
+                    grupos[puntos[posicion]][porPuntos[puntos[posicion]]++] = posicion;
+                }
+            }
+
+            for (int p = maximo; p >= 1 && resultado.size() < limite; p--) {
+                for (int posicion : grupos[p]) {
+                    resultado.add(ids[posicion]);
+                    if (resultado.size() >= limite) break;
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int puntosDeTermino(String[] palabras, String termino) {
+        int valor = 0;
+        for (String palabra : palabras) {
+            if (palabra.equals(termino)) {
+                return PUNTOS_PALABRA_COMPLETA;
+            }
+            if (palabra.startsWith(termino)) {
+                valor = PUNTOS_PREFIJO;
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Búsqueda con el índice de texto de la colección, para cuando el índice en memoria
+     * aún no está cargado. Coincide por palabra completa, sin distinguir acentos ni mayúsculas.
+     * @return Ids ordenados por textScore
+     */
+    public static List<ObjectId> buscarPorTexto(MongoCollection<Document> collection, String consulta,
+                                                int limite, boolean soloActivos) {
+        List<ObjectId> ids = new ArrayList<>();
+        if (IndicePrefijos.separar(consulta).isEmpty() || limite <= 0) {
+            return ids;
+        }
+        Bson filtro = Filters.text(consulta);
+        if (soloActivos) {
+            filtro = Filters.and(filtro, Filters.eq("activo", true));
+        }
+        collection.find(filtro)
+                .projection(Projections.fields(Projections.include("_id"), Projections.metaTextScore("puntos")))
+                .sort(Sorts.metaTextScore("puntos"))
+                .limit(limite)
+                .forEach(doc -> ids.add(doc.getObjectId("_id")));
+        return ids;
+    }
+
+    private NavigableMap<String, int[]> rango(String prefijo) {
+        return porPalabra.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Agrega o reemplaza un registro (llamar después de guardar el documento)
+     */
+    public void poner(Elemento elemento) {
+        if (elemento.id == null) return;
+        String[] palabras = palabrasDe(elemento);
+        lock.writeLock().lock();
+        try {
+            ponerSinBloqueo(elemento.id, palabras, elemento.activo);
+            registrarCambio(() -> ponerSinBloqueo(elemento.id, palabras, elemento.activo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ponerSinBloqueo(ObjectId id, String[] palabras, boolean activo) {
+        Integer posicion = posiciones.get(id);
+        if (posicion == null) {
+            posicion = total;
+            crecer(total + 1);
+            total++;
+            ids[posicion] = id;
+            posiciones.put(id, posicion);
+        } else {
+            for (String palabra : palabrasDe[posicion]) {
+                quitarPosicion(palabra, posicion);
+            }
+        }
+        palabrasDe[posicion] = palabras;
+        activos[posicion] = activo;
+        for (String palabra : palabras) {
+            agregarPosicion(palabra, posicion);
+        }
+    }
+
+    /**
+     * Cambia solo el estado activo de un registro (bajas lógicas)
+     */
+    public void marcarActivo(ObjectId id, boolean activo) {
+        lock.writeLock().lock();
+        try {
+            marcarActivoSinBloqueo(id, activo);
+            registrarCambio(() -> marcarActivoSinBloqueo(id, activo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void marcarActivoSinBloqueo(ObjectId id, boolean activo) {
+        Integer posicion = posiciones.get(id);
+        if (posicion != null) {
+            activos[posicion] = activo;
+        }
+    }
+
+    /**
+     * Quita un registro; su posición queda vacía hasta la siguiente recarga
+     */
+    public void quitar(ObjectId id) {
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(id);
+            registrarCambio(() -> quitarSinBloqueo(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void quitarSinBloqueo(ObjectId id) {
+        Integer posicion = posiciones.remove(id);
+        if (posicion == null) return;
+        for (String palabra : palabrasDe[posicion]) {
+            quitarPosicion(palabra, posicion);
+        }
+        palabrasDe[posicion] = new String[0];
+        activos[posicion] = false;
+    }
+
+    // Con el lock de escritura tomado
+    private void registrarCambio(Runnable cambio) {
+        if (cambiosDuranteRecarga != null) {
+            cambiosDuranteRecarga.add(cambio);
+        }
+    }
+
+    private void agregarPosicion(String palabra, int posicion) {
+        int[] actuales = porPalabra.get(palabra);
+        if (actuales == null) {
+            porPalabra.put(palabra, new int[]{posicion});
+            return;
+        }
+        int lugar = Arrays.binarySearch(actuales, posicion);
+        if (lugar >= 0) return;
+        lugar = -lugar - 1;
+        int[] nuevas = new int[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevas, 0, lugar);
+        nuevas[lugar] = posicion;
+        System.arraycopy(actuales, lugar, nuevas, lugar + 1, actuales.length - lugar);
+        porPalabra.put(palabra, nuevas);
+    }
+
+    private void quitarPosicion(String palabra, int posicion) {
+        int[] actuales = porPalabra.get(palabra);
+        if (actuales == null) return;
+        int lugar = Arrays.binarySearch(actuales, posicion);
+        if (lugar < 0) return;
+        if (actuales.length == 1) {
+            porPalabra.remove(palabra);
+            return;
+        }
+        int[] nuevas = new int[actuales.length - 1];
+        System.arraycopy(actuales, 0, nuevas, 0, lugar);
+        System.arraycopy(actuales, lugar + 1, nuevas, lugar, nuevas.length - lugar);
+        porPalabra.put(palabra, nuevas);
+    }
+
+    private void crecer(int capacidad) {
+        if (capacidad <= ids.length) return;
+        int nueva = Math.max(capacidad, ids.length + ids.length / 2 + 16);
+        ids = Arrays.copyOf(ids, nueva);
+        palabrasDe = Arrays.copyOf(palabrasDe, nueva);
+        activos = Arrays.copyOf(activos, nueva);
+    }
+
+    private static class ListaPosiciones {
+        private final String palabra;
+        private int[] posiciones = new int[4];
+        private int cantidad;
+
+        private ListaPosiciones(String palabra) {
+            this.palabra = palabra;
+        }
+
+        private void agregar(int posicion) {
+            if (cantidad == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, cantidad * 2);
+            }
+            posiciones[cantidad++] = posicion;
+        }
+
+        private int[] aArreglo() {
+            return Arrays.copyOf(posiciones, cantidad);
+        }
+    }
+
+    private static String[] palabrasDe(Elemento elemento) {
+        LinkedHashSet<String> palabras = new LinkedHashSet<>();
+        if (elemento.textos != null) {
+            for (String texto : elemento.textos) {
+                palabras.addAll(IndicePrefijos.separar(texto));
+            }
+        }
+        return palabras.toArray(new String[0]);
+    }
+
+    /**
+     * Inicia la carga en segundo plano si el índice no está cargado o ya venció
+     */
+    public void precargar() {
+        long cargado = cargadoEn;
+        if (cargado != 0 && System.currentTimeMillis() - cargado < vigenciaMs) {
+            return;
+        }
+        if (cargando.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::recargar);
+        }
+    }
+
+    /**
+     * Lee todos los elementos y reemplaza el contenido del índice. La construcción se
+     * hace fuera del bloqueo; las búsquedas solo esperan el intercambio final. Los
+     * poner/quitar/marcarActivo que llegan mientras tanto se repiten sobre el índice
+     * nuevo, porque la lectura pudo haberlos visto o no.
+     */
+    public synchronized void recargar() {
+        lock.writeLock().lock();
+        try {
+            cambiosDuranteRecarga = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Elemento> elementos = new ArrayList<>();
+            for (Elemento elemento : cargador.get()) {
+                if (elemento.id != null) elementos.add(elemento);
+            }
+            int cantidad = elementos.size();
+
+            String[] ordenes = new String[cantidad];
+            Integer[] orden = new Integer[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                ordenes[i] = String.join(" ", IndicePrefijos.separar(elementos.get(i).orden));
+                orden[i] = i;
+            }
+            Arrays.sort(orden, (a, b) -> ordenes[a].compareTo(ordenes[b]));
+
+            ObjectId[] nuevosIds = new ObjectId[cantidad];
+            String[][] nuevasPalabras = new String[cantidad][];
+            boolean[] nuevosActivos = new boolean[cantidad];
+            Map<ObjectId, Integer> nuevasPosiciones = new HashMap<>(cantidad * 2);
+            // Una sola instancia por palabra: los registros comparten las cadenas de las listas
+            Map<String, ListaPosiciones> listas = new HashMap<>();
+
+            for (int posicion = 0; posicion < cantidad; posicion++) {
+                Elemento elemento = elementos.get(orden[posicion]);
+                String[] palabras = palabrasDe(elemento);
+                nuevasPalabras[posicion] = palabras;
+                if (nuevasPosiciones.putIfAbsent(elemento.id, posicion) != null) {
+                    nuevasPalabras[posicion] = new String[0];
+                    continue;
+                }
+                nuevosIds[posicion] = elemento.id;
+                nuevosActivos[posicion] = elemento.activo;
+                for (int i = 0; i < palabras.length; i++) {
+                    ListaPosiciones lista = listas.computeIfAbsent(palabras[i], ListaPosiciones::new);
+                    lista.agregar(posicion);
+                    palabras[i] = lista.palabra;
+                }
+            }
+
+            TreeMap<String, int[]> nuevoPorPalabra = new TreeMap<>();
+            for (ListaPosiciones lista : listas.values()) {
+                nuevoPorPalabra.put(lista.palabra, lista.aArreglo());
+            }
+
+            lock.writeLock().lock();
+            try {
+                porPalabra = nuevoPorPalabra;
+                posiciones = nuevasPosiciones;
+                ids = nuevosIds;
+                palabrasDe = nuevasPalabras;
+                activos = nuevosActivos;
+                total = cantidad;
+                for (Runnable cambio : cambiosDuranteRecarga) {
+                    cambio.run();
+                }
+                cargadoEn = System.currentTimeMillis();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            System.err.println("Error al cargar índice de búsqueda de " + nombre + ": " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                cambiosDuranteRecarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            cargando.set(false);
+        }
+    }
+
+    /**
+     * Número de registros y de palabras distintas, para diagnóstico
+     */
+    public Map<String, Integer> getEstadisticas() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> estadisticas = new LinkedHashMap<>();
+            estadisticas.put("registros", posiciones.size());
+            estadisticas.put("palabras", porPalabra.size());
+            return estadisticas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+// IndicePrefijos.java
+package com.controlescolar.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Índice en memoria para filtrar listas por prefijo de palabra (nombre, apellidos,
+ * matrícula) sin recorrerlas completas en cada tecla.
+ *
+ * Cada elemento se indexa por todas las palabras de sus campos, normalizadas a
+ * minúsculas y sin acentos, en un arreglo ordenado; una búsqueda es una búsqueda
+ * binaria por palabra. Con varias palabras ("gar lu") se devuelven los elementos
+ * que tienen alguna palabra que empieza con cada una.
+ */
+public class IndicePrefijos<T> {
+
+    private final List<T> elementos;
+    private final String[] palabras;
+    private final int[] posiciones;
+
+    /**
+     * @param elementos Elementos a indexar (el orden se conserva en los resultados)
+     * @param campos Textos de cada elemento por los que se puede buscar
+     */
+    public IndicePrefijos(Collection<T> elementos, Function<T, Collection<String>> campos) {
+        this.elementos = new ArrayList<>(elementos);
+
+        List<Entrada> entradas = new ArrayList<>();
+        for (int i = 0; i < this.elementos.size(); i++) {
+            Set<String> vistas = new LinkedHashSet<>();
+            for (String campo : campos.apply(this.elementos.get(i))) {
+                vistas.addAll(separar(campo));
+            }
+            for (String palabra : vistas) {
+                entradas.add(new Entrada(palabra, i));
+            }
+        }
+        entradas.sort((a, b) -> {
+            int comparacion = a.palabra.compareTo(b.palabra);
+            return comparacion != 0 ? comparacion : Integer.compare(a.posicion, b.posicion);
+        });
+
+        this.palabras = new String[entradas.size()];
+        this.posiciones = new int[entradas.size()];
+        for (int i = 0; i < entradas.size(); i++) {
+            palabras[i] = entradas.get(i).palabra;
+            posiciones[i] = entradas.get(i).posicion;
+        }
+    }
+
+    private static class Entrada {
+        private final String palabra;
+        private final int posicion;
+
+        private Entrada(String palabra, int posicion) {
+            this.palabra = palabra;
+            this.posicion = posicion;
+        }
+    }
+
+    /**
+     * Busca los elementos que coinciden con todas las palabras de la consulta
+     * @param consulta Texto escrito por el usuario; vacío devuelve los primeros elementos
+     * @param limite Máximo de resultados
+     * @return Elementos en su orden original
+     */
+    public List<T> buscar(String consulta, int limite) {
+        List<String> terminos = separar(consulta);
+        if (terminos.isEmpty()) {
+            return new ArrayList<>(elementos.subList(0, Math.min(limite, elementos.size())));
+        }
+
+        boolean[] coincide = null;
+        for (String termino : terminos) {
+            boolean[] conTermino = new boolean[elementos.size()];
+            int i = primeraPosicion(termino);
+            while (i < palabras.length && palabras[i].startsWith(termino)) {
+                conTermino[posiciones[i]] = true;
+                i++;
+            }
+            if (coincide == null) {
+                coincide = conTermino;
+            } else {
+                for (int j = 0; j < coincide.length; j++) {
+                    coincide[j] &= conTermino[j];
+                }
+            }
+        }
+
+        List<T> resultado = new ArrayList<>();
+        for (int j = 0; j < coincide.length && resultado.size() < limite; j++) {
+            if (coincide[j]) {
+                resultado.add(elementos.get(j));
+            }
+        }
+        return resultado;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    // Primera palabra >= prefijo (búsqueda binaria)
+    private int primeraPosicion(String prefijo) {
+        int desde = Arrays.binarySearch(palabras, prefijo);
+        if (desde >= 0) {
+            // Puede haber varias entradas con la misma palabra; se retrocede a la primera
+            while (desde > 0 && palabras[desde - 1].equals(prefijo)) {
+                desde--;
+            }
+            return desde;
+        }
+        return -desde - 1;
+    }
+
+    /**
+     * Normaliza un texto a palabras en minúsculas y sin acentos
+     */
+    public static List<String> separar(String texto) {
+        List<String> resultado = new ArrayList<>();
+        if (texto == null) return resultado;
+        // Un recorrido por carácter en lugar de replaceAll/split: se llama por cada campo al cargar los índices
+        String descompuesto = esAscii(texto) ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder palabra = new StringBuilder();
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                palabra.append(Character.toLowerCase(c));
+            } else if (!esMarca(c) && palabra.length() > 0) {
+                resultado.add(palabra.toString());
+                palabra.setLength(0);
+            }
+        }
+        if (palabra.length() > 0) {
+            resultado.add(palabra.toString());
+        }
+        return resultado;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+
+    private static boolean esMarca(char c) {
+        int tipo = Character.getType(c);
+        return tipo == Character.NON_SPACING_MARK || tipo == Character.COMBINING_SPACING_MARK
+                || tipo == Character.ENCLOSING_MARK;
+    }
+}
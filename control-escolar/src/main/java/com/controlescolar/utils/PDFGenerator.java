@@ -10,11 +10,15 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
 import com.controlescolar.models.*;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -202,9 +206,22 @@ public class PDFGenerator {
      * Genera reporte de pagos de un alumno
      */
     public static boolean generatePaymentReport(Alumno alumno, List<Pago> pagos, String outputPath) {
-        PDDocument document = null;
-        try {
-            document = new PDDocument();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            writePaymentReport(alumno, pagos, out);
+            LOGGER.info("Reporte de pagos generado: " + outputPath);
+            return true;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error al generar reporte de pagos", e);
+            return false;
+        }
+    }
+
+    /**
+     * Escribe el estado de cuenta de un alumno en un stream (archivo, zip o memoria).
+     * No guarda estado entre llamadas, así que puede usarse desde varios hilos.
+     */
+    public static void writePaymentReport(Alumno alumno, List<Pago> pagos, OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage(PDRectangle.A4);
             document.addPage(page);
 
@@ -225,25 +242,7 @@ public class PDFGenerator {
                 addFooter(contentStream, page);
             }
 
-            // Forzar liberación de memoria antes de guardar
-            System.gc();
-            
-            document.save(outputPath);
-            LOGGER.info("Reporte de pagos generado: " + outputPath);
-            return true;
-
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error al generar reporte de pagos", e);
-            return false;
-        } finally {
-            // Asegurar que el documento se cierre
-            if (document != null) {
-                try {
-                    document.close();
-                } catch (IOException e) {
-                    LOGGER.log(Level.WARNING, "Error al cerrar documento PDF", e);
-                }
-            }
+            document.save(out);
         }
     }
 
@@ -760,6 +759,23 @@ public class PDFGenerator {
      * Genera boleta de calificaciones
      */
     public static boolean generateGradeReportCard(Alumno alumno, Map<String, Object> historialAcademico, String outputPath) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            writeGradeReportCard(alumno, historialAcademico, out);
+            LOGGER.info("Boleta de calificaciones generada: " + outputPath);
+            return true;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error al generar boleta de calificaciones", e);
+            return false;
+        }
+    }
+
+    /**
+     * Escribe la boleta de calificaciones en un stream.
+     * @param historialAcademico "materias": lista de mapas con materia, parcial1, parcial2,
+     *                           final, promedio y estado; "promedioGeneral": número
+     */
+    public static void writeGradeReportCard(Alumno alumno, Map<String, Object> historialAcademico,
+                                            OutputStream out) throws IOException {
         try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage(PDRectangle.A4);
             document.addPage(page);
@@ -791,13 +807,7 @@ public class PDFGenerator {
                 addFooter(contentStream, page);
             }
 
-            document.save(outputPath);
-            LOGGER.info("Boleta de calificaciones generada: " + outputPath);
-            return true;
-
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error al generar boleta de calificaciones", e);
-            return false;
+            document.save(out);
         }
     }
 
@@ -878,16 +888,24 @@ public class PDFGenerator {
         contentStream.stroke();
         yPosition -= LINE_SPACING;
 
-        // Aquí se agregarían los datos del historial académico
-        // Por simplicidad, mostramos datos de ejemplo
-        String[][] sampleData = {
-                {"Matemáticas", "8.5", "9.0", "8.8", "8.8", "Aprobado"},
-                {"Español", "9.0", "8.5", "9.2", "8.9", "Aprobado"},
-                {"Historia", "7.5", "8.0", "7.8", "7.8", "Aprobado"},
-                {"Ciencias", "9.5", "9.0", "9.3", "9.3", "Excelente"}
-        };
+        // Una fila por materia del historial
+        List<String[]> filas = new ArrayList<>();
+        Object materias = historial != null ? historial.get("materias") : null;
+        if (materias instanceof List) {
+            for (Object elemento : (List<?>) materias) {
+                Map<?, ?> materia = (Map<?, ?>) elemento;
+                filas.add(new String[]{
+                        textoCelda(materia.get("materia")),
+                        textoCelda(materia.get("parcial1")),
+                        textoCelda(materia.get("parcial2")),
+                        textoCelda(materia.get("final")),
+                        textoCelda(materia.get("promedio")),
+                        textoCelda(materia.get("estado"))
+                });
+            }
+        }
 
-        for (String[] rowData : sampleData) {
+        for (String[] rowData : filas) {
             contentStream.beginText();
             contentStream.setFont(FONT_NORMAL, FONT_SIZE_SMALL);
             currentX = tableX;
@@ -907,12 +925,18 @@ public class PDFGenerator {
         contentStream.beginText();
         contentStream.setFont(FONT_SUBTITLE, FONT_SIZE_NORMAL);
         contentStream.newLineAtOffset(MARGIN + 300, yPosition);
-        contentStream.showText("Promedio General: 8.7");
+        contentStream.showText("Promedio General: " + textoCelda(historial != null ? historial.get("promedioGeneral") : null));
         contentStream.endText();
 
         return yPosition;
     }
 
+    private static String textoCelda(Object valor) {
+        if (valor == null) return "-";
+        if (valor instanceof Number) return String.format("%.1f", ((Number) valor).doubleValue());
+        return valor.toString();
+    }
+
     /**
      * Método genérico para generar reportes
      */
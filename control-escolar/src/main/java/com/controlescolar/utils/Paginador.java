@@ -0,0 +1,339 @@
+// Paginador.java
+package com.controlescolar.utils;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Paginación por llave (keyset / seek) sobre un campo de orden más _id como
+ * desempate. Cada página continúa desde la llave de la última fila de la
+ * anterior en lugar de usar skip, así que el costo no crece con la página y
+ * las filas no se duplican ni se pierden si se insertan datos mientras tanto.
+ *
+ * Los valores nulos del campo de orden se tratan como los menores, igual que
+ * el orden de MongoDB.
+ */
+public class Paginador {
+
+    // Límite de tiempo para el conteo total; si se excede la página se devuelve sin total
+    private static final long TIEMPO_MAXIMO_CONTEO_MS = 2000;
+
+    private Paginador() {
+    }
+
+    /**
+     * Solicitud de una página: tamaño, orden y llave desde la que se continúa
+     */
+    public static class Solicitud {
+        private final int tamano;
+        private final String campoOrden;
+        private final boolean descendente;
+        private final boolean hayLlave;
+        private final Object valorLlave;
+        private final ObjectId idLlave;
+        private final boolean haciaAtras;
+        private final boolean incluirTotal;
+
+        private Solicitud(int tamano, String campoOrden, boolean descendente, boolean hayLlave,
+                          Object valorLlave, ObjectId idLlave, boolean haciaAtras, boolean incluirTotal) {
+            this.tamano = tamano;
+            this.campoOrden = campoOrden;
+            this.descendente = descendente;
+            this.hayLlave = hayLlave;
+            this.valorLlave = valorLlave;
+            this.idLlave = idLlave;
+            this.haciaAtras = haciaAtras;
+            this.incluirTotal = incluirTotal;
+        }
+
+        /**
+         * Primera página ordenada por _id ascendente
+         */
+        public static Solicitud primera(int tamano) {
+            return primera(tamano, "_id", false);
+        }
+
+        /**
+         * Primera página ordenada por un campo; incluye el total estimado
+         * @param tamano Filas por página
+         * @param campoOrden Campo de orden (debería tener un índice (campo, _id))
+         * @param descendente true para orden descendente
+         */
+        public static Solicitud primera(int tamano, String campoOrden, boolean descendente) {
+            if (tamano <= 0) {
+                throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero");
+            }
+            return new Solicitud(tamano, campoOrden, descendente, false, null, null, false, true);
+        }
+
+        public int getTamano() { return tamano; }
+        public String getCampoOrden() { return campoOrden; }
+        public boolean isDescendente() { return descendente; }
+        public boolean isHaciaAtras() { return haciaAtras; }
+    }
+
+    /**
+     * Resultado de una página con las llaves para pedir la siguiente o la anterior
+     */
+    public static class Pagina<T> {
+        private final Solicitud solicitud;
+        private final List<T> elementos;
+        private final Object valorPrimero;
+        private final ObjectId idPrimero;
+        private final Object valorUltimo;
+        private final ObjectId idUltimo;
+        private final boolean hayMas;
+        private final Long totalEstimado;
+
+        private Pagina(Solicitud solicitud, List<T> elementos, Object valorPrimero, ObjectId idPrimero,
+                       Object valorUltimo, ObjectId idUltimo, boolean hayMas, Long totalEstimado) {
+            this.solicitud = solicitud;
+            this.elementos = elementos;
+            this.valorPrimero = valorPrimero;
+            this.idPrimero = idPrimero;
+            this.valorUltimo = valorUltimo;
+            this.idUltimo = idUltimo;
+            this.hayMas = hayMas;
+            this.totalEstimado = totalEstimado;
+        }
+
+        private static <T> Pagina<T> vacia(Solicitud solicitud, Long total) {
+            return new Pagina<>(solicitud, new ArrayList<>(), null, null, null, null, false, total);
+        }
+
+        public List<T> getElementos() { return elementos; }
+
+        /**
+         * Total de documentos que cumplen el filtro; solo viene en la primera página
+         * y puede ser null si el conteo tardó demasiado
+         */
+        public Long getTotalEstimado() { return totalEstimado; }
+
+        /**
+         * Indica si hay más filas después de esta página (en orden de lectura)
+         */
+        public boolean hayPaginaSiguiente() {
+            return solicitud.haciaAtras ? solicitud.hayLlave : hayMas;
+        }
+
+        /**
+         * Indica si hay filas antes de esta página
+         */
+        public boolean hayPaginaAnterior() {
+            return solicitud.haciaAtras ? hayMas : solicitud.hayLlave;
+        }
+
+        /**
+         * Solicitud de la página que sigue a la última fila de esta
+         */
+        public Solicitud siguiente() {
+            if (elementos.isEmpty()) return null;
+            return new Solicitud(solicitud.tamano, solicitud.campoOrden, solicitud.descendente,
+                    true, valorUltimo, idUltimo, false, false);
+        }
+
+        /**
+         * Solicitud de la página que precede a la primera fila de esta
+         */
+        public Solicitud anterior() {
+            if (elementos.isEmpty()) return null;
+            return new Solicitud(solicitud.tamano, solicitud.campoOrden, solicitud.descendente,
+                    true, valorPrimero, idPrimero, true, false);
+        }
+
+        /**
+         * Convierte cada elemento en cero o más filas conservando las llaves de la
+         * página, para tablas que muestran varias filas por documento
+         * @param filas Filas de un elemento
+         * @return Página con las filas en el mismo orden
+         */
+        public <R> Pagina<R> aplanar(Function<T, List<R>> filas) {
+            List<R> resultado = new ArrayList<>();
+            for (T elemento : elementos) {
+                resultado.addAll(filas.apply(elemento));
+            }
+            return new Pagina<>(solicitud, resultado, valorPrimero, idPrimero, valorUltimo, idUltimo,
+                    hayMas, totalEstimado);
+        }
+    }
+
+    /**
+     * Carga una página de la colección
+     * @param collection Colección a consultar
+     * @param filtro Filtro base (puede ser null)
+     * @param solicitud Tamaño, orden y llave de continuación
+     * @param proyeccion Campos a traer (puede ser null); debe incluir el campo de orden
+     * @param mapper Conversión de Document al modelo
+     * @return Página en orden de lectura
+     */
+    public static <T> Pagina<T> cargar(MongoCollection<Document> collection, Bson filtro, Solicitud solicitud,
+                                       Bson proyeccion, Function<Document, T> mapper) {
+        Long total = solicitud.incluirTotal ? contar(collection, filtro) : null;
+
+        List<Document> documentos = new ArrayList<>();
+        collection.find(consultaConLlave(filtro, solicitud))
+                .projection(proyeccion)
+                .sort(orden(solicitud))
+                .limit(solicitud.tamano + 1)
+                .into(documentos);
+
+        return armarPagina(solicitud, documentos, total, mapper);
+    }
+
+    /**
+     * Carga una página y después aplica etapas de agregación a sus filas
+     * (por ejemplo $lookup para traer datos relacionados en la misma consulta).
+     * La llave de continuación se toma de los documentos ya transformados, así
+     * que las etapas deben conservar _id y el campo de orden.
+     * @param collection Colección a consultar
+     * @param filtro Filtro base (puede ser null)
+     * @param solicitud Tamaño, orden y llave de continuación
+     * @param etapas Etapas que se ejecutan sobre las filas de la página
+     * @param mapper Conversión de Document al modelo
+     * @return Página en orden de lectura
+     */
+    public static <T> Pagina<T> cargarAgregacion(MongoCollection<Document> collection, Bson filtro,
+                                                 Solicitud solicitud, List<Bson> etapas,
+                                                 Function<Document, T> mapper) {
+        Long total = solicitud.incluirTotal ? contar(collection, filtro) : null;
+
+        // $match + $sort + $limit al inicio para que el índice resuelva la página
+        // y las etapas siguientes solo trabajen con sus filas
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(consultaConLlave(filtro, solicitud)));
+        pipeline.add(Aggregates.sort(orden(solicitud)));
+        pipeline.add(Aggregates.limit(solicitud.tamano + 1));
+        pipeline.addAll(etapas);
+
+        List<Document> documentos = new ArrayList<>();
+        collection.aggregate(pipeline).into(documentos);
+        // Un $lookup no cambia el orden, pero se vuelve a ordenar por si alguna etapa lo hace
+        documentos.sort(comparadorLectura(solicitud));
+
+        return armarPagina(solicitud, documentos, total, mapper);
+    }
+
+    /**
+     * Carga una página sin proyección
+     */
+    public static <T> Pagina<T> cargar(MongoCollection<Document> collection, Bson filtro, Solicitud solicitud,
+                                       Function<Document, T> mapper) {
+        return cargar(collection, filtro, solicitud, null, mapper);
+    }
+
+    // Hacia atrás se recorre con el orden invertido y luego se voltea la página
+    private static boolean esAscendente(Solicitud solicitud) {
+        return solicitud.descendente == solicitud.haciaAtras;
+    }
+
+    private static Bson consultaConLlave(Bson filtro, Solicitud solicitud) {
+        Bson base = filtro != null ? filtro : new Document();
+        if (!solicitud.hayLlave) {
+            return base;
+        }
+        Bson llave = esAscendente(solicitud)
+                ? mayorQue(solicitud.campoOrden, solicitud.valorLlave, solicitud.idLlave)
+                : menorQue(solicitud.campoOrden, solicitud.valorLlave, solicitud.idLlave);
+        return Filters.and(base, llave);
+    }
+
+    private static Bson orden(Solicitud solicitud) {
+        boolean ascendente = esAscendente(solicitud);
+        return "_id".equals(solicitud.campoOrden)
+                ? (ascendente ? Sorts.ascending("_id") : Sorts.descending("_id"))
+                : (ascendente ? Sorts.ascending(solicitud.campoOrden, "_id") : Sorts.descending(solicitud.campoOrden, "_id"));
+    }
+
+    // Mismo orden que orden(solicitud), aplicado en memoria
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Document> comparadorLectura(Solicitud solicitud) {
+        Comparator<Document> porId = Comparator.comparing(doc -> doc.getObjectId("_id"));
+        Comparator<Document> comparador = "_id".equals(solicitud.campoOrden)
+                ? porId
+                : Comparator.comparing((Document doc) -> (Comparable) doc.get(solicitud.campoOrden),
+                        Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(porId);
+        return esAscendente(solicitud) ? comparador : comparador.reversed();
+    }
+
+    private static <T> Pagina<T> armarPagina(Solicitud solicitud, List<Document> documentos, Long total,
+                                             Function<Document, T> mapper) {
+        boolean hayMas = documentos.size() > solicitud.tamano;
+        if (hayMas) {
+            documentos.remove(documentos.size() - 1);
+        }
+        if (documentos.isEmpty()) {
+            return Pagina.vacia(solicitud, total);
+        }
+        if (solicitud.haciaAtras) {
+            Collections.reverse(documentos);
+        }
+
+        List<T> elementos = new ArrayList<>(documentos.size());
+        for (Document doc : documentos) {
+            elementos.add(mapper.apply(doc));
+        }
+
+        Document primero = documentos.get(0);
+        Document ultimo = documentos.get(documentos.size() - 1);
+        return new Pagina<>(solicitud, elementos,
+                primero.get(solicitud.campoOrden), primero.getObjectId("_id"),
+                ultimo.get(solicitud.campoOrden), ultimo.getObjectId("_id"),
+                hayMas, total);
+    }
+
+    // Sin filtro se usa el conteo de metadatos; con filtro, countDocuments con límite de tiempo
+    private static Long contar(MongoCollection<Document> collection, Bson filtro) {
+        try {
+            if (filtro == null) {
+                return collection.estimatedDocumentCount();
+            }
+            return collection.countDocuments(filtro,
+                    new CountOptions().maxTime(TIEMPO_MAXIMO_CONTEO_MS, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            System.err.println("No se pudo contar el total de la página: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // (campo, _id) > (valor, id), con nulos como menores
+    private static Bson mayorQue(String campo, Object valor, ObjectId id) {
+        if ("_id".equals(campo)) {
+            return Filters.gt("_id", id);
+        }
+        if (valor == null) {
+            return Filters.or(
+                    Filters.and(Filters.eq(campo, null), Filters.gt("_id", id)),
+                    Filters.ne(campo, null));
+        }
+        return Filters.or(
+                Filters.gt(campo, valor),
+                Filters.and(Filters.eq(campo, valor), Filters.gt("_id", id)));
+    }
+
+    // (campo, _id) < (valor, id), con nulos como menores
+    private static Bson menorQue(String campo, Object valor, ObjectId id) {
+        if ("_id".equals(campo)) {
+            return Filters.lt("_id", id);
+        }
+        if (valor == null) {
+            return Filters.and(Filters.eq(campo, null), Filters.lt("_id", id));
+        }
+        return Filters.or(
+                Filters.lt(campo, valor),
+                Filters.and(Filters.eq(campo, valor), Filters.lt("_id", id)),
+                Filters.eq(campo, null));
+    }
+}
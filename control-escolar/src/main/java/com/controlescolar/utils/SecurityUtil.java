@@ -1,12 +1,14 @@
 // SecurityUtil.java
 package com.controlescolar.utils;
 
+import com.controlescolar.config.SecurityConfig;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class SecurityUtil {
 
+    // Mismo costo que SecurityConfig para que los hashes nuevos no se regeneren en el login
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return SecurityConfig.hashPassword(password);
     }
 
     public static boolean verifyPassword(String password, String hashedPassword) {
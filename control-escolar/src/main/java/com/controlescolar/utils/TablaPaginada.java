@@ -0,0 +1,217 @@
+// TablaPaginada.java
+package com.controlescolar.utils;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Llena un TableView por páginas a medida que el usuario se desplaza.
+ *
+ * Las páginas se piden con Paginador (keyset) a través de AsyncLoader. La
+ * tabla solo conserva una ventana de MAX_PAGINAS páginas: al bajar se
+ * descartan las de arriba y al volver a subir se piden de nuevo con la llave
+ * de la primera fila, de modo que la memoria no crece con el historial.
+ */
+public class TablaPaginada<T> {
+
+    // Páginas que se mantienen en la tabla al mismo tiempo
+    private static final int MAX_PAGINAS = 5;
+
+    // Fracción del scroll a partir de la cual se pide la página siguiente/anterior
+    private static final double UMBRAL_SCROLL = 0.9;
+
+    private final TableView<T> tabla;
+    private final Object propietario;
+    private final String clave;
+    private final Function<Paginador.Solicitud, Paginador.Pagina<T>> cargador;
+    private final ObservableList<T> filas = FXCollections.observableArrayList();
+    private final Deque<Paginador.Pagina<T>> ventana = new ArrayDeque<>();
+
+    private Paginador.Solicitud primeraSolicitud;
+    private Consumer<Long> alObtenerTotal = total -> { };
+    private Consumer<Throwable> alFallar;
+    private boolean cargando;
+    private boolean scrollEnganchado;
+    private boolean esperandoSkin;
+
+    /**
+     * @param tabla Tabla a llenar (sus items se reemplazan)
+     * @param propietario Dueño de las cargas (la ventana de la vista)
+     * @param clave Clave de las cargas dentro del propietario
+     * @param cargador Consulta de una página; se ejecuta fuera del hilo de JavaFX
+     */
+    public TablaPaginada(TableView<T> tabla, Object propietario, String clave,
+                         Function<Paginador.Solicitud, Paginador.Pagina<T>> cargador) {
+        this.tabla = tabla;
+        this.propietario = propietario;
+        this.clave = clave;
+        this.cargador = cargador;
+        tabla.setItems(filas);
+    }
+
+    /**
+     * Indica si la tabla muestra las páginas (y no otra lista, como resultados de búsqueda)
+     */
+    public boolean isMostrando() {
+        return tabla.getItems() == filas;
+    }
+
+    /**
+     * Recibe el total de filas (si la primera página lo trae)
+     */
+    public TablaPaginada<T> alObtenerTotal(Consumer<Long> alObtenerTotal) {
+        this.alObtenerTotal = alObtenerTotal;
+        return this;
+    }
+
+    public TablaPaginada<T> alFallar(Consumer<Throwable> alFallar) {
+        this.alFallar = alFallar;
+        return this;
+    }
+
+    /**
+     * Carga la primera página (y descarta lo que hubiera en la tabla, aunque la
+     * vista le haya puesto otra lista)
+     * @param solicitud Solicitud de la primera página (tamaño y orden)
+     */
+    public void iniciar(Paginador.Solicitud solicitud) {
+        this.primeraSolicitud = solicitud;
+        tabla.setItems(filas);
+        engancharScroll();
+        cargando = true;
+        AsyncLoader.cargar(propietario, clave, () -> cargador.apply(solicitud))
+                .conIndicador(tabla)
+                .alCompletar(pagina -> {
+                    cargando = false;
+                    ventana.clear();
+                    ventana.addLast(pagina);
+                    filas.setAll(pagina.getElementos());
+                    tabla.scrollTo(0);
+                    alObtenerTotal.accept(pagina.getTotalEstimado());
+                })
+                .alFallar(this::fallo)
+                .iniciar();
+    }
+
+    /**
+     * Vuelve a cargar desde la primera página
+     */
+    public void recargar() {
+        if (primeraSolicitud != null) {
+            iniciar(primeraSolicitud);
+        }
+    }
+
+    private void cargarSiguiente() {
+        Paginador.Pagina<T> ultima = ventana.peekLast();
+        if (cargando || !isMostrando() || ultima == null || !ultima.hayPaginaSiguiente()) return;
+
+        Paginador.Solicitud solicitud = ultima.siguiente();
+        cargando = true;
+        AsyncLoader.cargar(propietario, clave, () -> cargador.apply(solicitud))
+                .alCompletar(pagina -> {
+                    cargando = false;
+                    if (pagina.getElementos().isEmpty()) return;
+                    int primeraVisible = primeraFilaVisible();
+                    ventana.addLast(pagina);
+                    filas.addAll(pagina.getElementos());
+
+                    if (ventana.size() > MAX_PAGINAS) {
+                        int descartadas = ventana.removeFirst().getElementos().size();
+                        filas.remove(0, descartadas);
+                        tabla.scrollTo(Math.max(0, primeraVisible - descartadas));
+                    }
+                })
+                .alFallar(this::fallo)
+                .iniciar();
+    }
+
+    private void cargarAnterior() {
+        Paginador.Pagina<T> primera = ventana.peekFirst();
+        if (cargando || !isMostrando() || primera == null || !primera.hayPaginaAnterior()) return;
+
+        Paginador.Solicitud solicitud = primera.anterior();
+        cargando = true;
+        AsyncLoader.cargar(propietario, clave, () -> cargador.apply(solicitud))
+                .alCompletar(pagina -> {
+                    cargando = false;
+                    if (pagina.getElementos().isEmpty()) return;
+                    int primeraVisible = primeraFilaVisible();
+                    ventana.addFirst(pagina);
+                    filas.addAll(0, pagina.getElementos());
+                    tabla.scrollTo(primeraVisible + pagina.getElementos().size());
+
+                    if (ventana.size() > MAX_PAGINAS) {
+                        int descartadas = ventana.removeLast().getElementos().size();
+                        filas.remove(filas.size() - descartadas, filas.size());
+                    }
+                })
+                .alFallar(this::fallo)
+                .iniciar();
+    }
+
+    private void fallo(Throwable e) {
+        cargando = false;
+        if (alFallar != null) {
+            alFallar.accept(e);
+        } else {
+            System.err.println("Error al cargar página de " + clave + ": " + e.getMessage());
+        }
+    }
+
+    // La barra de desplazamiento existe hasta que la tabla tiene skin
+    private void engancharScroll() {
+        if (scrollEnganchado) return;
+        if (tabla.getSkin() == null) {
+            if (!esperandoSkin) {
+                esperandoSkin = true;
+                tabla.skinProperty().addListener((obs, anterior, nuevo) -> {
+                    if (nuevo != null) {
+                        Platform.runLater(this::engancharScroll);
+                    }
+                });
+            }
+            return;
+        }
+        for (Node nodo : tabla.lookupAll(".scroll-bar")) {
+            if (nodo instanceof ScrollBar && ((ScrollBar) nodo).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar barra = (ScrollBar) nodo;
+                barra.valueProperty().addListener((obs, anterior, valor) -> {
+                    double rango = barra.getMax() - barra.getMin();
+                    if (rango <= 0) return;
+                    double posicion = (valor.doubleValue() - barra.getMin()) / rango;
+                    if (posicion >= UMBRAL_SCROLL) {
+                        cargarSiguiente();
+                    } else if (posicion <= 1 - UMBRAL_SCROLL) {
+                        cargarAnterior();
+                    }
+                });
+                scrollEnganchado = true;
+                return;
+            }
+        }
+    }
+
+    private int primeraFilaVisible() {
+        Node nodo = tabla.lookup(".virtual-flow");
+        if (nodo instanceof VirtualFlow) {
+            IndexedCell<?> celda = ((VirtualFlow<?>) nodo).getFirstVisibleCell();
+            if (celda != null) {
+                return celda.getIndex();
+            }
+        }
+        return 0;
+    }
+}
@@ -4,6 +4,9 @@ package com.controlescolar.views;
 import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,7 +22,6 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.scene.Node;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 public class AlumnosView extends Application {
@@ -28,9 +30,14 @@ public class AlumnosView extends Application {
     private Usuario usuarioActual;
     private Stage primaryStage;
 
+    private static final int TAMANO_PAGINA = 200;
+
     // Componentes UI
     private TableView<Alumno> tablaAlumnos;
+    // Páginas de alumnos activos; los resultados de búsqueda van en listaAlumnos
+    private TablaPaginada<Alumno> paginas;
     private ObservableList<Alumno> listaAlumnos;
+    private Label totalLabel;
     private TextField buscarField;
     private Button btnAgregar, btnEditar, btnEliminar, btnRefrescar;
 
@@ -138,14 +145,19 @@ public class AlumnosView extends Application {
 
         // Tabla de alumnos
         tablaAlumnos = createTablaAlumnos();
+        VBox.setVgrow(tablaAlumnos, Priority.ALWAYS);
+
+        totalLabel = new Label();
+        paginas = new TablaPaginada<>(tablaAlumnos, primaryStage, "alumnos", AlumnoController::obtenerAlumnosPagina)
+                .alObtenerTotal(total -> totalLabel.setText(total != null ? "Total de alumnos: " + total : ""))
+                .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()));
 
-        content.getChildren().add(tablaAlumnos);
+        content.getChildren().addAll(totalLabel, tablaAlumnos);
         return content;
     }
 
     private TableView<Alumno> createTablaAlumnos() {
         TableView<Alumno> tabla = new TableView<>();
-        tabla.setItems(listaAlumnos);
         
         // Estilos para mejorar la visibilidad del texto
         tabla.setStyle(
@@ -209,15 +221,14 @@ public class AlumnosView extends Application {
     }
 
     private void cargarAlumnos() {
-        try {
-            List<Alumno> alumnos = AlumnoController.obtenerAlumnos();
-            listaAlumnos.clear();
-            listaAlumnos.addAll(alumnos);
-        } catch (Exception e) {
-            System.err.println("Error al cargar alumnos: " + e.getMessage());
-            e.printStackTrace();
-            mostrarError("Error al cargar alumnos: " + e.getMessage());
+        String filtro = buscarField.getText();
+        if (filtro != null && !filtro.trim().isEmpty()) {
+            filtrarAlumnos(filtro);
+            return;
         }
+        // El índice de búsqueda se carga mientras el usuario ve la tabla, antes de que escriba un filtro
+        AlumnoController.precargarBusqueda();
+        paginas.iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA));
     }
 
     private void filtrarAlumnos(String filtro) {
@@ -226,13 +237,16 @@ public class AlumnosView extends Application {
             return;
         }
 
-        try {
-            List<Alumno> alumnosFiltrados = AlumnoController.buscarAlumnos(filtro);
-            listaAlumnos.clear();
-            listaAlumnos.addAll(alumnosFiltrados);
-        } catch (Exception e) {
-            mostrarError("Error al filtrar alumnos: " + e.getMessage());
-        }
+        // Misma clave que las páginas: cada tecla cancela la búsqueda o la página anterior
+        AsyncLoader.cargar(primaryStage, "alumnos", () -> AlumnoController.buscarAlumnos(filtro))
+                .conIndicador(tablaAlumnos)
+                .alCompletar(alumnosFiltrados -> {
+                    listaAlumnos.setAll(alumnosFiltrados);
+                    tablaAlumnos.setItems(listaAlumnos);
+                    totalLabel.setText("Resultados: " + alumnosFiltrados.size());
+                })
+                .alFallar(e -> mostrarError("Error al filtrar alumnos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarFormularioAgregar() {
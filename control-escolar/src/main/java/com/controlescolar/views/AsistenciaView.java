@@ -6,6 +6,7 @@ import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Asistencia;
 import com.controlescolar.models.Grupo;
 import com.controlescolar.models.Materia;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -18,6 +19,7 @@ import javafx.stage.Stage;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class AsistenciaView {
@@ -324,16 +326,26 @@ public class AsistenciaView {
             return;
         }
 
-        try {
-            boolean exito = asistenciaController.guardarAsistencia(listaAsistencia);
-            if (exito) {
-                mostrarInfo("Éxito", "Asistencia guardada correctamente");
-            } else {
-                mostrarAlerta("Error", "No se pudo guardar la asistencia");
-            }
-        } catch (Exception e) {
-            mostrarAlerta("Error", "Error al guardar: " + e.getMessage());
-        }
+        // Todas las filas van en un solo bulkWrite; se copia la lista para no leerla desde otro hilo.
+        // Como escritura: cerrar la ventana no descarta un guardado que aún espera su turno
+        List<Asistencia> filas = new ArrayList<>(listaAsistencia);
+        AsyncLoader.escribir(stage, () -> AsistenciaController.guardarAsistencias(filas))
+                .conIndicador(tablaAsistencia)
+                .alCompletar(resultados -> {
+                    long fallidas = resultados.stream().filter(r -> !r.isExitoso()).count();
+                    if (fallidas == 0) {
+                        mostrarInfo("Éxito", "Asistencia guardada correctamente");
+                    } else {
+                        String primerError = resultados.stream()
+                                .filter(r -> !r.isExitoso())
+                                .map(AsistenciaController.ResultadoAsistencia::getMensaje)
+                                .findFirst().orElse("");
+                        mostrarAlerta("Error", "No se pudo guardar la asistencia de " + fallidas + " de "
+                                + resultados.size() + " alumnos: " + primerError);
+                    }
+                })
+                .alFallar(e -> mostrarAlerta("Error", "Error al guardar: " + e.getMessage()))
+                .iniciar();
     }
 
     private void generarReporteAsistencia() {
@@ -6,6 +6,9 @@ import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.controllers.MateriaController;
 import com.controlescolar.models.Calificacion;
 import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.ComboFiltrable;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Usuario;
 import org.bson.types.ObjectId;
@@ -44,7 +47,7 @@ public class CalificacionesView extends Application {
     private ComboBox<String> filtroPeriodoCombo;
 
     // Formulario
-    private ComboBox<Alumno> estudianteCombo;
+    private ComboBox<AlumnoResumen> estudianteCombo;
     private ComboBox<Materia> materiaCombo;
     private TextField notaField;
     private ComboBox<String> tipoEvaluacionCombo, periodoCombo;
@@ -310,37 +313,37 @@ public class CalificacionesView extends Application {
     }
 
     private void cargarMateriasParaFiltro() {
-        try {
-            List<Materia> materias = MateriaController.obtenerMaterias();
-            filtroMateriaCombo.getItems().clear();
-            filtroMateriaCombo.getItems().add(null); // Opción "Todas"
-            filtroMateriaCombo.getItems().addAll(materias);
-
-            filtroMateriaCombo.setConverter(new StringConverter<Materia>() {
-                @Override
-                public String toString(Materia materia) {
-                    return materia == null ? "Todas las materias" : materia.getNombre();
-                }
+        filtroMateriaCombo.getItems().setAll((Materia) null); // Opción "Todas"
 
-                @Override
-                public Materia fromString(String string) {
-                    return null;
-                }
-            });
-        } catch (Exception e) {
-            mostrarError("Error al cargar materias: " + e.getMessage());
-        }
+        filtroMateriaCombo.setConverter(new StringConverter<Materia>() {
+            @Override
+            public String toString(Materia materia) {
+                return materia == null ? "Todas las materias" : materia.getNombre();
+            }
+
+            @Override
+            public Materia fromString(String string) {
+                return null;
+            }
+        });
+
+        AsyncLoader.cargar(primaryStage, "materiasFiltro", MateriaController::obtenerMaterias)
+                .deshabilitando(filtroMateriaCombo)
+                .alCompletar(materias -> filtroMateriaCombo.getItems().addAll(materias))
+                .alFallar(e -> mostrarError("Error al cargar materias: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarCalificaciones() {
-        try {
-            List<Calificacion> calificaciones = CalificacionController.obtenerTodas();
-            listaCalificaciones.clear();
-            listaCalificaciones.addAll(calificaciones);
-            actualizarEstadisticas();
-        } catch (Exception e) {
-            mostrarError("Error al cargar calificaciones: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "calificaciones", CalificacionController::obtenerTodas)
+                .conIndicador(tablaCalificaciones)
+                .deshabilitando(btnRefrescar)
+                .alCompletar(calificaciones -> {
+                    listaCalificaciones.setAll(calificaciones);
+                    actualizarEstadisticas();
+                })
+                .alFallar(e -> mostrarError("Error al cargar calificaciones: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarCalificaciones() {
@@ -525,48 +528,48 @@ public class CalificacionesView extends Application {
     }
 
     private void cargarEstudiantes() {
-        try {
-            List<Alumno> estudiantes = AlumnoController.obtenerAlumnos();
-            estudianteCombo.getItems().clear();
-            estudianteCombo.getItems().addAll(estudiantes);
-
-            estudianteCombo.setConverter(new StringConverter<Alumno>() {
-                @Override
-                public String toString(Alumno alumno) {
-                    return alumno == null ? "" :
-                            alumno.getMatricula() + " - " + alumno.getNombre() + " " + alumno.getApellidos();
-                }
+        estudianteCombo.setConverter(new StringConverter<AlumnoResumen>() {
+            @Override
+            public String toString(AlumnoResumen alumno) {
+                return alumno == null ? "" :
+                        alumno.getMatricula() + " - " + alumno.getNombre() + " " + alumno.getApellidos();
+            }
 
-                @Override
-                public Alumno fromString(String string) {
-                    return null;
-                }
-            });
-        } catch (Exception e) {
-            mostrarError("Error al cargar estudiantes: " + e.getMessage());
-        }
+            @Override
+            public AlumnoResumen fromString(String string) {
+                return null;
+            }
+        });
+
+        // El índice de prefijos también se arma fuera del hilo de JavaFX
+        ComboBox<AlumnoResumen> combo = estudianteCombo;
+        AsyncLoader.cargar(primaryStage, "estudiantesFormulario",
+                        () -> AlumnoController.indexarResumen(AlumnoController.obtenerResumenAlumnos()))
+                .deshabilitando(combo)
+                .alCompletar(indice -> ComboFiltrable.configurar(combo, indice))
+                .alFallar(e -> mostrarError("Error al cargar estudiantes: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarMaterias() {
-        try {
-            List<Materia> materias = MateriaController.obtenerMaterias();
-            materiaCombo.getItems().clear();
-            materiaCombo.getItems().addAll(materias);
-
-            materiaCombo.setConverter(new StringConverter<Materia>() {
-                @Override
-                public String toString(Materia materia) {
-                    return materia == null ? "" : materia.getNombre();
-                }
+        materiaCombo.setConverter(new StringConverter<Materia>() {
+            @Override
+            public String toString(Materia materia) {
+                return materia == null ? "" : materia.getNombre();
+            }
 
-                @Override
-                public Materia fromString(String string) {
-                    return null;
-                }
-            });
-        } catch (Exception e) {
-            mostrarError("Error al cargar materias: " + e.getMessage());
-        }
+            @Override
+            public Materia fromString(String string) {
+                return null;
+            }
+        });
+
+        ComboBox<Materia> combo = materiaCombo;
+        AsyncLoader.cargar(primaryStage, "materiasFormulario", MateriaController::obtenerMaterias)
+                .deshabilitando(combo)
+                .alCompletar(combo.getItems()::setAll)
+                .alFallar(e -> mostrarError("Error al cargar materias: " + e.getMessage()))
+                .iniciar();
     }
 
     private void llenarFormulario(Calificacion calificacion) {
@@ -0,0 +1,242 @@
+// ConsultaSinConexionView.java
+package com.controlescolar.views;
+
+import com.controlescolar.config.DatabaseConfig;
+import com.controlescolar.config.SnapshotReferencia;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.IndicePrefijos;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Application;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.bson.Document;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consulta de solo lectura del snapshot local cuando MongoDB no responde al iniciar.
+ * Muestra alumnos, grupos, materias y profesores tal como estaban en la última
+ * sincronización, reintenta la conexión cada 15 segundos y al recuperarla pasa al login.
+ */
+public class ConsultaSinConexionView extends Application {
+
+    private static final int LIMITE_FILAS = 1000;
+    private static final int SEGUNDOS_REINTENTO = 15;
+
+    private final Runnable alReconectar;
+    private Stage primaryStage;
+    private Label estadoLabel;
+    private Button btnReintentar;
+    private Timeline reintentos;
+
+    /**
+     * @param alReconectar Qué hacer cuando vuelve la conexión (normalmente abrir el login)
+     */
+    public ConsultaSinConexionView(Runnable alReconectar) {
+        this.alReconectar = alReconectar;
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        this.primaryStage = primaryStage;
+
+        primaryStage.setTitle("Sistema Control Escolar - Sin conexión");
+        primaryStage.setWidth(1100);
+        primaryStage.setHeight(650);
+
+        BorderPane mainLayout = new BorderPane();
+        mainLayout.setTop(createHeader());
+
+        TabPane tabs = new TabPane();
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        tabs.getTabs().addAll(
+                createTab("Alumnos", "alumnos", "apellidos", List.of(
+                        columna("Matrícula", d -> d.getString("matricula")),
+                        columna("Apellidos", d -> d.getString("apellidos")),
+                        columna("Nombre", d -> d.getString("nombre")),
+                        columna("Email", d -> d.getString("email")),
+                        columna("Grupos", d -> String.valueOf(tamano(d.getList("gruposIds", Object.class)))),
+                        columna("Activo", d -> d.getBoolean("activo", true) ? "Sí" : "No"))),
+                createTab("Grupos", "grupos", "codigo", List.of(
+                        columna("Código", d -> d.getString("codigo")),
+                        columna("Nombre", d -> d.getString("nombre")),
+                        columna("Grado", d -> d.getString("grado")),
+                        columna("Sección", d -> d.getString("seccion")),
+                        columna("Alumnos", d -> String.valueOf(tamano(d.getList("alumnosIds", Object.class)))),
+                        columna("Activo", d -> d.getBoolean("activo", true) ? "Sí" : "No"))),
+                createTab("Materias", "materias", "codigo", List.of(
+                        columna("Código", d -> d.getString("codigo")),
+                        columna("Nombre", d -> d.getString("nombre")),
+                        columna("Créditos", d -> String.valueOf(d.get("creditos", ""))),
+                        columna("Descripción", d -> d.getString("descripcion")),
+                        columna("Activa", d -> d.getBoolean("activa", true) ? "Sí" : "No"))),
+                createTab("Profesores", "profesores", "apellidos", List.of(
+                        columna("No. empleado", d -> d.getString("numeroEmpleado")),
+                        columna("Apellidos", d -> d.getString("apellidos")),
+                        columna("Nombre", d -> d.getString("nombre")),
+                        columna("Email", d -> d.getString("email")),
+                        columna("Especialidad", d -> d.getString("especialidad")),
+                        columna("Activo", d -> d.getBoolean("activo", true) ? "Sí" : "No"))));
+        mainLayout.setCenter(tabs);
+
+        Scene scene = new Scene(mainLayout);
+        scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
+
+        primaryStage.setScene(scene);
+        primaryStage.setOnHidden(e -> reintentos.stop());
+        primaryStage.show();
+
+        reintentos = new Timeline(new KeyFrame(Duration.seconds(SEGUNDOS_REINTENTO), e -> reintentarConexion()));
+        reintentos.setCycleCount(Timeline.INDEFINITE);
+        reintentos.play();
+    }
+
+    private VBox createHeader() {
+        VBox header = new VBox(10);
+        header.setPadding(new Insets(20));
+        header.setStyle("-fx-background-color: #c0392b;");
+
+        Label titulo = new Label("Sin conexión con el servidor");
+        titulo.setTextFill(Color.WHITE);
+        titulo.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+
+        long fecha = SnapshotReferencia.getFechaSincronizacion();
+        Label snapshotLabel = new Label("Consulta de solo lectura con los datos guardados el "
+                + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(fecha))
+                + ". Los cambios posteriores no aparecen.");
+        snapshotLabel.setTextFill(Color.WHITE);
+
+        estadoLabel = new Label("Se reintentará la conexión cada " + SEGUNDOS_REINTENTO + " segundos");
+        estadoLabel.setTextFill(Color.WHITE);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        btnReintentar = new Button("🔄 Reintentar conexión");
+        btnReintentar.setStyle("-fx-background-color: #95a5a6; -fx-text-fill: white; -fx-font-weight: bold;");
+        btnReintentar.setOnAction(e -> reintentarConexion());
+
+        HBox estadoBox = new HBox(10, estadoLabel, spacer, btnReintentar);
+        estadoBox.setAlignment(Pos.CENTER_LEFT);
+
+        header.getChildren().addAll(titulo, snapshotLabel, estadoBox);
+        return header;
+    }
+
+    private Tab createTab(String titulo, String coleccion, String orden, List<Columna> columnas) {
+        TableView<Document> tabla = new TableView<>();
+        for (Columna columna : columnas) {
+            TableColumn<Document, String> tableColumn = new TableColumn<>(columna.titulo);
+            tableColumn.setCellValueFactory(celda -> new SimpleStringProperty(columna.valor.apply(celda.getValue())));
+            tabla.getColumns().add(tableColumn);
+        }
+        tabla.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        tabla.setPlaceholder(new Label("Sin registros en el snapshot"));
+        ObservableList<Document> filas = FXCollections.observableArrayList();
+        tabla.setItems(filas);
+
+        TextField buscarField = new TextField();
+        buscarField.setPromptText("Buscar...");
+        buscarField.setPrefWidth(300);
+        buscarField.setDisable(true);
+
+        Label totalLabel = new Label();
+
+        HBox toolBar = new HBox(10, new Label("Buscar:"), buscarField, totalLabel);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+
+        VBox content = new VBox(10, toolBar, tabla);
+        content.setPadding(new Insets(20));
+        VBox.setVgrow(tabla, Priority.ALWAYS);
+
+        // Los documentos se decodifican del archivo fuera del hilo de JavaFX
+        AsyncLoader.cargar(primaryStage, coleccion, () -> {
+            List<Document> documentos = new ArrayList<>(SnapshotReferencia.documentos(coleccion));
+            documentos.sort(Comparator.comparing(d -> d.getString(orden), Comparator.nullsLast(String::compareTo)));
+            return new IndicePrefijos<>(documentos, d -> textos(d, columnas));
+        })
+                .conIndicador(tabla)
+                .alCompletar(indice -> {
+                    filas.setAll(indice.buscar("", LIMITE_FILAS));
+                    totalLabel.setText(indice.getElementos().size() + " registros");
+                    buscarField.setDisable(false);
+                    buscarField.textProperty().addListener((obs, anterior, texto) ->
+                            filas.setAll(indice.buscar(texto, LIMITE_FILAS)));
+                })
+                .alFallar(e -> totalLabel.setText("Error al leer el snapshot: " + e.getMessage()))
+                .iniciar();
+
+        return new Tab(titulo, content);
+    }
+
+    // Título y valor de una columna; el valor también alimenta la búsqueda
+    private static class Columna {
+        private final String titulo;
+        private final Function<Document, String> valor;
+
+        private Columna(String titulo, Function<Document, String> valor) {
+            this.titulo = titulo;
+            this.valor = valor;
+        }
+    }
+
+    private static Columna columna(String titulo, Function<Document, String> valor) {
+        return new Columna(titulo, valor);
+    }
+
+    // Se llama fuera del hilo de JavaFX: solo lee el Document
+    private static Collection<String> textos(Document doc, List<Columna> columnas) {
+        List<String> textos = new ArrayList<>();
+        for (Columna columna : columnas) {
+            String texto = columna.valor.apply(doc);
+            if (texto != null) {
+                textos.add(texto);
+            }
+        }
+        return textos;
+    }
+
+    private static int tamano(List<?> lista) {
+        return lista != null ? lista.size() : 0;
+    }
+
+    private void reintentarConexion() {
+        estadoLabel.setText("Verificando conexión...");
+        AsyncLoader.cargar(primaryStage, "reconexion", () -> DatabaseConfig.getInstance().reconectar())
+                .deshabilitando(btnReintentar)
+                .alCompletar(conectado -> {
+                    if (!conectado) {
+                        estadoLabel.setText("Sin conexión; último intento a las "
+                                + new SimpleDateFormat("HH:mm:ss").format(new Date()));
+                        return;
+                    }
+                    reintentos.stop();
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Conexión restablecida");
+                    alert.setHeaderText(null);
+                    alert.setContentText("La conexión con el servidor se restableció. Inicie sesión para continuar.");
+                    alert.showAndWait();
+                    alReconectar.run();
+                })
+                .alFallar(e -> estadoLabel.setText("Error al verificar la conexión: " + e.getMessage()))
+                .iniciar();
+    }
+}
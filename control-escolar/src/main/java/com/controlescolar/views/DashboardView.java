@@ -1,8 +1,10 @@
 //DashBoardView.java
 package com.controlescolar.views;
 
+import com.controlescolar.controllers.EstadisticasController;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -254,7 +256,7 @@ public class DashboardView extends Application {
 
         // Cards de estadísticas (solo para admin y profesores)
         if (usuarioActual.getRol() != Rol.ALUMNO) {
-            HBox statsBox = createStatsCards();
+            VBox statsBox = createStatsCards();
             welcomeBox.getChildren().addAll(welcomeTitle, userInfoBox, statsBox);
         } else {
             welcomeBox.getChildren().addAll(welcomeTitle, userInfoBox);
@@ -263,42 +265,56 @@ public class DashboardView extends Application {
         contentArea.getChildren().add(welcomeBox);
     }
 
-    private HBox createStatsCards() {
+    private VBox createStatsCards() {
         HBox statsBox = new HBox(20);
         statsBox.setAlignment(Pos.CENTER);
 
-        // Obtener estadísticas reales
-        try {
-            int totalAlumnos = com.controlescolar.controllers.AlumnoController.obtenerAlumnos().size();
-            int totalProfesores = com.controlescolar.controllers.ProfesorController.obtenerProfesores().size();
-            int totalMaterias = com.controlescolar.controllers.MateriaController.obtenerMaterias().size();
-            int totalGrupos = com.controlescolar.controllers.GrupoController.obtenerTodosLosGrupos().size();
-
-            // Card de alumnos
-            VBox alumnosCard = createStatCard("Alumnos", String.valueOf(totalAlumnos), "#3498db");
-
-            // Card de profesores
-            VBox profesoresCard = createStatCard("Profesores", String.valueOf(totalProfesores), "#2ecc71");
-
-            // Card de materias
-            VBox materiasCard = createStatCard("Materias", String.valueOf(totalMaterias), "#e74c3c");
-
-            // Card de grupos
-            VBox gruposCard = createStatCard("Grupos", String.valueOf(totalGrupos), "#f39c12");
-
-            statsBox.getChildren().addAll(alumnosCard, profesoresCard, materiasCard, gruposCard);
-        } catch (Exception e) {
-            // En caso de error, mostrar datos por defecto
-            VBox alumnosCard = createStatCard("Alumnos", "---", "#3498db");
-            VBox profesoresCard = createStatCard("Profesores", "---", "#2ecc71");
-            VBox materiasCard = createStatCard("Materias", "---", "#e74c3c");
-            VBox gruposCard = createStatCard("Grupos", "---", "#f39c12");
-
-            statsBox.getChildren().addAll(alumnosCard, profesoresCard, materiasCard, gruposCard);
-            System.err.println("Error al obtener estadísticas del dashboard: " + e.getMessage());
-        }
-
-        return statsBox;
+        VBox alumnosCard = createStatCard("Alumnos", "...", "#3498db");
+        VBox profesoresCard = createStatCard("Profesores", "...", "#2ecc71");
+        VBox materiasCard = createStatCard("Materias", "...", "#e74c3c");
+        VBox gruposCard = createStatCard("Grupos", "...", "#f39c12");
+        statsBox.getChildren().addAll(alumnosCard, profesoresCard, materiasCard, gruposCard);
+
+        // Indicadores de pagos y asistencia
+        HBox indicadoresBox = new HBox(20);
+        indicadoresBox.setAlignment(Pos.CENTER);
+
+        VBox pendientesCard = createStatCard("Pagos Pendientes", "...", "#9b59b6");
+        VBox asistenciaCard = createStatCard("Asistencia Hoy", "...", "#1abc9c");
+        VBox adeudoCard = createStatCard("Adeudo Vencido", "...", "#c0392b");
+        indicadoresBox.getChildren().addAll(pendientesCard, asistenciaCard, adeudoCard);
+
+        VBox[] cards = {alumnosCard, profesoresCard, materiasCard, gruposCard, pendientesCard, asistenciaCard, adeudoCard};
+
+        // Obtener estadísticas reales en segundo plano; si se vuelve a Inicio se cancela la carga anterior
+        AsyncLoader.cargar(primaryStage, "estadisticas", EstadisticasController::obtenerResumenDashboard)
+                .alCompletar(resumen -> {
+                    setValorCard(alumnosCard, String.valueOf(resumen.get("alumnos")));
+                    setValorCard(profesoresCard, String.valueOf(resumen.get("profesores")));
+                    setValorCard(materiasCard, String.valueOf(resumen.get("materias")));
+                    setValorCard(gruposCard, String.valueOf(resumen.get("grupos")));
+                    setValorCard(pendientesCard, String.valueOf(resumen.get("pagosPendientes")));
+
+                    Double asistenciaHoy = (Double) resumen.get("asistenciaHoy");
+                    setValorCard(asistenciaCard, asistenciaHoy != null ? String.format("%.1f%%", asistenciaHoy) : "Sin registro");
+                    setValorCard(adeudoCard, String.format("$%.2f", (Double) resumen.get("adeudoVencido")));
+                })
+                .alFallar(e -> {
+                    // En caso de error, mostrar datos por defecto
+                    for (VBox card : cards) {
+                        setValorCard(card, "---");
+                    }
+                    System.err.println("Error al obtener estadísticas del dashboard: " + e.getMessage());
+                })
+                .iniciar();
+
+        VBox contenedor = new VBox(20, statsBox, indicadoresBox);
+        contenedor.setAlignment(Pos.CENTER);
+        return contenedor;
+    }
+
+    private void setValorCard(VBox card, String valor) {
+        ((Label) card.getChildren().get(1)).setText(valor);
     }
 
     private VBox createStatCard(String titulo, String valor, String color) {
@@ -488,6 +504,7 @@ public class DashboardView extends Application {
     }
 
     private void mostrarMensajeDesarrollo(String modulo) {
+        AsyncLoader.cancelar(primaryStage, "estadisticas");
         contentArea.getChildren().clear();
 
         VBox messageBox = new VBox(20);
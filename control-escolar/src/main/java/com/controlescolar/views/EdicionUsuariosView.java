@@ -8,6 +8,9 @@ import com.controlescolar.models.Usuario;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Profesor;
 import com.controlescolar.enums.Rol;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -22,17 +25,18 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import java.util.List;
 import java.util.stream.Collectors;
 
 public class EdicionUsuariosView {
+    private static final int TAMANO_PAGINA = 200;
+
     private Stage primaryStage;
     private TabPane tabPane;
     private TableView<Usuario> usuariosTable;
     private TableView<Alumno> alumnosTable;
     private TableView<Profesor> profesoresTable;
     private ObservableList<Usuario> usuariosData;
-    private ObservableList<Alumno> alumnosData;
+    private TablaPaginada<Alumno> paginasAlumnos;
     private ObservableList<Profesor> profesoresData;
 
     public EdicionUsuariosView(Stage parentStage) {
@@ -274,8 +278,9 @@ public class EdicionUsuariosView {
 
         table.getColumns().addAll(matriculaCol, nombreCol, apellidosCol, emailCol, telefonoCol, activoCol);
 
-        alumnosData = FXCollections.observableArrayList();
-        table.setItems(alumnosData);
+        // Los alumnos pueden ser miles: se cargan por páginas al desplazarse
+        paginasAlumnos = new TablaPaginada<>(table, primaryStage, "alumnos", AlumnoController::obtenerAlumnosPagina)
+                .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()));
 
         return table;
     }
@@ -337,33 +342,23 @@ public class EdicionUsuariosView {
     }
 
     private void cargarPadres() {
-        try {
-            List<Usuario> padres = UsuarioController.obtenerUsuariosPorRol(Rol.PADRE_FAMILIA);
-            usuariosData.clear();
-            usuariosData.addAll(padres);
-        } catch (Exception e) {
-            mostrarError("Error al cargar padres de familia: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "padres", () -> UsuarioController.obtenerUsuariosPorRol(Rol.PADRE_FAMILIA))
+                .conIndicador(usuariosTable)
+                .alCompletar(usuariosData::setAll)
+                .alFallar(e -> mostrarError("Error al cargar padres de familia: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarAlumnos() {
-        try {
-            List<Alumno> alumnos = AlumnoController.obtenerAlumnos();
-            alumnosData.clear();
-            alumnosData.addAll(alumnos);
-        } catch (Exception e) {
-            mostrarError("Error al cargar alumnos: " + e.getMessage());
-        }
+        paginasAlumnos.iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA));
     }
 
     private void cargarProfesores() {
-        try {
-            List<Profesor> profesores = ProfesorController.obtenerProfesores();
-            profesoresData.clear();
-            profesoresData.addAll(profesores);
-        } catch (Exception e) {
-            mostrarError("Error al cargar profesores: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "profesores", ProfesorController::obtenerProfesores)
+                .conIndicador(profesoresTable)
+                .alCompletar(profesoresData::setAll)
+                .alFallar(e -> mostrarError("Error al cargar profesores: " + e.getMessage()))
+                .iniciar();
     }
 
     private void editarUsuarioSeleccionado() {
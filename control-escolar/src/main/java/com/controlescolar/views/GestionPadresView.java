@@ -6,6 +6,12 @@ import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.controllers.AuthController;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
+import com.controlescolar.models.PadreVinculaciones;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.ComboFiltrable;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
 import com.controlescolar.enums.Rol;
 
 import javafx.collections.FXCollections;
@@ -21,12 +27,18 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class GestionPadresView {
+    // Padres por página; cada uno puede ocupar varias filas (una por alumno)
+    private static final int TAMANO_PAGINA = 100;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     private Stage primaryStage;
     private TableView<VinculacionData> vinculacionesTable;
-    private ObservableList<VinculacionData> vinculacionesData;
+    private TablaPaginada<VinculacionData> paginacion;
 
     public GestionPadresView(Stage parentStage) {
         this.primaryStage = new Stage();
@@ -132,50 +144,46 @@ public class GestionPadresView {
 
         table.getColumns().addAll(padreCol, alumnoCol, parentescoCol, autorizadoCol, fechaCol);
 
-        vinculacionesData = FXCollections.observableArrayList();
-        table.setItems(vinculacionesData);
-
         return table;
     }
 
     private void cargarVinculaciones() {
-        vinculacionesData.clear();
-        try {
-            // Obtener todos los padres de familia
-            List<Usuario> padres = UsuarioController.obtenerUsuariosPorRol(Rol.PADRE_FAMILIA);
-            
-            for (Usuario padre : padres) {
-                List<Alumno> alumnosVinculados = PadreAlumnoController.obtenerAlumnosPorPadre(padre.getId());
-                
-                if (alumnosVinculados.isEmpty()) {
-                    // Mostrar padre sin alumnos vinculados
-                    vinculacionesData.add(new VinculacionData(
-                        padre.getId(),
-                        null,
-                        padre.getNombreCompleto(),
-                        "Sin alumnos vinculados",
-                        "",
-                        "No",
-                        ""
-                    ));
-                } else {
-                    // Mostrar vinculaciones
-                    for (Alumno alumno : alumnosVinculados) {
-                        vinculacionesData.add(new VinculacionData(
-                            padre.getId(),
-                            alumno.getId(),
-                            padre.getNombreCompleto(),
-                            alumno.getNombreCompleto(),
-                            "Padre/Madre", // Podrías obtener esto de la vinculación real
-                            "Sí",
-                            "Fecha actual" // Podrías obtener esto de la vinculación real
-                        ));
-                    }
-                }
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar vinculaciones: " + e.getMessage());
+        if (paginacion == null) {
+            paginacion = new TablaPaginada<>(vinculacionesTable, primaryStage, "vinculaciones",
+                    solicitud -> PadreAlumnoController.obtenerVinculacionesPagina(solicitud)
+                            .aplanar(this::filasDePadre))
+                    .alFallar(e -> mostrarError("Error al cargar vinculaciones: " + e.getMessage()));
         }
+        paginacion.iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA, "apellidos", false));
+    }
+
+    // Una fila por alumno vinculado, o una fila "Sin alumnos vinculados" si no tiene
+    private List<VinculacionData> filasDePadre(PadreVinculaciones padre) {
+        List<VinculacionData> filas = new ArrayList<>();
+        if (padre.getHijos().isEmpty()) {
+            filas.add(new VinculacionData(
+                padre.getPadreId(),
+                null,
+                padre.getNombreCompleto(),
+                "Sin alumnos vinculados",
+                "",
+                "No",
+                ""
+            ));
+            return filas;
+        }
+        for (PadreVinculaciones.Hijo hijo : padre.getHijos()) {
+            filas.add(new VinculacionData(
+                padre.getPadreId(),
+                hijo.getAlumnoId(),
+                padre.getNombreCompleto(),
+                hijo.getNombreCompleto(),
+                hijo.getParentesco() != null ? hijo.getParentesco() : "",
+                hijo.isAutorizado() ? "Sí" : "No",
+                hijo.getFechaVinculacion() != null ? hijo.getFechaVinculacion().format(FORMATO_FECHA) : ""
+            ));
+        }
+        return filas;
     }
 
     private void mostrarDialogoVincular() {
@@ -190,21 +198,21 @@ public class GestionPadresView {
 
         // ComboBox para padres
         ComboBox<Usuario> padresCombo = new ComboBox<>();
-        try {
-            List<Usuario> padres = UsuarioController.obtenerUsuariosPorRol(Rol.PADRE_FAMILIA);
-            padresCombo.setItems(FXCollections.observableArrayList(padres));
-        } catch (Exception e) {
-            mostrarError("Error al cargar padres: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "padresVinculacion", () -> UsuarioController.obtenerUsuariosPorRol(Rol.PADRE_FAMILIA))
+                .deshabilitando(padresCombo)
+                .alCompletar(padres -> padresCombo.setItems(FXCollections.observableArrayList(padres)))
+                .alFallar(e -> mostrarError("Error al cargar padres: " + e.getMessage()))
+                .iniciar();
 
         // ComboBox para alumnos
-        ComboBox<Alumno> alumnosCombo = new ComboBox<>();
-        try {
-            List<Alumno> alumnos = AlumnoController.obtenerAlumnos();
-            alumnosCombo.setItems(FXCollections.observableArrayList(alumnos));
-        } catch (Exception e) {
-            mostrarError("Error al cargar alumnos: " + e.getMessage());
-        }
+        ComboBox<AlumnoResumen> alumnosCombo = new ComboBox<>();
+        alumnosCombo.setPromptText("Escriba nombre o matrícula...");
+        AsyncLoader.cargar(primaryStage, "alumnosVinculacion",
+                        () -> AlumnoController.indexarResumen(AlumnoController.obtenerResumenAlumnos()))
+                .deshabilitando(alumnosCombo)
+                .alCompletar(indice -> ComboFiltrable.configurar(alumnosCombo, indice))
+                .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()))
+                .iniciar();
 
         // Campo de parentesco
         TextField parentescoField = new TextField();
@@ -225,7 +233,7 @@ public class GestionPadresView {
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == vincularButtonType) {
                 Usuario padreSeleccionado = padresCombo.getSelectionModel().getSelectedItem();
-                Alumno alumnoSeleccionado = alumnosCombo.getSelectionModel().getSelectedItem();
+                AlumnoResumen alumnoSeleccionado = alumnosCombo.getValue();
                 String parentesco = parentescoField.getText().trim();
 
                 if (padreSeleccionado == null || alumnoSeleccionado == null || parentesco.isEmpty()) {
@@ -4,6 +4,7 @@ import com.controlescolar.controllers.AuthController;
 import com.controlescolar.controllers.UsuarioController;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
+import com.controlescolar.utils.AsyncLoader;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -212,17 +213,17 @@ public class GestionUsuariosDirectorView {
     }
 
     private void cargarUsuarios() {
-        try {
-            // Cargar todos los usuarios excepto administradores
-            todosLosUsuarios = UsuarioController.obtenerUsuarios().stream()
-                .filter(usuario -> usuario.getRol() != Rol.ADMINISTRADOR)
-                .collect(Collectors.toList());
-            
-            aplicarFiltro(); // Aplicar filtros actuales
-            
-        } catch (Exception e) {
-            mostrarError("Error al cargar usuarios: " + e.getMessage());
-        }
+        // Cargar todos los usuarios excepto administradores
+        AsyncLoader.cargar(primaryStage, "usuarios", () -> UsuarioController.obtenerUsuarios().stream()
+                        .filter(usuario -> usuario.getRol() != Rol.ADMINISTRADOR)
+                        .collect(Collectors.toList()))
+                .conIndicador(usuariosTable)
+                .alCompletar(usuarios -> {
+                    todosLosUsuarios = usuarios;
+                    aplicarFiltro(); // Aplicar filtros actuales
+                })
+                .alFallar(e -> mostrarError("Error al cargar usuarios: " + e.getMessage()))
+                .iniciar();
     }
 
     private void aplicarFiltro() {
@@ -4,9 +4,10 @@ package com.controlescolar.views;
 import com.controlescolar.controllers.UsuarioController;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
 import javafx.application.Application;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -19,15 +20,20 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import org.bson.types.ObjectId;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class GestionUsuariosView extends Application {
     private Stage stage;
     private Usuario usuarioActual;
+    private static final int TAMANO_PAGINA = 200;
+
     private TableView<Usuario> tablaUsuarios;
-    private ObservableList<Usuario> listaUsuarios;
-    private List<Usuario> todosLosUsuarios; // Lista completa sin filtrar
+    private TablaPaginada<Usuario> paginas;
+    // Filtros vigentes; se toman de los controles en el hilo de JavaFX porque las páginas se cargan en otro hilo
+    private volatile String textoFiltro = "";
+    private volatile Rol rolFiltro;
+    private volatile Boolean activoFiltro;
     private TextField buscarField;
     private ComboBox<Rol> filtroRolCombo;
     private ComboBox<String> filtroEstadoCombo;
@@ -48,7 +54,6 @@ public class GestionUsuariosView extends Application {
 
     public GestionUsuariosView(Usuario usuario) {
         this.usuarioActual = usuario;
-        this.listaUsuarios = FXCollections.observableArrayList();
     }
 
     public void show() {
@@ -189,7 +194,6 @@ public class GestionUsuariosView extends Application {
         VBox container = new VBox(10);
         
         tablaUsuarios = new TableView<>();
-        tablaUsuarios.setItems(listaUsuarios);
         
         // Estilos para mejorar la visibilidad del texto
         tablaUsuarios.setStyle(
@@ -260,6 +264,11 @@ public class GestionUsuariosView extends Application {
         colFechaCreacion.setPrefWidth(120);
         
         tablaUsuarios.getColumns().addAll(colNombre, colEmail, colRol, colTelefono, colEstado, colFechaCreacion);
+
+        // Filtros en el servidor; la tabla pide páginas a medida que se desplaza
+        paginas = new TablaPaginada<>(tablaUsuarios, stage, "usuarios", solicitud ->
+                UsuarioController.obtenerUsuariosPagina(textoFiltro, rolFiltro, activoFiltro, solicitud))
+                .alFallar(e -> mostrarError("Error al cargar usuarios: " + e.getMessage()));
         
         // Listener para selección
         tablaUsuarios.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
@@ -322,62 +331,48 @@ public class GestionUsuariosView extends Application {
     }
 
     private void cargarUsuarios() {
-        try {
-            todosLosUsuarios = UsuarioController.obtenerUsuarios();
-            filtrarUsuarios(); // Aplicar filtros actuales
-        } catch (Exception e) {
-            mostrarError("Error al cargar usuarios: " + e.getMessage());
-        }
+        filtrarUsuarios();
     }
 
     private void filtrarUsuarios() {
-        if (todosLosUsuarios == null) {
+        if (paginas == null) {
             return;
         }
-        
-        String textoBusqueda = buscarField != null ? buscarField.getText().toLowerCase().trim() : "";
-        Rol rolSeleccionado = filtroRolCombo != null ? filtroRolCombo.getValue() : null;
-        String estadoSeleccionado = filtroEstadoCombo != null ? filtroEstadoCombo.getValue() : "Todos";
-        
-        List<Usuario> usuariosFiltrados = todosLosUsuarios.stream()
-            .filter(usuario -> {
-                // Filtro por texto (nombre, apellidos, email)
-                boolean coincideTexto = textoBusqueda.isEmpty() || 
-                    (usuario.getNombre() != null && usuario.getNombre().toLowerCase().contains(textoBusqueda)) ||
-                    (usuario.getApellidos() != null && usuario.getApellidos().toLowerCase().contains(textoBusqueda)) ||
-                    (usuario.getEmail() != null && usuario.getEmail().toLowerCase().contains(textoBusqueda));
-                
-                // Filtro por rol
-                boolean coincideRol = rolSeleccionado == null || usuario.getRol() == rolSeleccionado;
-                
-                // Filtro por estado
-                boolean coincideEstado = "Todos".equals(estadoSeleccionado) ||
-                    ("Activos".equals(estadoSeleccionado) && usuario.isActivo()) ||
-                    ("Inactivos".equals(estadoSeleccionado) && !usuario.isActivo());
-                
-                return coincideTexto && coincideRol && coincideEstado;
-            })
-            .collect(java.util.stream.Collectors.toList());
-        
-        listaUsuarios.clear();
-        listaUsuarios.addAll(usuariosFiltrados);
+        textoFiltro = buscarField != null ? buscarField.getText().trim() : "";
+        rolFiltro = filtroRolCombo != null ? filtroRolCombo.getValue() : null;
+        activoFiltro = activoSeleccionado();
+        paginas.iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA));
         actualizarEstadisticas();
     }
 
     private void actualizarEstadisticas() {
-        if (listaUsuarios == null || totalLabel == null) {
+        if (totalLabel == null) {
             return;
         }
-        
-        int total = listaUsuarios.size();
-        long activos = listaUsuarios.stream().filter(Usuario::isActivo).count();
-        long inactivos = total - activos;
-        long administradores = listaUsuarios.stream().filter(u -> u.getRol() == Rol.ADMINISTRADOR).count();
-        
+        String texto = textoFiltro;
+        Rol rol = rolFiltro;
+        Boolean activo = activoFiltro;
+        AsyncLoader.cargar(stage, "estadisticasUsuarios", () -> UsuarioController.obtenerEstadisticas(texto, rol, activo))
+                .alCompletar(this::mostrarEstadisticas)
+                .alFallar(e -> System.err.println("Error al contar usuarios: " + e.getMessage()))
+                .iniciar();
+    }
+
+    private void mostrarEstadisticas(Map<String, Long> estadisticas) {
+        long total = estadisticas.get("total");
+        long activos = estadisticas.get("activos");
+
         totalLabel.setText("Total: " + total);
         activosLabel.setText("Activos: " + activos);
-        inactivosLabel.setText("Inactivos: " + inactivos);
-        adminsLabel.setText("Administradores: " + administradores);
+        inactivosLabel.setText("Inactivos: " + (total - activos));
+        adminsLabel.setText("Administradores: " + estadisticas.get("administradores"));
+    }
+
+    private Boolean activoSeleccionado() {
+        String estadoSeleccionado = filtroEstadoCombo != null ? filtroEstadoCombo.getValue() : "Todos";
+        if ("Activos".equals(estadoSeleccionado)) return true;
+        if ("Inactivos".equals(estadoSeleccionado)) return false;
+        return null;
     }
 
     private void actualizarEstadoBotones() {
@@ -6,10 +6,12 @@ import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.controllers.MateriaController;
 import com.controlescolar.controllers.ProfesorController;
 import com.controlescolar.models.Grupo;
-import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Profesor;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.IndicePrefijos;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -26,11 +28,16 @@ import javafx.stage.Stage;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class GruposView extends Application {
 
+    // Casillas mostradas a la vez en la asignación de alumnos; el resto se alcanza filtrando
+    private static final int MAX_ALUMNOS_VISIBLES = 200;
+
     private Usuario usuarioActual;
     private Stage primaryStage;
 
@@ -268,13 +275,13 @@ public class GruposView extends Application {
     }
 
     private void cargarGrupos() {
-        try {
-            List<Grupo> grupos = GrupoController.obtenerTodosLosGrupos();
-            listaGrupos.clear();
-            listaGrupos.addAll(grupos);
-        } catch (Exception e) {
-            mostrarError("Error al cargar grupos: " + e.getMessage());
-        }
+        // Misma clave que el filtro: la última consulta es la que se muestra
+        AsyncLoader.cargar(primaryStage, "grupos", GrupoController::obtenerTodosLosGrupos)
+                .conIndicador(tablaGrupos)
+                .deshabilitando(btnRefrescar)
+                .alCompletar(listaGrupos::setAll)
+                .alFallar(e -> mostrarError("Error al cargar grupos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarGrupos(String filtro) {
@@ -283,13 +290,11 @@ public class GruposView extends Application {
             return;
         }
 
-        try {
-            List<Grupo> gruposFiltrados = GrupoController.buscarGrupos(filtro);
-            listaGrupos.clear();
-            listaGrupos.addAll(gruposFiltrados);
-        } catch (Exception e) {
-            mostrarError("Error al filtrar grupos: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "grupos", () -> GrupoController.buscarGrupos(filtro))
+                .conIndicador(tablaGrupos)
+                .alCompletar(listaGrupos::setAll)
+                .alFallar(e -> mostrarError("Error al filtrar grupos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarFormularioAgregar() {
@@ -425,13 +430,21 @@ public class GruposView extends Application {
     }
 
     private void cargarProfesores() {
-        try {
-            List<Profesor> profesores = ProfesorController.obtenerProfesores();
-            profesorTitularCombo.getItems().clear();
-            profesorTitularCombo.getItems().addAll(profesores);
-        } catch (Exception e) {
-            mostrarError("Error al cargar profesores: " + e.getMessage());
-        }
+        ComboBox<Profesor> combo = profesorTitularCombo;
+        AsyncLoader.cargar(primaryStage, "profesoresFormulario", ProfesorController::obtenerProfesores)
+                .deshabilitando(combo)
+                .alCompletar(profesores -> {
+                    // El formulario de edición ya pudo haber puesto el titular del grupo
+                    Profesor seleccionado = combo.getValue();
+                    combo.getItems().setAll(profesores);
+                    if (seleccionado != null) {
+                        combo.setValue(profesores.stream()
+                                .filter(p -> p.getId().equals(seleccionado.getId()))
+                                .findFirst().orElse(seleccionado));
+                    }
+                })
+                .alFallar(e -> mostrarError("Error al cargar profesores: " + e.getMessage()))
+                .iniciar();
     }
 
     private void llenarFormulario(Grupo grupo) {
@@ -489,36 +502,53 @@ public class GruposView extends Application {
         Grupo grupoSeleccionado = tablaGrupos.getSelectionModel().getSelectedItem();
         if (grupoSeleccionado == null) return;
 
+        // Cargar alumnos (solo id, matrícula y nombre) e indexarlos para el filtro
+        AsyncLoader.cargar(primaryStage, "asignacion",
+                        () -> AlumnoController.indexarResumen(AlumnoController.obtenerResumenAlumnos()))
+                .alCompletar(indice -> mostrarAsignacionAlumnos(grupoSeleccionado, indice))
+                .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()))
+                .iniciar();
+    }
+
+    private void mostrarAsignacionAlumnos(Grupo grupoSeleccionado, IndicePrefijos<AlumnoResumen> indice) {
         // Crear diálogo de asignación de alumnos
-        Dialog<List<Alumno>> dialog = new Dialog<>();
+        Dialog<List<ObjectId>> dialog = new Dialog<>();
         dialog.setTitle("Asignar Alumnos al Grupo: " + grupoSeleccionado.getNombre());
         dialog.setHeaderText("Seleccione los alumnos que pertenecerán a este grupo");
 
         ButtonType asignarButtonType = new ButtonType("Asignar", ButtonBar.ButtonData.OK_DONE);
         dialog.getDialogPane().getButtonTypes().addAll(asignarButtonType, ButtonType.CANCEL);
 
-        // Lista de alumnos disponibles con checkboxes
-        VBox alumnosContainer = new VBox(5);
-        List<CheckBox> checkBoxesAlumnos = new ArrayList<>();
-
-        // Cargar alumnos
-        List<Alumno> alumnos = AlumnoController.obtenerAlumnos();
-        for (Alumno alumno : alumnos) {
-            CheckBox checkBox = new CheckBox(alumno.getNombreCompleto() + " (" + alumno.getMatricula() + ")");
-            checkBox.setUserData(alumno);
-            checkBoxesAlumnos.add(checkBox);
-            alumnosContainer.getChildren().add(checkBox);
+        // La selección se guarda por id para que no se pierda al cambiar el filtro
+        Set<ObjectId> seleccionados = new LinkedHashSet<>();
+        if (grupoSeleccionado.getAlumnosIds() != null) {
+            seleccionados.addAll(grupoSeleccionado.getAlumnosIds());
         }
 
-        // Seleccionar alumnos ya asignados
-        if (grupoSeleccionado.getAlumnosIds() != null) {
-            for (ObjectId alumnoId : grupoSeleccionado.getAlumnosIds()) {
-                checkBoxesAlumnos.stream()
-                        .filter(cb -> ((Alumno) cb.getUserData()).getId().equals(alumnoId))
-                        .findFirst()
-                        .ifPresent(cb -> cb.setSelected(true));
+        TextField filtroField = new TextField();
+        filtroField.setPromptText("Buscar por nombre o matrícula...");
+        Label seleccionadosLabel = new Label();
+        VBox alumnosContainer = new VBox(5);
+
+        Runnable mostrarAlumnos = () -> {
+            alumnosContainer.getChildren().clear();
+            for (AlumnoResumen alumno : indice.buscar(filtroField.getText(), MAX_ALUMNOS_VISIBLES)) {
+                CheckBox checkBox = new CheckBox(alumno.getNombreCompleto() + " (" + alumno.getMatricula() + ")");
+                checkBox.setSelected(seleccionados.contains(alumno.getId()));
+                checkBox.selectedProperty().addListener((obs, anterior, marcado) -> {
+                    if (marcado) {
+                        seleccionados.add(alumno.getId());
+                    } else {
+                        seleccionados.remove(alumno.getId());
+                    }
+                    seleccionadosLabel.setText("Seleccionados: " + seleccionados.size());
+                });
+                alumnosContainer.getChildren().add(checkBox);
             }
-        }
+            seleccionadosLabel.setText("Seleccionados: " + seleccionados.size());
+        };
+        filtroField.textProperty().addListener((obs, anterior, texto) -> mostrarAlumnos.run());
+        mostrarAlumnos.run();
 
         ScrollPane scrollPane = new ScrollPane(alumnosContainer);
         scrollPane.setPrefSize(400, 300);
@@ -527,32 +557,23 @@ public class GruposView extends Application {
         VBox content = new VBox(10);
         content.getChildren().addAll(
                 new Label("Alumnos disponibles:"),
-                scrollPane
+                filtroField,
+                scrollPane,
+                seleccionadosLabel
         );
 
         dialog.getDialogPane().setContent(content);
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == asignarButtonType) {
-                List<Alumno> alumnosSeleccionados = new ArrayList<>();
-                for (CheckBox checkBox : checkBoxesAlumnos) {
-                    if (checkBox.isSelected()) {
-                        alumnosSeleccionados.add((Alumno) checkBox.getUserData());
-                    }
-                }
-                return alumnosSeleccionados;
+                return new ArrayList<>(seleccionados);
             }
             return null;
         });
 
-        Optional<List<Alumno>> resultado = dialog.showAndWait();
-        resultado.ifPresent(alumnosSeleccionados -> {
+        Optional<List<ObjectId>> resultado = dialog.showAndWait();
+        resultado.ifPresent(alumnosIds -> {
             try {
-                List<ObjectId> alumnosIds = new ArrayList<>();
-                for (Alumno alumno : alumnosSeleccionados) {
-                    alumnosIds.add(alumno.getId());
-                }
-                
                 boolean exito = GrupoController.asignarAlumnosAGrupo(grupoSeleccionado.getId(), alumnosIds);
                 if (exito) {
                     mostrarInfo("Alumnos asignados exitosamente al grupo");
@@ -570,6 +591,13 @@ public class GruposView extends Application {
         Grupo grupoSeleccionado = tablaGrupos.getSelectionModel().getSelectedItem();
         if (grupoSeleccionado == null) return;
 
+        AsyncLoader.cargar(primaryStage, "asignacion", MateriaController::obtenerMaterias)
+                .alCompletar(materias -> mostrarAsignacionMaterias(grupoSeleccionado, materias))
+                .alFallar(e -> mostrarError("Error al cargar materias: " + e.getMessage()))
+                .iniciar();
+    }
+
+    private void mostrarAsignacionMaterias(Grupo grupoSeleccionado, List<Materia> materias) {
         // Crear diálogo de asignación de materias
         Dialog<List<Materia>> dialog = new Dialog<>();
         dialog.setTitle("Asignar Materias al Grupo: " + grupoSeleccionado.getNombre());
@@ -582,8 +610,6 @@ public class GruposView extends Application {
         VBox materiasContainer = new VBox(5);
         List<CheckBox> checkBoxesMaterias = new ArrayList<>();
 
-        // Cargar materias
-        List<Materia> materias = MateriaController.obtenerMaterias();
         for (Materia materia : materias) {
             CheckBox checkBox = new CheckBox(materia.getNombre() + " (" + materia.getCodigo() + ")");
             checkBox.setUserData(materia);
@@ -1,10 +1,12 @@
 //LoginView.Java
 package com.controlescolar.views;
 
+import com.controlescolar.config.SecurityConfig;
 import com.controlescolar.controllers.AuthController;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.Rol;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -129,24 +131,34 @@ public class LoginView extends Application {
         loginButton.setDisable(true);
         loginButton.setText("Validando...");
 
-        try {
-            boolean loginExitoso = AuthController.login(usuario, password);
-            Usuario usuarioAutenticado = null;
-            if (loginExitoso) {
-                usuarioAutenticado = AuthController.getUsuarioActual();
-            }
+        // La verificación (consulta + BCrypt) corre en el pool de SecurityConfig
+        AuthController.loginAsync(usuario, password)
+                .thenAccept(resultado -> Platform.runLater(() -> {
+                    loginButton.setDisable(false);
+                    loginButton.setText("Ingresar");
+                    mostrarResultadoLogin(usuario, resultado);
+                }));
+    }
 
-            if (usuarioAutenticado != null) {
+    private void mostrarResultadoLogin(String usuario, AuthController.ResultadoLogin resultado) {
+        switch (resultado) {
+            case EXITOSO:
                 mostrarMensaje("Login exitoso", "success");
-                abrirDashboard(usuarioAutenticado);
-            } else {
+                abrirDashboard(AuthController.getUsuarioActual());
+                break;
+            case BLOQUEADO:
+                mostrarMensaje("Cuenta bloqueada por intentos fallidos. Intente en "
+                        + Math.max(1, SecurityConfig.getRemainingLockoutMinutes(usuario)) + " minutos", "error");
+                break;
+            case OCUPADO:
+                mostrarMensaje("El servidor está ocupado, intente de nuevo en unos segundos", "error");
+                break;
+            case ERROR:
+                mostrarMensaje("Error de conexión, intente de nuevo", "error");
+                break;
+            default:
                 mostrarMensaje("Usuario o contraseña incorrectos", "error");
-            }
-        } catch (Exception e) {
-            mostrarMensaje("Error de conexión: " + e.getMessage(), "error");
-        } finally {
-            loginButton.setDisable(false);
-            loginButton.setText("Ingresar");
+                break;
         }
     }
 
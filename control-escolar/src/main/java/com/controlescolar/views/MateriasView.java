@@ -6,6 +6,7 @@ import com.controlescolar.controllers.ProfesorController;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Profesor;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -21,7 +22,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
-import java.util.List;
 import java.util.Optional;
 
 public class MateriasView extends Application {
@@ -240,13 +240,13 @@ public class MateriasView extends Application {
     }
 
     private void cargarMaterias() {
-        try {
-            List<Materia> materias = MateriaController.obtenerMaterias();
-            listaMaterias.clear();
-            listaMaterias.addAll(materias);
-        } catch (Exception e) {
-            mostrarError("Error al cargar materias: " + e.getMessage());
-        }
+        // Misma clave que el filtro: la última consulta es la que se muestra
+        AsyncLoader.cargar(primaryStage, "materias", MateriaController::obtenerMaterias)
+                .conIndicador(tablaMaterias)
+                .deshabilitando(btnRefrescar)
+                .alCompletar(listaMaterias::setAll)
+                .alFallar(e -> mostrarError("Error al cargar materias: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarMaterias(String filtro) {
@@ -255,13 +255,11 @@ public class MateriasView extends Application {
             return;
         }
 
-        try {
-            List<Materia> materiasFiltradas = MateriaController.buscarMaterias(filtro);
-            listaMaterias.clear();
-            listaMaterias.addAll(materiasFiltradas);
-        } catch (Exception e) {
-            mostrarError("Error al filtrar materias: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "materias", () -> MateriaController.buscarMaterias(filtro))
+                .conIndicador(tablaMaterias)
+                .alCompletar(listaMaterias::setAll)
+                .alFallar(e -> mostrarError("Error al filtrar materias: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarFormularioAgregar() {
@@ -396,28 +394,32 @@ public class MateriasView extends Application {
     }
 
     private void cargarProfesores() {
-        try {
-            List<Profesor> profesores = ProfesorController.obtenerProfesores();
-            profesorCombo.getItems().clear();
-            profesorCombo.getItems().add(null); // Opción "Sin asignar"
-            profesorCombo.getItems().addAll(profesores);
-
-            // Configurar StringConverter para mostrar nombre completo
-            profesorCombo.setConverter(new StringConverter<Profesor>() {
-                @Override
-                public String toString(Profesor profesor) {
-                    return profesor == null ? "Sin asignar" :
-                            profesor.getNombre() + " " + profesor.getApellido();
-                }
+        profesorCombo.getItems().setAll((Profesor) null); // Opción "Sin asignar"
 
-                @Override
-                public Profesor fromString(String string) {
-                    return null; // No necesario para este caso
-                }
-            });
-        } catch (Exception e) {
-            mostrarError("Error al cargar profesores: " + e.getMessage());
-        }
+        // Configurar StringConverter para mostrar nombre completo
+        profesorCombo.setConverter(new StringConverter<Profesor>() {
+            @Override
+            public String toString(Profesor profesor) {
+                return profesor == null ? "Sin asignar" :
+                        profesor.getNombre() + " " + profesor.getApellido();
+            }
+
+            @Override
+            public Profesor fromString(String string) {
+                return null; // No necesario para este caso
+            }
+        });
+
+        AsyncLoader.cargar(primaryStage, "profesoresFormulario", ProfesorController::obtenerProfesores)
+                .deshabilitando(profesorCombo)
+                .alCompletar(profesores -> {
+                    // El formulario de edición ya pudo haber puesto el profesor de la materia
+                    Profesor seleccionado = profesorCombo.getValue();
+                    profesorCombo.getItems().addAll(profesores);
+                    profesorCombo.setValue(seleccionado);
+                })
+                .alFallar(e -> mostrarError("Error al cargar profesores: " + e.getMessage()))
+                .iniciar();
     }
 
     private void llenarFormulario(Materia materia) {
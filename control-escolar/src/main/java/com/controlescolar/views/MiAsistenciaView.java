@@ -2,12 +2,13 @@
 package com.controlescolar.views;
 
 import com.controlescolar.controllers.AsistenciaController;
-import com.controlescolar.controllers.AlumnoController;
+import com.controlescolar.controllers.AuthController;
 import com.controlescolar.controllers.MateriaController;
 import com.controlescolar.models.Asistencia;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -85,7 +86,6 @@ public class MiAsistenciaView extends Application {
         
         // Cargar datos
         cargarDatosAlumno();
-        cargarAsistencias();
     }
 
     private VBox createHeader() {
@@ -373,105 +373,107 @@ public class MiAsistenciaView extends Application {
     }
 
     private void cargarDatosAlumno() {
-        try {
-            // Buscar el alumno asociado al usuario actual
-            List<Alumno> todosAlumnos = AlumnoController.obtenerAlumnos();
-            alumnoActual = todosAlumnos.stream()
-                    .filter(alumno -> alumno.getEmail() != null && 
-                            alumno.getEmail().equals(usuarioActual.getEmail()))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (alumnoActual == null) {
-                mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
-                stage.close();
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar datos del alumno: " + e.getMessage());
-        }
+        // Buscar el alumno asociado al usuario actual
+        AsyncLoader.cargar(stage, "alumno", () -> AuthController.obtenerAlumnoDeUsuario(usuarioActual))
+                .conIndicador(tablaAsistencias)
+                .alCompletar(alumno -> {
+                    alumnoActual = alumno;
+                    if (alumnoActual == null) {
+                        mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
+                        stage.close();
+                    } else {
+                        cargarAsistencias();
+                    }
+                })
+                .alFallar(e -> mostrarError("Error al cargar datos del alumno: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarAsistencias() {
         if (alumnoActual == null) return;
-        
-        try {
-            // Cargar materias para el filtro primero
-            cargarMateriasParaFiltro();
-            
-            // Aplicar filtros (esto cargará las asistencias filtradas)
-            filtrarAsistencias();
-            
-        } catch (Exception e) {
-            mostrarError("Error al cargar asistencias: " + e.getMessage());
-        }
+
+        // Cargar materias para el filtro
+        cargarMateriasParaFiltro();
+
+        // Aplicar filtros (esto cargará las asistencias filtradas)
+        filtrarAsistencias();
     }
 
     private void cargarMateriasParaFiltro() {
-        try {
-            List<Materia> materias = MateriaController.obtenerMaterias();
-            filtroMateriaCombo.getItems().clear();
-            filtroMateriaCombo.getItems().add(null); // "Todas"
-            filtroMateriaCombo.getItems().addAll(materias);
-        } catch (Exception e) {
-            System.err.println("Error al cargar materias para filtro: " + e.getMessage());
-        }
+        AsyncLoader.cargar(stage, "materiasFiltro", MateriaController::obtenerMaterias)
+                .deshabilitando(filtroMateriaCombo)
+                .alCompletar(materias -> {
+                    // Conservar la materia elegida si sigue existiendo
+                    Materia elegida = filtroMateriaCombo.getValue();
+                    filtroMateriaCombo.getItems().setAll((Materia) null); // "Todas"
+                    filtroMateriaCombo.getItems().addAll(materias);
+                    if (elegida != null) {
+                        filtroMateriaCombo.setValue(materias.stream()
+                                .filter(m -> m.getId().equals(elegida.getId()))
+                                .findFirst().orElse(null));
+                    }
+                })
+                .alFallar(e -> System.err.println("Error al cargar materias para filtro: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarAsistencias() {
         if (alumnoActual == null) return;
-        
-        try {
-            // Obtener todas las asistencias del alumno
-            List<Asistencia> todasAsistencias = AsistenciaController.obtenerAsistenciasPorAlumno(alumnoActual.getId());
-            
-            // Aplicar filtros
-            List<Asistencia> asistenciasFiltradas = todasAsistencias.stream()
-                .filter(asistencia -> {
-                    // Filtro por materia
-                    Materia materiaFiltro = filtroMateriaCombo.getValue();
-                    if (materiaFiltro != null && !materiaFiltro.getId().equals(asistencia.getMateriaId())) {
-                        return false;
-                    }
-                    
-                    // Filtro por estado
-                    String estadoFiltro = filtroEstadoCombo.getValue();
-                    if (estadoFiltro != null && !"Todos".equals(estadoFiltro)) {
-                        String estadoAsistencia = asistencia.getEstadoString() != null ? 
-                            asistencia.getEstadoString() : 
-                            (asistencia.isPresente() ? "Presente" : "Ausente");
-                        if (!estadoFiltro.equals(estadoAsistencia)) {
-                            return false;
-                        }
-                    }
-                    
-                    // Filtro por fecha
-                    LocalDate fechaAsistencia = asistencia.getFecha();
-                    if (fechaAsistencia != null) {
-                        LocalDate desde = fechaDesde.getValue();
-                        LocalDate hasta = fechaHasta.getValue();
-                        
-                        if (desde != null && fechaAsistencia.isBefore(desde)) {
-                            return false;
-                        }
-                        if (hasta != null && fechaAsistencia.isAfter(hasta)) {
-                            return false;
-                        }
-                    }
-                    
-                    return true;
+
+        // Los filtros se leen aquí, en el hilo de JavaFX
+        ObjectId alumnoId = alumnoActual.getId();
+        Materia materiaFiltro = filtroMateriaCombo.getValue();
+        String estadoFiltro = filtroEstadoCombo.getValue();
+        LocalDate desde = fechaDesde.getValue();
+        LocalDate hasta = fechaHasta.getValue();
+
+        AsyncLoader.cargar(stage, "asistencias", () -> {
+                    // Obtener todas las asistencias del alumno
+                    List<Asistencia> todasAsistencias = AsistenciaController.obtenerAsistenciasPorAlumno(alumnoId);
+
+                    // Aplicar filtros
+                    return todasAsistencias.stream()
+                        .filter(asistencia -> {
+                            // Filtro por materia
+                            if (materiaFiltro != null && !materiaFiltro.getId().equals(asistencia.getMateriaId())) {
+                                return false;
+                            }
+
+                            // Filtro por estado
+                            if (estadoFiltro != null && !"Todos".equals(estadoFiltro)) {
+                                String estadoAsistencia = asistencia.getEstadoString() != null ?
+                                    asistencia.getEstadoString() :
+                                    (asistencia.isPresente() ? "Presente" : "Ausente");
+                                if (!estadoFiltro.equals(estadoAsistencia)) {
+                                    return false;
+                                }
+                            }
+
+                            // Filtro por fecha
+                            LocalDate fechaAsistencia = asistencia.getFecha();
+                            if (fechaAsistencia != null) {
+                                if (desde != null && fechaAsistencia.isBefore(desde)) {
+                                    return false;
+                                }
+                                if (hasta != null && fechaAsistencia.isAfter(hasta)) {
+                                    return false;
+                                }
+                            }
+
+                            return true;
+                        })
+                        .collect(Collectors.toList());
                 })
-                .collect(Collectors.toList());
-            
-            // Actualizar la tabla con los datos filtrados
-            listaAsistencias.clear();
-            listaAsistencias.addAll(asistenciasFiltradas);
-            
-            // Actualizar estadísticas con los datos filtrados
-            actualizarEstadisticas();
-            
-        } catch (Exception e) {
-            mostrarError("Error al filtrar asistencias: " + e.getMessage());
-        }
+                .conIndicador(tablaAsistencias)
+                .alCompletar(asistenciasFiltradas -> {
+                    // Actualizar la tabla con los datos filtrados
+                    listaAsistencias.setAll(asistenciasFiltradas);
+
+                    // Actualizar estadísticas con los datos filtrados
+                    actualizarEstadisticas();
+                })
+                .alFallar(e -> mostrarError("Error al filtrar asistencias: " + e.getMessage()))
+                .iniciar();
     }
 
     private void limpiarFiltros() {
@@ -2,13 +2,14 @@
 package com.controlescolar.views;
 
 import com.controlescolar.controllers.CalificacionController;
-import com.controlescolar.controllers.AlumnoController;
+import com.controlescolar.controllers.AuthController;
 import com.controlescolar.controllers.MateriaController;
 import com.controlescolar.models.Calificacion;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.TipoCalificacion;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -25,7 +26,6 @@ import javafx.stage.Stage;
 import org.bson.types.ObjectId;
 
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -84,7 +84,6 @@ public class MisCalificacionesView extends Application {
         
         // Cargar datos
         cargarDatosAlumno();
-        cargarCalificaciones();
     }
 
     private VBox createHeader() {
@@ -326,53 +325,50 @@ public class MisCalificacionesView extends Application {
     }
 
     private void cargarDatosAlumno() {
-        try {
-            // Buscar el alumno asociado al usuario actual
-            // Asumimos que el email del usuario es el mismo que el del alumno
-            List<Alumno> todosAlumnos = AlumnoController.obtenerAlumnos();
-            alumnoActual = todosAlumnos.stream()
-                    .filter(alumno -> alumno.getEmail() != null && 
-                            alumno.getEmail().equals(usuarioActual.getEmail()))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (alumnoActual == null) {
-                mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
-                stage.close();
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar datos del alumno: " + e.getMessage());
-        }
+        // Buscar el alumno asociado al usuario actual
+        // Asumimos que el email del usuario es el mismo que el del alumno
+        AsyncLoader.cargar(stage, "alumno", () -> AuthController.obtenerAlumnoDeUsuario(usuarioActual))
+                .conIndicador(tablaCalificaciones)
+                .alCompletar(alumno -> {
+                    alumnoActual = alumno;
+                    if (alumnoActual == null) {
+                        mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
+                        stage.close();
+                    } else {
+                        // Las materias del filtro no dependen de los filtros: se cargan una sola vez
+                        cargarMateriasParaFiltro();
+                        cargarCalificaciones();
+                    }
+                })
+                .alFallar(e -> mostrarError("Error al cargar datos del alumno: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarCalificaciones() {
         if (alumnoActual == null) return;
-        
-        try {
-            List<Calificacion> calificaciones = CalificacionController.obtenerCalificacionesPorAlumno(alumnoActual.getId());
-            listaCalificaciones.clear();
-            listaCalificaciones.addAll(calificaciones);
-            
-            // Cargar materias para el filtro
-            cargarMateriasParaFiltro();
-            
-            // Actualizar estadísticas
-            actualizarEstadisticas();
-            
-        } catch (Exception e) {
-            mostrarError("Error al cargar calificaciones: " + e.getMessage());
-        }
+
+        ObjectId alumnoId = alumnoActual.getId();
+        AsyncLoader.cargar(stage, "calificaciones", () -> CalificacionController.obtenerCalificacionesPorAlumno(alumnoId))
+                .conIndicador(tablaCalificaciones)
+                .alCompletar(calificaciones -> {
+                    listaCalificaciones.setAll(calificaciones);
+
+                    // Actualizar estadísticas
+                    actualizarEstadisticas();
+                })
+                .alFallar(e -> mostrarError("Error al cargar calificaciones: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarMateriasParaFiltro() {
-        try {
-            List<Materia> materias = MateriaController.obtenerMaterias();
-            filtroMateriaCombo.getItems().clear();
-            filtroMateriaCombo.getItems().add(null); // "Todas"
-            filtroMateriaCombo.getItems().addAll(materias);
-        } catch (Exception e) {
-            System.err.println("Error al cargar materias para filtro: " + e.getMessage());
-        }
+        AsyncLoader.cargar(stage, "materiasFiltro", MateriaController::obtenerMaterias)
+                .deshabilitando(filtroMateriaCombo)
+                .alCompletar(materias -> {
+                    filtroMateriaCombo.getItems().setAll((Materia) null); // "Todas"
+                    filtroMateriaCombo.getItems().addAll(materias);
+                })
+                .alFallar(e -> System.err.println("Error al cargar materias para filtro: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarCalificaciones() {
@@ -389,8 +385,8 @@ public class MisCalificacionesView extends Application {
             return;
         }
 
-        // Promedio general
-        double promedioGeneral = CalificacionController.calcularPromedioGeneralAlumno(alumnoActual.getId());
+        // Promedio general (con las calificaciones ya cargadas, sin volver a consultarlas)
+        double promedioGeneral = CalificacionController.calcularPromedioGeneral(listaCalificaciones);
         promedioGeneralLabel.setText(String.format("%.2f", promedioGeneral));
         
         // Total de calificaciones
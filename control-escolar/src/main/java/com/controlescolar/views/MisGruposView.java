@@ -9,6 +9,7 @@ import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Materia;
 import com.controlescolar.models.Profesor;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -23,7 +24,9 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import org.bson.types.ObjectId;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class MisGruposView extends Application {
 
@@ -209,18 +212,12 @@ public class MisGruposView extends Application {
     }
 
     private void cargarMisGrupos() {
-        try {
-            if (usuarioActual != null && usuarioActual.getEmail() != null) {
-                Profesor profesor = ProfesorController.obtenerProfesorPorEmail(usuarioActual.getEmail());
-                if (profesor != null) {
-                    List<Grupo> grupos = GrupoController.obtenerGruposPorProfesor(profesor.getId());
-                    listaGrupos.clear();
-                    listaGrupos.addAll(grupos);
-                }
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar mis grupos: " + e.getMessage());
-        }
+        // Misma clave que el filtro: la última consulta es la que se muestra
+        AsyncLoader.cargar(primaryStage, "grupos", this::consultarMisGrupos)
+                .conIndicador(tablaGrupos)
+                .alCompletar(listaGrupos::setAll)
+                .alFallar(e -> mostrarError("Error al cargar mis grupos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarGrupos(String filtro) {
@@ -229,27 +226,28 @@ public class MisGruposView extends Application {
             return;
         }
 
-        try {
-            if (usuarioActual != null && usuarioActual.getEmail() != null) {
-                Profesor profesor = ProfesorController.obtenerProfesorPorEmail(usuarioActual.getEmail());
-                if (profesor != null) {
-                    List<Grupo> todosLosGrupos = GrupoController.obtenerGruposPorProfesor(profesor.getId());
-                    listaGrupos.clear();
-                    
-                    String filtroLower = filtro.toLowerCase();
-                    todosLosGrupos.stream()
-                        .filter(grupo -> 
+        String filtroLower = filtro.toLowerCase();
+        AsyncLoader.cargar(primaryStage, "grupos", () -> consultarMisGrupos().stream()
+                        .filter(grupo ->
                             (grupo.getCodigo() != null && grupo.getCodigo().toLowerCase().contains(filtroLower)) ||
                             (grupo.getNombre() != null && grupo.getNombre().toLowerCase().contains(filtroLower)) ||
                             (grupo.getGrado() != null && grupo.getGrado().toLowerCase().contains(filtroLower)) ||
                             (grupo.getSeccion() != null && grupo.getSeccion().toLowerCase().contains(filtroLower))
                         )
-                        .forEach(listaGrupos::add);
-                }
-            }
-        } catch (Exception e) {
-            mostrarError("Error al filtrar grupos: " + e.getMessage());
+                        .collect(Collectors.toList()))
+                .conIndicador(tablaGrupos)
+                .alCompletar(listaGrupos::setAll)
+                .alFallar(e -> mostrarError("Error al filtrar grupos: " + e.getMessage()))
+                .iniciar();
+    }
+
+    // Se ejecuta fuera del hilo de JavaFX
+    private List<Grupo> consultarMisGrupos() {
+        if (usuarioActual == null || usuarioActual.getEmail() == null) {
+            return Collections.emptyList();
         }
+        Profesor profesor = ProfesorController.obtenerProfesorPorEmail(usuarioActual.getEmail());
+        return profesor != null ? GrupoController.obtenerGruposPorProfesor(profesor.getId()) : Collections.emptyList();
     }
 
     private void mostrarAlumnosDelGrupo() {
@@ -267,13 +265,17 @@ public class MisGruposView extends Application {
 
         if (grupoSeleccionado.getAlumnosIds() != null && !grupoSeleccionado.getAlumnosIds().isEmpty()) {
             ListView<String> listaAlumnos = new ListView<>();
-            
-            for (ObjectId alumnoId : grupoSeleccionado.getAlumnosIds()) {
-                Alumno alumno = AlumnoController.obtenerAlumnoPorId(alumnoId);
-                if (alumno != null) {
-                    listaAlumnos.getItems().add(alumno.getNombreCompleto() + " - " + alumno.getMatricula());
-                }
-            }
+            listaAlumnos.setPlaceholder(new Label("Cargando..."));
+
+            AsyncLoader.cargar(primaryStage, "detalleGrupo", () -> AlumnoController.obtenerAlumnosPorIds(grupoSeleccionado.getAlumnosIds()))
+                    .alCompletar(alumnos -> {
+                        for (Alumno alumno : alumnos) {
+                            listaAlumnos.getItems().add(alumno.getNombreCompleto() + " - " + alumno.getMatricula());
+                        }
+                        listaAlumnos.setPlaceholder(null);
+                    })
+                    .alFallar(e -> mostrarError("Error al cargar alumnos del grupo: " + e.getMessage()))
+                    .iniciar();
             
             listaAlumnos.setPrefHeight(300);
             content.getChildren().addAll(
@@ -305,13 +307,17 @@ public class MisGruposView extends Application {
 
         if (grupoSeleccionado.getMateriasIds() != null && !grupoSeleccionado.getMateriasIds().isEmpty()) {
             ListView<String> listaMaterias = new ListView<>();
-            
-            for (ObjectId materiaId : grupoSeleccionado.getMateriasIds()) {
-                Materia materia = MateriaController.obtenerMateriaPorId(materiaId);
-                if (materia != null) {
-                    listaMaterias.getItems().add(materia.getNombre() + " - " + materia.getCodigo());
-                }
-            }
+            listaMaterias.setPlaceholder(new Label("Cargando..."));
+
+            AsyncLoader.cargar(primaryStage, "detalleGrupo", () -> MateriaController.obtenerMateriasPorIds(grupoSeleccionado.getMateriasIds()))
+                    .alCompletar(materias -> {
+                        for (Materia materia : materias) {
+                            listaMaterias.getItems().add(materia.getNombre() + " - " + materia.getCodigo());
+                        }
+                        listaMaterias.setPlaceholder(null);
+                    })
+                    .alFallar(e -> mostrarError("Error al cargar materias del grupo: " + e.getMessage()))
+                    .iniciar();
             
             listaMaterias.setPrefHeight(300);
             content.getChildren().addAll(
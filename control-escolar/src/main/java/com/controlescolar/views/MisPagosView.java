@@ -2,12 +2,13 @@
 package com.controlescolar.views;
 
 import com.controlescolar.controllers.PagoController;
-import com.controlescolar.controllers.AlumnoController;
+import com.controlescolar.controllers.AuthController;
 import com.controlescolar.models.Pago;
 import com.controlescolar.models.Alumno;
 import com.controlescolar.models.Usuario;
 import com.controlescolar.enums.EstadoPago;
 import com.controlescolar.enums.TipoPago;
+import com.controlescolar.utils.AsyncLoader;
 import com.controlescolar.utils.PDFGenerator;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
@@ -87,9 +88,8 @@ public class MisPagosView extends Application {
         stage.setScene(scene);
         stage.show();
         
-        // Cargar datos
+        // Cargar datos (los pagos se cargan al encontrar el alumno)
         cargarDatosAlumno();
-        cargarPagos();
     }
 
     private VBox createHeader() {
@@ -459,22 +459,20 @@ public class MisPagosView extends Application {
     }
 
     private void cargarDatosAlumno() {
-        try {
-            // Buscar el alumno asociado al usuario actual
-            List<Alumno> todosAlumnos = AlumnoController.obtenerAlumnos();
-            alumnoActual = todosAlumnos.stream()
-                    .filter(alumno -> alumno.getEmail() != null && 
-                            alumno.getEmail().equals(usuarioActual.getEmail()))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (alumnoActual == null) {
-                mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
-                stage.close();
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar datos del alumno: " + e.getMessage());
-        }
+        // Buscar el alumno asociado al usuario actual
+        AsyncLoader.cargar(stage, "alumno", () -> AuthController.obtenerAlumnoDeUsuario(usuarioActual))
+                .conIndicador(tablaPagos)
+                .alCompletar(alumno -> {
+                    alumnoActual = alumno;
+                    if (alumnoActual == null) {
+                        mostrarError("No se pudo encontrar el registro de alumno asociado a este usuario.");
+                        stage.close();
+                    } else {
+                        cargarPagos();
+                    }
+                })
+                .alFallar(e -> mostrarError("Error al cargar datos del alumno: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarPagos() {
@@ -491,54 +489,56 @@ public class MisPagosView extends Application {
 
     private void filtrarPagos() {
         if (alumnoActual == null) return;
-        
-        try {
-            // Obtener todos los pagos del alumno
-            List<Pago> todosPagos = PagoController.obtenerPagosPorAlumno(alumnoActual.getId());
-            
-            // Aplicar filtros
-            List<Pago> pagosFiltrados = todosPagos.stream()
-                .filter(pago -> {
-                    // Filtro por tipo
-                    TipoPago tipoFiltro = filtroTipoCombo.getValue();
-                    if (tipoFiltro != null && !tipoFiltro.equals(pago.getTipo())) {
-                        return false;
-                    }
-                    
-                    // Filtro por estado
-                    EstadoPago estadoFiltro = filtroEstadoCombo.getValue();
-                    if (estadoFiltro != null && !estadoFiltro.equals(pago.getEstado())) {
-                        return false;
-                    }
-                    
-                    // Filtro por fecha
-                    LocalDate fechaPago = pago.getFechaPago();
-                    if (fechaPago != null) {
-                        LocalDate desde = fechaDesde.getValue();
-                        LocalDate hasta = fechaHasta.getValue();
-                        
-                        if (desde != null && fechaPago.isBefore(desde)) {
-                            return false;
-                        }
-                        if (hasta != null && fechaPago.isAfter(hasta)) {
-                            return false;
-                        }
-                    }
-                    
-                    return true;
+
+        // Leer los filtros en el hilo de JavaFX antes de pasar a segundo plano
+        ObjectId alumnoId = alumnoActual.getId();
+        TipoPago tipoFiltro = filtroTipoCombo.getValue();
+        EstadoPago estadoFiltro = filtroEstadoCombo.getValue();
+        LocalDate desde = fechaDesde.getValue();
+        LocalDate hasta = fechaHasta.getValue();
+
+        AsyncLoader.cargar(stage, "pagos", () -> {
+                    // Obtener todos los pagos del alumno
+                    List<Pago> todosPagos = PagoController.obtenerPagosPorAlumno(alumnoId);
+
+                    // Aplicar filtros
+                    return todosPagos.stream()
+                        .filter(pago -> {
+                            // Filtro por tipo
+                            if (tipoFiltro != null && !tipoFiltro.equals(pago.getTipo())) {
+                                return false;
+                            }
+
+                            // Filtro por estado
+                            if (estadoFiltro != null && !estadoFiltro.equals(pago.getEstado())) {
+                                return false;
+                            }
+
+                            // Filtro por fecha
+                            LocalDate fechaPago = pago.getFechaPago();
+                            if (fechaPago != null) {
+                                if (desde != null && fechaPago.isBefore(desde)) {
+                                    return false;
+                                }
+                                if (hasta != null && fechaPago.isAfter(hasta)) {
+                                    return false;
+                                }
+                            }
+
+                            return true;
+                        })
+                        .collect(Collectors.toList());
                 })
-                .collect(Collectors.toList());
-            
-            // Actualizar la tabla con los datos filtrados
-            listaPagos.clear();
-            listaPagos.addAll(pagosFiltrados);
-            
-            // Actualizar estadísticas con los datos filtrados
-            actualizarEstadisticas();
-            
-        } catch (Exception e) {
-            mostrarError("Error al filtrar pagos: " + e.getMessage());
-        }
+                .conIndicador(tablaPagos)
+                .alCompletar(pagosFiltrados -> {
+                    // Actualizar la tabla con los datos filtrados
+                    listaPagos.setAll(pagosFiltrados);
+
+                    // Actualizar estadísticas con los datos filtrados
+                    actualizarEstadisticas();
+                })
+                .alFallar(e -> mostrarError("Error al filtrar pagos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void limpiarFiltros() {
@@ -647,29 +647,21 @@ public class MisPagosView extends Application {
                 confirmacion.showAndWait().ifPresent(response -> {
                     if (response == btnAbrir) {
                         // Ejecutar la apertura del archivo en un hilo separado para evitar bloqueo de la UI
-                        javafx.concurrent.Task<Void> abrirArchivoTask = new javafx.concurrent.Task<Void>() {
-                            @Override
-                            protected Void call() throws Exception {
-                                try {
-                                    if (Desktop.isDesktopSupported()) {
-                                        Desktop.getDesktop().open(archivoRecibo);
-                                    } else {
-                                        javafx.application.Platform.runLater(() -> 
-                                            mostrarError("No se puede abrir el archivo automáticamente. \\nUbicación: " + archivoRecibo.getAbsolutePath())
-                                        );
-                                    }
-                                } catch (IOException e) {
-                                    javafx.application.Platform.runLater(() -> 
-                                        mostrarError("Error al abrir el archivo: " + e.getMessage())
+                        AsyncLoader.ejecutar(() -> {
+                            try {
+                                if (Desktop.isDesktopSupported()) {
+                                    Desktop.getDesktop().open(archivoRecibo);
+                                } else {
+                                    javafx.application.Platform.runLater(() ->
+                                        mostrarError("No se puede abrir el archivo automáticamente. \\nUbicación: " + archivoRecibo.getAbsolutePath())
                                     );
                                 }
-                                return null;
+                            } catch (IOException e) {
+                                javafx.application.Platform.runLater(() ->
+                                    mostrarError("Error al abrir el archivo: " + e.getMessage())
+                                );
                             }
-                        };
-                        
-                        Thread thread = new Thread(abrirArchivoTask);
-                        thread.setDaemon(true);
-                        thread.start();
+                        });
                     }
                 });
             } else {
@@ -697,113 +689,90 @@ public class MisPagosView extends Application {
             
             File archivoEstado = new File(estadoDir, nombreArchivo);
             
-            // Obtener todos los pagos del alumno (sin filtros)
-            List<Pago> todosPagos = PagoController.obtenerPagosPorAlumno(alumnoActual.getId());
+            ObjectId alumnoId = alumnoActual.getId();
             
             // Mostrar indicador de progreso
             Alert progreso = new Alert(Alert.AlertType.INFORMATION);
+            progreso.initOwner(stage);
             progreso.setTitle("Generando Estado de Cuenta");
             progreso.setHeaderText("Por favor espere...");
             progreso.setContentText("Generando el estado de cuenta en PDF");
             progreso.getDialogPane().lookupButton(ButtonType.OK).setVisible(false);
             progreso.show();
             
-            // Generar el PDF en un hilo separado
-            javafx.concurrent.Task<Boolean> generarTask = new javafx.concurrent.Task<Boolean>() {
-                @Override
-                protected Boolean call() throws Exception {
-                    return generarEstadoCuentaPDF(todosPagos, archivoEstado);
-                }
-            };
-            
-            generarTask.setOnSucceeded(e -> {
-                progreso.close();
-                if (generarTask.getValue()) {
-                // Mostrar diálogo de confirmación
-                Alert confirmacion = new Alert(Alert.AlertType.INFORMATION);
-                confirmacion.setTitle("Estado de Cuenta Generado");
-                confirmacion.setHeaderText("✅ Estado de cuenta generado exitosamente");
-                confirmacion.setContentText("Archivo: " + nombreArchivo + "\\nUbicación: " + archivoEstado.getAbsolutePath() + "\\n\\n¿Desea abrir el archivo?");
-                
-                ButtonType btnAbrir = new ButtonType("Abrir Archivo");
-                ButtonType btnMostrarCarpeta = new ButtonType("Mostrar Carpeta");
-                ButtonType btnCerrar = new ButtonType("Cerrar");
-                confirmacion.getButtonTypes().setAll(btnAbrir, btnMostrarCarpeta, btnCerrar);
-                
-                confirmacion.showAndWait().ifPresent(response -> {
-                    if (response == btnAbrir) {
-                        // Ejecutar la apertura del archivo en un hilo separado para evitar bloqueo de la UI
-                        javafx.concurrent.Task<Void> abrirArchivoTask = new javafx.concurrent.Task<Void>() {
-                            @Override
-                            protected Void call() throws Exception {
-                                try {
-                                    if (Desktop.isDesktopSupported()) {
-                                        Desktop.getDesktop().open(archivoEstado);
-                                    } else {
-                                        javafx.application.Platform.runLater(() -> 
-                                            mostrarError("No se puede abrir el archivo automáticamente. \\nUbicación: " + archivoEstado.getAbsolutePath())
-                                        );
-                                    }
-                                } catch (IOException e) {
-                                    javafx.application.Platform.runLater(() -> 
-                                        mostrarError("Error al abrir el archivo: " + e.getMessage())
-                                    );
-                                }
-                                return null;
-                            }
-                        };
-                        
-                        Thread thread = new Thread(abrirArchivoTask);
-                        thread.setDaemon(true);
-                        thread.start();
-                    } else if (response == btnMostrarCarpeta) {
-                        // Abrir la carpeta contenedora
-                        javafx.concurrent.Task<Void> abrirCarpetaTask = new javafx.concurrent.Task<Void>() {
-                            @Override
-                            protected Void call() throws Exception {
-                                try {
-                                    if (Desktop.isDesktopSupported()) {
-                                        Desktop.getDesktop().open(archivoEstado.getParentFile());
-                                    } else {
-                                        javafx.application.Platform.runLater(() -> 
-                                            mostrarError("No se puede abrir la carpeta automáticamente. \\nUbicación: " + archivoEstado.getParent())
-                                        );
-                                    }
-                                } catch (IOException e) {
-                                    javafx.application.Platform.runLater(() -> 
-                                        mostrarError("Error al abrir la carpeta: " + e.getMessage())
-                                    );
-                                }
-                                return null;
-                            }
-                        };
-                        
-                        Thread carpetaThread = new Thread(abrirCarpetaTask);
-                        carpetaThread.setDaemon(true);
-                        carpetaThread.start();
+            // Obtener todos los pagos del alumno (sin filtros) y generar el PDF en segundo plano
+            AsyncLoader.cargar(stage, "estadoCuenta", () ->
+                    generarEstadoCuentaPDF(PagoController.obtenerPagosPorAlumno(alumnoId), archivoEstado))
+                .alCompletar(generado -> {
+                    progreso.close();
+                    if (generado) {
+                        mostrarEstadoCuentaGenerado(nombreArchivo, archivoEstado);
+                    } else {
+                        mostrarError("Error al generar el estado de cuenta. Intente nuevamente.");
                     }
-                });
-                } else {
-                    mostrarError("Error al generar el estado de cuenta. Intente nuevamente.");
-                }
-            });
-            
-            generarTask.setOnFailed(e -> {
-                progreso.close();
-                Throwable exception = generarTask.getException();
-                mostrarError("Error inesperado al generar estado de cuenta: " + 
-                           (exception != null ? exception.getMessage() : "Error desconocido"));
-            });
-            
-            Thread thread = new Thread(generarTask);
-            thread.setDaemon(true);
-            thread.start();
+                })
+                .alFallar(exception -> {
+                    progreso.close();
+                    mostrarError("Error inesperado al generar estado de cuenta: " + exception.getMessage());
+                })
+                .iniciar();
             
         } catch (Exception e) {
             mostrarError("Error inesperado al generar estado de cuenta: " + e.getMessage());
         }
     }
 
+    private void mostrarEstadoCuentaGenerado(String nombreArchivo, File archivoEstado) {
+        // Mostrar diálogo de confirmación
+        Alert confirmacion = new Alert(Alert.AlertType.INFORMATION);
+        confirmacion.setTitle("Estado de Cuenta Generado");
+        confirmacion.setHeaderText("✅ Estado de cuenta generado exitosamente");
+        confirmacion.setContentText("Archivo: " + nombreArchivo + "\\nUbicación: " + archivoEstado.getAbsolutePath() + "\\n\\n¿Desea abrir el archivo?");
+        
+        ButtonType btnAbrir = new ButtonType("Abrir Archivo");
+        ButtonType btnMostrarCarpeta = new ButtonType("Mostrar Carpeta");
+        ButtonType btnCerrar = new ButtonType("Cerrar");
+        confirmacion.getButtonTypes().setAll(btnAbrir, btnMostrarCarpeta, btnCerrar);
+        
+        confirmacion.showAndWait().ifPresent(response -> {
+            if (response == btnAbrir) {
+                // Ejecutar la apertura del archivo en un hilo separado para evitar bloqueo de la UI
+                AsyncLoader.ejecutar(() -> {
+                    try {
+                        if (Desktop.isDesktopSupported()) {
+                            Desktop.getDesktop().open(archivoEstado);
+                        } else {
+                            javafx.application.Platform.runLater(() ->
+                                mostrarError("No se puede abrir el archivo automáticamente. \\nUbicación: " + archivoEstado.getAbsolutePath())
+                            );
+                        }
+                    } catch (IOException e) {
+                        javafx.application.Platform.runLater(() ->
+                            mostrarError("Error al abrir el archivo: " + e.getMessage())
+                        );
+                    }
+                });
+            } else if (response == btnMostrarCarpeta) {
+                // Abrir la carpeta contenedora
+                AsyncLoader.ejecutar(() -> {
+                    try {
+                        if (Desktop.isDesktopSupported()) {
+                            Desktop.getDesktop().open(archivoEstado.getParentFile());
+                        } else {
+                            javafx.application.Platform.runLater(() ->
+                                mostrarError("No se puede abrir la carpeta automáticamente. \\nUbicación: " + archivoEstado.getParent())
+                            );
+                        }
+                    } catch (IOException e) {
+                        javafx.application.Platform.runLater(() ->
+                            mostrarError("Error al abrir la carpeta: " + e.getMessage())
+                        );
+                    }
+                });
+            }
+        });
+    }
+
     private void mostrarError(String mensaje) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
@@ -10,6 +10,7 @@ import com.controlescolar.models.Calificacion;
 import com.controlescolar.models.Asistencia;
 import com.controlescolar.models.Pago;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
 
 import javafx.application.Application;
 import javafx.geometry.Insets;
@@ -228,19 +229,19 @@ public class PadresDashboardView extends Application {
     }
 
     private void cargarAlumnos() {
-        try {
-            List<Alumno> alumnos = PadreAlumnoController.obtenerAlumnosPorPadre(usuarioActual.getId());
-            
-            ObservableList<Alumno> alumnosObservable = FXCollections.observableArrayList(alumnos);
-            alumnosComboBox.setItems(alumnosObservable);
-            
-            if (!alumnos.isEmpty()) {
-                alumnosComboBox.getSelectionModel().selectFirst();
-                actualizarDatos();
-            }
-        } catch (Exception e) {
-            mostrarError("Error al cargar alumnos: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "alumnos", () -> PadreAlumnoController.obtenerAlumnosPorPadre(usuarioActual.getId()))
+                .deshabilitando(alumnosComboBox)
+                .alCompletar(alumnos -> {
+                    ObservableList<Alumno> alumnosObservable = FXCollections.observableArrayList(alumnos);
+                    alumnosComboBox.setItems(alumnosObservable);
+
+                    if (!alumnos.isEmpty()) {
+                        alumnosComboBox.getSelectionModel().selectFirst();
+                        actualizarDatos();
+                    }
+                })
+                .alFallar(e -> mostrarError("Error al cargar alumnos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void actualizarDatos() {
@@ -252,65 +253,69 @@ public class PadresDashboardView extends Application {
         cargarPagos(alumnoSeleccionado.getId());
     }
 
+    // Cada pestaña tiene su clave: al cambiar de alumno se descarta la carga del anterior
     private void cargarCalificaciones(org.bson.types.ObjectId alumnoId) {
-        try {
-            List<Calificacion> calificaciones = CalificacionController.obtenerCalificacionesPorAlumno(alumnoId);
-            ObservableList<CalificacionData> data = FXCollections.observableArrayList();
-            
-            for (Calificacion cal : calificaciones) {
-                data.add(new CalificacionData(
-                    cal.getMateria() != null ? cal.getMateria().getNombre() : "N/A",
-                    cal.getPeriodo(),
-                    cal.getCalificacion(),
-                    cal.getFecha().toString()
-                ));
-            }
-            
-            calificacionesTable.setItems(data);
-        } catch (Exception e) {
-            mostrarError("Error al cargar calificaciones: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "calificaciones", () -> {
+                    List<Calificacion> calificaciones = CalificacionController.obtenerCalificacionesPorAlumno(alumnoId);
+                    ObservableList<CalificacionData> data = FXCollections.observableArrayList();
+
+                    for (Calificacion cal : calificaciones) {
+                        data.add(new CalificacionData(
+                            cal.getMateria() != null ? cal.getMateria().getNombre() : "N/A",
+                            cal.getPeriodo(),
+                            cal.getCalificacion(),
+                            cal.getFecha().toString()
+                        ));
+                    }
+                    return data;
+                })
+                .conIndicador(calificacionesTable)
+                .alCompletar(calificacionesTable::setItems)
+                .alFallar(e -> mostrarError("Error al cargar calificaciones: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarAsistencia(org.bson.types.ObjectId alumnoId) {
-        try {
-            List<Asistencia> asistencias = AsistenciaController.obtenerAsistenciasPorAlumno(alumnoId);
-            ObservableList<AsistenciaData> data = FXCollections.observableArrayList();
-            
-            for (Asistencia ast : asistencias) {
-                data.add(new AsistenciaData(
-                    ast.getFecha().toString(),
-                    ast.getMateria() != null ? ast.getMateria().getNombre() : "N/A",
-                    ast.getEstado().getDescripcion(),
-                    ast.getObservaciones()
-                ));
-            }
-            
-            asistenciaTable.setItems(data);
-        } catch (Exception e) {
-            mostrarError("Error al cargar asistencia: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "asistencia", () -> {
+                    List<Asistencia> asistencias = AsistenciaController.obtenerAsistenciasPorAlumno(alumnoId);
+                    ObservableList<AsistenciaData> data = FXCollections.observableArrayList();
+
+                    for (Asistencia ast : asistencias) {
+                        data.add(new AsistenciaData(
+                            ast.getFecha().toString(),
+                            ast.getMateria() != null ? ast.getMateria().getNombre() : "N/A",
+                            ast.getEstado().getDescripcion(),
+                            ast.getObservaciones()
+                        ));
+                    }
+                    return data;
+                })
+                .conIndicador(asistenciaTable)
+                .alCompletar(asistenciaTable::setItems)
+                .alFallar(e -> mostrarError("Error al cargar asistencia: " + e.getMessage()))
+                .iniciar();
     }
 
     private void cargarPagos(org.bson.types.ObjectId alumnoId) {
-        try {
-            List<Pago> pagos = PagoController.obtenerPagosPorAlumno(alumnoId);
-            ObservableList<PagoData> data = FXCollections.observableArrayList();
-            
-            for (Pago pago : pagos) {
-                data.add(new PagoData(
-                    pago.getConcepto(),
-                    String.format("$%.2f", pago.getMontoOriginal()),
-                    pago.getFechaVencimiento() != null ? pago.getFechaVencimiento().toString() : "",
-                    pago.getEstado().getNombre(),
-                    pago.getFechaPago() != null ? pago.getFechaPago().toString() : ""
-                ));
-            }
-            
-            pagosTable.setItems(data);
-        } catch (Exception e) {
-            mostrarError("Error al cargar pagos: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "pagos", () -> {
+                    List<Pago> pagos = PagoController.obtenerPagosPorAlumno(alumnoId);
+                    ObservableList<PagoData> data = FXCollections.observableArrayList();
+
+                    for (Pago pago : pagos) {
+                        data.add(new PagoData(
+                            pago.getConcepto(),
+                            String.format("$%.2f", pago.getMontoOriginal()),
+                            pago.getFechaVencimiento() != null ? pago.getFechaVencimiento().toString() : "",
+                            pago.getEstado().getNombre(),
+                            pago.getFechaPago() != null ? pago.getFechaPago().toString() : ""
+                        ));
+                    }
+                    return data;
+                })
+                .conIndicador(pagosTable)
+                .alCompletar(pagosTable::setItems)
+                .alFallar(e -> mostrarError("Error al cargar pagos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarDialogoGenerarPago() {
@@ -3,12 +3,16 @@ package com.controlescolar.views;
 
 import com.controlescolar.controllers.PagoController;
 import com.controlescolar.controllers.AlumnoController;
+import com.controlescolar.controllers.ConsultaPagos;
 import com.controlescolar.models.Pago;
-import com.controlescolar.models.Alumno;
+import com.controlescolar.models.AlumnoResumen;
 import com.controlescolar.enums.EstadoPago;
 import com.controlescolar.enums.TipoPago;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.ComboFiltrable;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
+import javafx.animation.PauseTransition;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -17,17 +21,37 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
+import org.bson.types.ObjectId;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.Optional;
 
 public class PagosView {
+
+    // Filas por página de la tabla de pagos
+    private static final int TAMANO_PAGINA = 200;
+
+    // Espera después de la última tecla antes de buscar
+    private static final int RETRASO_BUSQUEDA_MS = 300;
+
+    // Máximo de alumnos que se toman de la búsqueda por nombre o matrícula
+    private static final int MAX_ALUMNOS_BUSQUEDA = 500;
     private Stage stage;
     private PagoController pagoController;
     private TableView<Pago> tablaPagos;
-    private ObservableList<Pago> listaPagos;
+    private TablaPaginada<Pago> paginacion;
+    private volatile ConsultaPagos consultaActual = new ConsultaPagos();
+    private PauseTransition pausaBusqueda;
+    private Label lblTotalPagos;
+    private Label lblPagados;
+    private Label lblPendientes;
+    private Label lblVencidos;
+    private Label lblTotal;
     private ComboBox<String> comboEstado;
     private ComboBox<String> comboMes;
     private ComboBox<String> comboAnio;
@@ -36,7 +60,6 @@ public class PagosView {
     public PagosView(Stage stage) {
         this.stage = stage;
         this.pagoController = new PagoController();
-        this.listaPagos = FXCollections.observableArrayList();
         initializeView();
     }
 
@@ -84,7 +107,10 @@ public class PagosView {
         txtBuscarAlumno = new TextField();
         txtBuscarAlumno.setPromptText("Nombre o matrícula...");
         txtBuscarAlumno.setPrefWidth(200);
-        txtBuscarAlumno.textProperty().addListener((obs, oldVal, newVal) -> filtrarPagos());
+        // La búsqueda espera a que se deje de escribir para no consultar en cada tecla
+        pausaBusqueda = new PauseTransition(Duration.millis(RETRASO_BUSQUEDA_MS));
+        pausaBusqueda.setOnFinished(e -> filtrarPagos());
+        txtBuscarAlumno.textProperty().addListener((obs, oldVal, newVal) -> pausaBusqueda.playFromStart());
 
         // Estado del pago
         Label lblEstado = new Label("Estado:");
@@ -134,7 +160,8 @@ public class PagosView {
 
         // Crear tabla
         tablaPagos = new TableView<>();
-        tablaPagos.setItems(listaPagos);
+        paginacion = new TablaPaginada<>(tablaPagos, stage, "pagos", this::cargarPaginaPagos)
+                .alFallar(e -> mostrarAlerta("Error al cargar pagos: " + e.getMessage()));
         
         // Estilos para mejorar la visibilidad del texto
         tablaPagos.setStyle(
@@ -263,11 +290,11 @@ public class PagosView {
         panel.setPadding(new Insets(15));
         panel.setStyle("-fx-background-color: #f5f5f5; -fx-background-radius: 5; -fx-border-color: #ddd; -fx-border-radius: 5;");
 
-        Label lblTotalPagos = new Label("Total Registros: 0");
-        Label lblPagados = new Label("Pagados: $0.00");
-        Label lblPendientes = new Label("Pendientes: $0.00");
-        Label lblVencidos = new Label("Vencidos: $0.00");
-        Label lblTotal = new Label("Total: $0.00");
+        lblTotalPagos = new Label("Total Registros: 0");
+        lblPagados = new Label("Pagados: $0.00");
+        lblPendientes = new Label("Pendientes: $0.00");
+        lblVencidos = new Label("Vencidos: $0.00");
+        lblTotal = new Label("Total: $0.00");
 
         lblTotalPagos.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
         lblPagados.setStyle("-fx-font-weight: bold; -fx-text-fill: green; -fx-font-size: 14px;");
@@ -331,27 +358,30 @@ public class PagosView {
         // Selección de alumno
         Label lblAlumno = new Label("Alumno:");
         lblAlumno.setStyle("-fx-font-weight: bold;");
-        ComboBox<Alumno> comboAlumno = new ComboBox<>();
+        ComboBox<AlumnoResumen> comboAlumno = new ComboBox<>();
         comboAlumno.setPrefWidth(300);
-        comboAlumno.setConverter(new javafx.util.StringConverter<Alumno>() {
+        comboAlumno.setConverter(new javafx.util.StringConverter<AlumnoResumen>() {
             @Override
-            public String toString(Alumno alumno) {
+            public String toString(AlumnoResumen alumno) {
                 return alumno == null ? "Seleccionar alumno..." : 
                        alumno.getMatricula() + " - " + alumno.getNombre() + " " + alumno.getApellidos();
             }
             @Override
-            public Alumno fromString(String string) {
+            public AlumnoResumen fromString(String string) {
                 return null;
             }
         });
         
-        // Cargar alumnos
-        try {
-            List<Alumno> alumnos = AlumnoController.obtenerAlumnos();
-            comboAlumno.getItems().addAll(alumnos);
-        } catch (Exception e) {
-            mostrarAlerta("Error al cargar alumnos: " + e.getMessage());
-        }
+        // Cargar alumnos (solo id, matrícula y nombre) y buscar por prefijo al escribir
+        comboAlumno.setPromptText("Cargando alumnos...");
+        AsyncLoader.cargar(dialog, "alumnos", () -> AlumnoController.indexarResumen(AlumnoController.obtenerResumenAlumnos()))
+                .deshabilitando(comboAlumno)
+                .alCompletar(indice -> {
+                    ComboFiltrable.configurar(comboAlumno, indice);
+                    comboAlumno.setPromptText("Escriba nombre o matrícula...");
+                })
+                .alFallar(e -> mostrarAlerta("Error al cargar alumnos: " + e.getMessage()))
+                .iniciar();
         
         // Tipo de pago
         Label lblTipo = new Label("Tipo de Pago:");
@@ -788,36 +818,45 @@ public class PagosView {
     }
 
     private void filtrarPagos() {
-        String texto = txtBuscarAlumno.getText().toLowerCase().trim();
+        pausaBusqueda.stop();
+        String texto = txtBuscarAlumno.getText().trim();
         String estadoFiltro = comboEstado.getValue();
-        String mesFiltro = comboMes.getValue();
+        int mes = comboMes.getSelectionModel().getSelectedIndex();
         String anioFiltro = comboAnio.getValue();
 
-        List<Pago> pagosFiltrados = pagoController.obtenerTodos().stream().filter(p -> {
-            boolean coincide = true;
-
-            if (!texto.isEmpty()) {
-                coincide &= p.getNombreAlumno().toLowerCase().contains(texto) ||
-                        p.getMatriculaAlumno().toLowerCase().contains(texto);
-            }
-
-            if (!"Todos".equals(estadoFiltro)) {
-                coincide &= p.getEstado().toString().equals(estadoFiltro);
-            }
-
-            if (!"Todos".equals(mesFiltro) && p.getFechaVencimiento() != null) {
-                coincide &= p.getFechaVencimiento().getMonth().name().equalsIgnoreCase(mesFiltro.toUpperCase());
-            }
+        // La búsqueda de alumnos por nombre también es una consulta, por eso la consulta se arma en segundo plano
+        AsyncLoader.cargar(stage, "consultaPagos", () -> {
+                    ConsultaPagos consulta = new ConsultaPagos();
 
-            if (!"Todos".equals(anioFiltro) && p.getFechaVencimiento() != null) {
-                coincide &= Integer.toString(p.getFechaVencimiento().getYear()).equals(anioFiltro);
-            }
+                    if (!texto.isEmpty()) {
+                        consulta.deAlumnos(AlumnoController.buscarIdsAlumnos(texto, MAX_ALUMNOS_BUSQUEDA))
+                                .conFolioQueEmpiezaCon(texto)
+                                .comoBusquedaAlumnoOFolio();
+                    }
 
-            return coincide;
-        }).collect(java.util.stream.Collectors.toList());
+                    if (estadoFiltro != null && !"Todos".equals(estadoFiltro)) {
+                        consulta.conEstados(EstadoPago.valueOf(estadoFiltro));
+                    }
 
-        listaPagos.setAll(pagosFiltrados);
-        actualizarResumenFinanciero(pagosFiltrados);
+                    // Índice 0 = "Todos"; los meses van de 1 a 12
+                    boolean hayMes = mes > 0;
+                    if (anioFiltro != null && !"Todos".equals(anioFiltro)) {
+                        int anio = Integer.parseInt(anioFiltro);
+                        LocalDate desde = hayMes ? LocalDate.of(anio, mes, 1) : LocalDate.of(anio, 1, 1);
+                        LocalDate hasta = hayMes ? desde.plusMonths(1).minusDays(1) : LocalDate.of(anio, 12, 31);
+                        consulta.vencimientoEntre(desde, hasta);
+                    } else if (hayMes) {
+                        consulta.vencimientoEnMes(mes);
+                    }
+                    return consulta;
+                })
+                .alCompletar(consulta -> {
+                    consultaActual = consulta;
+                    paginacion.iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA, "fechaVencimiento", true));
+                    actualizarResumenFinanciero(consulta);
+                })
+                .alFallar(e -> mostrarAlerta("Error al filtrar pagos: " + e.getMessage()))
+                .iniciar();
     }
 
     private void limpiarFiltros() {
@@ -828,21 +867,43 @@ public class PagosView {
         cargarPagos();
     }
 
+    /**
+     * Vuelve a cargar la tabla y el resumen con los filtros actuales
+     */
     private void cargarPagos() {
-        List<Pago> pagos = pagoController.obtenerTodos();
-        listaPagos.setAll(pagos);
-        actualizarResumenFinanciero(pagos);
+        filtrarPagos();
     }
 
-    private void actualizarResumenFinanciero(List<Pago> pagos) {
-        double total = pagos.stream().mapToDouble(Pago::getMonto).sum();
-        double pagados = pagos.stream().filter(p -> p.getEstado() == EstadoPago.PAGADO).mapToDouble(Pago::getMonto).sum();
-        double pendientes = pagos.stream().filter(p -> p.getEstado() == EstadoPago.PENDIENTE).mapToDouble(Pago::getMonto).sum();
-        double vencidos = pagos.stream().filter(p -> p.getEstado() == EstadoPago.VENCIDO).mapToDouble(Pago::getMonto).sum();
+    // Se ejecuta fuera del hilo de JavaFX: una página de pagos con los nombres de sus alumnos
+    private Paginador.Pagina<Pago> cargarPaginaPagos(Paginador.Solicitud solicitud) {
+        Paginador.Pagina<Pago> pagina = PagoController.obtenerPagosPagina(consultaActual, solicitud);
+
+        List<ObjectId> alumnosIds = pagina.getElementos().stream()
+                .map(Pago::getAlumnoId)
+                .collect(Collectors.toList());
+        Map<ObjectId, AlumnoResumen> alumnos = AlumnoController.obtenerResumenPorIds(alumnosIds);
+
+        for (Pago pago : pagina.getElementos()) {
+            AlumnoResumen alumno = alumnos.get(pago.getAlumnoId());
+            if (alumno != null) {
+                pago.setNombreAlumno(alumno.getNombreCompleto());
+                pago.setMatriculaAlumno(alumno.getMatricula());
+            }
+        }
+        return pagina;
+    }
 
-        // Asume que el resumen financiero tiene estos labels como campos si quieres actualizarlos dinámicamente.
-        // Si no están accesibles como atributos, puedes guardar referencias a ellos como atributos de clase.
-        // Aquí se puede mejorar si defines lblTotalPagos, lblPagados, etc. como atributos.
+    private void actualizarResumenFinanciero(ConsultaPagos consulta) {
+        AsyncLoader.cargar(stage, "resumenPagos", () -> PagoController.obtenerResumenPagos(consulta))
+                .alCompletar(resumen -> {
+                    lblTotalPagos.setText("Total Registros: " + resumen.get("totalRegistros"));
+                    lblPagados.setText(String.format("Pagados: $%.2f", (Double) resumen.get("pagado")));
+                    lblPendientes.setText(String.format("Pendientes: $%.2f", (Double) resumen.get("pendiente")));
+                    lblVencidos.setText(String.format("Vencidos: $%.2f", (Double) resumen.get("vencido")));
+                    lblTotal.setText(String.format("Total: $%.2f", (Double) resumen.get("total")));
+                })
+                .alFallar(e -> System.err.println("Error al cargar resumen financiero: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarAlerta(String mensaje) {
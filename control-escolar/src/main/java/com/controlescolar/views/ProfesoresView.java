@@ -4,6 +4,7 @@ package com.controlescolar.views;
 import com.controlescolar.controllers.ProfesorController;
 import com.controlescolar.models.Profesor;
 import com.controlescolar.models.Usuario;
+import com.controlescolar.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,7 +20,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 public class ProfesoresView extends Application {
@@ -234,13 +234,13 @@ public class ProfesoresView extends Application {
     }
 
     private void cargarProfesores() {
-        try {
-            List<Profesor> profesores = ProfesorController.obtenerProfesores();
-            listaProfesores.clear();
-            listaProfesores.addAll(profesores);
-        } catch (Exception e) {
-            mostrarError("Error al cargar profesores: " + e.getMessage());
-        }
+        // Misma clave que el filtro: la última consulta es la que se muestra
+        AsyncLoader.cargar(primaryStage, "profesores", ProfesorController::obtenerProfesores)
+                .conIndicador(tablaProfesores)
+                .deshabilitando(btnRefrescar)
+                .alCompletar(listaProfesores::setAll)
+                .alFallar(e -> mostrarError("Error al cargar profesores: " + e.getMessage()))
+                .iniciar();
     }
 
     private void filtrarProfesores(String filtro) {
@@ -249,13 +249,11 @@ public class ProfesoresView extends Application {
             return;
         }
 
-        try {
-            List<Profesor> profesoresFiltrados = ProfesorController.buscarProfesores(filtro);
-            listaProfesores.clear();
-            listaProfesores.addAll(profesoresFiltrados);
-        } catch (Exception e) {
-            mostrarError("Error al filtrar profesores: " + e.getMessage());
-        }
+        AsyncLoader.cargar(primaryStage, "profesores", () -> ProfesorController.buscarProfesores(filtro))
+                .conIndicador(tablaProfesores)
+                .alCompletar(listaProfesores::setAll)
+                .alFallar(e -> mostrarError("Error al filtrar profesores: " + e.getMessage()))
+                .iniciar();
     }
 
     private void mostrarFormularioAgregar() {
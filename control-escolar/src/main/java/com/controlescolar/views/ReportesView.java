@@ -3,37 +3,59 @@ package com.controlescolar.views;
 
 import com.controlescolar.controllers.CalificacionController;
 import com.controlescolar.controllers.AsistenciaController;
+import com.controlescolar.controllers.ConsultaPagos;
+import com.controlescolar.controllers.EstadisticasController;
 import com.controlescolar.controllers.PagoController;
 import com.controlescolar.controllers.AlumnoController;
 import com.controlescolar.controllers.ProfesorController;
 import com.controlescolar.controllers.MateriaController;
+import com.controlescolar.controllers.GrupoController;
+import com.controlescolar.enums.EstadoPago;
 import com.controlescolar.models.*;
+import com.controlescolar.utils.AsyncLoader;
+import com.controlescolar.utils.ComboFiltrable;
 import com.controlescolar.utils.PDFGenerator;
+import com.controlescolar.utils.Paginador;
+import com.controlescolar.utils.TablaPaginada;
 import com.controlescolar.utils.ExcelExporter;
+import com.controlescolar.utils.GeneradorLotesPDF;
 import org.bson.types.ObjectId;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import javafx.util.StringConverter;
 
 import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class ReportesView extends Application {
 
+    // Filas por página en las tablas paginadas
+    private static final int TAMANO_PAGINA = 200;
+
     // Controllers
     private CalificacionController calificacionController;
     private AsistenciaController asistenciaController;
@@ -51,10 +73,12 @@ public class ReportesView extends Application {
     private Stage primaryStage;
 
     // Datos observables
-    private ObservableList<Alumno> alumnos;
-    private ObservableList<Profesor> profesores;
     private ObservableList<Materia> materias;
 
+    // Nombres resueltos en segundo plano para las celdas de las tablas
+    private final Map<ObjectId, String> nombresAlumnos = new ConcurrentHashMap<>();
+    private final Map<ObjectId, String> nombresMaterias = new ConcurrentHashMap<>();
+
     public ReportesView() {
         initializeControllers();
         initializeData();
@@ -72,9 +96,14 @@ public class ReportesView extends Application {
     }
 
     private void initializeData() {
-        this.alumnos = FXCollections.observableArrayList(alumnoController.obtenerTodos());
-        this.profesores = FXCollections.observableArrayList(profesorController.obtenerTodos());
-        this.materias = FXCollections.observableArrayList(materiaController.obtenerTodas());
+        // La lista se llena en segundo plano al abrir la ventana (cargarCatalogos)
+        this.materias = FXCollections.observableArrayList();
+    }
+
+    private void cargarCatalogos() {
+        AsyncLoader.cargar(primaryStage, "materias", materiaController::obtenerTodas)
+                .alCompletar(materias::setAll)
+                .iniciar();
     }
 
     @Override
@@ -89,6 +118,8 @@ public class ReportesView extends Application {
 
         primaryStage.setScene(scene);
         primaryStage.show();
+
+        cargarCatalogos();
     }
 
     private VBox createMainLayout() {
@@ -100,6 +131,14 @@ public class ReportesView extends Application {
         Label headerLabel = new Label("Reportes y Estadísticas");
         headerLabel.getStyleClass().add("header-title");
 
+        Region espaciador = new Region();
+        HBox.setHgrow(espaciador, Priority.ALWAYS);
+        Label progresoLoteLabel = new Label();
+        Button documentosLoteBtn = new Button("Boletas y estados de cuenta por grupo");
+        documentosLoteBtn.setOnAction(e -> mostrarDialogoDocumentosLote(documentosLoteBtn, progresoLoteLabel));
+        HBox header = new HBox(10, headerLabel, espaciador, progresoLoteLabel, documentosLoteBtn);
+        header.setAlignment(Pos.CENTER_LEFT);
+
         // TabPane principal
         mainTabPane = new TabPane();
         mainTabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
@@ -112,7 +151,7 @@ public class ReportesView extends Application {
 
         mainTabPane.getTabs().addAll(calificacionesTab, asistenciaTab, pagosTab, estadisticasTab);
 
-        root.getChildren().addAll(headerLabel, mainTabPane);
+        root.getChildren().addAll(header, mainTabPane);
         VBox.setVgrow(mainTabPane, Priority.ALWAYS);
 
         return root;
@@ -271,13 +310,14 @@ public class ReportesView extends Application {
         PieChart asistenciaChart = createAsistenciaChart();
         graficaContainer.getChildren().addAll(graficaTitle, asistenciaChart);
 
-        // Tabla de asistencia detallada
-        TableView<Asistencia> tablaAsistencia = createAsistenciaTable();
+        // Tabla de asistencia detallada (paginada)
+        Label totalAsistenciasLabel = new Label();
+        TableView<Asistencia> tablaAsistencia = createAsistenciaTable(totalAsistenciasLabel);
 
         // Botones de exportación
         HBox botonesExport = createExportButtons("asistencia", tablaAsistencia);
 
-        content.getChildren().addAll(filtros, graficaContainer, tablaAsistencia, botonesExport);
+        content.getChildren().addAll(filtros, graficaContainer, tablaAsistencia, totalAsistenciasLabel, botonesExport);
         VBox.setVgrow(tablaAsistencia, Priority.ALWAYS);
 
         tab.setContent(content);
@@ -291,21 +331,26 @@ public class ReportesView extends Application {
         filtros.getStyleClass().add("filtros-container");
 
         Label alumnoLabel = new Label("Alumno:");
-        ComboBox<Alumno> alumnoCombo = new ComboBox<>();
-        alumnoCombo.setItems(alumnos);
-        alumnoCombo.setConverter(new StringConverter<Alumno>() {
+        ComboBox<AlumnoResumen> alumnoCombo = new ComboBox<>();
+        alumnoCombo.setPromptText("Escriba nombre o matrícula...");
+        alumnoCombo.setConverter(new StringConverter<AlumnoResumen>() {
             @Override
-            public String toString(Alumno alumno) {
-                return alumno != null ? alumno.getNombre() + " " + alumno.getApellidos() : "";
+            public String toString(AlumnoResumen alumno) {
+                return alumno != null ? alumno.getNombreCompleto() : "";
             }
 
             @Override
-            public Alumno fromString(String string) {
-                return alumnos.stream()
-                        .filter(a -> (a.getNombre() + " " + a.getApellidos()).equals(string))
-                        .findFirst().orElse(null);
+            public AlumnoResumen fromString(String string) {
+                return null;
             }
         });
+        // Solo id, matrícula y nombre, indexados para filtrar al escribir
+        AsyncLoader.cargar(primaryStage, "alumnosFiltro",
+                        () -> AlumnoController.indexarResumen(AlumnoController.obtenerResumenAlumnos()))
+                .deshabilitando(alumnoCombo)
+                .alCompletar(indice -> ComboFiltrable.configurar(alumnoCombo, indice))
+                .alFallar(e -> System.err.println("Error al cargar alumnos para filtro: " + e.getMessage()))
+                .iniciar();
 
         Label fechaLabel = new Label("Período:");
         DatePicker fechaInicio = new DatePicker();
@@ -327,25 +372,24 @@ public class ReportesView extends Application {
     }
 
     private PieChart createAsistenciaChart() {
-        // Obtener datos de asistencia
-        List<Asistencia> asistencias = asistenciaController.obtenerTodas();
-
-        long presentes = asistencias.stream().filter(Asistencia::isPresente).count();
-        long ausentes = asistencias.size() - presentes;
-
-        ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList(
-                new PieChart.Data("Presentes", presentes),
-                new PieChart.Data("Ausentes", ausentes)
-        );
-
-        PieChart chart = new PieChart(pieChartData);
+        PieChart chart = new PieChart();
         chart.setTitle("Distribución de Asistencia");
         chart.setLegendSide(javafx.geometry.Side.RIGHT);
 
+        // Conteo por estado calculado en el servidor
+        AsyncLoader.cargar(primaryStage, "graficaAsistencia", AsistenciaController::contarPorEstado)
+                .alCompletar(conteo -> {
+                    ObservableList<PieChart.Data> datos = FXCollections.observableArrayList();
+                    conteo.forEach((estado, cantidad) -> datos.add(new PieChart.Data(estado.getDescripcion(), cantidad)));
+                    chart.setData(datos);
+                })
+                .alFallar(e -> System.err.println("Error al cargar gráfica de asistencia: " + e.getMessage()))
+                .iniciar();
+
         return chart;
     }
 
-    private TableView<Asistencia> createAsistenciaTable() {
+    private TableView<Asistencia> createAsistenciaTable(Label totalLabel) {
         TableView<Asistencia> tabla = new TableView<>();
         
         // Estilos para mejorar la visibilidad del texto
@@ -388,11 +432,17 @@ public class ReportesView extends Application {
 
         tabla.getColumns().addAll(alumnoCol, materiaCol, fechaCol, estadoCol);
 
-        // Cargar datos
-        ObservableList<Asistencia> asistencias = FXCollections.observableArrayList(
-                asistenciaController.obtenerTodas()
-        );
-        tabla.setItems(asistencias);
+        // Cargar datos por páginas, de la más reciente a la más antigua
+        new TablaPaginada<>(tabla, primaryStage, "tablaAsistencia", solicitud -> {
+                    Paginador.Pagina<Asistencia> pagina = AsistenciaController.obtenerAsistenciasPagina(solicitud);
+                    precargarNombres(
+                            pagina.getElementos().stream().map(Asistencia::getAlumnoId).collect(Collectors.toList()),
+                            pagina.getElementos().stream().map(Asistencia::getMateriaId).collect(Collectors.toList()));
+                    return pagina;
+                })
+                .alObtenerTotal(total -> totalLabel.setText(total != null ? "Total de registros: " + total : ""))
+                .alFallar(e -> mostrarAlerta("Error", "Error al cargar asistencias: " + e.getMessage(), Alert.AlertType.ERROR))
+                .iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA, "fecha", true));
 
         return tabla;
     }
@@ -412,6 +462,9 @@ public class ReportesView extends Application {
         // Tabla de pagos
         TableView<Pago> tablaPagos = createPagosTable();
 
+        // Métricas y gráfica se agregan en el servidor; la tabla se carga por páginas
+        cargarResumenPagos(metricas, pagosChart);
+
         // Botones de exportación
         HBox botonesExport = createExportButtons("pagos", tablaPagos);
 
@@ -428,32 +481,68 @@ public class ReportesView extends Application {
         metricas.setPadding(new Insets(20));
         metricas.getStyleClass().add("metricas-container");
 
-        List<Pago> pagos = pagoController.obtenerTodos();
-
-        // Total recaudado
-        double totalRecaudado = pagos.stream()
-                .filter(p -> p.getEstado().toString().equals("PAGADO"))
-                .mapToDouble(Pago::getMonto)
-                .sum();
+        // Total recaudado, pagos pendientes, saldo pendiente y porcentaje de cobranza
+        VBox totalBox = createMetricaBox("Total Recaudado", "...");
+        VBox pendientesBox = createMetricaBox("Pagos Pendientes", "...");
+        VBox saldoBox = createMetricaBox("Saldo Pendiente", "...");
+        VBox cobranzaBox = createMetricaBox("% Cobranza", "...");
 
-        VBox totalBox = createMetricaBox("Total Recaudado", String.format("$%.2f", totalRecaudado));
+        metricas.getChildren().addAll(totalBox, pendientesBox, saldoBox, cobranzaBox);
 
-        // Pagos pendientes
-        long pagosPendientes = pagos.stream()
-                .filter(p -> p.getEstado().toString().equals("PENDIENTE"))
-                .count();
+        return metricas;
+    }
 
-        VBox pendientesBox = createMetricaBox("Pagos Pendientes", String.valueOf(pagosPendientes));
+    private void cargarResumenPagos(HBox metricas, LineChart<String, Number> pagosChart) {
+        AsyncLoader.cargar(primaryStage, "resumenPagos", () -> {
+                    Map<String, Object> datos = new HashMap<>(PagoController.generarReporteIngresos(null, null));
+                    if (datos.containsKey("error")) {
+                        throw new IllegalStateException((String) datos.get("error"));
+                    }
+                    datos.put("saldoPendiente", PagoController.obtenerResumenPagos(new ConsultaPagos()).get("pendiente"));
+                    datos.put("pagosPorMes", PagoController.obtenerIngresosPorMes());
+                    return datos;
+                })
+                .alCompletar(datos -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Long> pagosPorEstado = (Map<String, Long>) datos.get("pagosPorEstado");
+                    int totalPagos = (Integer) datos.get("totalPagos");
+                    long pagados = pagosPorEstado.getOrDefault(EstadoPago.PAGADO.getNombre(), 0L);
+
+                    setValorMetrica(metricas, 0, String.format("$%.2f", (Double) datos.get("totalIngresos")));
+                    setValorMetrica(metricas, 1, String.valueOf(pagosPorEstado.getOrDefault(EstadoPago.PENDIENTE.getNombre(), 0L)));
+                    setValorMetrica(metricas, 2, String.format("$%.2f", (Double) datos.get("saldoPendiente")));
+                    setValorMetrica(metricas, 3, String.format("%.1f%%", totalPagos == 0 ? 0.0 : (double) pagados / totalPagos * 100));
+
+                    @SuppressWarnings("unchecked")
+                    Map<String, Double> pagosPorMes = (Map<String, Double>) datos.get("pagosPorMes");
+                    XYChart.Series<String, Number> series = pagosChart.getData().get(0);
+                    pagosPorMes.forEach((mes, monto) -> series.getData().add(new XYChart.Data<>(mes, monto)));
+                })
+                .alFallar(e -> mostrarAlerta("Error", "Error al cargar el resumen de pagos: " + e.getMessage(), Alert.AlertType.ERROR))
+                .iniciar();
+    }
 
-        // Porcentaje de cobranza
-        double porcentajeCobranza = pagos.isEmpty() ? 0 :
-                (double) pagos.stream().filter(p -> p.getEstado().toString().equals("PAGADO")).count() / pagos.size() * 100;
+    // Nombres de la página con una consulta proyectada, como en PagosView
+    private Paginador.Pagina<Pago> cargarPaginaPagos(Paginador.Solicitud solicitud) {
+        Paginador.Pagina<Pago> pagina = PagoController.obtenerPagosPagina(new ConsultaPagos(), solicitud);
 
-        VBox cobranzaBox = createMetricaBox("% Cobranza", String.format("%.1f%%", porcentajeCobranza));
+        List<ObjectId> alumnosIds = pagina.getElementos().stream()
+                .map(Pago::getAlumnoId)
+                .collect(Collectors.toList());
+        Map<ObjectId, AlumnoResumen> alumnosPagina = AlumnoController.obtenerResumenPorIds(alumnosIds);
 
-        metricas.getChildren().addAll(totalBox, pendientesBox, cobranzaBox);
+        for (Pago pago : pagina.getElementos()) {
+            AlumnoResumen alumno = alumnosPagina.get(pago.getAlumnoId());
+            if (alumno != null) {
+                pago.setNombreAlumno(alumno.getNombreCompleto());
+            }
+        }
+        return pagina;
+    }
 
-        return metricas;
+    private void setValorMetrica(HBox metricas, int indice, String valor) {
+        VBox box = (VBox) metricas.getChildren().get(indice);
+        ((Label) box.getChildren().get(1)).setText(valor);
     }
 
     private VBox createMetricaBox(String titulo, String valor) {
@@ -484,17 +573,7 @@ public class ReportesView extends Application {
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Ingresos");
 
-        // Aquí agregar datos reales agrupados por mes
-        List<Pago> pagos = pagoController.obtenerTodos();
-        Map<String, Double> pagosPorMes = pagos.stream()
-                .filter(p -> p.getEstado().toString().equals("PAGADO"))
-                .collect(Collectors.groupingBy(
-                        p -> p.getFechaPago().format(DateTimeFormatter.ofPattern("MM/yyyy")),
-                        Collectors.summingDouble(Pago::getMonto)
-                ));
-
-        pagosPorMes.forEach((mes, monto) -> series.getData().add(new XYChart.Data<>(mes, monto)));
-
+        // Los datos agrupados por mes se agregan al terminar cargarPagos
         lineChart.getData().add(series);
 
         return lineChart;
@@ -516,7 +595,8 @@ public class ReportesView extends Application {
         TableColumn<Pago, String> alumnoCol = new TableColumn<>("Alumno");
         alumnoCol.setCellValueFactory(data -> {
             Pago pago = data.getValue();
-            String nombreAlumno = obtenerNombreAlumno(pago.getAlumnoId());
+            String nombreAlumno = pago.getNombreAlumno() != null ? pago.getNombreAlumno()
+                    : pago.getAlumnoId() != null ? "ID: " + pago.getAlumnoId() : "Sin asignar";
             return new javafx.beans.property.SimpleStringProperty(nombreAlumno);
         });
 
@@ -540,8 +620,10 @@ public class ReportesView extends Application {
 
         tabla.getColumns().addAll(alumnoCol, montoCol, estadoCol, fechaCol);
 
-        ObservableList<Pago> pagos = FXCollections.observableArrayList(pagoController.obtenerTodos());
-        tabla.setItems(pagos);
+        // Cargar datos por páginas, del vencimiento más reciente al más antiguo
+        new TablaPaginada<>(tabla, primaryStage, "tablaPagos", this::cargarPaginaPagos)
+                .alFallar(e -> mostrarAlerta("Error", "Error al cargar pagos: " + e.getMessage(), Alert.AlertType.ERROR))
+                .iniciar(Paginador.Solicitud.primera(TAMANO_PAGINA, "fechaVencimiento", true));
 
         return tabla;
     }
@@ -588,8 +670,17 @@ public class ReportesView extends Application {
         Label titulo = new Label("Estadísticas de Alumnos");
         titulo.getStyleClass().add("stats-title");
 
-        Label totalAlumnos = new Label("Total: " + alumnos.size());
-        Label alumnosActivos = new Label("Activos: " + alumnos.stream().filter(Alumno::isActivo).count());
+        // Conteos en el servidor, sin traer los alumnos
+        Label totalAlumnos = new Label("Total: ...");
+        Label alumnosActivos = new Label("Activos: ...");
+        AsyncLoader.cargar(primaryStage, "estadisticasAlumnos",
+                        () -> new long[] {EstadisticasController.contarAlumnos(), EstadisticasController.contarAlumnosActivos()})
+                .alCompletar(conteos -> {
+                    totalAlumnos.setText("Total: " + conteos[0]);
+                    alumnosActivos.setText("Activos: " + conteos[1]);
+                })
+                .alFallar(e -> System.err.println("Error al contar alumnos: " + e.getMessage()))
+                .iniciar();
 
         box.getChildren().addAll(titulo, totalAlumnos, alumnosActivos);
 
@@ -604,8 +695,17 @@ public class ReportesView extends Application {
         Label titulo = new Label("Estadísticas de Profesores");
         titulo.getStyleClass().add("stats-title");
 
-        Label totalProfesores = new Label("Total: " + profesores.size());
-        Label profesoresActivos = new Label("Activos: " + profesores.stream().filter(Profesor::isActivo).count());
+        // Conteos en el servidor, sin traer los profesores
+        Label totalProfesores = new Label("Total: ...");
+        Label profesoresActivos = new Label("Activos: ...");
+        AsyncLoader.cargar(primaryStage, "estadisticasProfesores",
+                        () -> new long[] {EstadisticasController.contarProfesores(), EstadisticasController.contarProfesoresActivos()})
+                .alCompletar(conteos -> {
+                    totalProfesores.setText("Total: " + conteos[0]);
+                    profesoresActivos.setText("Activos: " + conteos[1]);
+                })
+                .alFallar(e -> System.err.println("Error al contar profesores: " + e.getMessage()))
+                .iniciar();
 
         box.getChildren().addAll(titulo, totalProfesores, profesoresActivos);
 
@@ -624,20 +724,25 @@ public class ReportesView extends Application {
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Promedio");
 
-        // Calcular promedios por materia
-        List<Calificacion> calificaciones = calificacionController.obtenerTodas();
-        Map<String, Double> promediosPorMateria = calificaciones.stream()
-                .collect(Collectors.groupingBy(
-                        c -> obtenerNombreMateria(c.getMateriaId()),
-                        Collectors.averagingDouble(Calificacion::getCalificacion)
-                ));
-
-        promediosPorMateria.forEach((materia, promedio) ->
-                series.getData().add(new XYChart.Data<>(materia, promedio))
-        );
-
         barChart.getData().add(series);
 
+        // Calcular promedios por materia
+        AsyncLoader.cargar(primaryStage, "graficaRendimiento", () -> {
+                    List<Calificacion> calificaciones = calificacionController.obtenerTodas();
+                    precargarNombres(Collections.emptyList(),
+                            calificaciones.stream().map(Calificacion::getMateriaId).collect(Collectors.toList()));
+                    return calificaciones.stream()
+                            .collect(Collectors.groupingBy(
+                                    c -> obtenerNombreMateria(c.getMateriaId()),
+                                    Collectors.averagingDouble(Calificacion::getCalificacion)
+                            ));
+                })
+                .alCompletar(promediosPorMateria -> promediosPorMateria.forEach((materia, promedio) ->
+                        series.getData().add(new XYChart.Data<>(materia, promedio))
+                ))
+                .alFallar(e -> System.err.println("Error al cargar gráfica de rendimiento: " + e.getMessage()))
+                .iniciar();
+
         return barChart;
     }
 
@@ -652,7 +757,15 @@ public class ReportesView extends Application {
 
         Button exportExcelBtn = new Button("Exportar Excel");
         exportExcelBtn.getStyleClass().add("btn-export");
-        exportExcelBtn.setOnAction(e -> exportarExcel(tipo, tabla));
+
+        if ("pagos".equals(tipo)) {
+            // Los pagos pueden ser cientos de miles: se exportan desde el cursor, no desde la tabla
+            Label progresoLabel = new Label();
+            exportExcelBtn.setOnAction(e -> exportarPagosExcel(exportExcelBtn, progresoLabel));
+            botones.getChildren().add(progresoLabel);
+        } else {
+            exportExcelBtn.setOnAction(e -> exportarExcel(tipo, tabla));
+        }
 
         botones.getChildren().addAll(exportPdfBtn, exportExcelBtn);
 
@@ -675,10 +788,17 @@ public class ReportesView extends Application {
     }
 
     private void cargarCalificaciones(TableView<Calificacion> tabla) {
-        ObservableList<Calificacion> calificaciones = FXCollections.observableArrayList(
-                calificacionController.obtenerTodas()
-        );
-        tabla.setItems(calificaciones);
+        AsyncLoader.cargar(primaryStage, "calificaciones", () -> {
+                    List<Calificacion> calificaciones = calificacionController.obtenerTodas();
+                    precargarNombres(
+                            calificaciones.stream().map(Calificacion::getAlumnoId).collect(Collectors.toList()),
+                            calificaciones.stream().map(Calificacion::getMateriaId).collect(Collectors.toList()));
+                    return calificaciones;
+                })
+                .conIndicador(tabla)
+                .alCompletar(calificaciones -> tabla.setItems(FXCollections.observableArrayList(calificaciones)))
+                .alFallar(e -> mostrarAlerta("Error", "Error al cargar calificaciones: " + e.getMessage(), Alert.AlertType.ERROR))
+                .iniciar();
     }
 
     private void exportarPDF(String tipo, TableView<?> tabla) {
@@ -721,6 +841,151 @@ public class ReportesView extends Application {
         }
     }
 
+    /**
+     * Exporta todos los pagos en modo streaming (SXSSF) mostrando las filas escritas
+     */
+    private void exportarPagosExcel(Button exportExcelBtn, Label progresoLabel) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Guardar Reporte Excel");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Excel Files", "*.xlsx")
+        );
+        fileChooser.setInitialFileName("reporte_pagos_" +
+                LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx");
+
+        File file = fileChooser.showSaveDialog(primaryStage);
+        if (file == null) return;
+
+        progresoLabel.setText("Exportando...");
+        AsyncLoader.cargar(primaryStage, "exportarPagos", () -> ExcelExporter.exportPayments(
+                        PagoController.iterarPagos(new ConsultaPagos()), file.getAbsolutePath(),
+                        filas -> Platform.runLater(() -> progresoLabel.setText("Exportando... " + filas + " filas"))))
+                .deshabilitando(exportExcelBtn)
+                .alCompletar(filas -> {
+                    progresoLabel.setText("");
+                    mostrarAlerta("Éxito", "Reporte Excel generado exitosamente (" + filas + " pagos)",
+                            Alert.AlertType.INFORMATION);
+                })
+                .alFallar(e -> {
+                    progresoLabel.setText("");
+                    mostrarAlerta("Error", "Error al generar el Excel: " + e.getMessage(), Alert.AlertType.ERROR);
+                })
+                .iniciar();
+    }
+
+    /**
+     * Pide grupos, período y destino, y genera en segundo plano las boletas y/o
+     * estados de cuenta de todos sus alumnos con GeneradorLotesPDF
+     */
+    private void mostrarDialogoDocumentosLote(Button boton, Label progresoLabel) {
+        Dialog<GeneradorLotesPDF> dialog = new Dialog<>();
+        dialog.setTitle("Documentos por grupo");
+        dialog.setHeaderText("Seleccione los grupos y los documentos a generar");
+
+        ButtonType generarButtonType = new ButtonType("Generar", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(generarButtonType, ButtonType.CANCEL);
+
+        ListView<Grupo> gruposList = new ListView<>();
+        gruposList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        gruposList.setPrefHeight(220);
+        gruposList.setCellFactory(lv -> new ListCell<Grupo>() {
+            @Override
+            protected void updateItem(Grupo grupo, boolean empty) {
+                super.updateItem(grupo, empty);
+                setText(empty || grupo == null ? null : grupo.getNombre());
+            }
+        });
+        AsyncLoader.cargar(primaryStage, "gruposLote", GrupoController::obtenerTodosLosGrupos)
+                .deshabilitando(gruposList)
+                .alCompletar(gruposList.getItems()::setAll)
+                .iniciar();
+
+        TextField periodoField = new TextField();
+        periodoField.setPromptText("Período (vacío = todos)");
+        CheckBox boletasCheck = new CheckBox("Boletas de calificaciones");
+        boletasCheck.setSelected(true);
+        CheckBox estadosCheck = new CheckBox("Estados de cuenta");
+        estadosCheck.setSelected(true);
+        CheckBox zipCheck = new CheckBox("Guardar en un solo archivo .zip");
+
+        VBox contenido = new VBox(10, new Label("Grupos:"), gruposList, periodoField,
+                boletasCheck, estadosCheck, zipCheck);
+        contenido.setPadding(new Insets(10));
+        dialog.getDialogPane().setContent(contenido);
+
+        Node generarButton = dialog.getDialogPane().lookupButton(generarButtonType);
+        generarButton.disableProperty().bind(Bindings.isEmpty(gruposList.getSelectionModel().getSelectedItems())
+                .or(boletasCheck.selectedProperty().not().and(estadosCheck.selectedProperty().not())));
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton != generarButtonType) return null;
+
+            List<GeneradorLotesPDF.TipoDocumento> tipos = new ArrayList<>();
+            if (boletasCheck.isSelected()) tipos.add(GeneradorLotesPDF.TipoDocumento.BOLETA);
+            if (estadosCheck.isSelected()) tipos.add(GeneradorLotesPDF.TipoDocumento.ESTADO_CUENTA);
+
+            GeneradorLotesPDF generador = GeneradorLotesPDF.para(
+                            gruposList.getSelectionModel().getSelectedItems().stream()
+                                    .map(Grupo::getId).collect(Collectors.toList()),
+                            periodoField.getText())
+                    .documentos(tipos.toArray(new GeneradorLotesPDF.TipoDocumento[0]));
+
+            if (zipCheck.isSelected()) {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle("Guardar documentos");
+                fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Zip Files", "*.zip"));
+                fileChooser.setInitialFileName("documentos_" +
+                        LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".zip");
+                File file = fileChooser.showSaveDialog(primaryStage);
+                return file != null ? generador.enZip(file) : null;
+            }
+
+            DirectoryChooser directoryChooser = new DirectoryChooser();
+            directoryChooser.setTitle("Carpeta de destino");
+            File predeterminado = new File("estados_cuenta");
+            if (predeterminado.isDirectory()) {
+                directoryChooser.setInitialDirectory(predeterminado.getAbsoluteFile());
+            }
+            File directorio = directoryChooser.showDialog(primaryStage);
+            return directorio != null ? generador.enDirectorio(directorio) : null;
+        });
+
+        dialog.showAndWait().ifPresent(generador -> generarDocumentosLote(generador, boton, progresoLabel));
+    }
+
+    private void generarDocumentosLote(GeneradorLotesPDF generador, Button boton, Label progresoLabel) {
+        // Cerrar la ventana detiene la generación; lo ya escrito se conserva y se omite al repetirla
+        EventHandler<WindowEvent> alCerrar = e -> generador.cancelar();
+        primaryStage.addEventHandler(WindowEvent.WINDOW_HIDDEN, alCerrar);
+
+        progresoLabel.setText("Preparando documentos...");
+        AsyncLoader.cargar(primaryStage, "documentosLote", generador
+                        .alAvanzar(progreso -> Platform.runLater(() -> progresoLabel.setText(String.format(
+                                "Generando... %d/%d (%.1f doc/s, %d fallidos)", progreso.getProcesados(),
+                                progreso.getTotal(), progreso.getDocumentosPorSegundo(), progreso.getFallidos()))))
+                        ::generar)
+                .deshabilitando(boton)
+                .alCompletar(resultado -> {
+                    primaryStage.removeEventHandler(WindowEvent.WINDOW_HIDDEN, alCerrar);
+                    progresoLabel.setText("");
+                    StringBuilder mensaje = new StringBuilder(String.format(
+                            "Generados: %d%nOmitidos (ya existían): %d%nFallidos: %d%nTiempo: %.1f s (%.1f doc/s)",
+                            resultado.getGenerados(), resultado.getOmitidos(), resultado.getFallidos(),
+                            resultado.getMilisegundos() / 1000.0, resultado.getDocumentosPorSegundo()));
+                    resultado.getErrores().stream().limit(10)
+                            .forEach(error -> mensaje.append(System.lineSeparator()).append(error));
+                    mostrarAlerta(resultado.getFallidos() > 0 ? "Generación con errores" : "Éxito",
+                            mensaje.toString(), resultado.getFallidos() > 0
+                                    ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+                })
+                .alFallar(e -> {
+                    primaryStage.removeEventHandler(WindowEvent.WINDOW_HIDDEN, alCerrar);
+                    progresoLabel.setText("");
+                    mostrarAlerta("Error", "Error al generar los documentos: " + e.getMessage(), Alert.AlertType.ERROR);
+                })
+                .iniciar();
+    }
+
     private void mostrarAlerta(String titulo, String mensaje, Alert.AlertType tipo) {
         Alert alert = new Alert(tipo);
         alert.setTitle(titulo);
@@ -729,11 +994,36 @@ public class ReportesView extends Application {
         alert.showAndWait();
     }
 
+    /**
+     * Resuelve en lote los nombres que faltan; se llama desde las cargas en segundo
+     * plano para que las celdas de las tablas no consulten la base de datos
+     */
+    private void precargarNombres(List<ObjectId> alumnosIds, List<ObjectId> materiasIds) {
+        List<ObjectId> alumnosFaltantes = alumnosIds.stream()
+                .filter(id -> id != null && !nombresAlumnos.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        for (Alumno alumno : AlumnoController.obtenerAlumnosPorIds(alumnosFaltantes)) {
+            nombresAlumnos.put(alumno.getId(), alumno.getNombre() + " " + alumno.getApellidos());
+        }
+
+        List<ObjectId> materiasFaltantes = materiasIds.stream()
+                .filter(id -> id != null && !nombresMaterias.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        for (Materia materia : MateriaController.obtenerMateriasPorIds(materiasFaltantes)) {
+            nombresMaterias.put(materia.getId(), materia.getNombre());
+        }
+    }
+
     private String obtenerNombreMateria(ObjectId materiaId) {
         if (materiaId == null) return "Sin asignar";
+        String nombre = nombresMaterias.get(materiaId);
+        if (nombre != null) return nombre;
         try {
             Materia materia = MateriaController.obtenerMateriaPorId(materiaId);
             if (materia != null) {
+                nombresMaterias.put(materiaId, materia.getNombre());
                 return materia.getNombre();
             }
         } catch (Exception e) {
@@ -744,10 +1034,14 @@ public class ReportesView extends Application {
 
     private String obtenerNombreAlumno(ObjectId alumnoId) {
         if (alumnoId == null) return "Sin asignar";
+        String nombre = nombresAlumnos.get(alumnoId);
+        if (nombre != null) return nombre;
         try {
             Alumno alumno = AlumnoController.obtenerAlumnoPorId(alumnoId);
             if (alumno != null) {
-                return alumno.getNombre() + " " + alumno.getApellidos();
+                nombre = alumno.getNombre() + " " + alumno.getApellidos();
+                nombresAlumnos.put(alumnoId, nombre);
+                return nombre;
             }
         } catch (Exception e) {
             System.err.println("Error al obtener alumno: " + e.getMessage());